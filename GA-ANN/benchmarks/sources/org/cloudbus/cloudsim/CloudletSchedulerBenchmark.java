@@ -0,0 +1,94 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link CloudletSchedulerSpaceShared#updateVmProcessing(double, List)} on a VM with four
+ * PEs: four cloudlets are executing and the others are waiting. The cloudlets are long enough to
+ * never finish, so every update does the same work.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CloudletSchedulerBenchmark {
+
+	/** The number of PEs of the VM. */
+	private static final int NUM_PES = 4;
+
+	/** The length of the cloudlets, in MI. */
+	private static final long LENGTH = Long.MAX_VALUE / 4;
+
+	/** The number of cloudlets submitted to the scheduler. */
+	@Param({ "10", "1000" })
+	public int numCloudlets;
+
+	/** The scheduler. */
+	private CloudletSchedulerSpaceShared scheduler;
+
+	/** The MIPS of each PE of the VM. */
+	private List<Double> mipsShare;
+
+	/** The time of the next update. */
+	private double time;
+
+	@Setup
+	public void setUp() {
+		Log.disable();
+		CloudSim.init(1, null, false);
+		mipsShare = new ArrayList<Double>();
+		for (int i = 0; i < NUM_PES; i++) {
+			mipsShare.add(1000.0);
+		}
+		scheduler = new CloudletSchedulerSpaceShared();
+		scheduler.updateVmProcessing(0, mipsShare);
+		UtilizationModel utilizationModel = new UtilizationModelFull();
+		for (int i = 0; i < numCloudlets; i++) {
+			Cloudlet cloudlet = new Cloudlet(i, LENGTH, 1, 300, 300, utilizationModel, utilizationModel,
+					utilizationModel);
+			cloudlet.setUserId(0);
+			cloudlet.setResourceParameter(0, 0);
+			scheduler.cloudletSubmit(cloudlet);
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		Log.enable();
+	}
+
+	@Benchmark
+	public double updateVmProcessing() {
+		time += 0.1;
+		return scheduler.updateVmProcessing(time, mipsShare);
+	}
+
+}
@@ -0,0 +1,84 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.cloudbus.cloudsim.provisioners.PeProvisionerSimple;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link VmSchedulerTimeShared#allocatePesForVm(Vm, List)} on a host with 16 PEs already
+ * running a number of VMs. Each operation allocates the PEs of one more VM and deallocates them,
+ * so that the host is in the same state for the next one.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VmSchedulerBenchmark {
+
+	/** The number of PEs of the host. */
+	private static final int NUM_PES = 16;
+
+	/** The number of VMs already running on the host. */
+	@Param({ "4", "64" })
+	public int numVms;
+
+	/** The scheduler. */
+	private VmSchedulerTimeShared scheduler;
+
+	/** The VM allocated by each operation. */
+	private Vm vm;
+
+	/** The MIPS requested by the VM. */
+	private List<Double> mipsShare;
+
+	@Setup
+	public void setUp() {
+		List<Pe> peList = new ArrayList<Pe>();
+		for (int i = 0; i < NUM_PES; i++) {
+			peList.add(new Pe(i, new PeProvisionerSimple(1000)));
+		}
+		scheduler = new VmSchedulerTimeShared(peList);
+		for (int i = 0; i < numVms; i++) {
+			Vm running = new Vm(i, 0, 100, 1, 512, 1000, 10000, "Xen", new CloudletSchedulerSpaceShared());
+			scheduler.allocatePesForVm(running, Collections.singletonList(100.0));
+		}
+		vm = new Vm(numVms, 0, 500, 2, 512, 1000, 10000, "Xen", new CloudletSchedulerSpaceShared());
+		mipsShare = new ArrayList<Double>();
+		mipsShare.add(500.0);
+		mipsShare.add(500.0);
+	}
+
+	@Benchmark
+	public boolean allocatePesForVm() {
+		boolean allocated = scheduler.allocatePesForVm(vm, mipsShare);
+		scheduler.deallocatePesForVm(vm);
+		return allocated;
+	}
+
+}
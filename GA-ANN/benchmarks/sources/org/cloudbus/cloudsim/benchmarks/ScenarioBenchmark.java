@@ -0,0 +1,117 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.benchmarks;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Calendar;
+import java.util.concurrent.TimeUnit;
+
+import org.cloudbus.cloudsim.DatacenterBroker;
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.util.ScenarioGenerator;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Runs the scenario of the CloudSimulationExample, scaled up by a {@link ScenarioGenerator}: 6 power
+ * datacenters of 3 hosts, 54 VMs and 1000 cloudlets, with the number of hosts, VMs and cloudlets
+ * multiplied by the scale. The primary result is the number of whole simulations per second; the
+ * <tt>events</tt> secondary result is the number of simulated events per second. Run with
+ * <tt>-prof gc</tt> to get the allocation rate.
+ * <p>
+ * The scenario is built before each simulation and is not part of the measurement.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(value = 1, jvmArgs = { "-Xmx4g" })
+public class ScenarioBenchmark {
+
+	/** The factor the hosts, VMs and cloudlets are multiplied by. */
+	@Param({ "10", "100", "1000" })
+	public int scale;
+
+	/** The broker of the scenario to run. */
+	private DatacenterBroker broker;
+
+	/** The standard output, while it is discarded. */
+	private PrintStream out;
+
+	/**
+	 * Counts the simulated events; JMH reports them per second.
+	 */
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	@State(Scope.Thread)
+	public static class Events {
+
+		public long events;
+
+		@Setup(Level.Iteration)
+		public void reset() {
+			events = 0;
+		}
+
+	}
+
+	@Setup(Level.Trial)
+	public void setUpTrial() {
+		Log.disable();
+		// The power datacenter prints the time of each update to the standard output
+		out = System.out;
+		System.setOut(new PrintStream(new OutputStream() {
+
+			@Override
+			public void write(int b) {
+			}
+
+			@Override
+			public void write(byte[] b, int off, int len) {
+			}
+
+		}));
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDownTrial() {
+		System.setOut(out);
+		Log.enable();
+	}
+
+	@Setup(Level.Invocation)
+	public void setUp() throws Exception {
+		CloudSim.init(1, Calendar.getInstance(), false);
+		broker = ScenarioGenerator.scaled(scale).generate(CloudSim.getContext());
+	}
+
+	@Benchmark
+	public int runScenario(Events counters) {
+		CloudSim.startSimulation();
+		counters.events += CloudSim.getNumberOfProcessedEvents();
+		return broker.getCloudletReceivedList().size();
+	}
+
+}
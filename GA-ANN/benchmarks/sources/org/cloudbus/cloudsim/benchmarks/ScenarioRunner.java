@@ -0,0 +1,227 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.benchmarks;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.util.ScenarioGenerator;
+
+/**
+ * Runs scenarios built by a {@link ScenarioGenerator} one after the other and records, for each
+ * one, the time to build it, the wall time of the simulation, the number of events processed, the
+ * peak heap usage and the GC time into a CSV file. Given the CSV file of a previous run as a
+ * baseline, it reports the scenarios whose wall time or peak heap grew by more than a tolerance
+ * and exits with status 1 if there is any.
+ * <p>
+ * Usage: ScenarioRunner output.csv [baseline.csv]. The <tt>scenarios</tt> system property lists
+ * the scenarios to run, separated by commas, among x1, x10, x100, x1000, hosts-100k and
+ * cloudlets-10m (by default x1,x10,x100); the <tt>tolerance</tt> system property is the largest
+ * accepted ratio to the baseline (by default 1.25). The peak heap is the sum of the peak usage of
+ * the heap memory pools, so runs are only comparable with the same JVM and heap settings.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class ScenarioRunner {
+
+	/** The names of the scenarios. */
+	private static final String[] NAMES = { "x1", "x10", "x100", "x1000", "hosts-100k", "cloudlets-10m" };
+
+	/** The number of datacenters, hosts per datacenter, VMs and cloudlets of each scenario. */
+	private static final int[][] SIZES = {
+			{ 6, 3, 54, 1000 },
+			{ 6, 30, 540, 10000 },
+			{ 6, 300, 5400, 100000 },
+			{ 6, 3000, 54000, 1000000 },
+			{ 10, 10000, 300000, 1000000 },
+			{ 6, 3000, 54000, 10000000 } };
+
+	/** The columns of the CSV file. */
+	private static final String HEADER = "scenario,datacenters,hosts,vms,cloudlets,setup_ms,wall_ms,events,peak_heap_mb,gc_ms";
+
+	/** The columns compared with the baseline. */
+	private static final String[] COMPARED = { "wall_ms", "peak_heap_mb" };
+
+	public static void main(String[] args) throws IOException {
+		if (args.length == 0) {
+			System.err.println("Usage: ScenarioRunner output.csv [baseline.csv]");
+			System.exit(2);
+		}
+		String[] scenarios = System.getProperty("scenarios", "x1,x10,x100").split(",");
+		double tolerance = Double.parseDouble(System.getProperty("tolerance", "1.25"));
+		Map<String, Map<String, String>> baseline = args.length > 1 ? readCsv(args[1]) : null;
+
+		// The power datacenter prints the time of each update to the standard output
+		PrintStream console = System.out;
+		System.setOut(new PrintStream(new OutputStream() {
+
+			@Override
+			public void write(int b) {
+			}
+
+			@Override
+			public void write(byte[] b, int off, int len) {
+			}
+
+		}));
+		Log.disable();
+
+		int regressions = 0;
+		PrintWriter csv = new PrintWriter(new FileWriter(args[0]));
+		try {
+			csv.println(HEADER);
+			for (String name : scenarios) {
+				int index = indexOf(name);
+				if (index < 0) {
+					console.println("Unknown scenario " + name);
+					continue;
+				}
+				String row = name + "," + run(SIZES[index]);
+				csv.println(row);
+				csv.flush();
+				console.println(row);
+
+				Map<String, String> previous = baseline == null ? null : baseline.get(name);
+				if (previous != null) {
+					Map<String, String> current = parse(HEADER, row);
+					for (String column : COMPARED) {
+						if (previous.get(column) == null) {
+							continue;
+						}
+						double ratio = Double.parseDouble(current.get(column))
+								/ Math.max(1, Double.parseDouble(previous.get(column)));
+						if (ratio > tolerance) {
+							console.println("REGRESSION " + name + ": " + column + " " + previous.get(column)
+									+ " -> " + current.get(column));
+							regressions++;
+						}
+					}
+				}
+			}
+		} finally {
+			csv.close();
+			System.setOut(console);
+			Log.enable();
+		}
+		System.exit(regressions > 0 ? 1 : 0);
+	}
+
+	/**
+	 * Builds and runs a scenario.
+	 *
+	 * @param size the number of datacenters, hosts per datacenter, VMs and cloudlets
+	 * @return the measures, as CSV columns
+	 */
+	private static String run(int[] size) {
+		System.gc();
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP) {
+				pool.resetPeakUsage();
+			}
+		}
+		long gcStart = getGcTime();
+		long start = System.nanoTime();
+
+		CloudSim.init(1, Calendar.getInstance(), false);
+		ScenarioGenerator generator = new ScenarioGenerator();
+		generator.setNumberOfDatacenters(size[0]);
+		generator.setHostsPerDatacenter(size[1]);
+		generator.setNumberOfVms(size[2]);
+		generator.setNumberOfCloudlets(size[3]);
+		try {
+			generator.generate(CloudSim.getContext());
+		} catch (Exception e) {
+			throw new IllegalStateException("The scenario can't be built.", e);
+		}
+		long built = System.nanoTime();
+		CloudSim.startSimulation();
+		long end = System.nanoTime();
+
+		long peakHeap = 0;
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP) {
+				peakHeap += pool.getPeakUsage().getUsed();
+			}
+		}
+		return size[0] + "," + size[0] * size[1] + "," + size[2] + "," + size[3] + ","
+				+ (built - start) / 1000000 + "," + (end - built) / 1000000 + ","
+				+ CloudSim.getNumberOfProcessedEvents() + "," + peakHeap / (1024 * 1024) + ","
+				+ (getGcTime() - gcStart);
+	}
+
+	/**
+	 * Gets the total time spent in garbage collection.
+	 *
+	 * @return the time, in milliseconds
+	 */
+	private static long getGcTime() {
+		long time = 0;
+		for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+			time += Math.max(0, gc.getCollectionTime());
+		}
+		return time;
+	}
+
+	private static int indexOf(String name) {
+		for (int i = 0; i < NAMES.length; i++) {
+			if (NAMES[i].equals(name)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Reads a CSV file written by a previous run.
+	 *
+	 * @param fileName the name of the file
+	 * @return the columns of each scenario, by scenario name
+	 * @throws IOException if the file cannot be read
+	 */
+	private static Map<String, Map<String, String>> readCsv(String fileName) throws IOException {
+		Map<String, Map<String, String>> rows = new HashMap<String, Map<String, String>>();
+		BufferedReader reader = new BufferedReader(new FileReader(fileName));
+		try {
+			String header = reader.readLine();
+			String line;
+			while ((line = reader.readLine()) != null) {
+				Map<String, String> row = parse(header, line);
+				rows.put(row.get("scenario"), row);
+			}
+		} finally {
+			reader.close();
+		}
+		return rows;
+	}
+
+	private static Map<String, String> parse(String header, String line) {
+		String[] names = header.split(",");
+		String[] values = line.split(",");
+		Map<String, String> row = new HashMap<String, String>();
+		for (int i = 0; i < names.length && i < values.length; i++) {
+			row.put(names[i], values[i]);
+		}
+		return row;
+	}
+
+}
@@ -0,0 +1,213 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.cloudbus.cloudsim.core.predicates.Predicate;
+import org.cloudbus.cloudsim.core.predicates.PredicateType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures filling the {@link FutureQueue} and the {@link DeferredQueue} with a batch of events,
+ * and iterating over a full future queue. The events are spread over a hundred entities and have
+ * random times, with many ties. Each operation handles the whole batch.
+ * <p>
+ * The <tt>queue*</tt> benchmarks compare the {@link EventQueue} implementations on the same batch:
+ * the {@link BinaryHeapEventQueue} and the {@link CalendarEventQueue}, the binary heap wrapped in
+ * the {@link IndexedEventQueue} as a {@link SimulationContext} uses it by default, and the
+ * {@link FutureQueue}. They fill a queue and drain it by clock ticks, replay the batch in a hold
+ * model where each polled event is rescheduled later, as the kernel does with its pooled events,
+ * and cancel the events of each entity in turn by tag.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventQueueBenchmark {
+
+	/** The number of entities the events are sent to and from. */
+	private static final int NUM_ENTITIES = 100;
+
+	/** Matches the events of the batch, which all have the same tag. */
+	private static final Predicate TAG = new PredicateType(0);
+
+	/** The number of events of the batch. */
+	@Param({ "1000", "100000" })
+	public int size;
+
+	/** The events of the batch. */
+	private SimEvent[] events;
+
+	/** A future queue holding the whole batch. */
+	private FutureQueue full;
+
+	/** The events of the batch reused by the queue benchmarks, reset before each operation. */
+	private SimEvent[] pooled;
+
+	/** The delay after which each event is rescheduled in the hold model. */
+	private double[] delays;
+
+	/** The events polled at a clock tick. */
+	private final List<SimEvent> tick = new ArrayList<SimEvent>();
+
+	/**
+	 * The implementation of the event queue compared by the queue benchmarks.
+	 */
+	@State(Scope.Thread)
+	public static class Queue {
+
+		@Param({ "BinaryHeap", "Calendar", "Indexed", "Future" })
+		public String queue;
+
+		/**
+		 * Creates an empty queue of the implementation.
+		 *
+		 * @return the queue
+		 */
+		public EventQueue create() {
+			if ("BinaryHeap".equals(queue)) {
+				return new BinaryHeapEventQueue();
+			} else if ("Calendar".equals(queue)) {
+				return new CalendarEventQueue();
+			} else if ("Indexed".equals(queue)) {
+				return new IndexedEventQueue();
+			} else if ("Future".equals(queue)) {
+				return new FutureQueue();
+			}
+			throw new IllegalArgumentException("Unknown event queue " + queue);
+		}
+
+	}
+
+	@Setup
+	public void setUp() {
+		Random random = new Random(1);
+		events = new SimEvent[size];
+		for (int i = 0; i < size; i++) {
+			events[i] = new SimEvent(SimEvent.SEND, random.nextInt(size) * 0.1, random.nextInt(NUM_ENTITIES),
+					random.nextInt(NUM_ENTITIES), 0, null);
+		}
+		full = new FutureQueue();
+		for (SimEvent e : events) {
+			full.addEvent(e);
+		}
+
+		pooled = new SimEvent[size];
+		delays = new double[size];
+		for (int i = 0; i < size; i++) {
+			pooled[i] = new SimEvent();
+			delays[i] = random.nextInt(size) * 0.1;
+		}
+	}
+
+	/**
+	 * Resets the pooled events to the events of the batch.
+	 */
+	private void resetPooled() {
+		for (int i = 0; i < size; i++) {
+			SimEvent e = events[i];
+			pooled[i].reset(SimEvent.SEND, e.eventTime(), e.getSource(), e.getDestination(), e.getTag(), null);
+		}
+	}
+
+	@Benchmark
+	public FutureQueue futureAddEvent() {
+		FutureQueue queue = new FutureQueue();
+		for (SimEvent e : events) {
+			queue.addEvent(e);
+		}
+		return queue;
+	}
+
+	@Benchmark
+	public double futureIterate() {
+		double sum = 0;
+		Iterator<SimEvent> it = full.iterator();
+		while (it.hasNext()) {
+			sum += it.next().eventTime();
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public DeferredQueue deferredAddEvent() {
+		DeferredQueue queue = new DeferredQueue();
+		for (SimEvent e : events) {
+			queue.addEvent(e);
+		}
+		return queue;
+	}
+
+	@Benchmark
+	public int queueAddPoll(Queue queue) {
+		resetPooled();
+		EventQueue q = queue.create();
+		for (SimEvent e : pooled) {
+			q.addEvent(e);
+		}
+		int ticks = 0;
+		while (q.size() > 0) {
+			q.pollAllAt(q.peek().eventTime(), tick);
+			tick.clear();
+			ticks++;
+		}
+		return ticks;
+	}
+
+	@Benchmark
+	public double queueHold(Queue queue) {
+		resetPooled();
+		EventQueue q = queue.create();
+		for (SimEvent e : pooled) {
+			q.addEvent(e);
+		}
+		double clock = 0;
+		for (int i = 0; i < size; i++) {
+			SimEvent e = q.poll();
+			clock = e.eventTime();
+			e.reset(SimEvent.SEND, clock + delays[i], e.getSource(), e.getDestination(), e.getTag(), null);
+			q.addEvent(e);
+		}
+		return clock;
+	}
+
+	@Benchmark
+	public int queueCancelAll(Queue queue) {
+		resetPooled();
+		EventQueue q = queue.create();
+		for (SimEvent e : pooled) {
+			q.addEvent(e);
+		}
+		int cancelled = 0;
+		for (int src = 0; src < NUM_ENTITIES; src++) {
+			cancelled += q.cancelAll(src, TAG);
+		}
+		return cancelled;
+	}
+
+}
@@ -0,0 +1,105 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import java.util.concurrent.TimeUnit;
+
+import org.cloudbus.cloudsim.Log;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link SimulationContext#runClockTick()} on a ring of entities that keep passing an
+ * event to their neighbour one time unit later, so that every tick processes one event per entity
+ * and sends as many new ones.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KernelBenchmark {
+
+	/** The tag of the events passed around the ring. */
+	private static final int PING = 1;
+
+	/** The number of entities of the ring. */
+	@Param({ "10", "1000" })
+	public int numEntities;
+
+	/** The context running the ring. */
+	private SimulationContext context;
+
+	@Setup
+	public void setUp() {
+		Log.disable();
+		context = new SimulationContext();
+		context.init(0, null, false);
+		int first = context.getNumEntities();
+		for (int i = 0; i < numEntities; i++) {
+			new RingEntity("Ring_" + i, first + (i + 1) % numEntities, context);
+		}
+		context.runStart();
+	}
+
+	@TearDown
+	public void tearDown() {
+		Log.enable();
+	}
+
+	@Benchmark
+	public boolean runClockTick() {
+		return context.runClockTick();
+	}
+
+	/**
+	 * An entity of the ring.
+	 */
+	private static final class RingEntity extends SimEntity {
+
+		private static final long serialVersionUID = 1L;
+
+		/** The id of the next entity of the ring. */
+		private final int next;
+
+		RingEntity(String name, int next, SimulationContext context) {
+			super(name, context);
+			this.next = next;
+		}
+
+		@Override
+		public void startEntity() {
+			schedule(next, 1.0, PING);
+		}
+
+		@Override
+		public void processEvent(SimEvent ev) {
+			schedule(next, 1.0, PING);
+		}
+
+		@Override
+		public void shutdownEntity() {
+		}
+
+	}
+
+}
@@ -0,0 +1,110 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.power;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.cloudbus.cloudsim.CloudletSchedulerSpaceShared;
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.Pe;
+import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.VmSchedulerTimeShared;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.power.models.PowerModelLinear;
+import org.cloudbus.cloudsim.provisioners.BwProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.PeProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.RamProvisionerSimple;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link PowerVmAllocationPolicyMigrationAbstract#optimizeAllocation(List)}, with a static
+ * threshold policy, on hosts of which one half is fully loaded and the other half runs a single VM.
+ * Each operation finds migrations off both the over-utilized and the under-utilized hosts and
+ * restores the allocation afterwards. The policy is rebuilt for every iteration, since it keeps a
+ * history of its execution times.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MigrationBenchmark {
+
+	/** The number of PEs of a host. */
+	private static final int NUM_PES = 4;
+
+	/** The number of hosts. */
+	@Param({ "20", "200" })
+	public int numHosts;
+
+	/** The allocation policy. */
+	private PowerVmAllocationPolicyMigrationStaticThreshold policy;
+
+	/** The VMs. */
+	private List<Vm> vmList;
+
+	@Setup(Level.Iteration)
+	public void setUp() {
+		Log.disable();
+		CloudSim.init(1, null, false);
+		List<PowerHost> hostList = new ArrayList<PowerHost>();
+		for (int i = 0; i < numHosts; i++) {
+			List<Pe> peList = new ArrayList<Pe>();
+			for (int j = 0; j < NUM_PES; j++) {
+				peList.add(new Pe(j, new PeProvisionerSimple(1000)));
+			}
+			hostList.add(new PowerHostUtilizationHistory(i, new RamProvisionerSimple(65536),
+					new BwProvisionerSimple(100000), 1000000, peList, new VmSchedulerTimeShared(peList),
+					new PowerModelLinear(250, 70)));
+		}
+		policy = new PowerVmAllocationPolicyMigrationStaticThreshold(hostList,
+				new PowerVmSelectionPolicyMinimumMigrationTime(), 0.8);
+
+		vmList = new ArrayList<Vm>();
+		for (PowerHost host : hostList) {
+			int numVms = host.getId() % 2 == 0 ? NUM_PES : 1;
+			for (int j = 0; j < numVms; j++) {
+				Vm vm = new PowerVm(vmList.size(), 0, 1000, 1, 1024, 1000, 10000, 1, "Xen",
+						new CloudletSchedulerSpaceShared(), 300);
+				policy.allocateHostForVm(vm, host);
+				vmList.add(vm);
+			}
+			host.updateVmsProcessing(0);
+		}
+	}
+
+	@TearDown(Level.Iteration)
+	public void tearDown() {
+		Log.enable();
+	}
+
+	@Benchmark
+	public List<Map<String, Object>> optimizeAllocation() {
+		return policy.optimizeAllocation(vmList);
+	}
+
+}
@@ -0,0 +1,115 @@
+package org.cloudbus.cloudsim.examples;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.core.EventTraceReader;
+
+/**
+ * Replays event traces recorded with
+ * {@link org.cloudbus.cloudsim.core.SimulationContext#setEventTrace(org.cloudbus.cloudsim.core.EventTraceWriter)}.
+ * <p>
+ * Usage: EventTraceReplay trace [other trace]. With one trace, prints the number of events per tag
+ * and per destination entity; with two traces, prints the first event where they differ.
+ */
+public class EventTraceReplay {
+
+	public static void main(String[] args) {
+		if (args.length == 0) {
+			Log.printLine("Usage: EventTraceReplay trace [other trace]");
+			return;
+		}
+
+		try {
+			if (args.length == 1) {
+				summarize(args[0]);
+			} else {
+				compare(args[0], args[1]);
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+			Log.printLine("The trace can't be read");
+		}
+	}
+
+	/**
+	 * Prints the number of events per tag and per destination entity of a trace.
+	 */
+	private static void summarize(String fileName) throws IOException {
+		Map<Integer, long[]> tags = new TreeMap<Integer, long[]>();
+		Map<Integer, long[]> destinations = new TreeMap<Integer, long[]>();
+		double first = Double.NaN;
+		double last = Double.NaN;
+		long start = System.nanoTime();
+		EventTraceReader reader = new EventTraceReader(fileName);
+		try {
+			while (reader.next()) {
+				if (reader.getIndex() == 0) {
+					first = reader.getTime();
+				}
+				last = reader.getTime();
+				count(tags, reader.getTag());
+				count(destinations, reader.getDestination());
+			}
+		} finally {
+			reader.close();
+		}
+		double seconds = (System.nanoTime() - start) / 1e9;
+
+		Log.printLine(reader.getNumberOfRecords() + " events from " + first + " to " + last + ", read in "
+				+ seconds + " s");
+		Log.printLine("Events per tag:");
+		for (Map.Entry<Integer, long[]> entry : tags.entrySet()) {
+			Log.printLine("\t" + entry.getKey() + "\t" + entry.getValue()[0]);
+		}
+		Log.printLine("Events per destination:");
+		for (Map.Entry<Integer, long[]> entry : destinations.entrySet()) {
+			Log.printLine("\t" + entry.getKey() + "\t" + entry.getValue()[0]);
+		}
+	}
+
+	private static void count(Map<Integer, long[]> counts, int key) {
+		long[] count = counts.get(key);
+		if (count == null) {
+			count = new long[1];
+			counts.put(key, count);
+		}
+		count[0]++;
+	}
+
+	/**
+	 * Prints the first event where two traces differ.
+	 */
+	private static void compare(String fileName, String otherFileName) throws IOException {
+		long index = EventTraceReader.diff(fileName, otherFileName);
+		if (index < 0) {
+			Log.printLine("The traces are identical");
+			return;
+		}
+		Log.printLine("The traces differ from event " + index);
+		print(fileName, index);
+		print(otherFileName, index);
+	}
+
+	/**
+	 * Prints an event of a trace.
+	 */
+	private static void print(String fileName, long index) throws IOException {
+		EventTraceReader reader = new EventTraceReader(fileName);
+		try {
+			if (index >= reader.getNumberOfRecords()) {
+				Log.printLine(fileName + ": end of trace");
+				return;
+			}
+			reader.seek(index);
+			Log.printLine(fileName + ": time " + reader.getTime() + ", " + reader.getSource() + " -> "
+					+ reader.getDestination() + ", tag " + reader.getTag() + ", type " + reader.getType()
+					+ ", payload " + reader.getPayloadKind() + ":" + reader.getPayload());
+		} finally {
+			reader.close();
+		}
+	}
+
+}
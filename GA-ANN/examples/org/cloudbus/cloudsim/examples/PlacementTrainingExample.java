@@ -0,0 +1,91 @@
+package org.cloudbus.cloudsim.examples;
+
+import java.util.List;
+import java.util.Random;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.ann.NetworkFile;
+import org.cloudbus.cloudsim.ann.NetworkTrainer;
+import org.cloudbus.cloudsim.ann.NeuralNetwork;
+import org.cloudbus.cloudsim.ann.PlacementSampleGenerator;
+import org.cloudbus.cloudsim.ann.PlacementSampleWriter;
+import org.cloudbus.cloudsim.ann.PlacementState;
+import org.cloudbus.cloudsim.power.models.PowerModelLinear;
+
+/**
+ * Trains a placement network offline from GA schedules and saves it to a model file that a
+ * {@link org.cloudbus.cloudsim.ann.NeuralDatacenterBroker} can load.
+ * <p>
+ * Usage: PlacementTrainingExample [sample file] [model file] [SWF trace]. The workloads are windows
+ * of the RandomDataset file of the working directory and, if given, of the trace.
+ */
+public class PlacementTrainingExample {
+
+	/** The number of workloads built from the random dataset. */
+	private static final int DATASET_WORKLOADS = 40;
+
+	/** The number of workloads built from the trace. */
+	private static final int TRACE_WORKLOADS = 20;
+
+	/** The number of cloudlets of a workload. */
+	private static final int WORKLOAD_SIZE = 200;
+
+	public static void main(String[] args) {
+		String sampleFile = args.length > 0 ? args[0] : "placement-samples.bin";
+		String modelFile = args.length > 1 ? args[1] : "placement-model.bin";
+		String traceFile = args.length > 2 ? args[2] : null;
+
+		try {
+			Random random = new Random(1);
+			PlacementSampleGenerator generator = new PlacementSampleGenerator(new PowerModelLinear(117, 50), 1);
+			generator.setGenerations(50);
+
+			// 1. Record the decisions of the GA on synthetic workloads
+			PlacementSampleWriter writer = new PlacementSampleWriter(sampleFile, PlacementState.NUMBER_OF_FEATURES);
+			try {
+				int[] seeds = PlacementSampleGenerator.readSeeds(System.getProperty("user.dir") + "/RandomDataset");
+				for (int w = 0; w < DATASET_WORKLOADS; w++) {
+					List<Cloudlet> cloudlets = PlacementSampleGenerator.createCloudlets(seeds,
+							random.nextInt(seeds.length), WORKLOAD_SIZE);
+					List<Vm> vms = PlacementSampleGenerator.createVms(5 + random.nextInt(50), random);
+					generator.generate(cloudlets, vms, writer);
+				}
+				if (traceFile != null) {
+					List<Cloudlet> jobs = PlacementSampleGenerator.readTrace(traceFile, 500);
+					for (int w = 0; w < TRACE_WORKLOADS; w++) {
+						int from = random.nextInt(Math.max(1, jobs.size() - WORKLOAD_SIZE));
+						List<Cloudlet> cloudlets = jobs.subList(from, Math.min(jobs.size(), from + WORKLOAD_SIZE));
+						List<Vm> vms = PlacementSampleGenerator.createVms(5 + random.nextInt(50), random);
+						generator.generate(cloudlets, vms, writer);
+					}
+				}
+			} finally {
+				writer.close();
+			}
+			Log.printLine(writer.getNumberOfSamples() + " samples written to " + sampleFile);
+
+			// 2. Train the network on all cores
+			NeuralNetwork network = new NeuralNetwork(new int[] { PlacementState.NUMBER_OF_FEATURES, 16, 1 },
+					NeuralNetwork.RELU);
+			network.initialize(random);
+			NetworkTrainer trainer = new NetworkTrainer(network, 1);
+			trainer.setEpochs(20);
+			trainer.train(sampleFile);
+			double[] losses = trainer.getLossHistory();
+			for (int epoch = 0; epoch < losses.length; epoch++) {
+				Log.printLine("Epoch " + (epoch + 1) + ": loss " + losses[epoch]);
+			}
+
+			// 3. Save the model
+			NetworkFile.save(network, modelFile);
+			NeuralNetwork loaded = NetworkFile.load(modelFile);
+			Log.printLine("Model with " + loaded.getWeights().length + " weights saved to " + modelFile);
+		} catch (Exception e) {
+			e.printStackTrace();
+			Log.printLine("The training has been terminated due to an unexpected error");
+		}
+	}
+
+}
@@ -0,0 +1,49 @@
+package org.cloudbus.cloudsim.examples;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.PlanetLabArchive;
+import org.cloudbus.cloudsim.UtilizationModel;
+
+/**
+ * Packs a PlanetLab day directory, such as workload/planetlab/20110303, into a
+ * {@link PlanetLabArchive}, then opens the archive and creates a utilization model for each of its
+ * traces.
+ * <p>
+ * Usage: PlanetLabPack directory archive [samples]. The number of samples of each trace is 288 by
+ * default, a day of 5 minute samples.
+ */
+public class PlanetLabPack {
+
+	public static void main(String[] args) {
+		if (args.length < 2) {
+			Log.printLine("Usage: PlanetLabPack directory archive [samples]");
+			return;
+		}
+		int numSamples = args.length > 2 ? Integer.parseInt(args[2]) : PlanetLabArchive.DAY_SAMPLES;
+
+		try {
+			long start = System.nanoTime();
+			int numTraces = PlanetLabArchive.pack(args[0], args[1], numSamples);
+			Log.printLine(numTraces + " traces packed into " + args[1] + " (" + new File(args[1]).length()
+					+ " bytes) in " + (System.nanoTime() - start) / 1000000 + " ms");
+
+			start = System.nanoTime();
+			PlanetLabArchive archive = new PlanetLabArchive(args[1]);
+			UtilizationModel[] models = new UtilizationModel[archive.getNumberOfTraces()];
+			double total = 0;
+			for (int i = 0; i < models.length; i++) {
+				models[i] = archive.createUtilizationModel(i, 300);
+				total += models[i].getUtilization(0);
+			}
+			Log.printLine(models.length + " utilization models created in " + (System.nanoTime() - start) / 1000000
+					+ " ms; mean utilization at time 0: " + (models.length == 0 ? 0 : total / models.length));
+		} catch (IOException e) {
+			e.printStackTrace();
+			Log.printLine("The archive can't be written");
+		}
+	}
+
+}
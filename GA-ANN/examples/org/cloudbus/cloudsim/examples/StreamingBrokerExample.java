@@ -0,0 +1,135 @@
+package org.cloudbus.cloudsim.examples;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.CloudletSchedulerSpaceShared;
+import org.cloudbus.cloudsim.Datacenter;
+import org.cloudbus.cloudsim.DatacenterCharacteristics;
+import org.cloudbus.cloudsim.Host;
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.Pe;
+import org.cloudbus.cloudsim.Storage;
+import org.cloudbus.cloudsim.StreamingDatacenterBroker;
+import org.cloudbus.cloudsim.UtilizationModel;
+import org.cloudbus.cloudsim.UtilizationModelFull;
+import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.VmAllocationPolicySimple;
+import org.cloudbus.cloudsim.VmSchedulerTimeShared;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.provisioners.BwProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.PeProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.RamProvisionerSimple;
+import org.cloudbus.cloudsim.util.WorkloadStream;
+
+/**
+ * Replays a stream of identical jobs, submitted at a regular interval, with a
+ * {@link StreamingDatacenterBroker} on VMs with one PE each, then prints the number of jobs each
+ * VM ran and the time the last job finished.
+ * <p>
+ * The jobs arrive one at a time, so the broker submits them over many calls; they must still be
+ * spread evenly across the VMs, which then keep up with the arrivals. The example exits with
+ * status 1 if the VMs ran numbers of jobs that differ by more than one, or if the jobs did not
+ * all run.
+ * <p>
+ * Usage: StreamingBrokerExample [jobs] [vms].
+ */
+public class StreamingBrokerExample {
+
+	/** The time between two jobs, in seconds. */
+	private static final double INTERVAL = 10;
+
+	/** The MIPS of a VM. */
+	private static final int MIPS = 1000;
+
+	/** The length of a job, in MI; a job runs for 40 s. */
+	private static final long LENGTH = 40000;
+
+	public static void main(String[] args) throws Exception {
+		final int numJobs = args.length > 0 ? Integer.parseInt(args[0]) : 40;
+		int numVms = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+
+		Log.disable();
+		CloudSim.init(1, Calendar.getInstance(), false);
+		createDatacenter("Datacenter_0", numVms);
+		StreamingDatacenterBroker broker = new StreamingDatacenterBroker("Broker_0");
+
+		List<Vm> vms = new ArrayList<Vm>();
+		for (int i = 0; i < numVms; i++) {
+			vms.add(new Vm(i, broker.getId(), MIPS, 1, 512, 1000, 10000, "Xen", new CloudletSchedulerSpaceShared()));
+		}
+		broker.submitVmList(vms);
+		broker.submitWorkload(new WorkloadStream() {
+
+			private final UtilizationModel utilizationModel = new UtilizationModelFull();
+
+			private int job;
+
+			@Override
+			public Cloudlet next() {
+				if (job == numJobs) {
+					return null;
+				}
+				job++;
+				return new Cloudlet(job, LENGTH, 1, 300, 300, utilizationModel, utilizationModel, utilizationModel);
+			}
+
+			@Override
+			public double getSubmitTime() {
+				return (job - 1) * INTERVAL;
+			}
+
+			@Override
+			public void close() {
+			}
+
+		});
+
+		CloudSim.startSimulation();
+		CloudSim.stopSimulation();
+		Log.enable();
+
+		int[] jobs = new int[numVms];
+		double lastFinishTime = 0;
+		List<Cloudlet> received = broker.getCloudletReceivedList();
+		for (Cloudlet cloudlet : received) {
+			jobs[cloudlet.getVmId()]++;
+			lastFinishTime = Math.max(lastFinishTime, cloudlet.getFinishTime());
+		}
+		int min = Integer.MAX_VALUE;
+		int max = 0;
+		for (int i = 0; i < numVms; i++) {
+			Log.printLine("VM #" + i + ": " + jobs[i] + " jobs");
+			min = Math.min(min, jobs[i]);
+			max = Math.max(max, jobs[i]);
+		}
+		Log.printLine(received.size() + " of " + numJobs + " jobs ran; the last one finished at " + lastFinishTime);
+
+		if (received.size() != numJobs || max - min > 1) {
+			Log.printLine("The jobs are not spread across the VMs");
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Creates a datacenter with a host of one PE per VM.
+	 */
+	private static Datacenter createDatacenter(String name, int numVms) throws Exception {
+		List<Pe> peList = new ArrayList<Pe>();
+		for (int i = 0; i < numVms; i++) {
+			peList.add(new Pe(i, new PeProvisionerSimple(MIPS)));
+		}
+		List<Host> hostList = new ArrayList<Host>();
+		hostList.add(new Host(0, new RamProvisionerSimple(512 * numVms), new BwProvisionerSimple(1000L * numVms),
+				1000000, peList, new VmSchedulerTimeShared(peList)));
+
+		DatacenterCharacteristics characteristics = new DatacenterCharacteristics("x86", "Linux", "Xen", hostList,
+				10.0, 3.0, 0.05, 0.001, 0.0);
+		return new Datacenter(name, characteristics, new VmAllocationPolicySimple(hostList),
+				new LinkedList<Storage>(), 0);
+	}
+
+}
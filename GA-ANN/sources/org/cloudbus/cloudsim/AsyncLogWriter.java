@@ -0,0 +1,217 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The background writer of an asynchronous {@link Log}. The messages are added to a bounded
+ * lock-free ring buffer by any number of threads and taken from it, in the order they were added, by
+ * a single daemon thread, which turns them into bytes and writes them to the output. Adding a
+ * message only waits when the buffer is full.
+ * <p>
+ * A message is a <tt>byte[]</tt>, which is written as it is, or any other object, whose string
+ * value is written; the string value of a lazily formatted message is computed by the writer
+ * thread.
+ *
+ * @since CloudSim Toolkit 3.0
+ * @see Log#setAsynchronous(boolean)
+ */
+final class AsyncLogWriter implements Runnable {
+
+	/** How long the writer thread sleeps at most when there is nothing to write, in nanoseconds. */
+	private static final long IDLE_NANOS = 1000000;
+
+	/** The output the messages are written to. */
+	private final OutputStream output;
+
+	/** The capacity of the buffer minus one; the capacity is a power of two. */
+	private final int mask;
+
+	/** The messages. */
+	private final AtomicReferenceArray<Object> messages;
+
+	/**
+	 * The sequence of each slot: its position when it is free, its position plus one when it holds
+	 * a message.
+	 */
+	private final AtomicLongArray sequences;
+
+	/** The position of the next message to add. */
+	private final AtomicLong tail = new AtomicLong();
+
+	/** The position of the next message to write; used by the writer thread only. */
+	private long head;
+
+	/** The number of messages written and flushed to the output. */
+	private volatile long flushed;
+
+	/** Whether the writer thread may be sleeping. */
+	private volatile boolean sleeping;
+
+	/** Whether the writer thread has to keep running. */
+	private volatile boolean running = true;
+
+	/** The writer thread. */
+	private final Thread thread;
+
+	/** Flushes the pending messages when the JVM exits. */
+	private final Thread shutdownHook;
+
+	/**
+	 * Creates a writer and starts its thread.
+	 *
+	 * @param output the output
+	 * @param capacity the minimum number of messages the buffer can hold
+	 */
+	AsyncLogWriter(OutputStream output, int capacity) {
+		this.output = output;
+		int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+		mask = size - 1;
+		messages = new AtomicReferenceArray<Object>(size);
+		sequences = new AtomicLongArray(size);
+		for (int i = 0; i < size; i++) {
+			sequences.set(i, i);
+		}
+		thread = new Thread(this, "CloudSim-log-writer");
+		thread.setDaemon(true);
+		thread.start();
+		shutdownHook = new Thread() {
+
+			@Override
+			public void run() {
+				flush();
+			}
+
+		};
+		Runtime.getRuntime().addShutdownHook(shutdownHook);
+	}
+
+	/**
+	 * Gets the output the messages are written to.
+	 *
+	 * @return the output
+	 */
+	OutputStream getOutput() {
+		return output;
+	}
+
+	/**
+	 * Adds a message, waiting while the buffer is full.
+	 *
+	 * @param message the message
+	 */
+	void add(Object message) {
+		while (true) {
+			long position = tail.get();
+			int slot = (int) position & mask;
+			long sequence = sequences.get(slot);
+			if (sequence == position) {
+				if (tail.compareAndSet(position, position + 1)) {
+					messages.set(slot, message);
+					sequences.set(slot, position + 1);
+					break;
+				}
+			} else if (sequence < position) {
+				// The buffer is full: let the writer catch up
+				LockSupport.unpark(thread);
+				Thread.yield();
+			}
+		}
+		if (sleeping) {
+			LockSupport.unpark(thread);
+		}
+	}
+
+	/**
+	 * Waits until every message added before the call has been written and the output flushed.
+	 */
+	void flush() {
+		long target = tail.get();
+		while (flushed < target && thread.isAlive()) {
+			LockSupport.unpark(thread);
+			LockSupport.parkNanos(this, IDLE_NANOS / 10);
+		}
+	}
+
+	/**
+	 * Writes the pending messages and stops the writer thread.
+	 */
+	void close() {
+		flush();
+		running = false;
+		LockSupport.unpark(thread);
+		try {
+			thread.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		try {
+			Runtime.getRuntime().removeShutdownHook(shutdownHook);
+		} catch (IllegalStateException e) {
+			// the JVM is already shutting down
+		}
+	}
+
+	@Override
+	public void run() {
+		while (true) {
+			int slot = (int) head & mask;
+			if (sequences.get(slot) == head + 1) {
+				Object message = messages.get(slot);
+				messages.set(slot, null);
+				sequences.set(slot, head + mask + 1);
+				head++;
+				write(message);
+				continue;
+			}
+
+			try {
+				output.flush();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+			flushed = head;
+			if (!running) {
+				break;
+			}
+			sleeping = true;
+			if (sequences.get(slot) != head + 1 && running) {
+				LockSupport.parkNanos(this, IDLE_NANOS);
+			}
+			sleeping = false;
+		}
+	}
+
+	/**
+	 * Writes a message to the output.
+	 *
+	 * @param message the message
+	 */
+	private void write(Object message) {
+		try {
+			if (message instanceof byte[]) {
+				output.write((byte[]) message);
+			} else {
+				output.write(String.valueOf(message).getBytes());
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+		} catch (RuntimeException e) {
+			// a lazily formatted message that cannot be formatted must not stop the writer
+			e.printStackTrace();
+		}
+	}
+
+}
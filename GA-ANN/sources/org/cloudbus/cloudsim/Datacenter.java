@@ -17,6 +17,7 @@ import org.cloudbus.cloudsim.core.CloudSim;
 import org.cloudbus.cloudsim.core.CloudSimTags;
 import org.cloudbus.cloudsim.core.SimEntity;
 import org.cloudbus.cloudsim.core.SimEvent;
+import org.cloudbus.cloudsim.core.SimulationContext;
 
 /**
  * Datacenter class is a CloudResource whose hostList are virtualized. It deals with processing of
@@ -31,6 +32,9 @@ import org.cloudbus.cloudsim.core.SimEvent;
  */
 public class Datacenter extends SimEntity {
 
+	/** The Constant serialVersionUID. */
+	private static final long serialVersionUID = 1L;
+
 	/** The characteristics. */
 	private DatacenterCharacteristics characteristics;
 
@@ -78,7 +82,32 @@ public class Datacenter extends SimEntity {
 			VmAllocationPolicy vmAllocationPolicy,
 			List<Storage> storageList,
 			double schedulingInterval) throws Exception {
-		super(name);
+		this(name, characteristics, vmAllocationPolicy, storageList, schedulingInterval, CloudSim.getContext());
+	}
+
+	/**
+	 * Allocates a new PowerDatacenter object in a given simulation context.
+	 * 
+	 * @param name the name to be associated with this entity
+	 * @param characteristics an object of DatacenterCharacteristics
+	 * @param vmAllocationPolicy the vmAllocationPolicy
+	 * @param storageList a LinkedList of storage elements, for data simulation
+	 * @param schedulingInterval the scheduling interval
+	 * @param context the simulation context the datacenter belongs to
+	 * @throws Exception if this entity name is <tt>null</tt> or empty, or the datacenter has no PEs
+	 * @pre name != null
+	 * @pre resource != null
+	 * @pre context != null
+	 * @post $none
+	 */
+	public Datacenter(
+			String name,
+			DatacenterCharacteristics characteristics,
+			VmAllocationPolicy vmAllocationPolicy,
+			List<Storage> storageList,
+			double schedulingInterval,
+			SimulationContext context) throws Exception {
+		super(name, context);
 
 		setCharacteristics(characteristics);
 		setVmAllocationPolicy(vmAllocationPolicy);
@@ -158,6 +187,11 @@ public class Datacenter extends SimEntity {
 				processCloudletSubmit(ev, true);
 				break;
 
+			// New Cloudlets arrive together
+			case CloudSimTags.CLOUDLET_SUBMIT_BATCH:
+				processCloudletSubmitBatch(ev);
+				break;
+
 			// Cancels a previously submitted Cloudlet
 			case CloudSimTags.CLOUDLET_CANCEL:
 				processCloudlet(ev, CloudSimTags.CLOUDLET_CANCEL);
@@ -393,13 +427,8 @@ public class Datacenter extends SimEntity {
 			return;
 		}
 
-		int[] array = new int[3];
-		array[0] = getId();
-		array[1] = cloudletId;
-		array[2] = status;
-
 		int tag = CloudSimTags.CLOUDLET_STATUS;
-		sendNow(userId, tag, array);
+		sendNow(userId, tag, getId(), cloudletId, status);
 	}
 
 	/**
@@ -431,16 +460,9 @@ public class Datacenter extends SimEntity {
 		boolean result = getVmAllocationPolicy().allocateHostForVm(vm);
 
 		if (ack) {
-			int[] data = new int[3];
-			data[0] = getId();
-			data[1] = vm.getId();
-
-			if (result) {
-				data[2] = CloudSimTags.TRUE;
-			} else {
-				data[2] = CloudSimTags.FALSE;
-			}
-			send(vm.getUserId(), CloudSim.getMinTimeBetweenEvents(), CloudSimTags.VM_CREATE_ACK, data);
+			int status = result ? CloudSimTags.TRUE : CloudSimTags.FALSE;
+			send(vm.getUserId(), CloudSim.getMinTimeBetweenEvents(), CloudSimTags.VM_CREATE_ACK, getId(),
+					vm.getId(), status);
 		}
 
 		if (result) {
@@ -471,12 +493,7 @@ public class Datacenter extends SimEntity {
 		getVmAllocationPolicy().deallocateHostForVm(vm);
 
 		if (ack) {
-			int[] data = new int[3];
-			data[0] = getId();
-			data[1] = vm.getId();
-			data[2] = CloudSimTags.TRUE;
-
-			sendNow(vm.getUserId(), CloudSimTags.VM_DESTROY_ACK, data);
+			sendNow(vm.getUserId(), CloudSimTags.VM_DESTROY_ACK, getId(), vm.getId(), CloudSimTags.TRUE);
 		}
 
 		getVmList().remove(vm);
@@ -511,16 +528,8 @@ public class Datacenter extends SimEntity {
 		}
 
 		if (ack) {
-			int[] data = new int[3];
-			data[0] = getId();
-			data[1] = vm.getId();
-
-			if (result) {
-				data[2] = CloudSimTags.TRUE;
-			} else {
-				data[2] = CloudSimTags.FALSE;
-			}
-			sendNow(ev.getSource(), CloudSimTags.VM_CREATE_ACK, data);
+			int status = result ? CloudSimTags.TRUE : CloudSimTags.FALSE;
+			sendNow(ev.getSource(), CloudSimTags.VM_CREATE_ACK, getId(), vm.getId(), status);
 		}
 
 		Log.formatLine(
@@ -626,11 +635,7 @@ public class Datacenter extends SimEntity {
 		} else {
 			// has the cloudlet already finished?
 			if (cl.getCloudletStatus() == Cloudlet.SUCCESS) {// if yes, send it back to user
-				int[] data = new int[3];
-				data[0] = getId();
-				data[1] = cloudletId;
-				data[2] = 0;
-				sendNow(cl.getUserId(), CloudSimTags.CLOUDLET_SUBMIT_ACK, data);
+				sendNow(cl.getUserId(), CloudSimTags.CLOUDLET_SUBMIT_ACK, getId(), cloudletId, 0);
 				sendNow(cl.getUserId(), CloudSimTags.CLOUDLET_RETURN, cl);
 			}
 
@@ -655,15 +660,7 @@ public class Datacenter extends SimEntity {
 		}
 
 		if (type == CloudSimTags.CLOUDLET_MOVE_ACK) {// send ACK if requested
-			int[] data = new int[3];
-			data[0] = getId();
-			data[1] = cloudletId;
-			if (failed) {
-				data[2] = 0;
-			} else {
-				data[2] = 1;
-			}
-			sendNow(cl.getUserId(), CloudSimTags.CLOUDLET_SUBMIT_ACK, data);
+			sendNow(cl.getUserId(), CloudSimTags.CLOUDLET_SUBMIT_ACK, getId(), cloudletId, failed ? 0 : 1);
 		}
 	}
 
@@ -676,71 +673,41 @@ public class Datacenter extends SimEntity {
 	 * @post $none
 	 */
 	protected void processCloudletSubmit(SimEvent ev, boolean ack) {
-		updateCloudletProcessing();
-
+		Cloudlet cl;
 		try {
 			// gets the Cloudlet object
-			Cloudlet cl = (Cloudlet) ev.getData();
-
-			// checks whether this Cloudlet has finished or not
-			if (cl.isFinished()) {
-				String name = CloudSim.getEntityName(cl.getUserId());
-				Log.printLine(getName() + ": Warning - Cloudlet #" + cl.getCloudletId() + " owned by " + name
-						+ " is already completed/finished.");
-				Log.printLine("Therefore, it is not being executed again");
-				Log.printLine();
-
-				// NOTE: If a Cloudlet has finished, then it won't be processed.
-				// So, if ack is required, this method sends back a result.
-				// If ack is not required, this method don't send back a result.
-				// Hence, this might cause CloudSim to be hanged since waiting
-				// for this Cloudlet back.
-				if (ack) {
-					int[] data = new int[3];
-					data[0] = getId();
-					data[1] = cl.getCloudletId();
-					data[2] = CloudSimTags.FALSE;
-
-					// unique tag = operation tag
-					int tag = CloudSimTags.CLOUDLET_SUBMIT_ACK;
-					sendNow(cl.getUserId(), tag, data);
-				}
-
-				sendNow(cl.getUserId(), CloudSimTags.CLOUDLET_RETURN, cl);
-
-				return;
-			}
-
-			// process this Cloudlet to this CloudResource
-			cl.setResourceParameter(getId(), getCharacteristics().getCostPerSecond(), getCharacteristics()
-					.getCostPerBw());
-
-			int userId = cl.getUserId();
-			int vmId = cl.getVmId();
-
-			// time to transfer the files
-			double fileTransferTime = predictFileTransferTime(cl.getRequiredFiles());
+			cl = (Cloudlet) ev.getData();
+		} catch (ClassCastException c) {
+			Log.printLine(getName() + ".processCloudletSubmit(): " + "ClassCastException error.");
+			c.printStackTrace();
+			return;
+		}
+		processCloudletSubmit(cl, ack);
+	}
 
-			Host host = getVmAllocationPolicy().getHost(vmId, userId);
-			Vm vm = host.getVm(vmId, userId);
-			CloudletScheduler scheduler = vm.getCloudletScheduler();
-			double estimatedFinishTime = scheduler.cloudletSubmit(cl, fileTransferTime);
+	/**
+	 * Processes the submission of a Cloudlet, whether it arrived alone or in a list. Subclasses
+	 * that change how a Cloudlet is submitted override this method, so that the Cloudlets of a
+	 * {@link CloudSimTags#CLOUDLET_SUBMIT_BATCH} event are submitted the same way.
+	 * 
+	 * @param cl the Cloudlet
+	 * @param ack an acknowledgement
+	 * @pre cl != null
+	 * @post $none
+	 */
+	protected void processCloudletSubmit(Cloudlet cl, boolean ack) {
+		updateCloudletProcessing();
 
-			// if this cloudlet is in the exec queue
-			if (estimatedFinishTime > 0.0 && !Double.isInfinite(estimatedFinishTime)) {
-				estimatedFinishTime += fileTransferTime;
+		try {
+			double estimatedFinishTime = submitCloudlet(cl, ack);
+			if (estimatedFinishTime > 0.0) {
 				send(getId(), estimatedFinishTime, CloudSimTags.VM_DATACENTER_EVENT);
 			}
 
-			if (ack) {
-				int[] data = new int[3];
-				data[0] = getId();
-				data[1] = cl.getCloudletId();
-				data[2] = CloudSimTags.TRUE;
-
+			if (ack && estimatedFinishTime >= 0.0) {
 				// unique tag = operation tag
 				int tag = CloudSimTags.CLOUDLET_SUBMIT_ACK;
-				sendNow(cl.getUserId(), tag, data);
+				sendNow(cl.getUserId(), tag, getId(), cl.getCloudletId(), CloudSimTags.TRUE);
 			}
 		} catch (ClassCastException c) {
 			Log.printLine(getName() + ".processCloudletSubmit(): " + "ClassCastException error.");
@@ -753,6 +720,102 @@ public class Datacenter extends SimEntity {
 		checkCloudletCompletion();
 	}
 
+	/**
+	 * Processes the submission of a list of Cloudlets, by submitting each Cloudlet in turn with
+	 * {@link #processCloudletSubmit(Cloudlet, boolean)}. The outcome and the events are those of
+	 * separate submissions, as the processing of the hosts is updated and an event is scheduled
+	 * for each Cloudlet; a datacenter saves this work only if it overrides this method and
+	 * {@link #isCloudletSubmitBatchSupported()}.
+	 * 
+	 * @param ev a SimEvent object whose data is a list of Cloudlets
+	 * @pre ev != null
+	 * @post $none
+	 */
+	protected void processCloudletSubmitBatch(SimEvent ev) {
+		List<?> list = (List<?>) ev.getData();
+		for (int i = 0; i < list.size(); i++) {
+			Cloudlet cl;
+			try {
+				cl = (Cloudlet) list.get(i);
+			} catch (ClassCastException c) {
+				Log.printLine(getName() + ".processCloudletSubmitBatch(): " + "ClassCastException error.");
+				c.printStackTrace();
+				continue;
+			}
+			processCloudletSubmit(cl, false);
+		}
+	}
+
+	/**
+	 * Checks if the datacenter processes a {@link CloudSimTags#CLOUDLET_SUBMIT_BATCH} event with
+	 * less work than the submissions of its Cloudlets one by one. Brokers send the Cloudlets to the
+	 * other datacenters one by one.
+	 * 
+	 * @return true, if lists of Cloudlets are worth sending together
+	 */
+	public boolean isCloudletSubmitBatchSupported() {
+		return false;
+	}
+
+	/**
+	 * Submits a Cloudlet to the scheduler of its VM. A Cloudlet that has already finished is
+	 * returned to its owner instead, after a negative acknowledgement if one is asked for; the
+	 * positive acknowledgement is left to the caller.
+	 * 
+	 * @param cl the Cloudlet
+	 * @param ack an acknowledgement
+	 * @return the delay after which the Cloudlet is expected to finish, 0 if it is not in the exec
+	 *         queue, or -1 if it has already finished
+	 * @pre cl != null
+	 * @post $none
+	 */
+	protected double submitCloudlet(Cloudlet cl, boolean ack) {
+		// checks whether this Cloudlet has finished or not
+		if (cl.isFinished()) {
+			String name = CloudSim.getEntityName(cl.getUserId());
+			Log.printLine(getName() + ": Warning - Cloudlet #" + cl.getCloudletId() + " owned by " + name
+					+ " is already completed/finished.");
+			Log.printLine("Therefore, it is not being executed again");
+			Log.printLine();
+
+			// NOTE: If a Cloudlet has finished, then it won't be processed.
+			// So, if ack is required, this method sends back a result.
+			// If ack is not required, this method don't send back a result.
+			// Hence, this might cause CloudSim to be hanged since waiting
+			// for this Cloudlet back.
+			if (ack) {
+				// unique tag = operation tag
+				int tag = CloudSimTags.CLOUDLET_SUBMIT_ACK;
+				sendNow(cl.getUserId(), tag, getId(), cl.getCloudletId(), CloudSimTags.FALSE);
+			}
+
+			sendNow(cl.getUserId(), CloudSimTags.CLOUDLET_RETURN, cl);
+
+			return -1;
+		}
+
+		// process this Cloudlet to this CloudResource
+		cl.setResourceParameter(getId(), getCharacteristics().getCostPerSecond(), getCharacteristics()
+				.getCostPerBw());
+
+		int userId = cl.getUserId();
+		int vmId = cl.getVmId();
+
+		// time to transfer the files
+		double fileTransferTime = predictFileTransferTime(cl.getRequiredFiles());
+
+		Host host = getVmAllocationPolicy().getHost(vmId, userId);
+		Vm vm = host.getVm(vmId, userId);
+		CloudletScheduler scheduler = vm.getCloudletScheduler();
+		double estimatedFinishTime = scheduler.cloudletSubmit(cl, fileTransferTime);
+
+		// if this cloudlet is in the exec queue
+		if (estimatedFinishTime > 0.0 && !Double.isInfinite(estimatedFinishTime)) {
+			return estimatedFinishTime + fileTransferTime;
+		}
+		return 0.0;
+	}
+
 	/**
 	 * Predict file transfer time.
 	 * 
@@ -800,15 +863,8 @@ public class Datacenter extends SimEntity {
 		}
 
 		if (ack) {
-			int[] data = new int[3];
-			data[0] = getId();
-			data[1] = cloudletId;
-			if (status) {
-				data[2] = CloudSimTags.TRUE;
-			} else {
-				data[2] = CloudSimTags.FALSE;
-			}
-			sendNow(userId, CloudSimTags.CLOUDLET_RESUME_ACK, data);
+			sendNow(userId, CloudSimTags.CLOUDLET_RESUME_ACK, getId(), cloudletId, status ? CloudSimTags.TRUE
+					: CloudSimTags.FALSE);
 		}
 	}
 
@@ -827,15 +883,8 @@ public class Datacenter extends SimEntity {
 				.getCloudletScheduler().cloudletPause(cloudletId);
 
 		if (ack) {
-			int[] data = new int[3];
-			data[0] = getId();
-			data[1] = cloudletId;
-			if (status) {
-				data[2] = CloudSimTags.TRUE;
-			} else {
-				data[2] = CloudSimTags.FALSE;
-			}
-			sendNow(userId, CloudSimTags.CLOUDLET_PAUSE_ACK, data);
+			sendNow(userId, CloudSimTags.CLOUDLET_PAUSE_ACK, getId(), cloudletId, status ? CloudSimTags.TRUE
+					: CloudSimTags.FALSE);
 		}
 	}
 
@@ -1028,9 +1077,9 @@ public class Datacenter extends SimEntity {
 		// this resource should register to regional GIS.
 		// However, if not specified, then register to system GIS (the
 		// default CloudInformationService) entity.
-		int gisID = CloudSim.getEntityId(regionalCisName);
+		int gisID = getSimulationContext().getEntityId(regionalCisName);
 		if (gisID == -1) {
-			gisID = CloudSim.getCloudInfoServiceEntityId();
+			gisID = getSimulationContext().getCloudInfoServiceEntityId();
 		}
 
 		// send the registration to GIS
@@ -1163,7 +1212,7 @@ public class Datacenter extends SimEntity {
 	 * 
 	 * @return the scheduling interval
 	 */
-	protected double getSchedulingInterval() {
+	public double getSchedulingInterval() {
 		return schedulingInterval;
 	}
 
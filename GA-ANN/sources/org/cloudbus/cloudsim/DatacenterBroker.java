@@ -10,6 +10,7 @@ package org.cloudbus.cloudsim;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -18,8 +19,7 @@ import org.cloudbus.cloudsim.core.CloudSim;
 import org.cloudbus.cloudsim.core.CloudSimTags;
 import org.cloudbus.cloudsim.core.SimEntity;
 import org.cloudbus.cloudsim.core.SimEvent;
-import org.cloudbus.cloudsim.lists.CloudletList;
-import org.cloudbus.cloudsim.lists.VmList;
+import org.cloudbus.cloudsim.core.SimulationContext;
 
 /**
  * DatacentreBroker represents a broker acting on behalf of a user. It hides VM management, as vm
@@ -31,6 +31,9 @@ import org.cloudbus.cloudsim.lists.VmList;
  */
 public class DatacenterBroker extends SimEntity {
 
+	/** The Constant serialVersionUID. */
+	private static final long serialVersionUID = 1L;
+
 	/** The vm list. */
 	protected List<? extends Vm> vmList;
 
@@ -70,6 +73,21 @@ public class DatacenterBroker extends SimEntity {
 	/** The datacenter characteristics list. */
 	protected Map<Integer, DatacenterCharacteristics> datacenterCharacteristicsList;
 
+	/**
+	 * The vms of the vm list, by id; dropped when the broker changes the list, and rebuilt from
+	 * the list when an id is missing.
+	 */
+	private final Map<Integer, Vm> vmsById = new HashMap<Integer, Vm>();
+
+	/**
+	 * The cloudlets of the cloudlet list, by id; dropped when the broker changes the list, and
+	 * rebuilt from the list when an id is missing.
+	 */
+	private final Map<Integer, Cloudlet> cloudletsById = new HashMap<Integer, Cloudlet>();
+
+	/** The index of the created VM the next unbound cloudlet is sent to. */
+	private int vmIndex;
+
 	/**
 	 * Created a new DatacenterBroker object.
 	 * 
@@ -80,7 +98,21 @@ public class DatacenterBroker extends SimEntity {
 	 * @post $none
 	 */
 	public DatacenterBroker(String name) throws Exception {
-		super(name);
+		this(name, CloudSim.getContext());
+	}
+
+	/**
+	 * Created a new DatacenterBroker object in a given simulation context.
+	 * 
+	 * @param name name to be associated with this entity
+	 * @param context the simulation context the broker belongs to
+	 * @throws Exception the exception
+	 * @pre name != null
+	 * @pre context != null
+	 * @post $none
+	 */
+	public DatacenterBroker(String name, SimulationContext context) throws Exception {
+		super(name, context);
 
 		setVmList(new ArrayList<Vm>());
 		setVmsCreatedList(new ArrayList<Vm>());
@@ -109,6 +141,7 @@ public class DatacenterBroker extends SimEntity {
 	 */
 	public void submitVmList(List<? extends Vm> list) {
 		getVmList().addAll(list);
+		vmsById.clear();
 	}
 
 	/**
@@ -120,6 +153,7 @@ public class DatacenterBroker extends SimEntity {
 	 */
 	public void submitCloudletList(List<? extends Cloudlet> list) {
 		getCloudletList().addAll(list);
+		cloudletsById.clear();
 	}
 
 	/**
@@ -132,7 +166,53 @@ public class DatacenterBroker extends SimEntity {
 	 * @post $none
 	 */
 	public void bindCloudletToVm(int cloudletId, int vmId) {
-		CloudletList.getById(getCloudletList(), cloudletId).setVmId(vmId);
+		getCloudletById(cloudletId).setVmId(vmId);
+	}
+
+	/**
+	 * Gets a vm of the vm list by its id, in constant time. The index is dropped whenever the
+	 * broker changes the list; a vm removed through {@link #getVmList()} may still be found until
+	 * then.
+	 * 
+	 * @param vmId the vm id
+	 * @return the vm, or null if the vm list has no vm with this id
+	 */
+	protected Vm getVmById(int vmId) {
+		Vm vm = vmsById.get(vmId);
+		if (vm == null) {
+			// the list has been changed since the index was built
+			vmsById.clear();
+			for (Vm listed : getVmList()) {
+				if (!vmsById.containsKey(listed.getId())) {
+					vmsById.put(listed.getId(), listed);
+				}
+			}
+			vm = vmsById.get(vmId);
+		}
+		return vm;
+	}
+
+	/**
+	 * Gets a cloudlet of the cloudlet list by its id, in constant time. The index is dropped
+	 * whenever the broker changes the list, e.g. once the cloudlets have been submitted; a
+	 * cloudlet removed through {@link #getCloudletList()} may still be found until then.
+	 * 
+	 * @param cloudletId the cloudlet id
+	 * @return the cloudlet, or null if the cloudlet list has no cloudlet with this id
+	 */
+	protected Cloudlet getCloudletById(int cloudletId) {
+		Cloudlet cloudlet = cloudletsById.get(cloudletId);
+		if (cloudlet == null) {
+			// the list has been changed since the index was built
+			cloudletsById.clear();
+			for (Cloudlet listed : getCloudletList()) {
+				if (!cloudletsById.containsKey(listed.getCloudletId())) {
+					cloudletsById.put(listed.getCloudletId(), listed);
+				}
+			}
+			cloudlet = cloudletsById.get(cloudletId);
+		}
+		return cloudlet;
 	}
 
 	/**
@@ -197,7 +277,7 @@ public class DatacenterBroker extends SimEntity {
 	 * @post $none
 	 */
 	protected void processResourceCharacteristicsRequest(SimEvent ev) {
-		setDatacenterIdsList(CloudSim.getCloudResourceList());
+		setDatacenterIdsList(getSimulationContext().getCloudResourceList());
 		setDatacenterCharacteristicsList(new HashMap<Integer, DatacenterCharacteristics>());
 
 		Log.printLine(CloudSim.clock() + ": " + getName() + ": Cloud Resource List received with "
@@ -216,20 +296,21 @@ public class DatacenterBroker extends SimEntity {
 	 * @post $none
 	 */
 	protected void processVmCreate(SimEvent ev) {
-		int[] data = (int[]) ev.getData();
-		int datacenterId = data[0];
-		int vmId = data[1];
-		int result = data[2];
+		int datacenterId = ev.getIntData(0);
+		int vmId = ev.getIntData(1);
+		int result = ev.getIntData(2);
 
 		if (result == CloudSimTags.TRUE) {
 			getVmsToDatacentersMap().put(vmId, datacenterId);
-			getVmsCreatedList().add(VmList.getById(getVmList(), vmId));
-			Log.printLine(CloudSim.clock() + ": " + getName() + ": VM #" + vmId
-					+ " has been created in Datacenter #" + (datacenterId-1) + ", Host #"
-					+ VmList.getById(getVmsCreatedList(), vmId).getHost().getId());
-		} else {
-			Log.printLine(CloudSim.clock() + ": " + getName() + ": Creation of VM #" + vmId
-					+ " failed in Datacenter #" + datacenterId);
+			Vm vm = getVmById(vmId);
+			getVmsCreatedList().add(vm);
+			if (Log.isLoggable(Log.BROKER, Log.INFO)) {
+				Log.formatLine(Log.BROKER, Log.INFO, "%s: %s: VM #%d has been created in Datacenter #%d, Host #%d",
+						CloudSim.clock(), getName(), vmId, datacenterId - 1, vm.getHost().getId());
+			}
+		} else if (Log.isLoggable(Log.BROKER, Log.INFO)) {
+			Log.formatLine(Log.BROKER, Log.INFO, "%s: %s: Creation of VM #%d failed in Datacenter #%d",
+					CloudSim.clock(), getName(), vmId, datacenterId);
 		}
 
 		incrementVmsAcks();
@@ -270,8 +351,10 @@ public class DatacenterBroker extends SimEntity {
 	protected void processCloudletReturn(SimEvent ev) {
 		Cloudlet cloudlet = (Cloudlet) ev.getData();
 		getCloudletReceivedList().add(cloudlet);
-		Log.printLine(CloudSim.clock() + ": " + getName() + ": Cloudlet " + cloudlet.getCloudletId()
-				+ " received");
+		if (Log.isLoggable(Log.BROKER, Log.INFO)) {
+			Log.formatLine(Log.BROKER, Log.INFO, "%s: %s: Cloudlet %d received", CloudSim.clock(), getName(),
+					cloudlet.getCloudletId());
+		}
 		cloudletsSubmitted--;
 		if (getCloudletList().size() == 0 && cloudletsSubmitted == 0) { // all cloudlets executed
 			Log.printLine(CloudSim.clock() + ": " + getName() + ": All Cloudlets executed. Finishing...");
@@ -316,11 +399,14 @@ public class DatacenterBroker extends SimEntity {
 	protected void createVmsInDatacenter(int datacenterId) {
 		// send as much vms as possible for this datacenter before trying the next one
 		int requestedVms = 0;
-		String datacenterName = CloudSim.getEntityName(datacenterId);
+		String datacenterName = getSimulationContext().getEntityName(datacenterId);
+		boolean log = Log.isLoggable(Log.BROKER, Log.INFO);
 		for (Vm vm : getVmList()) {
 			if (!getVmsToDatacentersMap().containsKey(vm.getId())) {
-				Log.printLine(CloudSim.clock() + ": " + getName() + ": Trying to Create VM #" + vm.getId()
-						+ " in " + datacenterName);
+				if (log) {
+					Log.formatLine(Log.BROKER, Log.INFO, "%s: %s: Trying to Create VM #%d in %s", CloudSim.clock(),
+							getName(), vm.getId(), datacenterName);
+				}
 				sendNow(datacenterId, CloudSimTags.VM_CREATE_ACK, vm);
 				requestedVms++;
 			}
@@ -333,39 +419,85 @@ public class DatacenterBroker extends SimEntity {
 	}
 
 	/**
-	 * Submit cloudlets to the created VMs.
+	 * Submit cloudlets to the created VMs. The cost is linear in the number of cloudlets and of
+	 * created VMs: the bound VMs are looked up by id, and the cloudlets that are postponed are kept
+	 * in the cloudlet list in a single pass. The cloudlets sent to the same datacenter travel in a
+	 * single {@link CloudSimTags#CLOUDLET_SUBMIT_BATCH} event if the datacenter
+	 * {@link Datacenter#isCloudletSubmitBatchSupported() supports it}, each in its own
+	 * {@link CloudSimTags#CLOUDLET_SUBMIT} event otherwise. The unbound cloudlets are sent to the
+	 * created VMs in turn, carrying on from the last call, so that cloudlets submitted over several
+	 * calls are spread across the VMs as well.
 	 * 
 	 * @pre $none
 	 * @post $none
 	 */
 	protected void submitCloudlets() {
-		int vmIndex = 0;
+		if (vmIndex >= getVmsCreatedList().size()) {
+			vmIndex = 0;
+		}
+		boolean log = Log.isLoggable(Log.BROKER, Log.INFO);
+		Map<Integer, Vm> createdVms = null;
+		List<Cloudlet> postponed = new ArrayList<Cloudlet>();
+		Map<Integer, List<Cloudlet>> batches = new LinkedHashMap<Integer, List<Cloudlet>>();
 		for (Cloudlet cloudlet : getCloudletList()) {
 			Vm vm;
 			// if user didn't bind this cloudlet and it has not been executed yet
 			if (cloudlet.getVmId() == -1) {
 				vm = getVmsCreatedList().get(vmIndex);
 			} else { // submit to the specific vm
-				vm = VmList.getById(getVmsCreatedList(), cloudlet.getVmId());
+				if (createdVms == null) {
+					createdVms = new HashMap<Integer, Vm>();
+					for (Vm created : getVmsCreatedList()) {
+						createdVms.put(created.getId(), created);
+					}
+				}
+				vm = createdVms.get(cloudlet.getVmId());
 				if (vm == null) { // vm was not created
-					Log.printLine(CloudSim.clock() + ": " + getName() + ": Postponing execution of cloudlet "
-							+ cloudlet.getCloudletId() + ": bount VM not available");
+					if (log) {
+						Log.formatLine(Log.BROKER, Log.INFO, "%s: %s: Postponing execution of cloudlet %d: bount VM not available",
+								CloudSim.clock(), getName(), cloudlet.getCloudletId());
+					}
+					postponed.add(cloudlet);
 					continue;
 				}
 			}
 
-			Log.printLine(CloudSim.clock() + ": " + getName() + ": Sending cloudlet "
-					+ cloudlet.getCloudletId() + " to VM #" + vm.getId());
+			if (log) {
+				Log.formatLine(Log.BROKER, Log.INFO, "%s: %s: Sending cloudlet %d to VM #%d", CloudSim.clock(),
+						getName(), cloudlet.getCloudletId(), vm.getId());
+			}
 			cloudlet.setVmId(vm.getId());
-			sendNow(getVmsToDatacentersMap().get(vm.getId()), CloudSimTags.CLOUDLET_SUBMIT, cloudlet);
+			Integer datacenterId = getVmsToDatacentersMap().get(vm.getId());
+			List<Cloudlet> batch = batches.get(datacenterId);
+			if (batch == null && !batches.containsKey(datacenterId)) {
+				// null for the datacenters that get the cloudlets one by one
+				SimEntity datacenter = getSimulationContext().getEntity(datacenterId);
+				if (datacenter instanceof Datacenter && ((Datacenter) datacenter).isCloudletSubmitBatchSupported()) {
+					batch = new ArrayList<Cloudlet>();
+				}
+				batches.put(datacenterId, batch);
+			}
+			if (batch != null) {
+				batch.add(cloudlet);
+			} else {
+				sendNow(datacenterId, CloudSimTags.CLOUDLET_SUBMIT, cloudlet);
+			}
 			cloudletsSubmitted++;
 			vmIndex = (vmIndex + 1) % getVmsCreatedList().size();
 			getCloudletSubmittedList().add(cloudlet);
 		}
 
+		for (Map.Entry<Integer, List<Cloudlet>> entry : batches.entrySet()) {
+			if (entry.getValue() != null) {
+				sendNow(entry.getKey(), CloudSimTags.CLOUDLET_SUBMIT_BATCH, entry.getValue());
+			}
+		}
+
 		// remove submitted cloudlets from waiting list
-		for (Cloudlet cloudlet : getCloudletSubmittedList()) {
-			getCloudletList().remove(cloudlet);
+		if (postponed.size() < getCloudletList().size()) {
+			getCloudletList().clear();
+			getCloudletList().addAll(postponed);
+			cloudletsById.clear();
 		}
 	}
 
@@ -376,12 +508,17 @@ public class DatacenterBroker extends SimEntity {
 	 * @post $none
 	 */
 	protected void clearDatacenters() {
+		boolean log = Log.isLoggable(Log.BROKER, Log.INFO);
 		for (Vm vm : getVmsCreatedList()) {
-			Log.printLine(CloudSim.clock() + ": " + getName() + ": Destroying VM #" + vm.getId());
+			if (log) {
+				Log.formatLine(Log.BROKER, Log.INFO, "%s: %s: Destroying VM #%d", CloudSim.clock(), getName(),
+						vm.getId());
+			}
 			sendNow(getVmsToDatacentersMap().get(vm.getId()), CloudSimTags.VM_DESTROY, vm);
 		}
 
 		getVmsCreatedList().clear();
+		vmIndex = 0;
 	}
 
 	/**
@@ -432,6 +569,7 @@ public class DatacenterBroker extends SimEntity {
 	 */
 	protected <T extends Vm> void setVmList(List<T> vmList) {
 		this.vmList = vmList;
+		vmsById.clear();
 	}
 
 	/**
@@ -453,6 +591,7 @@ public class DatacenterBroker extends SimEntity {
 	 */
 	protected <T extends Cloudlet> void setCloudletList(List<T> cloudletList) {
 		this.cloudletList = cloudletList;
+		cloudletsById.clear();
 	}
 
 	/**
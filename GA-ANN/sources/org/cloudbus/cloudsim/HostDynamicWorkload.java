@@ -25,6 +25,9 @@ import org.cloudbus.cloudsim.provisioners.RamProvisioner;
  */
 public class HostDynamicWorkload extends Host {
 
+	/** The Constant serialVersionUID. */
+	private static final long serialVersionUID = 1L;
+
 	/** The utilization mips. */
 	private double utilizationMips;
 
@@ -75,16 +78,20 @@ public class HostDynamicWorkload extends Host {
 			getVmScheduler().allocatePesForVm(vm, vm.getCurrentRequestedMips());
 		}
 
+		boolean log = Log.isLoggable(Log.HOST, Log.INFO);
 		for (Vm vm : getVmList()) {
 			double totalRequestedMips = vm.getCurrentRequestedTotalMips();
 			double totalAllocatedMips = getVmScheduler().getTotalAllocatedMipsForVm(vm);
 
-			if (!Log.isDisabled()) {
+			if (log) {
 				Log.formatLine(
-						"%.2f: [Host #" + getId() + "] Total allocated MIPS for VM #" + vm.getId()
-								+ " (Host #" + vm.getHost().getId()
-								+ ") is %.2f, was requested %.2f out of total %.2f (%.2f%%)",
+						Log.HOST,
+						Log.INFO,
+						"%.2f: [Host #%d] Total allocated MIPS for VM #%d (Host #%d) is %.2f, was requested %.2f out of total %.2f (%.2f%%)",
 						CloudSim.clock(),
+						getId(),
+						vm.getId(),
+						vm.getHost().getId(),
 						totalAllocatedMips,
 						totalRequestedMips,
 						vm.getMips(),
@@ -97,19 +104,26 @@ public class HostDynamicWorkload extends Host {
 							.getTotalAllocatedMipsForVm(vm)));
 				}
 				Log.formatLine(
-						"%.2f: [Host #" + getId() + "] MIPS for VM #" + vm.getId() + " by PEs ("
-								+ getNumberOfPes() + " * " + getVmScheduler().getPeCapacity() + ")."
-								+ pesString,
-						CloudSim.clock());
+						Log.HOST,
+						Log.INFO,
+						"%.2f: [Host #%d] MIPS for VM #%d by PEs (%d * %s).%s",
+						CloudSim.clock(),
+						getId(),
+						vm.getId(),
+						getNumberOfPes(),
+						getVmScheduler().getPeCapacity(),
+						pesString.toString());
 			}
 
 			if (getVmsMigratingIn().contains(vm)) {
-				Log.formatLine("%.2f: [Host #" + getId() + "] VM #" + vm.getId()
-						+ " is being migrated to Host #" + getId(), CloudSim.clock());
+				if (log) {
+					Log.formatLine(Log.HOST, Log.INFO, "%.2f: [Host #%d] VM #%d is being migrated to Host #%d",
+							CloudSim.clock(), getId(), vm.getId(), getId());
+				}
 			} else {
-				if (totalAllocatedMips + 0.1 < totalRequestedMips) {
-					Log.formatLine("%.2f: [Host #" + getId() + "] Under allocated MIPS for VM #" + vm.getId()
-							+ ": %.2f", CloudSim.clock(), totalRequestedMips - totalAllocatedMips);
+				if (log && totalAllocatedMips + 0.1 < totalRequestedMips) {
+					Log.formatLine(Log.HOST, Log.INFO, "%.2f: [Host #%d] Under allocated MIPS for VM #%d: %.2f",
+							CloudSim.clock(), getId(), vm.getId(), totalRequestedMips - totalAllocatedMips);
 				}
 
 				vm.addStateHistoryEntry(
@@ -119,9 +133,10 @@ public class HostDynamicWorkload extends Host {
 						(vm.isInMigration() && !getVmsMigratingIn().contains(vm)));
 
 				if (vm.isInMigration()) {
-					Log.formatLine(
-							"%.2f: [Host #" + getId() + "] VM #" + vm.getId() + " is in migration",
-							CloudSim.clock());
+					if (log) {
+						Log.formatLine(Log.HOST, Log.INFO, "%.2f: [Host #%d] VM #%d is in migration",
+								CloudSim.clock(), getId(), vm.getId());
+					}
 					totalAllocatedMips /= 0.9; // performance degradation due to migration - 10%
 				}
 			}
@@ -14,12 +14,61 @@ import java.io.OutputStream;
 /**
  * The Log class used for performing loggin of the simulation process. It provides the ability to
  * substitute the output stream by any OutputStream subclass.
+ * <p>
+ * Messages belong to a category and have a level; a message is printed if the output is enabled
+ * and its level is not above the level set for its category. The methods without a category print
+ * in the {@link #GENERAL} category at the {@link #INFO} level. Formatted messages are only
+ * formatted if they are printed, so callers that log in hot loops should pass the values to a
+ * format rather than build the string themselves, or check {@link #isLoggable(int, int)} first.
+ * <p>
+ * The log can be made asynchronous: messages are then queued in a ring buffer and written by a
+ * background thread, which also does the formatting, so that logging does not stall the
+ * simulation. A formatted message whose arguments are all strings or boxed primitives is formatted
+ * by that thread; one with other arguments, which may change before it is written, is formatted
+ * by the thread that prints it.
+ * <p>
+ * A thread can also print to its own output instead of the shared one, e.g. a simulation that
+ * captures what its entities log while they run in parallel. The messages are then written to
+ * that output synchronously, by the thread that prints them.
  * 
  * @author Anton Beloglazov
  * @since CloudSim Toolkit 2.0
  */
 public class Log {
 
+	/** The category of the messages that do not belong to a more specific one. */
+	public static final int GENERAL = 0;
+
+	/** The category of the simulation kernel. */
+	public static final int KERNEL = 1;
+
+	/** The category of the brokers. */
+	public static final int BROKER = 2;
+
+	/** The category of the datacenters. */
+	public static final int DATACENTER = 3;
+
+	/** The category of the hosts. */
+	public static final int HOST = 4;
+
+	/** The number of categories. */
+	public static final int NUMBER_OF_CATEGORIES = 5;
+
+	/** The level of the errors. */
+	public static final int ERROR = 0;
+
+	/** The level of the warnings. */
+	public static final int WARNING = 1;
+
+	/** The level of the progress messages; the default level of every category. */
+	public static final int INFO = 2;
+
+	/** The level of the detailed messages. */
+	public static final int DEBUG = 3;
+
+	/** The default capacity of the buffer of an asynchronous log. */
+	private static final int ASYNC_CAPACITY = 8192;
+
 	/** The Constant LINE_SEPARATOR. */
 	private static final String LINE_SEPARATOR = System.getProperty("line.separator");
 
@@ -29,18 +78,23 @@ public class Log {
 	/** The disable output flag. */
 	private static boolean disabled;
 
+	/** The level of each category. */
+	private static final int[] levels = { INFO, INFO, INFO, INFO, INFO };
+
+	/** The writer of the asynchronous log, or null if the log is synchronous. */
+	private static volatile AsyncLogWriter writer;
+
+	/** The output of each thread that does not print to the shared output. */
+	private static final ThreadLocal<OutputStream> threadOutput = new ThreadLocal<OutputStream>();
+
 	/**
 	 * Prints the message.
 	 * 
 	 * @param message the message
 	 */
 	public static void print(String message) {
-		if (!isDisabled()) {
-			try {
-				getOutput().write(message.getBytes());
-			} catch (IOException e) {
-				e.printStackTrace();
-			}
+		if (isLoggable(GENERAL, INFO)) {
+			emit(message);
 		}
 	}
 
@@ -50,7 +104,7 @@ public class Log {
 	 * @param message the message
 	 */
 	public static void print(Object message) {
-		if (!isDisabled()) {
+		if (isLoggable(GENERAL, INFO)) {
 			print(String.valueOf(message));
 		}
 	}
@@ -61,7 +115,7 @@ public class Log {
 	 * @param message the message
 	 */
 	public static void printLine(String message) {
-		if (!isDisabled()) {
+		if (isLoggable(GENERAL, INFO)) {
 			print(message + LINE_SEPARATOR);
 		}
 	}
@@ -70,7 +124,7 @@ public class Log {
 	 * Prints the empty line.
 	 */
 	public static void printLine() {
-		if (!isDisabled()) {
+		if (isLoggable(GENERAL, INFO)) {
 			print(LINE_SEPARATOR);
 		}
 	}
@@ -81,7 +135,7 @@ public class Log {
 	 * @param message the message
 	 */
 	public static void printLine(Object message) {
-		if (!isDisabled()) {
+		if (isLoggable(GENERAL, INFO)) {
 			printLine(String.valueOf(message));
 		}
 	}
@@ -93,8 +147,8 @@ public class Log {
 	 * @param args the args
 	 */
 	public static void format(String format, Object... args) {
-		if (!isDisabled()) {
-			print(String.format(format, args));
+		if (isLoggable(GENERAL, INFO)) {
+			emit(new Format(format, args, false));
 		}
 	}
 
@@ -105,8 +159,162 @@ public class Log {
 	 * @param args the args
 	 */
 	public static void formatLine(String format, Object... args) {
-		if (!isDisabled()) {
-			printLine(String.format(format, args));
+		if (isLoggable(GENERAL, INFO)) {
+			emit(new Format(format, args, true));
+		}
+	}
+
+	/**
+	 * Checks if the messages of a category with a given level are printed.
+	 * 
+	 * @param category the category
+	 * @param level the level
+	 * @return true, if they are printed
+	 */
+	public static boolean isLoggable(int category, int level) {
+		return !disabled && level <= levels[category];
+	}
+
+	/**
+	 * Prints a line in a category.
+	 * 
+	 * @param category the category
+	 * @param level the level of the message
+	 * @param message the message
+	 */
+	public static void printLine(int category, int level, String message) {
+		if (isLoggable(category, level)) {
+			emit(message + LINE_SEPARATOR);
+		}
+	}
+
+	/**
+	 * Prints a line in a category, formated as in String.format() only if it is printed.
+	 * 
+	 * @param category the category
+	 * @param level the level of the message
+	 * @param format the format
+	 * @param args the args
+	 */
+	public static void formatLine(int category, int level, String format, Object... args) {
+		if (isLoggable(category, level)) {
+			emit(new Format(format, args, true));
+		}
+	}
+
+	/**
+	 * Writes bytes to the log as they are, unless the output is disabled, e.g. messages that were
+	 * captured in the output of a thread.
+	 * 
+	 * @param b the bytes
+	 * @param off the offset of the first byte
+	 * @param len the number of bytes
+	 */
+	public static void write(byte[] b, int off, int len) {
+		if (disabled) {
+			return;
+		}
+		AsyncLogWriter w = writer;
+		OutputStream out = threadOutput.get();
+		try {
+			if (out != null) {
+				out.write(b, off, len);
+				return;
+			}
+			out = getOutput();
+			if (w != null && w.getOutput() == out) {
+				byte[] copy = new byte[len];
+				System.arraycopy(b, off, copy, 0, len);
+				w.add(copy);
+			} else {
+				out.write(b, off, len);
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Prints a message, through the writer thread if the log is asynchronous.
+	 * 
+	 * @param message the message, a string or a lazily formatted message
+	 */
+	private static void emit(Object message) {
+		AsyncLogWriter w = writer;
+		OutputStream out = threadOutput.get();
+		if (out == null) {
+			out = getOutput();
+		}
+		if (w != null && w.getOutput() == out) {
+			if (message instanceof Format && !((Format) message).isImmutable()) {
+				message = message.toString();
+			}
+			w.add(message);
+		} else {
+			try {
+				out.write(message.toString().getBytes());
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+	/**
+	 * Sets the level of a category: the messages of the category with a higher level are not
+	 * printed.
+	 * 
+	 * @param category the category
+	 * @param level the level, or -1 to print no message of the category
+	 */
+	public static void setLevel(int category, int level) {
+		levels[category] = level;
+	}
+
+	/**
+	 * Gets the level of a category.
+	 * 
+	 * @param category the category
+	 * @return the level
+	 */
+	public static int getLevel(int category) {
+		return levels[category];
+	}
+
+	/**
+	 * Makes the log asynchronous or synchronous again. While the log is asynchronous, the messages
+	 * are written by a background thread to the output set when it was made asynchronous; the
+	 * messages printed while another output is set, or to the output of a thread, are written
+	 * synchronously. Making the log synchronous waits for the
+	 * pending messages to be written. The pending messages are also written when the JVM exits.
+	 * 
+	 * @param asynchronous true to make the log asynchronous
+	 */
+	public static synchronized void setAsynchronous(boolean asynchronous) {
+		if (writer != null) {
+			writer.close();
+			writer = null;
+		}
+		if (asynchronous) {
+			writer = new AsyncLogWriter(getOutput(), ASYNC_CAPACITY);
+		}
+	}
+
+	/**
+	 * Checks if the log is asynchronous.
+	 * 
+	 * @return true, if it is asynchronous
+	 */
+	public static boolean isAsynchronous() {
+		return writer != null;
+	}
+
+	/**
+	 * Waits until the messages printed so far have been written, if the log is asynchronous.
+	 */
+	public static void flush() {
+		AsyncLogWriter w = writer;
+		if (w != null) {
+			w.flush();
 		}
 	}
 
@@ -131,6 +339,29 @@ public class Log {
 		return output;
 	}
 
+	/**
+	 * Sets the output of the current thread: the messages the thread prints are written to it
+	 * instead of the shared output. The other threads are not affected.
+	 * 
+	 * @param _output the output of the thread, or null to print to the shared output again
+	 */
+	public static void setThreadOutput(OutputStream _output) {
+		if (_output == null) {
+			threadOutput.remove();
+		} else {
+			threadOutput.set(_output);
+		}
+	}
+
+	/**
+	 * Gets the output of the current thread.
+	 * 
+	 * @return the output of the thread, or null if it prints to the shared output
+	 */
+	public static OutputStream getThreadOutput() {
+		return threadOutput.get();
+	}
+
 	/**
 	 * Sets the disable output flag.
 	 * 
@@ -163,4 +394,51 @@ public class Log {
 		setDisabled(false);
 	}
 
+	/**
+	 * A message formatted as in String.format() when it is written.
+	 */
+	private static final class Format {
+
+		/** The format. */
+		private final String format;
+
+		/** The args. */
+		private final Object[] args;
+
+		/** Whether a line separator follows the message. */
+		private final boolean line;
+
+		Format(String format, Object[] args, boolean line) {
+			this.format = format;
+			this.args = args;
+			this.line = line;
+		}
+
+		/**
+		 * Checks if the args can't change before the message is formatted.
+		 * 
+		 * @return true, if all the args are strings, boxed primitives or null
+		 */
+		boolean isImmutable() {
+			if (args == null) {
+				return true;
+			}
+			for (Object arg : args) {
+				if (arg != null && !(arg instanceof String) && !(arg instanceof Integer) && !(arg instanceof Long)
+						&& !(arg instanceof Double) && !(arg instanceof Float) && !(arg instanceof Short)
+						&& !(arg instanceof Byte) && !(arg instanceof Character) && !(arg instanceof Boolean)) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		@Override
+		public String toString() {
+			String message = String.format(format, args);
+			return line ? message + LINE_SEPARATOR : message;
+		}
+
+	}
+
 }
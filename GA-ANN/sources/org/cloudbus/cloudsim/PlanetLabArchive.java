@@ -0,0 +1,336 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.RandomAccessFile;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A PlanetLab archive packs the utilization traces of a whole PlanetLab day directory, one text
+ * file of percentages per VM, into a single binary file. Each sample is stored as one byte, the
+ * utilization percentage rounded to an integer, so a day of 288 samples takes 288 bytes per VM.
+ * <p>
+ * An archive is mapped read-only once it is opened. The utilization models created from it read
+ * their samples from the mapped buffer they all share, so creating models for thousands of VMs
+ * neither reads nor copies their traces. A serialized archive, e.g. in a snapshot of a simulation
+ * that uses its models, only holds the name of its file, which is mapped again when the archive
+ * is deserialized; the models of the archive keep sharing it.
+ * <p>
+ * The file starts with a 16 byte header of little-endian ints (magic, version, number of traces,
+ * number of samples per trace), followed by the name of each trace (an unsigned short length and
+ * the UTF-8 bytes of the name of its text file), followed by the samples of each trace in turn.
+ *
+ * @since CloudSim Toolkit 3.0
+ * @see UtilizationModelPlanetLabMapped
+ */
+public class PlanetLabArchive implements Serializable {
+
+	/** The Constant serialVersionUID. */
+	private static final long serialVersionUID = 1L;
+
+	/** The magic number of an archive, "PLAB". */
+	public static final int MAGIC = 0x504C4142;
+
+	/** The version of the format. */
+	public static final int VERSION = 1;
+
+	/** The size of the header, in bytes. */
+	public static final int HEADER_SIZE = 16;
+
+	/** The number of samples of the traces of a day (5 min * 288 = 24 hours). */
+	public static final int DAY_SAMPLES = 288;
+
+	/** The encoding of the names. */
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	/** The absolute name of the file. */
+	private final String fileName;
+
+	/** The mapped file; mapped again on deserialization. */
+	private transient MappedByteBuffer buffer;
+
+	/** The number of traces. */
+	private final int numTraces;
+
+	/** The number of samples of a trace. */
+	private final int numSamples;
+
+	/** The offset of the samples of the first trace. */
+	private final int dataOffset;
+
+	/** The names of the traces. */
+	private final String[] names;
+
+	/** The indexes of the traces, by name. */
+	private final Map<String, Integer> indexes;
+
+	/**
+	 * Opens an archive.
+	 *
+	 * @param fileName the name of the file
+	 * @throws IOException if the file cannot be read or is not a PlanetLab archive
+	 */
+	public PlanetLabArchive(String fileName) throws IOException {
+		this.fileName = new File(fileName).getAbsolutePath();
+		buffer = map(fileName);
+		numTraces = buffer.getInt(8);
+		numSamples = buffer.getInt(12);
+
+		names = new String[numTraces];
+		indexes = new HashMap<String, Integer>(numTraces * 2);
+		int offset = HEADER_SIZE;
+		byte[] bytes = new byte[256];
+		for (int i = 0; i < numTraces; i++) {
+			int nameLength = buffer.getShort(offset) & 0xFFFF;
+			offset += 2;
+			if (nameLength > bytes.length) {
+				bytes = new byte[nameLength];
+			}
+			for (int j = 0; j < nameLength; j++) {
+				bytes[j] = buffer.get(offset + j);
+			}
+			offset += nameLength;
+			names[i] = new String(bytes, 0, nameLength, UTF8);
+			indexes.put(names[i], i);
+		}
+		dataOffset = offset;
+		if ((long) dataOffset + (long) numTraces * numSamples > buffer.capacity()) {
+			throw new IOException(fileName + " is truncated");
+		}
+	}
+
+	/**
+	 * Maps an archive and checks its header.
+	 *
+	 * @param fileName the name of the file
+	 * @return the mapped file
+	 * @throws IOException if the file cannot be read or is not a PlanetLab archive
+	 */
+	private static MappedByteBuffer map(String fileName) throws IOException {
+		MappedByteBuffer buffer;
+		RandomAccessFile file = new RandomAccessFile(fileName, "r");
+		try {
+			FileChannel channel = file.getChannel();
+			long length = channel.size();
+			if (length < HEADER_SIZE || length > Integer.MAX_VALUE) {
+				throw new IOException(fileName + " is not a PlanetLab archive");
+			}
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+		} finally {
+			// the mapping stays valid once the file is closed
+			file.close();
+		}
+
+		buffer.order(ByteOrder.LITTLE_ENDIAN);
+		if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+			throw new IOException(fileName + " is not a PlanetLab archive");
+		}
+		return buffer;
+	}
+
+	/**
+	 * Maps the file again once the archive has been deserialized.
+	 *
+	 * @param in the input stream
+	 * @throws IOException if the file cannot be read or no longer holds the same traces
+	 * @throws ClassNotFoundException if a class of the archive cannot be found
+	 */
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		buffer = map(fileName);
+		if (buffer.getInt(8) != numTraces || buffer.getInt(12) != numSamples
+				|| (long) dataOffset + (long) numTraces * numSamples > buffer.capacity()) {
+			throw new InvalidObjectException(fileName + " has changed since the archive was serialized");
+		}
+	}
+
+	/**
+	 * Packs the traces of a PlanetLab day directory into an archive. Every file of the directory
+	 * is a trace of at least a given number of lines, one utilization percentage per line; the
+	 * traces are stored in the order of their file names.
+	 *
+	 * @param directory the name of the directory
+	 * @param fileName the name of the archive
+	 * @param numSamples the number of samples of each trace
+	 * @return the number of traces packed
+	 * @throws IOException if a trace cannot be read or the archive cannot be written
+	 */
+	public static int pack(String directory, String fileName, int numSamples) throws IOException {
+		File[] files = new File(directory).listFiles();
+		if (files == null) {
+			throw new IOException(directory + " is not a directory");
+		}
+		Arrays.sort(files);
+
+		int numTraces = 0;
+		int namesSize = 0;
+		for (File trace : files) {
+			if (trace.isFile()) {
+				numTraces++;
+				namesSize += 2 + trace.getName().getBytes(UTF8).length;
+			}
+		}
+
+		RandomAccessFile file = new RandomAccessFile(fileName, "rw");
+		try {
+			file.setLength(0);
+			FileChannel channel = file.getChannel();
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE + namesSize).order(ByteOrder.LITTLE_ENDIAN);
+			header.putInt(MAGIC).putInt(VERSION).putInt(numTraces).putInt(numSamples);
+			for (File trace : files) {
+				if (trace.isFile()) {
+					byte[] name = trace.getName().getBytes(UTF8);
+					header.putShort((short) name.length).put(name);
+				}
+			}
+			header.flip();
+			while (header.hasRemaining()) {
+				channel.write(header);
+			}
+
+			ByteBuffer samples = ByteBuffer.allocate(numSamples);
+			for (File trace : files) {
+				if (trace.isFile()) {
+					samples.clear();
+					readTrace(trace, samples);
+					samples.flip();
+					while (samples.hasRemaining()) {
+						channel.write(samples);
+					}
+				}
+			}
+		} finally {
+			file.close();
+		}
+		return numTraces;
+	}
+
+	/**
+	 * Reads the samples of a trace file, rounded to integer percentages between 0 and 255.
+	 *
+	 * @param trace the trace file
+	 * @param samples the buffer to fill
+	 * @throws IOException if the file cannot be read or has too few samples
+	 */
+	private static void readTrace(File trace, ByteBuffer samples) throws IOException {
+		BufferedReader input = new BufferedReader(new FileReader(trace));
+		try {
+			while (samples.hasRemaining()) {
+				String line = input.readLine();
+				if (line == null) {
+					throw new IOException(trace + " has fewer than " + samples.capacity() + " samples");
+				}
+				long percentage = Math.round(Double.parseDouble(line.trim()));
+				samples.put((byte) Math.max(0, Math.min(255, percentage)));
+			}
+		} catch (NumberFormatException e) {
+			throw new IOException(trace + " has an invalid sample: " + e.getMessage());
+		} finally {
+			input.close();
+		}
+	}
+
+	/**
+	 * Creates a utilization model that reads the samples of a trace from the archive.
+	 *
+	 * @param trace the index of the trace
+	 * @param schedulingInterval the time between two samples
+	 * @return the utilization model
+	 */
+	public UtilizationModelPlanetLabMapped createUtilizationModel(int trace, double schedulingInterval) {
+		return new UtilizationModelPlanetLabMapped(this, trace, schedulingInterval);
+	}
+
+	/**
+	 * Gets a sample of a trace.
+	 *
+	 * @param trace the index of the trace
+	 * @param sample the index of the sample
+	 * @return the utilization, between 0 and 1 unless the trace has samples above 100%
+	 */
+	public double getUtilization(int trace, int sample) {
+		return (buffer.get(getOffset(trace) + sample) & 0xFF) / 100.0;
+	}
+
+	/**
+	 * Gets the offset of the first sample of a trace in the mapped file.
+	 *
+	 * @param trace the index of the trace
+	 * @return the offset
+	 */
+	int getOffset(int trace) {
+		if (trace < 0 || trace >= numTraces) {
+			throw new IndexOutOfBoundsException("Trace " + trace + " of " + numTraces);
+		}
+		return dataOffset + trace * numSamples;
+	}
+
+	/**
+	 * Gets the mapped file, shared by the utilization models.
+	 *
+	 * @return the buffer
+	 */
+	ByteBuffer getBuffer() {
+		return buffer;
+	}
+
+	/**
+	 * Gets the number of traces.
+	 *
+	 * @return the number of traces
+	 */
+	public int getNumberOfTraces() {
+		return numTraces;
+	}
+
+	/**
+	 * Gets the number of samples of a trace.
+	 *
+	 * @return the number of samples
+	 */
+	public int getNumberOfSamples() {
+		return numSamples;
+	}
+
+	/**
+	 * Gets the name of a trace, i.e. the name of its text file.
+	 *
+	 * @param trace the index of the trace
+	 * @return the name
+	 */
+	public String getName(int trace) {
+		return names[trace];
+	}
+
+	/**
+	 * Gets the index of a trace.
+	 *
+	 * @param name the name of the trace
+	 * @return the index, or -1 if the archive has no trace of this name
+	 */
+	public int indexOf(String name) {
+		Integer index = indexes.get(name);
+		return index == null ? -1 : index;
+	}
+
+}
@@ -0,0 +1,323 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.io.IOException;
+
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.CloudSimTags;
+import org.cloudbus.cloudsim.core.SimEvent;
+import org.cloudbus.cloudsim.core.SimulationContext;
+import org.cloudbus.cloudsim.util.WorkloadStream;
+
+/**
+ * StreamingDatacenterBroker is a broker that replays a workload stream: each job is submitted to
+ * the VMs at its submit time in the workload, taken as a simulation time, instead of at the start
+ * of the simulation. The jobs are read from the stream as the simulation goes, so that only a
+ * window of jobs that have not arrived yet is held in memory; the jobs submitted before the VMs
+ * are created arrive as soon as they are.
+ * <p>
+ * The jobs are expected in the order of their submit times, as in SWF traces; a job submitted
+ * before the one read before it arrives with it. To replay traces of millions of jobs in constant
+ * memory, the broker can also be told not to record the cloudlets it submits and receives.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class StreamingDatacenterBroker extends DatacenterBroker {
+
+	/** The Constant serialVersionUID. */
+	private static final long serialVersionUID = 1L;
+
+	/** The default number of jobs read ahead of their arrival. */
+	public static final int DEFAULT_WINDOW_SIZE = 4096;
+
+	/** The workload, or null once it has been read entirely. */
+	private WorkloadStream workload;
+
+	/** The jobs that have been read but have not arrived yet, in a circular buffer. */
+	private Cloudlet[] window;
+
+	/** The arrival times of the jobs of the window. */
+	private double[] arrivalTimes;
+
+	/** The index of the next job to arrive in the window. */
+	private int head;
+
+	/** The number of jobs in the window. */
+	private int size;
+
+	/** The arrival time of the job last read. */
+	private double lastArrivalTime;
+
+	/** Whether an arrival event is pending. */
+	private boolean arrivalScheduled;
+
+	/** Whether the cloudlets submitted and received are kept in the lists of the broker. */
+	private boolean recordingCloudlets = true;
+
+	/** The number of cloudlets received. */
+	private long cloudletsReceived;
+
+	/**
+	 * Creates a new StreamingDatacenterBroker object.
+	 *
+	 * @param name name to be associated with this entity
+	 * @throws Exception the exception
+	 * @pre name != null
+	 * @post $none
+	 */
+	public StreamingDatacenterBroker(String name) throws Exception {
+		this(name, CloudSim.getContext());
+	}
+
+	/**
+	 * Creates a new StreamingDatacenterBroker object in a given simulation context.
+	 *
+	 * @param name name to be associated with this entity
+	 * @param context the simulation context the broker belongs to
+	 * @throws Exception the exception
+	 * @pre name != null
+	 * @pre context != null
+	 * @post $none
+	 */
+	public StreamingDatacenterBroker(String name, SimulationContext context) throws Exception {
+		super(name, context);
+		setWindowSize(DEFAULT_WINDOW_SIZE);
+	}
+
+	/**
+	 * Sets the workload to replay. The broker closes the stream once it has been read entirely.
+	 *
+	 * @param workload the workload
+	 * @pre workload != null
+	 * @post $none
+	 */
+	public void submitWorkload(WorkloadStream workload) {
+		this.workload = workload;
+	}
+
+	/**
+	 * Sets the number of jobs read ahead of their arrival. It must be called before the
+	 * simulation starts.
+	 *
+	 * @param windowSize the number of jobs
+	 * @pre windowSize > 0
+	 * @post $none
+	 */
+	public void setWindowSize(int windowSize) {
+		if (windowSize <= 0) {
+			throw new IllegalArgumentException("The window size must be > 0.");
+		}
+		window = new Cloudlet[windowSize];
+		arrivalTimes = new double[windowSize];
+		head = 0;
+		size = 0;
+	}
+
+	/**
+	 * Gets the number of jobs read ahead of their arrival.
+	 *
+	 * @return the number of jobs
+	 */
+	public int getWindowSize() {
+		return window.length;
+	}
+
+	/**
+	 * Sets whether the cloudlets submitted and received are kept in the submitted and received
+	 * lists. When they are not, only the number of cloudlets received is known.
+	 *
+	 * @param recordingCloudlets true to keep the cloudlets
+	 */
+	public void setRecordingCloudlets(boolean recordingCloudlets) {
+		this.recordingCloudlets = recordingCloudlets;
+	}
+
+	/**
+	 * Checks whether the cloudlets submitted and received are kept.
+	 *
+	 * @return true, if they are kept
+	 */
+	public boolean isRecordingCloudlets() {
+		return recordingCloudlets;
+	}
+
+	/**
+	 * Gets the number of cloudlets received, whether they are recorded or not.
+	 *
+	 * @return the number of cloudlets
+	 */
+	public long getNumberOfReceivedCloudlets() {
+		return cloudletsReceived;
+	}
+
+	/**
+	 * Checks whether some jobs of the workload have not arrived yet.
+	 *
+	 * @return true, if some jobs are still to arrive
+	 */
+	public boolean hasArrivals() {
+		return size > 0 || workload != null;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.cloudbus.cloudsim.DatacenterBroker#processOtherEvent(org.cloudbus.cloudsim.core.SimEvent)
+	 */
+	@Override
+	protected void processOtherEvent(SimEvent ev) {
+		if (ev != null && ev.getTag() == CloudSimTags.CLOUDLET_ARRIVAL) {
+			processCloudletArrival();
+		} else {
+			super.processOtherEvent(ev);
+		}
+	}
+
+	/**
+	 * Processes the arrival of jobs: the jobs that have arrived are submitted if the VMs have been
+	 * created, and the next arrival is scheduled.
+	 *
+	 * @pre $none
+	 * @post $none
+	 */
+	protected void processCloudletArrival() {
+		arrivalScheduled = false;
+		if (getVmsCreatedList().isEmpty()) {
+			// the jobs wait for the VMs in the cloudlet list
+			releaseArrivals();
+			scheduleNextArrival();
+		} else {
+			submitCloudlets();
+		}
+	}
+
+	/**
+	 * Submits the cloudlets that have arrived, then schedules the next arrival.
+	 *
+	 * @pre $none
+	 * @post $none
+	 */
+	@Override
+	protected void submitCloudlets() {
+		releaseArrivals();
+		super.submitCloudlets();
+		if (!isRecordingCloudlets()) {
+			getCloudletSubmittedList().clear();
+		}
+		scheduleNextArrival();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.cloudbus.cloudsim.DatacenterBroker#processCloudletReturn(org.cloudbus.cloudsim.core.SimEvent)
+	 */
+	@Override
+	protected void processCloudletReturn(SimEvent ev) {
+		cloudletsReceived++;
+		if (!hasArrivals()) {
+			super.processCloudletReturn(ev);
+			if (!isRecordingCloudlets()) {
+				getCloudletReceivedList().clear();
+			}
+			return;
+		}
+
+		// the execution is not finished while jobs are still to arrive
+		Cloudlet cloudlet = (Cloudlet) ev.getData();
+		if (isRecordingCloudlets()) {
+			getCloudletReceivedList().add(cloudlet);
+		}
+		if (Log.isLoggable(Log.BROKER, Log.INFO)) {
+			Log.formatLine(Log.BROKER, Log.INFO, "%s: %s: Cloudlet %d received", CloudSim.clock(), getName(),
+					cloudlet.getCloudletId());
+		}
+		cloudletsSubmitted--;
+	}
+
+	/**
+	 * Moves the jobs whose arrival time has come from the window to the cloudlet list, reading
+	 * the next jobs of the workload into the window.
+	 *
+	 * @pre $none
+	 * @post $none
+	 */
+	protected void releaseArrivals() {
+		double clock = CloudSim.clock();
+		while (true) {
+			if (size == 0) {
+				readWorkload();
+				if (size == 0) {
+					break;
+				}
+			}
+			if (arrivalTimes[head] > clock) {
+				break;
+			}
+			getCloudletList().add(window[head]);
+			window[head] = null;
+			head = (head + 1) % window.length;
+			size--;
+		}
+		readWorkload();
+	}
+
+	/**
+	 * Schedules the arrival of the next job of the window, unless an arrival is already pending.
+	 *
+	 * @pre $none
+	 * @post $none
+	 */
+	protected void scheduleNextArrival() {
+		if (!arrivalScheduled && size > 0) {
+			schedule(getId(), Math.max(0, arrivalTimes[head] - CloudSim.clock()), CloudSimTags.CLOUDLET_ARRIVAL);
+			arrivalScheduled = true;
+		}
+	}
+
+	/**
+	 * Reads jobs of the workload until the window is full or the workload has been read.
+	 *
+	 * @pre $none
+	 * @post $none
+	 */
+	private void readWorkload() {
+		try {
+			while (workload != null && size < window.length) {
+				Cloudlet cloudlet = workload.next();
+				if (cloudlet == null) {
+					closeWorkload();
+					break;
+				}
+				cloudlet.setUserId(getId());
+				int tail = (head + size) % window.length;
+				window[tail] = cloudlet;
+				// a job submitted before the previous one arrives with it
+				lastArrivalTime = Math.max(workload.getSubmitTime(), lastArrivalTime);
+				arrivalTimes[tail] = lastArrivalTime;
+				size++;
+			}
+		} catch (IOException e) {
+			Log.printLine(getName() + ": the workload cannot be read: " + e.getMessage());
+			closeWorkload();
+		}
+	}
+
+	/**
+	 * Closes the workload once it has been read.
+	 */
+	private void closeWorkload() {
+		try {
+			workload.close();
+		} catch (IOException e) {
+			Log.printLine(getName() + ": the workload cannot be closed: " + e.getMessage());
+		}
+		workload = null;
+	}
+
+}
@@ -0,0 +1,118 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * A utilization model that reads a PlanetLab trace from a {@link PlanetLabArchive}. The samples
+ * stay in the mapped buffer of the archive, which all the models of the archive share; the model
+ * itself only holds the offset of its trace. Between two samples the utilization is interpolated
+ * as by {@link UtilizationModelPlanetLabInMemory}, and the last sample is held after the end of
+ * the trace. A serialized model holds its archive, whose file is mapped again when it is
+ * deserialized.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class UtilizationModelPlanetLabMapped implements UtilizationModel {
+
+	/** The Constant serialVersionUID. */
+	private static final long serialVersionUID = 1L;
+
+	/** The scheduling interval. */
+	private double schedulingInterval;
+
+	/** The archive. */
+	private final PlanetLabArchive archive;
+
+	/** The mapped archive; taken from the archive again on deserialization. */
+	private transient ByteBuffer buffer;
+
+	/** The offset of the first sample in the buffer. */
+	private final int offset;
+
+	/** The index of the last sample. */
+	private final int lastSample;
+
+	/**
+	 * Instantiates a new utilization model of a trace of an archive.
+	 *
+	 * @param archive the archive
+	 * @param trace the index of the trace
+	 * @param schedulingInterval the time between two samples
+	 */
+	public UtilizationModelPlanetLabMapped(PlanetLabArchive archive, int trace, double schedulingInterval) {
+		this.archive = archive;
+		buffer = archive.getBuffer();
+		offset = archive.getOffset(trace);
+		lastSample = archive.getNumberOfSamples() - 1;
+		setSchedulingInterval(schedulingInterval);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see cloudsim.power.UtilizationModel#getUtilization(double)
+	 */
+	@Override
+	public double getUtilization(double time) {
+		if (time % getSchedulingInterval() == 0) {
+			return getSample((int) time / (int) getSchedulingInterval());
+		}
+		int time1 = (int) Math.floor(time / getSchedulingInterval());
+		int time2 = (int) Math.ceil(time / getSchedulingInterval());
+		double utilization1 = getSample(time1);
+		double utilization2 = getSample(time2);
+		double delta = (utilization2 - utilization1) / ((time2 - time1) * getSchedulingInterval());
+		double utilization = utilization1 + delta * (time - time1 * getSchedulingInterval());
+		return utilization;
+	}
+
+	/**
+	 * Gets a sample of the trace.
+	 *
+	 * @param index the index of the sample
+	 * @return the utilization
+	 */
+	private double getSample(int index) {
+		return (buffer.get(offset + Math.min(index, lastSample)) & 0xFF) / 100.0;
+	}
+
+	/**
+	 * Takes the mapped archive from the deserialized archive.
+	 *
+	 * @param in the input stream
+	 * @throws IOException if the archive cannot be read
+	 * @throws ClassNotFoundException if a class of the model cannot be found
+	 */
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		buffer = archive.getBuffer();
+	}
+
+	/**
+	 * Sets the scheduling interval.
+	 *
+	 * @param schedulingInterval the new scheduling interval
+	 */
+	public void setSchedulingInterval(double schedulingInterval) {
+		this.schedulingInterval = schedulingInterval;
+	}
+
+	/**
+	 * Gets the scheduling interval.
+	 *
+	 * @return the scheduling interval
+	 */
+	public double getSchedulingInterval() {
+		return schedulingInterval;
+	}
+
+}
@@ -19,12 +19,18 @@ import java.util.Random;
 /**
  * The UtilizationModelStochastic class implements a model, according to which a Cloudlet generates
  * random CPU utilization every time frame.
+ * <p>
+ * Every time queried is kept in the history, which grows with the length of the simulation; see
+ * {@link UtilizationModelStochasticStateless} for a model that keeps no history.
  * 
  * @author Anton Beloglazov
  * @since CloudSim Toolkit 2.0
  */
 public class UtilizationModelStochastic implements UtilizationModel {
 
+	/** The Constant serialVersionUID. */
+	private static final long serialVersionUID = 1L;
+
 	/** The random generator. */
 	private Random randomGenerator;
 
@@ -0,0 +1,127 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+/**
+ * The UtilizationModelStochasticStateless class implements a model, according to which a Cloudlet
+ * generates random CPU utilization every time frame, like {@link UtilizationModelStochastic}, but
+ * without keeping a history. The utilization of a time frame is a hash of the seed, of the stream
+ * (e.g. the id of the Cloudlet) and of the index of the frame, computed by the SplitMix64
+ * generator taken at that index. The same time always gives the same utilization, whatever the
+ * order of the queries, the run or the thread, and a query neither allocates nor keeps memory.
+ * <p>
+ * With a time frame of 0, every distinct time gets its own utilization, as with
+ * {@link UtilizationModelStochastic}.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class UtilizationModelStochasticStateless implements UtilizationModel {
+
+	/** The Constant serialVersionUID. */
+	private static final long serialVersionUID = 1L;
+
+	/** The increment of the SplitMix64 generator, the golden ratio. */
+	private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+	/** The seed. */
+	private final long seed;
+
+	/** The stream. */
+	private final long stream;
+
+	/** The length of a time frame, or 0. */
+	private final double timeFrame;
+
+	/** The state of the generator of the stream. */
+	private final long key;
+
+	/**
+	 * Instantiates a new utilization model in which every distinct time gets its own utilization.
+	 *
+	 * @param seed the seed
+	 * @param stream the stream, e.g. the id of the Cloudlet
+	 */
+	public UtilizationModelStochasticStateless(long seed, long stream) {
+		this(seed, stream, 0);
+	}
+
+	/**
+	 * Instantiates a new utilization model in which the utilization is constant within each time
+	 * frame.
+	 *
+	 * @param seed the seed
+	 * @param stream the stream, e.g. the id of the Cloudlet
+	 * @param timeFrame the length of a time frame, or 0 for a utilization per distinct time
+	 */
+	public UtilizationModelStochasticStateless(long seed, long stream, double timeFrame) {
+		if (timeFrame < 0) {
+			throw new IllegalArgumentException("The time frame must be >= 0.");
+		}
+		this.seed = seed;
+		this.stream = stream;
+		this.timeFrame = timeFrame;
+		key = mix(seed + GOLDEN_GAMMA * (stream + 1));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see cloudsim.power.UtilizationModel#getUtilization(double)
+	 */
+	@Override
+	public double getUtilization(double time) {
+		long counter;
+		if (timeFrame > 0) {
+			counter = (long) Math.floor(time / timeFrame);
+		} else {
+			// 0.0 and -0.0 are the same time
+			counter = Double.doubleToLongBits(time + 0.0);
+		}
+		return (mix(key + GOLDEN_GAMMA * (counter + 1)) >>> 11) * 0x1.0p-53;
+	}
+
+	/**
+	 * The output function of the SplitMix64 generator.
+	 *
+	 * @param z the state
+	 * @return the hash of the state
+	 */
+	private static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	/**
+	 * Gets the seed.
+	 *
+	 * @return the seed
+	 */
+	public long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * Gets the stream.
+	 *
+	 * @return the stream
+	 */
+	public long getStream() {
+		return stream;
+	}
+
+	/**
+	 * Gets the length of a time frame.
+	 *
+	 * @return the length of a time frame, or 0 if every distinct time gets its own utilization
+	 */
+	public double getTimeFrame() {
+		return timeFrame;
+	}
+
+}
@@ -0,0 +1,122 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.ann;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * NetworkFile saves and loads neural networks. A model file holds, big-endian, the magic number
+ * {@link #MAGIC}, the format {@link #VERSION}, the activation function of the hidden layers, the
+ * number of layers and the size of each, then as doubles the input shifts, the input scales and the
+ * weights in the order of {@link NeuralNetwork#getWeights()}. The header is a whole number of
+ * doubles long, so that the rest of the file can be read in bulk from a memory mapping.
+ *
+ * @since CloudSim Toolkit 3.0
+ * @see NeuralNetwork
+ */
+public class NetworkFile {
+
+	/** The magic number of model files: "CSNN". */
+	public static final int MAGIC = 0x43534E4E;
+
+	/** The version of the model format. */
+	public static final int VERSION = 1;
+
+	/**
+	 * Saves a network.
+	 *
+	 * @param network the network
+	 * @param fileName the name of the file
+	 * @throws IOException if the file cannot be written
+	 */
+	public static void save(NeuralNetwork network, String fileName) throws IOException {
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(fileName)));
+		try {
+			int numLayers = network.getNumberOfLayers();
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(network.getActivation());
+			out.writeInt(numLayers);
+			for (int l = 0; l < numLayers; l++) {
+				out.writeInt(network.getLayerSize(l));
+			}
+			if (numLayers % 2 != 0) {
+				out.writeInt(0);
+			}
+			for (double shift : network.getInputShift()) {
+				out.writeDouble(shift);
+			}
+			for (double scale : network.getInputScale()) {
+				out.writeDouble(scale);
+			}
+			for (double weight : network.getWeights()) {
+				out.writeDouble(weight);
+			}
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Loads a network by mapping its file into memory.
+	 *
+	 * @param fileName the name of the file
+	 * @return the network
+	 * @throws IOException if the file cannot be read, or is not a model file of a supported version
+	 */
+	public static NeuralNetwork load(String fileName) throws IOException {
+		RandomAccessFile file = new RandomAccessFile(fileName, "r");
+		try {
+			MappedByteBuffer buffer = file.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, file.length());
+			if (buffer.remaining() < 16 || buffer.getInt() != MAGIC) {
+				throw new IOException(fileName + " is not a model file");
+			}
+			int version = buffer.getInt();
+			if (version != VERSION) {
+				throw new IOException(fileName + " has unsupported version " + version);
+			}
+			int activation = buffer.getInt();
+			int[] layerSizes = new int[buffer.getInt()];
+			for (int l = 0; l < layerSizes.length; l++) {
+				layerSizes[l] = buffer.getInt();
+			}
+			if (layerSizes.length % 2 != 0) {
+				buffer.getInt();
+			}
+
+			NeuralNetwork network;
+			try {
+				network = new NeuralNetwork(layerSizes, activation);
+			} catch (IllegalArgumentException e) {
+				throw new IOException(fileName + " is corrupted: " + e.getMessage());
+			}
+			DoubleBuffer doubles = buffer.asDoubleBuffer();
+			double[] shift = new double[layerSizes[0]];
+			double[] scale = new double[layerSizes[0]];
+			doubles.get(shift);
+			doubles.get(scale);
+			doubles.get(network.getWeights());
+			network.setInputScaling(shift, scale);
+			return network;
+		} catch (BufferUnderflowException e) {
+			throw new IOException(fileName + " is truncated");
+		} finally {
+			file.close();
+		}
+	}
+
+}
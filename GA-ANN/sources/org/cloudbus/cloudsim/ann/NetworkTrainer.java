@@ -0,0 +1,699 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.ann;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * NetworkTrainer trains a placement network on the samples of a file written by a
+ * {@link PlacementSampleWriter}. The network scores each candidate VM of a sample; the scores are
+ * turned into probabilities with a softmax, and the loss is the cross-entropy with the chosen VM,
+ * so that the network learns to give the chosen VM the highest score.
+ * <p>
+ * Training uses mini-batch stochastic gradient descent with momentum, or Adam. The samples are
+ * streamed from the file, a window of mini-batches at a time, and the order of the mini-batches is
+ * shuffled within each window. The gradient of a mini-batch is computed in parallel on a
+ * {@link ForkJoinPool}: the mini-batch is split into a fixed number of chunks, each with its own
+ * gradient, and the chunk gradients are summed in order, so that the result does not depend on the
+ * number of threads. Before the first epoch, the inputs of the network are normalised with the mean
+ * and standard deviation of each feature over the file.
+ *
+ * @since CloudSim Toolkit 3.0
+ * @see NetworkFile
+ */
+public class NetworkTrainer implements Serializable {
+
+	/** The Constant serialVersionUID. */
+	private static final long serialVersionUID = 1L;
+
+	/** Stochastic gradient descent with momentum. */
+	public static final int SGD = 0;
+
+	/** The Adam optimiser. */
+	public static final int ADAM = 1;
+
+	/** The number of chunks a mini-batch is split into. */
+	private static final int CHUNKS = 16;
+
+	/** The number of mini-batches in a shuffling window. */
+	private static final int WINDOW = 32;
+
+	/** The network. */
+	private final NeuralNetwork network;
+
+	/** The optimiser. */
+	private int optimizer = ADAM;
+
+	/** The learning rate. */
+	private double learningRate = 0.001;
+
+	/** The momentum, for SGD. */
+	private double momentum = 0.9;
+
+	/** The number of samples of a mini-batch. */
+	private int batchSize = 64;
+
+	/** The number of epochs. */
+	private int epochs = 10;
+
+	/** Whether the inputs are normalised before training. */
+	private boolean normalizeInputs = true;
+
+	/** The random number generator used to shuffle the mini-batches. */
+	private final Random random;
+
+	/** The pool; if null, a pool is created for each training. The pool is not serialized. */
+	private transient ForkJoinPool pool;
+
+	/** The gradient of each chunk. */
+	private double[][] chunkGradients;
+
+	/** The loss of each chunk. */
+	private final double[] chunkLosses = new double[CHUNKS];
+
+	/** The first moments, or velocities for SGD. */
+	private double[] moments;
+
+	/** The second moments. */
+	private double[] secondMoments;
+
+	/** The gradient of the online updates. */
+	private double[] fitGradient;
+
+	/** The number of updates made. */
+	private long step;
+
+	/** The mean loss of each epoch. */
+	private double[] lossHistory = new double[0];
+
+	/** The samples of the current window. */
+	private final Window window = new Window();
+
+	/** The per-thread scratch buffers; recreated on deserialization. */
+	private transient ThreadLocal<Scratch> scratches = newScratches();
+
+	/**
+	 * Creates a trainer.
+	 *
+	 * @param network the network to train
+	 * @param seed the seed of the shuffling
+	 */
+	public NetworkTrainer(NeuralNetwork network, long seed) {
+		if (network.getOutputSize() != 1) {
+			throw new IllegalArgumentException("A placement network has one output");
+		}
+		this.network = network;
+		random = new Random(seed);
+	}
+
+	/**
+	 * Trains the network on a sample file.
+	 *
+	 * @param fileName the name of the sample file
+	 * @return the mean loss of the last epoch
+	 * @throws IOException if the file cannot be read
+	 */
+	public double train(String fileName) throws IOException {
+		PlacementSampleReader reader = new PlacementSampleReader(fileName);
+		ForkJoinPool runPool = pool == null ? new ForkJoinPool() : pool;
+		try {
+			if (reader.getNumberOfFeatures() != network.getInputSize()) {
+				throw new IllegalArgumentException("The network has " + network.getInputSize()
+						+ " inputs, but the samples have " + reader.getNumberOfFeatures() + " features");
+			}
+			if (normalizeInputs) {
+				normalize(reader);
+			}
+			int numWeights = network.getWeights().length;
+			chunkGradients = new double[CHUNKS][numWeights];
+			moments = new double[numWeights];
+			secondMoments = new double[numWeights];
+			step = 0;
+			lossHistory = new double[epochs];
+
+			for (int epoch = 0; epoch < epochs; epoch++) {
+				reader.rewind();
+				double loss = 0;
+				long samples = 0;
+				while (window.fill(reader, batchSize * WINDOW)) {
+					int numBatches = (window.size + batchSize - 1) / batchSize;
+					int[] order = window.batchOrder(numBatches, random);
+					for (int b : order) {
+						int from = b * batchSize;
+						int to = Math.min(window.size, from + batchSize);
+						loss += trainBatch(runPool, from, to);
+						samples += to - from;
+					}
+				}
+				lossHistory[epoch] = samples == 0 ? 0 : loss / samples;
+			}
+			return epochs == 0 ? Double.NaN : lossHistory[epochs - 1];
+		} finally {
+			reader.close();
+			if (pool == null) {
+				runPool.shutdown();
+			}
+		}
+	}
+
+	/**
+	 * Sets the inputs normalisation of the network to the mean and standard deviation of each
+	 * feature over the samples of a file.
+	 *
+	 * @param reader the reader of the file
+	 * @throws IOException if the file cannot be read
+	 */
+	private void normalize(PlacementSampleReader reader) throws IOException {
+		int numFeatures = reader.getNumberOfFeatures();
+		double[] sum = new double[numFeatures];
+		double[] sumOfSquares = new double[numFeatures];
+		long count = 0;
+		reader.rewind();
+		while (reader.next()) {
+			double[] features = reader.getFeatures();
+			int f = 0;
+			for (int c = 0; c < reader.getNumberOfCandidates(); c++) {
+				for (int k = 0; k < numFeatures; k++, f++) {
+					sum[k] += features[f];
+					sumOfSquares[k] += features[f] * features[f];
+				}
+			}
+			count += reader.getNumberOfCandidates();
+		}
+		double[] shift = new double[numFeatures];
+		double[] scale = new double[numFeatures];
+		for (int k = 0; k < numFeatures; k++) {
+			double mean = count == 0 ? 0 : sum[k] / count;
+			double variance = count == 0 ? 0 : sumOfSquares[k] / count - mean * mean;
+			shift[k] = mean;
+			scale[k] = variance > 1e-12 ? 1 / Math.sqrt(variance) : 1;
+		}
+		network.setInputScaling(shift, scale);
+	}
+
+	/**
+	 * Computes the gradient of a mini-batch and updates the weights.
+	 *
+	 * @param runPool the pool
+	 * @param from the first sample of the mini-batch in the window
+	 * @param to the sample after the last one
+	 * @return the total loss of the mini-batch
+	 */
+	private double trainBatch(ForkJoinPool runPool, int from, int to) {
+		int chunks = Math.min(CHUNKS, to - from);
+		runPool.invoke(new GradientTask(from, to, 0, chunks, chunks));
+
+		double[] gradient = chunkGradients[0];
+		double loss = chunkLosses[0];
+		for (int c = 1; c < chunks; c++) {
+			double[] chunkGradient = chunkGradients[c];
+			for (int w = 0; w < gradient.length; w++) {
+				gradient[w] += chunkGradient[w];
+			}
+			loss += chunkLosses[c];
+		}
+		update(gradient, to - from);
+		return loss;
+	}
+
+	/**
+	 * Updates the weights from the gradient of a mini-batch.
+	 *
+	 * @param gradient the sum of the gradients of the samples
+	 * @param count the number of samples
+	 */
+	private void update(double[] gradient, int count) {
+		double[] weights = network.getWeights();
+		step++;
+		if (optimizer == ADAM) {
+			double beta1 = 0.9;
+			double beta2 = 0.999;
+			double correction1 = 1 - Math.pow(beta1, step);
+			double correction2 = 1 - Math.pow(beta2, step);
+			for (int w = 0; w < weights.length; w++) {
+				double g = gradient[w] / count;
+				moments[w] = beta1 * moments[w] + (1 - beta1) * g;
+				secondMoments[w] = beta2 * secondMoments[w] + (1 - beta2) * g * g;
+				weights[w] -= learningRate * (moments[w] / correction1)
+						/ (Math.sqrt(secondMoments[w] / correction2) + 1e-8);
+			}
+		} else {
+			for (int w = 0; w < weights.length; w++) {
+				moments[w] = momentum * moments[w] - learningRate * gradient[w] / count;
+				weights[w] += moments[w];
+			}
+		}
+	}
+
+	/**
+	 * Trains the network on a batch of inputs with known target outputs, minimising the squared
+	 * error. This makes a single update on the calling thread, e.g. to adapt the network online.
+	 * The inputs are not normalised beforehand.
+	 *
+	 * @param inputs the inputs, one after the other
+	 * @param targets the target output of each input
+	 * @param count the number of inputs
+	 * @return the mean squared error of the batch before the update
+	 */
+	public double fit(double[] inputs, double[] targets, int count) {
+		int numWeights = network.getWeights().length;
+		if (moments == null || moments.length != numWeights) {
+			moments = new double[numWeights];
+			secondMoments = new double[numWeights];
+			step = 0;
+		}
+		if (fitGradient == null || fitGradient.length != numWeights) {
+			fitGradient = new double[numWeights];
+		}
+		Scratch scratch = scratches.get();
+		scratch.ensureCapacity(count);
+		forwardPass(inputs, count, scratch);
+
+		double[] outputs = scratch.activations[network.getNumberOfLayers() - 1];
+		double loss = 0;
+		for (int s = 0; s < count; s++) {
+			double error = outputs[s] - targets[s];
+			scratch.delta[s] = error;
+			loss += error * error;
+		}
+		Arrays.fill(fitGradient, 0);
+		backwardPass(count, fitGradient, scratch);
+		update(fitGradient, count);
+		return loss / count;
+	}
+
+	/**
+	 * Computes the loss of a sample and adds its gradient to a chunk gradient.
+	 *
+	 * @param sample the sample in the window
+	 * @param gradient the gradient
+	 * @param scratch the scratch buffers of the thread
+	 * @return the loss
+	 */
+	private double backpropagate(int sample, double[] gradient, Scratch scratch) {
+		int count = window.candidates[sample];
+		int chosen = window.chosen[sample];
+		scratch.ensureCapacity(count);
+		System.arraycopy(window.features, window.offsets[sample], scratch.input, 0, count * network.getInputSize());
+		forwardPass(scratch.input, count, scratch);
+
+		// softmax cross-entropy over the candidates
+		double[] scores = scratch.activations[network.getNumberOfLayers() - 1];
+		double max = scores[0];
+		for (int s = 1; s < count; s++) {
+			max = Math.max(max, scores[s]);
+		}
+		double sum = 0;
+		for (int s = 0; s < count; s++) {
+			sum += Math.exp(scores[s] - max);
+		}
+		double[] delta = scratch.delta;
+		for (int s = 0; s < count; s++) {
+			delta[s] = Math.exp(scores[s] - max) / sum;
+		}
+		double loss = -Math.log(Math.max(delta[chosen], 1e-300));
+		delta[chosen] -= 1;
+
+		backwardPass(count, gradient, scratch);
+		return loss;
+	}
+
+	/**
+	 * Computes the activations of every layer for a batch.
+	 *
+	 * @param inputs the inputs, one after the other
+	 * @param count the number of inputs
+	 * @param scratch the scratch buffers, large enough for the batch
+	 */
+	private void forwardPass(double[] inputs, int count, Scratch scratch) {
+		double[][] activations = scratch.activations;
+		int last = network.getNumberOfLayers() - 1;
+		network.normalize(inputs, count, activations[0]);
+		for (int l = 1; l <= last; l++) {
+			network.propagate(l, activations[l - 1], activations[l], count);
+			if (l < last) {
+				NeuralNetwork.activate(activations[l], network.getLayerSize(l) * count, network.getActivation());
+			}
+		}
+	}
+
+	/**
+	 * Propagates the error of the output layer back through the network, adding the gradient of
+	 * every weight to a gradient.
+	 *
+	 * @param count the size of the batch
+	 * @param gradient the gradient
+	 * @param scratch the scratch buffers, holding the activations of the batch and, in
+	 *            <tt>delta</tt>, the error of the output layer
+	 */
+	private void backwardPass(int count, double[] gradient, Scratch scratch) {
+		double[][] activations = scratch.activations;
+		double[] weights = network.getWeights();
+		int activation = network.getActivation();
+		double[] delta = scratch.delta;
+		for (int l = network.getNumberOfLayers() - 1; l >= 1; l--) {
+			int inputs = network.getLayerSize(l - 1);
+			int neurons = network.getLayerSize(l);
+			int weight = network.getOffset(l);
+			int bias = weight + neurons * inputs;
+			double[] in = activations[l - 1];
+			double[] previousDelta = scratch.previousDelta;
+			if (l > 1) {
+				Arrays.fill(previousDelta, 0, inputs * count, 0);
+			}
+			for (int j = 0; j < neurons; j++) {
+				int d = j * count;
+				double biasGradient = 0;
+				for (int s = 0; s < count; s++) {
+					biasGradient += delta[d + s];
+				}
+				gradient[bias + j] += biasGradient;
+				for (int k = 0; k < inputs; k++) {
+					int i = k * count;
+					double weightGradient = 0;
+					for (int s = 0; s < count; s++) {
+						weightGradient += delta[d + s] * in[i + s];
+					}
+					gradient[weight + j * inputs + k] += weightGradient;
+					if (l > 1) {
+						double w = weights[weight + j * inputs + k];
+						for (int s = 0; s < count; s++) {
+							previousDelta[i + s] += w * delta[d + s];
+						}
+					}
+				}
+			}
+			if (l > 1) {
+				for (int i = 0; i < inputs * count; i++) {
+					previousDelta[i] *= NeuralNetwork.derivative(in[i], activation);
+				}
+				scratch.previousDelta = delta;
+				scratch.delta = previousDelta;
+				delta = previousDelta;
+			}
+		}
+	}
+
+	/**
+	 * Sets the optimiser.
+	 *
+	 * @param optimizer {@link #SGD} or {@link #ADAM}
+	 */
+	public void setOptimizer(int optimizer) {
+		if (optimizer != SGD && optimizer != ADAM) {
+			throw new IllegalArgumentException("Unknown optimizer " + optimizer);
+		}
+		this.optimizer = optimizer;
+	}
+
+	/**
+	 * Sets the learning rate.
+	 *
+	 * @param learningRate the learning rate
+	 */
+	public void setLearningRate(double learningRate) {
+		if (learningRate <= 0) {
+			throw new IllegalArgumentException("The learning rate must be positive");
+		}
+		this.learningRate = learningRate;
+	}
+
+	/**
+	 * Sets the momentum of SGD.
+	 *
+	 * @param momentum the momentum, in [0, 1)
+	 */
+	public void setMomentum(double momentum) {
+		if (momentum < 0 || momentum >= 1) {
+			throw new IllegalArgumentException("The momentum must be in [0, 1)");
+		}
+		this.momentum = momentum;
+	}
+
+	/**
+	 * Sets the number of samples of a mini-batch.
+	 *
+	 * @param batchSize the batch size
+	 */
+	public void setBatchSize(int batchSize) {
+		if (batchSize <= 0) {
+			throw new IllegalArgumentException("The batch size must be positive");
+		}
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * Sets the number of epochs.
+	 *
+	 * @param epochs the number of epochs
+	 */
+	public void setEpochs(int epochs) {
+		if (epochs < 0) {
+			throw new IllegalArgumentException("The number of epochs must not be negative");
+		}
+		this.epochs = epochs;
+	}
+
+	/**
+	 * Sets whether the inputs of the network are normalised over the samples before training. When
+	 * a network is trained further, its existing normalisation should be kept.
+	 *
+	 * @param normalizeInputs true to normalise the inputs
+	 */
+	public void setNormalizeInputs(boolean normalizeInputs) {
+		this.normalizeInputs = normalizeInputs;
+	}
+
+	/**
+	 * Sets the pool the gradients are computed on. If no pool is set, each training creates a pool
+	 * with one thread per processor and shuts it down at the end.
+	 *
+	 * @param pool the pool, or <tt>null</tt>
+	 */
+	public void setPool(ForkJoinPool pool) {
+		this.pool = pool;
+	}
+
+	/**
+	 * Gets the mean loss of each epoch of the last training.
+	 *
+	 * @return the losses
+	 */
+	public double[] getLossHistory() {
+		return lossHistory.clone();
+	}
+
+	/**
+	 * Gets the network.
+	 *
+	 * @return the network
+	 */
+	public NeuralNetwork getNetwork() {
+		return network;
+	}
+
+	/**
+	 * Creates the per-thread scratch buffers.
+	 *
+	 * @return the thread-local scratches
+	 */
+	private ThreadLocal<Scratch> newScratches() {
+		return new ThreadLocal<Scratch>() {
+
+			@Override
+			protected Scratch initialValue() {
+				return new Scratch();
+			}
+
+		};
+	}
+
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		scratches = newScratches();
+	}
+
+	/**
+	 * The samples of a window, copied from the file.
+	 */
+	private static final class Window implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		/** The number of samples. */
+		int size;
+
+		/** The number of candidates of each sample. */
+		int[] candidates = new int[0];
+
+		/** The chosen candidate of each sample. */
+		int[] chosen = new int[0];
+
+		/** The offset of the features of each sample. */
+		int[] offsets = new int[0];
+
+		/** The features of the samples. */
+		double[] features = new double[0];
+
+		/**
+		 * Reads the next samples of a file.
+		 *
+		 * @param reader the reader
+		 * @param capacity the maximum number of samples
+		 * @return false if there were no samples left
+		 * @throws IOException if the file cannot be read
+		 */
+		boolean fill(PlacementSampleReader reader, int capacity) throws IOException {
+			if (candidates.length < capacity) {
+				candidates = new int[capacity];
+				chosen = new int[capacity];
+				offsets = new int[capacity];
+			}
+			size = 0;
+			int length = 0;
+			while (size < capacity && reader.next()) {
+				int sampleLength = reader.getNumberOfCandidates() * reader.getNumberOfFeatures();
+				if (features.length < length + sampleLength) {
+					features = Arrays.copyOf(features, Math.max(length + sampleLength, features.length * 2));
+				}
+				System.arraycopy(reader.getFeatures(), 0, features, length, sampleLength);
+				candidates[size] = reader.getNumberOfCandidates();
+				chosen[size] = reader.getChosen();
+				offsets[size++] = length;
+				length += sampleLength;
+			}
+			return size > 0;
+		}
+
+		/**
+		 * Shuffles the order of the mini-batches.
+		 *
+		 * @param numBatches the number of mini-batches
+		 * @param random the random number generator
+		 * @return the order
+		 */
+		int[] batchOrder(int numBatches, Random random) {
+			int[] order = new int[numBatches];
+			for (int b = 0; b < numBatches; b++) {
+				order[b] = b;
+			}
+			for (int b = numBatches - 1; b > 0; b--) {
+				int other = random.nextInt(b + 1);
+				int swap = order[b];
+				order[b] = order[other];
+				order[other] = swap;
+			}
+			return order;
+		}
+
+	}
+
+	/**
+	 * The scratch buffers of a backpropagation.
+	 */
+	private final class Scratch {
+
+		/** The inputs of the sample. */
+		double[] input = new double[0];
+
+		/** The activations of every layer, neuron by neuron. */
+		final double[][] activations = new double[network.getNumberOfLayers()][0];
+
+		/** The error of the current layer. */
+		double[] delta = new double[0];
+
+		/** The error of the previous layer. */
+		double[] previousDelta = new double[0];
+
+		/** The number of candidates the buffers can hold. */
+		private int capacity;
+
+		/**
+		 * Grows the buffers to hold a sample.
+		 *
+		 * @param count the number of candidates of the sample
+		 */
+		void ensureCapacity(int count) {
+			if (count <= capacity) {
+				return;
+			}
+			int max = 0;
+			for (int l = 0; l < activations.length; l++) {
+				activations[l] = new double[network.getLayerSize(l) * count];
+				max = Math.max(max, network.getLayerSize(l));
+			}
+			input = new double[network.getInputSize() * count];
+			delta = new double[max * count];
+			previousDelta = new double[max * count];
+			capacity = count;
+		}
+
+	}
+
+	/**
+	 * Computes the gradients of a range of chunks of a mini-batch.
+	 */
+	private final class GradientTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		/** The first sample of the mini-batch. */
+		private final int from;
+
+		/** The sample after the last one. */
+		private final int to;
+
+		/** The first chunk. */
+		private final int firstChunk;
+
+		/** The chunk after the last one. */
+		private final int lastChunk;
+
+		/** The number of chunks of the mini-batch. */
+		private final int chunks;
+
+		GradientTask(int from, int to, int firstChunk, int lastChunk, int chunks) {
+			this.from = from;
+			this.to = to;
+			this.firstChunk = firstChunk;
+			this.lastChunk = lastChunk;
+			this.chunks = chunks;
+		}
+
+		@Override
+		protected void compute() {
+			if (lastChunk - firstChunk > 1) {
+				int middle = (firstChunk + lastChunk) >>> 1;
+				invokeAll(new GradientTask(from, to, firstChunk, middle, chunks),
+						new GradientTask(from, to, middle, lastChunk, chunks));
+				return;
+			}
+			int chunk = firstChunk;
+			double[] gradient = chunkGradients[chunk];
+			Arrays.fill(gradient, 0);
+			Scratch scratch = scratches.get();
+			double loss = 0;
+			int size = to - from;
+			int start = from + (int) ((long) size * chunk / chunks);
+			int end = from + (int) ((long) size * (chunk + 1) / chunks);
+			for (int sample = start; sample < end; sample++) {
+				loss += backpropagate(sample, gradient, scratch);
+			}
+			chunkLosses[chunk] = loss;
+		}
+
+	}
+
+}
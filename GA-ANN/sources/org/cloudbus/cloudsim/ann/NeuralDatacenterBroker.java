@@ -0,0 +1,111 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.ann;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.DatacenterBroker;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.SimEvent;
+import org.cloudbus.cloudsim.core.SimulationContext;
+
+/**
+ * A broker that places each cloudlet on the VM chosen by a {@link PlacementPolicy}, as the
+ * cloudlets are submitted, instead of round-robin. Cloudlets already bound to a VM are left as they
+ * are. The broker keeps the queues of its {@link PlacementState} up to date with the cloudlets it
+ * submits and receives back.
+ *
+ * @since CloudSim Toolkit 3.0
+ * @see PlacementPolicy
+ */
+public class NeuralDatacenterBroker extends DatacenterBroker {
+
+	/** The Constant serialVersionUID. */
+	private static final long serialVersionUID = 1L;
+
+	/** The network the placement policy is created with. */
+	private final NeuralNetwork network;
+
+	/** The placement policy, created once the VMs are. */
+	private PlacementPolicy policy;
+
+	/**
+	 * Creates a new neural datacenter broker.
+	 *
+	 * @param name the name
+	 * @param network the placement network
+	 * @throws Exception the exception
+	 */
+	public NeuralDatacenterBroker(String name, NeuralNetwork network) throws Exception {
+		this(name, CloudSim.getContext(), network);
+	}
+
+	/**
+	 * Creates a new neural datacenter broker in a given simulation context.
+	 *
+	 * @param name the name
+	 * @param context the simulation context the broker belongs to
+	 * @param network the placement network
+	 * @throws Exception the exception
+	 */
+	public NeuralDatacenterBroker(String name, SimulationContext context, NeuralNetwork network) throws Exception {
+		super(name, context);
+		this.network = network;
+	}
+
+	@Override
+	protected void submitCloudlets() {
+		if (policy == null) {
+			policy = new PlacementPolicy(network, new PlacementState(getVmsCreatedList()));
+		}
+		PlacementState state = policy.getState();
+		for (Cloudlet cloudlet : getCloudletList()) {
+			int vm;
+			if (cloudlet.getVmId() == -1) {
+				vm = place(cloudlet);
+				cloudlet.setVmId(state.getVmId(vm));
+			} else {
+				vm = state.indexOf(cloudlet.getVmId());
+			}
+			if (vm != -1) {
+				state.cloudletSubmitted(vm, cloudlet);
+			}
+		}
+		super.submitCloudlets();
+	}
+
+	/**
+	 * Chooses the VM of a cloudlet.
+	 *
+	 * @param cloudlet the cloudlet
+	 * @return the index of the VM in the placement state
+	 */
+	protected int place(Cloudlet cloudlet) {
+		return policy.selectVm(cloudlet);
+	}
+
+	@Override
+	protected void processCloudletReturn(SimEvent ev) {
+		Cloudlet cloudlet = (Cloudlet) ev.getData();
+		int vm = policy.getState().indexOf(cloudlet.getVmId());
+		if (vm != -1) {
+			policy.getState().cloudletReturned(vm, cloudlet);
+		}
+		super.processCloudletReturn(ev);
+	}
+
+	/**
+	 * Gets the placement policy.
+	 *
+	 * @return the placement policy, or <tt>null</tt> before the VMs are created
+	 */
+	public PlacementPolicy getPolicy() {
+		return policy;
+	}
+
+}
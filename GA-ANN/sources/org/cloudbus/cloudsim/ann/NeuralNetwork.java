@@ -0,0 +1,439 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.ann;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * A dense feed-forward neural network. All the weights are stored in a single flat array: for each
+ * layer, the weights of its first neuron to every neuron of the previous layer, then those of its
+ * second neuron, and so on, followed by the biases of the layer. The hidden layers share an
+ * activation function; the output layer is linear.
+ * <p>
+ * The forward passes allocate nothing: they work in scratch buffers kept per thread, so a network
+ * can be used by several threads at once as long as its weights are not modified. A batch of inputs
+ * is evaluated one layer at a time, with the activations of the batch stored neuron by neuron, so
+ * that every weight is read once per batch and the innermost loops run over contiguous arrays.
+ *
+ * @since CloudSim Toolkit 3.0
+ * @see PlacementPolicy
+ */
+public class NeuralNetwork implements Serializable {
+
+	/** The Constant serialVersionUID. */
+	private static final long serialVersionUID = 1L;
+
+	/** The identity activation function. */
+	public static final int IDENTITY = 0;
+
+	/** The rectified linear activation function. */
+	public static final int RELU = 1;
+
+	/** The hyperbolic tangent activation function. */
+	public static final int TANH = 2;
+
+	/** The logistic activation function. */
+	public static final int SIGMOID = 3;
+
+	/** The number of neurons of each layer, the input layer first. */
+	private final int[] layerSizes;
+
+	/** The activation function of the hidden layers. */
+	private final int activation;
+
+	/** The weights and biases. */
+	private final double[] weights;
+
+	/** The offset of the weights of each layer but the input one. */
+	private final int[] offsets;
+
+	/** The value subtracted from each input. */
+	private final double[] inputShift;
+
+	/** The factor each shifted input is multiplied by. */
+	private final double[] inputScale;
+
+	/** The size of the largest layer. */
+	private final int maxLayerSize;
+
+	/** The per-thread scratch buffers; recreated on deserialization. */
+	private transient ThreadLocal<Scratch> scratches = newScratches();
+
+	/**
+	 * Creates a network with all weights set to zero.
+	 *
+	 * @param layerSizes the number of neurons of each layer, the input layer first
+	 * @param activation the activation function of the hidden layers
+	 * @throws IllegalArgumentException if there are less than two layers, a layer is empty or the
+	 *             activation function is unknown
+	 */
+	public NeuralNetwork(int[] layerSizes, int activation) {
+		if (layerSizes.length < 2) {
+			throw new IllegalArgumentException("A network needs an input and an output layer");
+		}
+		if (activation < IDENTITY || activation > SIGMOID) {
+			throw new IllegalArgumentException("Unknown activation function " + activation);
+		}
+		this.layerSizes = layerSizes.clone();
+		this.activation = activation;
+		offsets = new int[layerSizes.length];
+		int numWeights = 0;
+		int max = 0;
+		for (int l = 0; l < layerSizes.length; l++) {
+			if (layerSizes[l] <= 0) {
+				throw new IllegalArgumentException("Layer " + l + " has no neurons");
+			}
+			if (l > 0) {
+				offsets[l] = numWeights;
+				numWeights += layerSizes[l] * (layerSizes[l - 1] + 1);
+			}
+			max = Math.max(max, layerSizes[l]);
+		}
+		weights = new double[numWeights];
+		inputShift = new double[layerSizes[0]];
+		inputScale = new double[layerSizes[0]];
+		Arrays.fill(inputScale, 1);
+		maxLayerSize = max;
+	}
+
+	/**
+	 * Initialises the weights with random values scaled to the size of the layers, and the biases
+	 * with zero.
+	 *
+	 * @param random the random number generator
+	 */
+	public void initialize(Random random) {
+		for (int l = 1; l < layerSizes.length; l++) {
+			int inputs = layerSizes[l - 1];
+			double scale = activation == RELU ? Math.sqrt(2.0 / inputs) : Math.sqrt(1.0 / inputs);
+			int offset = offsets[l];
+			for (int j = 0; j < layerSizes[l]; j++) {
+				for (int k = 0; k < inputs; k++) {
+					weights[offset++] = random.nextGaussian() * scale;
+				}
+			}
+			Arrays.fill(weights, offset, offset + layerSizes[l], 0);
+		}
+	}
+
+	/**
+	 * Computes the output of the network for one input.
+	 *
+	 * @param input the input
+	 * @param output the array the output is written to
+	 */
+	public void forward(double[] input, double[] output) {
+		forward(input, 1, output);
+	}
+
+	/**
+	 * Computes the output of the network for a batch of inputs.
+	 *
+	 * @param inputs the inputs, one after the other
+	 * @param count the number of inputs
+	 * @param outputs the array the outputs are written to, one after the other
+	 */
+	public void forward(double[] inputs, int count, double[] outputs) {
+		Scratch scratch = scratches.get();
+		scratch.ensureCapacity(count);
+		double[] in = scratch.first;
+		double[] out = scratch.second;
+
+		normalize(inputs, count, in);
+		int last = layerSizes.length - 1;
+		for (int l = 1; l <= last; l++) {
+			propagate(l, in, out, count);
+			if (l < last) {
+				activate(out, layerSizes[l] * count, activation);
+			}
+			double[] swap = in;
+			in = out;
+			out = swap;
+		}
+
+		int outputSize = layerSizes[last];
+		for (int s = 0; s < count; s++) {
+			for (int j = 0; j < outputSize; j++) {
+				outputs[s * outputSize + j] = in[j * count + s];
+			}
+		}
+	}
+
+	/**
+	 * Normalises a batch of inputs and stores them neuron by neuron.
+	 *
+	 * @param inputs the inputs, one after the other
+	 * @param count the number of inputs
+	 * @param out the array the normalised inputs are written to, neuron by neuron
+	 */
+	void normalize(double[] inputs, int count, double[] out) {
+		int inputSize = layerSizes[0];
+		for (int k = 0; k < inputSize; k++) {
+			double shift = inputShift[k];
+			double scale = inputScale[k];
+			int o = k * count;
+			for (int s = 0; s < count; s++) {
+				out[o + s] = (inputs[s * inputSize + k] - shift) * scale;
+			}
+		}
+	}
+
+	/**
+	 * Computes the weighted sums of a layer for a batch.
+	 *
+	 * @param layer the layer
+	 * @param in the activations of the previous layer, neuron by neuron
+	 * @param out the array the weighted sums are written to, neuron by neuron
+	 * @param count the size of the batch
+	 */
+	void propagate(int layer, double[] in, double[] out, int count) {
+		int inputs = layerSizes[layer - 1];
+		int neurons = layerSizes[layer];
+		int weight = offsets[layer];
+		int bias = weight + neurons * inputs;
+		for (int j = 0; j < neurons; j++) {
+			int o = j * count;
+			Arrays.fill(out, o, o + count, weights[bias + j]);
+			for (int k = 0; k < inputs; k++) {
+				double w = weights[weight++];
+				int i = k * count;
+				for (int s = 0; s < count; s++) {
+					out[o + s] += w * in[i + s];
+				}
+			}
+		}
+	}
+
+	/**
+	 * Applies an activation function in place.
+	 *
+	 * @param values the values
+	 * @param length the number of values
+	 * @param function the activation function
+	 */
+	static void activate(double[] values, int length, int function) {
+		switch (function) {
+			case RELU:
+				for (int i = 0; i < length; i++) {
+					if (values[i] < 0) {
+						values[i] = 0;
+					}
+				}
+				break;
+			case TANH:
+				for (int i = 0; i < length; i++) {
+					values[i] = Math.tanh(values[i]);
+				}
+				break;
+			case SIGMOID:
+				for (int i = 0; i < length; i++) {
+					values[i] = 1 / (1 + Math.exp(-values[i]));
+				}
+				break;
+			default:
+				break;
+		}
+	}
+
+	/**
+	 * Gets the derivative of an activation function from its output.
+	 *
+	 * @param output the output of the function
+	 * @param function the activation function
+	 * @return the derivative
+	 */
+	static double derivative(double output, int function) {
+		switch (function) {
+			case RELU:
+				return output > 0 ? 1 : 0;
+			case TANH:
+				return 1 - output * output;
+			case SIGMOID:
+				return output * (1 - output);
+			default:
+				return 1;
+		}
+	}
+
+	/**
+	 * Sets the normalisation of the inputs: each input is shifted and scaled before it enters the
+	 * network, e.g. by its mean and the inverse of its standard deviation over the training set.
+	 *
+	 * @param shift the value subtracted from each input
+	 * @param scale the factor each shifted input is multiplied by
+	 */
+	public void setInputScaling(double[] shift, double[] scale) {
+		System.arraycopy(shift, 0, inputShift, 0, inputShift.length);
+		System.arraycopy(scale, 0, inputScale, 0, inputScale.length);
+	}
+
+	/**
+	 * Gets the value subtracted from each input.
+	 *
+	 * @return the input shifts
+	 */
+	public double[] getInputShift() {
+		return inputShift;
+	}
+
+	/**
+	 * Gets the factor each shifted input is multiplied by.
+	 *
+	 * @return the input scales
+	 */
+	public double[] getInputScale() {
+		return inputScale;
+	}
+
+	/**
+	 * Copies the weights and the input normalisation of a network with the same layers into this
+	 * one.
+	 *
+	 * @param other the other network
+	 * @throws IllegalArgumentException if the networks do not have the same layers
+	 */
+	public void copyWeightsFrom(NeuralNetwork other) {
+		if (!Arrays.equals(layerSizes, other.layerSizes)) {
+			throw new IllegalArgumentException("The networks do not have the same layers");
+		}
+		System.arraycopy(other.weights, 0, weights, 0, weights.length);
+		setInputScaling(other.inputShift, other.inputScale);
+	}
+
+	/**
+	 * Creates a copy of this network.
+	 *
+	 * @return the copy
+	 */
+	public NeuralNetwork copy() {
+		NeuralNetwork copy = new NeuralNetwork(layerSizes, activation);
+		copy.copyWeightsFrom(this);
+		return copy;
+	}
+
+	/**
+	 * Gets the weights and biases. The array is the internal representation of the network; it
+	 * must not be modified while other threads use the network.
+	 *
+	 * @return the weights
+	 */
+	public double[] getWeights() {
+		return weights;
+	}
+
+	/**
+	 * Gets the offset in the weight array of the weights of a layer. The biases of the layer
+	 * follow its weights.
+	 *
+	 * @param layer the layer, 1 for the first hidden layer
+	 * @return the offset
+	 */
+	public int getOffset(int layer) {
+		return offsets[layer];
+	}
+
+	/**
+	 * Gets the number of layers, including the input layer.
+	 *
+	 * @return the number of layers
+	 */
+	public int getNumberOfLayers() {
+		return layerSizes.length;
+	}
+
+	/**
+	 * Gets the number of neurons of a layer.
+	 *
+	 * @param layer the layer, 0 for the input layer
+	 * @return the number of neurons
+	 */
+	public int getLayerSize(int layer) {
+		return layerSizes[layer];
+	}
+
+	/**
+	 * Gets the number of inputs.
+	 *
+	 * @return the number of inputs
+	 */
+	public int getInputSize() {
+		return layerSizes[0];
+	}
+
+	/**
+	 * Gets the number of outputs.
+	 *
+	 * @return the number of outputs
+	 */
+	public int getOutputSize() {
+		return layerSizes[layerSizes.length - 1];
+	}
+
+	/**
+	 * Gets the activation function of the hidden layers.
+	 *
+	 * @return the activation function
+	 */
+	public int getActivation() {
+		return activation;
+	}
+
+	/**
+	 * Creates the per-thread scratch buffers.
+	 *
+	 * @return the thread-local scratches
+	 */
+	private ThreadLocal<Scratch> newScratches() {
+		return new ThreadLocal<Scratch>() {
+
+			@Override
+			protected Scratch initialValue() {
+				return new Scratch();
+			}
+
+		};
+	}
+
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		scratches = newScratches();
+	}
+
+	/**
+	 * The scratch buffers of a thread: two arrays the activations of consecutive layers alternate
+	 * between, grown to the largest batch seen.
+	 */
+	private final class Scratch {
+
+		/** The first buffer. */
+		double[] first = new double[0];
+
+		/** The second buffer. */
+		double[] second = new double[0];
+
+		/**
+		 * Grows the buffers to hold a batch.
+		 *
+		 * @param count the size of the batch
+		 */
+		void ensureCapacity(int count) {
+			int size = maxLayerSize * count;
+			if (first.length < size) {
+				first = new double[size];
+				second = new double[size];
+			}
+		}
+
+	}
+
+}
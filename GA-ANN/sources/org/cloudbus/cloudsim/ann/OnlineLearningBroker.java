@@ -0,0 +1,323 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.ann;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.SimEvent;
+import org.cloudbus.cloudsim.core.SimulationContext;
+
+/**
+ * A {@link NeuralDatacenterBroker} that keeps training its placement network on the cloudlets it
+ * receives back. Each placement remembers the features of the chosen VM; when the cloudlet returns,
+ * its response time, i.e. its waiting time plus its actual CPU time, turns them into a training
+ * sample whose target is <tt>-log(1 + response time)</tt>. The network thus learns to give the
+ * highest score to the VM expected to answer first.
+ * <p>
+ * By default the samples are learnt by a background thread, in mini-batches, on its own copy of
+ * the network. The event thread places cloudlets with a front network and never waits: new weights
+ * are copied into a back network, which the event thread swaps with the front one before its next
+ * placement; the learner only writes the back network once the event thread has taken the previous
+ * weights. Samples that arrive while the learner is behind are dropped. In synchronous mode the
+ * samples are learnt on the event thread instead, which makes simulations reproducible.
+ *
+ * @since CloudSim Toolkit 3.0
+ * @see NetworkTrainer#fit(double[], double[], int)
+ */
+public class OnlineLearningBroker extends NeuralDatacenterBroker {
+
+	/** The Constant serialVersionUID. */
+	private static final long serialVersionUID = 1L;
+
+	/** The number of features of a sample. */
+	private static final int NUM_FEATURES = PlacementState.NUMBER_OF_FEATURES;
+
+	/** The network the learner trains. */
+	private final NeuralNetwork learner;
+
+	/** The trainer of the learner network. */
+	private final NetworkTrainer trainer;
+
+	/** Whether the samples are learnt on the event thread. */
+	private final boolean synchronous;
+
+	/** The network holding the weights to publish; written by the learner only while not published. */
+	private NeuralNetwork back;
+
+	/** Whether the back network holds weights the event thread has not taken yet. */
+	private volatile boolean published;
+
+	/** The samples waiting to be learnt: the features of the chosen VM, then the target. */
+	private final BlockingQueue<double[]> samples;
+
+	/** The features of the chosen VM of each cloudlet in execution. */
+	private final Map<Integer, double[]> decisions = new HashMap<Integer, double[]>();
+
+	/** The features of every candidate VM of the current placement. */
+	private double[] features = new double[0];
+
+	/** The score of every candidate VM of the current placement. */
+	private double[] scores = new double[0];
+
+	/** The number of samples in a mini-batch. */
+	private final int batchSize;
+
+	/** The number of mini-batches between two publications of the weights. */
+	private final int publishInterval;
+
+	/** The background learner thread; a deserialized broker has none. */
+	private transient Thread thread;
+
+	/** Whether the learner thread has to keep running. */
+	private volatile boolean running;
+
+	/** The number of mini-batches learnt. */
+	private volatile long numUpdates;
+
+	/** The number of samples dropped. */
+	private volatile long numDropped;
+
+	/** The mean squared error of the last mini-batch. */
+	private volatile double lastLoss = Double.NaN;
+
+	/** The mini-batch buffers of the learner. */
+	private final double[] batchInputs;
+
+	/** The targets of the mini-batch. */
+	private final double[] batchTargets;
+
+	/** The samples of the mini-batch. */
+	private final List<double[]> batch;
+
+	/**
+	 * Creates a new online learning broker that learns in the background, with mini-batches of 32
+	 * samples and new weights published after every mini-batch.
+	 *
+	 * @param name the name
+	 * @param network the initial placement network; it is copied
+	 * @throws Exception the exception
+	 */
+	public OnlineLearningBroker(String name, NeuralNetwork network) throws Exception {
+		this(name, CloudSim.getContext(), network, false, 32, 1);
+	}
+
+	/**
+	 * Creates a new online learning broker in a given simulation context, that learns in the
+	 * background, with mini-batches of 32 samples and new weights published after every mini-batch.
+	 *
+	 * @param name the name
+	 * @param context the simulation context the broker belongs to
+	 * @param network the initial placement network; it is copied
+	 * @throws Exception the exception
+	 */
+	public OnlineLearningBroker(String name, SimulationContext context, NeuralNetwork network) throws Exception {
+		this(name, context, network, false, 32, 1);
+	}
+
+	/**
+	 * Creates a new online learning broker.
+	 *
+	 * @param name the name
+	 * @param network the initial placement network; it is copied
+	 * @param synchronous true to learn on the event thread, false to learn in the background
+	 * @param batchSize the number of samples in a mini-batch
+	 * @param publishInterval the number of mini-batches between two publications of the weights
+	 * @throws Exception the exception
+	 */
+	public OnlineLearningBroker(String name, NeuralNetwork network, boolean synchronous, int batchSize,
+			int publishInterval) throws Exception {
+		this(name, CloudSim.getContext(), network, synchronous, batchSize, publishInterval);
+	}
+
+	/**
+	 * Creates a new online learning broker in a given simulation context.
+	 *
+	 * @param name the name
+	 * @param context the simulation context the broker belongs to
+	 * @param network the initial placement network; it is copied
+	 * @param synchronous true to learn on the event thread, false to learn in the background
+	 * @param batchSize the number of samples in a mini-batch
+	 * @param publishInterval the number of mini-batches between two publications of the weights
+	 * @throws Exception the exception
+	 */
+	public OnlineLearningBroker(String name, SimulationContext context, NeuralNetwork network, boolean synchronous,
+			int batchSize, int publishInterval) throws Exception {
+		super(name, context, network.copy());
+		if (batchSize <= 0 || publishInterval <= 0) {
+			throw new IllegalArgumentException("The batch size and the publish interval must be positive");
+		}
+		learner = network.copy();
+		back = network.copy();
+		trainer = new NetworkTrainer(learner, 0);
+		this.synchronous = synchronous;
+		this.batchSize = batchSize;
+		this.publishInterval = publishInterval;
+		samples = new ArrayBlockingQueue<double[]>(batchSize * 64);
+		batchInputs = new double[batchSize * NUM_FEATURES];
+		batchTargets = new double[batchSize];
+		batch = new ArrayList<double[]>(batchSize);
+	}
+
+	@Override
+	public void startEntity() {
+		super.startEntity();
+		if (!synchronous) {
+			running = true;
+			thread = new Thread(new Learner(), getName() + "-learner");
+			thread.setDaemon(true);
+			thread.start();
+		}
+	}
+
+	@Override
+	public void shutdownEntity() {
+		running = false;
+		if (thread != null) {
+			thread.interrupt();
+			try {
+				thread.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			thread = null;
+		}
+		super.shutdownEntity();
+	}
+
+	@Override
+	protected int place(Cloudlet cloudlet) {
+		PlacementPolicy policy = getPolicy();
+		if (published) {
+			NeuralNetwork front = policy.getNetwork();
+			policy.setNetwork(back);
+			back = front;
+			published = false;
+		}
+		int numVms = policy.getState().getNumberOfVms();
+		if (scores.length < numVms) {
+			features = new double[numVms * NUM_FEATURES];
+			scores = new double[numVms];
+		}
+		int vm = policy.selectVm(cloudlet, features, scores);
+		double[] sample = new double[NUM_FEATURES + 1];
+		System.arraycopy(features, vm * NUM_FEATURES, sample, 0, NUM_FEATURES);
+		decisions.put(cloudlet.getCloudletId(), sample);
+		return vm;
+	}
+
+	@Override
+	protected void processCloudletReturn(SimEvent ev) {
+		Cloudlet cloudlet = (Cloudlet) ev.getData();
+		double[] sample = decisions.remove(cloudlet.getCloudletId());
+		if (sample != null && cloudlet.getStatus() == Cloudlet.SUCCESS) {
+			sample[NUM_FEATURES] = -Math.log1p(cloudlet.getWaitingTime() + cloudlet.getActualCPUTime());
+			if (synchronous) {
+				batch.add(sample);
+				if (batch.size() == batchSize) {
+					learn();
+				}
+			} else if (!samples.offer(sample)) {
+				numDropped++;
+			}
+		}
+		super.processCloudletReturn(ev);
+	}
+
+	/**
+	 * Learns the mini-batch and publishes the weights when due.
+	 */
+	private void learn() {
+		int count = batch.size();
+		for (int s = 0; s < count; s++) {
+			double[] sample = batch.get(s);
+			System.arraycopy(sample, 0, batchInputs, s * NUM_FEATURES, NUM_FEATURES);
+			batchTargets[s] = sample[NUM_FEATURES];
+		}
+		batch.clear();
+		lastLoss = trainer.fit(batchInputs, batchTargets, count);
+		numUpdates++;
+		if (!published && numUpdates % publishInterval == 0) {
+			back.copyWeightsFrom(learner);
+			published = true;
+		}
+	}
+
+	/**
+	 * Gets the trainer of the network, e.g. to change its learning rate before the simulation
+	 * starts.
+	 *
+	 * @return the trainer
+	 */
+	public NetworkTrainer getTrainer() {
+		return trainer;
+	}
+
+	/**
+	 * Gets the number of mini-batches learnt.
+	 *
+	 * @return the number of updates
+	 */
+	public long getNumberOfUpdates() {
+		return numUpdates;
+	}
+
+	/**
+	 * Gets the number of samples dropped because the learner was behind.
+	 *
+	 * @return the number of dropped samples
+	 */
+	public long getNumberOfDroppedSamples() {
+		return numDropped;
+	}
+
+	/**
+	 * Gets the mean squared error of the last mini-batch, before it was learnt.
+	 *
+	 * @return the loss
+	 */
+	public double getLastLoss() {
+		return lastLoss;
+	}
+
+	/**
+	 * The background learner: learns the samples as they arrive, in mini-batches.
+	 */
+	private final class Learner implements Runnable {
+
+		@Override
+		public void run() {
+			try {
+				while (running) {
+					double[] first = samples.poll(100, TimeUnit.MILLISECONDS);
+					if (first == null) {
+						continue;
+					}
+					batch.add(first);
+					samples.drainTo(batch, batchSize - 1);
+					learn();
+				}
+			} catch (InterruptedException e) {
+				// the broker is shutting down
+			} catch (RuntimeException e) {
+				Log.printLine(getName() + ": online learning stopped: " + e);
+			}
+		}
+
+	}
+
+}
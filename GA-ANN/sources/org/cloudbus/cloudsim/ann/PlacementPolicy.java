@@ -0,0 +1,154 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.ann;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+
+import org.cloudbus.cloudsim.Cloudlet;
+
+/**
+ * PlacementPolicy chooses the VM of a cloudlet with a neural network. The features of the cloudlet
+ * for every VM, as computed by a {@link PlacementState}, are scored in a single batched forward
+ * pass, and the VM with the highest score wins. The network must have
+ * {@link PlacementState#NUMBER_OF_FEATURES} inputs and one output.
+ * <p>
+ * The feature and score buffers are kept per thread, so choosing a VM allocates nothing. The
+ * network can be replaced at any time, e.g. by a newly trained one; a decision in progress
+ * completes with the network it started with.
+ *
+ * @since CloudSim Toolkit 3.0
+ * @see NeuralNetwork
+ */
+public class PlacementPolicy implements Serializable {
+
+	/** The Constant serialVersionUID. */
+	private static final long serialVersionUID = 1L;
+
+	/** The network. */
+	private volatile NeuralNetwork network;
+
+	/** The state of the VMs. */
+	private final PlacementState state;
+
+	/** The per-thread buffers; recreated on deserialization. */
+	private transient ThreadLocal<Buffers> buffers = newBuffers();
+
+	/**
+	 * Creates a placement policy.
+	 *
+	 * @param network the network
+	 * @param state the state of the VMs
+	 * @throws IllegalArgumentException if the network does not fit the features
+	 */
+	public PlacementPolicy(NeuralNetwork network, PlacementState state) {
+		this.state = state;
+		setNetwork(network);
+	}
+
+	/**
+	 * Chooses the VM of a cloudlet.
+	 *
+	 * @param cloudlet the cloudlet
+	 * @return the index of the VM in the state
+	 */
+	public int selectVm(Cloudlet cloudlet) {
+		Buffers b = buffers.get();
+		return selectVm(cloudlet, b.features, b.scores);
+	}
+
+	/**
+	 * Chooses the VM of a cloudlet, keeping the features and scores of the candidates.
+	 *
+	 * @param cloudlet the cloudlet
+	 * @param features the array the features are written to, VM after VM
+	 * @param scores the array the score of each VM is written to
+	 * @return the index of the VM in the state
+	 */
+	public int selectVm(Cloudlet cloudlet, double[] features, double[] scores) {
+		int numVms = state.getNumberOfVms();
+		state.extract(cloudlet, features);
+		network.forward(features, numVms, scores);
+		int best = 0;
+		for (int vm = 1; vm < numVms; vm++) {
+			if (scores[vm] > scores[best]) {
+				best = vm;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Gets the network.
+	 *
+	 * @return the network
+	 */
+	public NeuralNetwork getNetwork() {
+		return network;
+	}
+
+	/**
+	 * Replaces the network.
+	 *
+	 * @param network the new network
+	 * @throws IllegalArgumentException if the network does not fit the features
+	 */
+	public void setNetwork(NeuralNetwork network) {
+		if (network.getInputSize() != PlacementState.NUMBER_OF_FEATURES || network.getOutputSize() != 1) {
+			throw new IllegalArgumentException("A placement network needs " + PlacementState.NUMBER_OF_FEATURES
+					+ " inputs and one output");
+		}
+		this.network = network;
+	}
+
+	/**
+	 * Gets the state of the VMs.
+	 *
+	 * @return the state
+	 */
+	public PlacementState getState() {
+		return state;
+	}
+
+	/**
+	 * Creates the per-thread buffers.
+	 *
+	 * @return the thread-local buffers
+	 */
+	private ThreadLocal<Buffers> newBuffers() {
+		return new ThreadLocal<Buffers>() {
+
+			@Override
+			protected Buffers initialValue() {
+				return new Buffers();
+			}
+
+		};
+	}
+
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		buffers = newBuffers();
+	}
+
+	/**
+	 * The buffers of a thread.
+	 */
+	private final class Buffers {
+
+		/** The features of every candidate VM. */
+		final double[] features = new double[state.getNumberOfVms() * PlacementState.NUMBER_OF_FEATURES];
+
+		/** The score of every candidate VM. */
+		final double[] scores = new double[state.getNumberOfVms()];
+
+	}
+
+}
@@ -0,0 +1,211 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.ann;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.Scanner;
+import java.util.concurrent.ForkJoinPool;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.CloudletSchedulerSpaceShared;
+import org.cloudbus.cloudsim.UtilizationModel;
+import org.cloudbus.cloudsim.UtilizationModelFull;
+import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.ga.AnalyticFitnessFunction;
+import org.cloudbus.cloudsim.ga.Chromosome;
+import org.cloudbus.cloudsim.ga.GeneticAlgorithm;
+import org.cloudbus.cloudsim.ga.SchedulingProblem;
+import org.cloudbus.cloudsim.power.models.PowerModel;
+import org.cloudbus.cloudsim.util.WorkloadFileReader;
+
+/**
+ * PlacementSampleGenerator produces training samples for a placement network from schedules found
+ * by the {@link GeneticAlgorithm}. For each workload, the GA searches a schedule with an
+ * {@link AnalyticFitnessFunction}; the schedule is then replayed in cloudlet order through a
+ * {@link PlacementState}, the way a {@link NeuralDatacenterBroker} places cloudlets, and each
+ * decision is written as the features of every VM together with the VM the GA chose.
+ * <p>
+ * The static methods build synthetic workloads from the random dataset of the examples and from
+ * workload traces.
+ *
+ * @since CloudSim Toolkit 3.0
+ * @see PlacementSampleWriter
+ * @see NetworkTrainer
+ */
+public class PlacementSampleGenerator {
+
+	/** The MIPS of the synthetic VMs. */
+	private static final int[] VM_MIPS = { 400, 500, 600 };
+
+	/** The power model given to the scheduling problems. */
+	private final PowerModel powerModel;
+
+	/** The number of generations of the GA. */
+	private int generations = 100;
+
+	/** The population size of the GA. */
+	private int populationSize = 100;
+
+	/** The pool the GA runs on, or null. */
+	private ForkJoinPool pool;
+
+	/** The seed of the next GA run. */
+	private long seed;
+
+	/**
+	 * Creates a sample generator.
+	 *
+	 * @param powerModel the power model given to the scheduling problems
+	 * @param seed the seed of the GA runs
+	 */
+	public PlacementSampleGenerator(PowerModel powerModel, long seed) {
+		this.powerModel = powerModel;
+		this.seed = seed;
+	}
+
+	/**
+	 * Searches a schedule for a workload and writes its decisions.
+	 *
+	 * @param cloudlets the cloudlets, in the order they are submitted
+	 * @param vms the VMs
+	 * @param writer the sample writer
+	 * @return the schedule found by the GA
+	 * @throws IOException if the samples cannot be written
+	 */
+	public Chromosome generate(List<? extends Cloudlet> cloudlets, List<? extends Vm> vms,
+			PlacementSampleWriter writer) throws IOException {
+		SchedulingProblem problem = new SchedulingProblem(cloudlets, vms, powerModel);
+		GeneticAlgorithm ga = new GeneticAlgorithm(problem, new AnalyticFitnessFunction(problem));
+		ga.setGenerations(generations);
+		ga.setPopulationSize(populationSize);
+		ga.setSeed(seed++);
+		ga.setPool(pool);
+		Chromosome best = ga.run();
+
+		PlacementState state = new PlacementState(vms);
+		double[] features = new double[vms.size() * PlacementState.NUMBER_OF_FEATURES];
+		int i = 0;
+		for (Cloudlet cloudlet : cloudlets) {
+			int vm = best.getGene(i++);
+			state.extract(cloudlet, features);
+			writer.write(features, vms.size(), vm);
+			state.cloudletSubmitted(vm, cloudlet);
+		}
+		return best;
+	}
+
+	/**
+	 * Sets the number of generations of the GA.
+	 *
+	 * @param generations the number of generations
+	 */
+	public void setGenerations(int generations) {
+		this.generations = generations;
+	}
+
+	/**
+	 * Sets the population size of the GA.
+	 *
+	 * @param populationSize the population size
+	 */
+	public void setPopulationSize(int populationSize) {
+		this.populationSize = populationSize;
+	}
+
+	/**
+	 * Sets the pool the GA runs on.
+	 *
+	 * @param pool the pool, or <tt>null</tt> to let each run create one
+	 */
+	public void setPool(ForkJoinPool pool) {
+		this.pool = pool;
+	}
+
+	/**
+	 * Reads the seeds of a random dataset: one integer per line.
+	 *
+	 * @param fileName the name of the dataset
+	 * @return the seeds
+	 * @throws IOException if the dataset cannot be read
+	 */
+	public static int[] readSeeds(String fileName) throws IOException {
+		int[] seeds = new int[1024];
+		int count = 0;
+		Scanner scanner = new Scanner(new File(fileName));
+		try {
+			while (scanner.hasNextInt()) {
+				if (count == seeds.length) {
+					seeds = Arrays.copyOf(seeds, count * 2);
+				}
+				seeds[count++] = scanner.nextInt();
+			}
+		} finally {
+			scanner.close();
+		}
+		return Arrays.copyOf(seeds, count);
+	}
+
+	/**
+	 * Creates cloudlets from a window of a random dataset, as the examples do: each seed is added
+	 * to a base length of 1000 MI.
+	 *
+	 * @param seeds the seeds of the dataset
+	 * @param from the first seed of the window; the window wraps around the dataset
+	 * @param count the number of cloudlets
+	 * @return the cloudlets
+	 */
+	public static List<Cloudlet> createCloudlets(int[] seeds, int from, int count) {
+		List<Cloudlet> cloudlets = new ArrayList<Cloudlet>(count);
+		UtilizationModel utilizationModel = new UtilizationModelFull();
+		for (int i = 0; i < count; i++) {
+			long length = 1000 + seeds[(from + i) % seeds.length];
+			cloudlets.add(new Cloudlet(i, length, 1, 300, 300, utilizationModel, utilizationModel,
+					utilizationModel));
+		}
+		return cloudlets;
+	}
+
+	/**
+	 * Reads the cloudlets of a workload trace in the Standard Workload Format.
+	 *
+	 * @param fileName the name of the trace
+	 * @param rating the MIPS rating of a PE
+	 * @return the cloudlets
+	 * @throws IOException if the trace cannot be read
+	 */
+	public static List<Cloudlet> readTrace(String fileName, int rating) throws IOException {
+		List<Cloudlet> cloudlets = new WorkloadFileReader(fileName, rating).generateWorkload();
+		if (cloudlets == null || cloudlets.isEmpty()) {
+			throw new IOException("No jobs could be read from " + fileName);
+		}
+		return cloudlets;
+	}
+
+	/**
+	 * Creates single-PE VMs with the MIPS of the examples, chosen at random.
+	 *
+	 * @param count the number of VMs
+	 * @param random the random number generator
+	 * @return the VMs
+	 */
+	public static List<Vm> createVms(int count, Random random) {
+		List<Vm> vms = new ArrayList<Vm>(count);
+		for (int i = 0; i < count; i++) {
+			vms.add(new Vm(i, -1, VM_MIPS[random.nextInt(VM_MIPS.length)], 1, 512, 1000, 10000, "Xen",
+					new CloudletSchedulerSpaceShared()));
+		}
+		return vms;
+	}
+
+}
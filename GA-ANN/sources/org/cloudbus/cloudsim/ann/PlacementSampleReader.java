@@ -0,0 +1,183 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.ann;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * PlacementSampleReader streams the samples of a file written by a {@link PlacementSampleWriter},
+ * one at a time, through a fixed-size buffer, so that files larger than the memory can be read.
+ * The features of the current sample are decoded into an array reused from one sample to the next.
+ *
+ * @since CloudSim Toolkit 3.0
+ * @see PlacementSampleWriter
+ */
+public class PlacementSampleReader implements Closeable {
+
+	/** The size of the read buffer, in bytes. */
+	private static final int BUFFER_SIZE = 1 << 20;
+
+	/** The input stream. */
+	private final FileInputStream in;
+
+	/** The channel of the file. */
+	private final FileChannel channel;
+
+	/** The read buffer. */
+	private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+	/** The number of features of a candidate. */
+	private final int numFeatures;
+
+	/** The features of every candidate of the current sample. */
+	private double[] features = new double[0];
+
+	/** The number of candidates of the current sample. */
+	private int numCandidates;
+
+	/** The index of the chosen candidate of the current sample. */
+	private int chosen;
+
+	/**
+	 * Opens a sample file.
+	 *
+	 * @param fileName the name of the file
+	 * @throws IOException if the file cannot be read or is not a sample file of a supported version
+	 */
+	public PlacementSampleReader(String fileName) throws IOException {
+		in = new FileInputStream(fileName);
+		channel = in.getChannel();
+		try {
+			buffer.limit(0);
+			if (!fill(PlacementSampleWriter.HEADER_SIZE) || buffer.getInt() != PlacementSampleWriter.MAGIC) {
+				throw new IOException(fileName + " is not a sample file");
+			}
+			int version = buffer.getInt();
+			if (version != PlacementSampleWriter.VERSION) {
+				throw new IOException(fileName + " has unsupported version " + version);
+			}
+			numFeatures = buffer.getInt();
+		} catch (IOException e) {
+			in.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Reads the next sample.
+	 *
+	 * @return true if a sample has been read, false at the end of the file
+	 * @throws IOException if the file cannot be read or is truncated
+	 */
+	public boolean next() throws IOException {
+		if (!fill(8)) {
+			return false;
+		}
+		numCandidates = buffer.getInt();
+		chosen = buffer.getInt();
+		int length = numCandidates * numFeatures;
+		if (features.length < length) {
+			features = new double[length];
+		}
+		int f = 0;
+		while (f < length) {
+			if (!fill(4)) {
+				throw new EOFException("Truncated sample");
+			}
+			int end = Math.min(length, f + buffer.remaining() / 4);
+			while (f < end) {
+				features[f++] = buffer.getFloat();
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Goes back to the first sample.
+	 *
+	 * @throws IOException if the file cannot be read
+	 */
+	public void rewind() throws IOException {
+		channel.position(PlacementSampleWriter.HEADER_SIZE);
+		buffer.limit(0);
+	}
+
+	/**
+	 * Makes sure the buffer holds a number of bytes, reading more from the file if needed.
+	 *
+	 * @param bytes the number of bytes
+	 * @return false if the file ended before any byte could be read
+	 * @throws IOException if the file cannot be read, or ends in the middle of the bytes
+	 */
+	private boolean fill(int bytes) throws IOException {
+		if (buffer.remaining() >= bytes) {
+			return true;
+		}
+		buffer.compact();
+		while (buffer.position() < bytes) {
+			if (channel.read(buffer) == -1) {
+				if (buffer.position() == 0) {
+					buffer.flip();
+					return false;
+				}
+				throw new EOFException("Truncated sample file");
+			}
+		}
+		buffer.flip();
+		return true;
+	}
+
+	/**
+	 * Gets the number of features of a candidate.
+	 *
+	 * @return the number of features
+	 */
+	public int getNumberOfFeatures() {
+		return numFeatures;
+	}
+
+	/**
+	 * Gets the number of candidates of the current sample.
+	 *
+	 * @return the number of candidates
+	 */
+	public int getNumberOfCandidates() {
+		return numCandidates;
+	}
+
+	/**
+	 * Gets the index of the candidate chosen in the current sample.
+	 *
+	 * @return the chosen candidate
+	 */
+	public int getChosen() {
+		return chosen;
+	}
+
+	/**
+	 * Gets the features of the current sample, candidate after candidate. The array is reused by
+	 * the next sample.
+	 *
+	 * @return the features
+	 */
+	public double[] getFeatures() {
+		return features;
+	}
+
+	@Override
+	public void close() throws IOException {
+		in.close();
+	}
+
+}
@@ -0,0 +1,97 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.ann;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * PlacementSampleWriter writes placement decisions to a binary sample file. The file starts with a
+ * header made of the magic number {@link #MAGIC}, the format {@link #VERSION} and the number of
+ * features of a candidate. Each sample follows as the number of candidate VMs, the index of the
+ * chosen one, and the features of every candidate as floats. All values are big-endian.
+ *
+ * @since CloudSim Toolkit 3.0
+ * @see PlacementSampleReader
+ */
+public class PlacementSampleWriter implements Closeable {
+
+	/** The magic number of sample files: "CSPS". */
+	public static final int MAGIC = 0x43535053;
+
+	/** The version of the sample format. */
+	public static final int VERSION = 1;
+
+	/** The size of the header, in bytes. */
+	public static final int HEADER_SIZE = 12;
+
+	/** The output. */
+	private final DataOutputStream out;
+
+	/** The number of features of a candidate. */
+	private final int numFeatures;
+
+	/** The number of samples written. */
+	private long numSamples;
+
+	/**
+	 * Creates a sample file.
+	 *
+	 * @param fileName the name of the file
+	 * @param numFeatures the number of features of a candidate
+	 * @throws IOException if the file cannot be written
+	 */
+	public PlacementSampleWriter(String fileName, int numFeatures) throws IOException {
+		out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(fileName), 1 << 16));
+		this.numFeatures = numFeatures;
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+		out.writeInt(numFeatures);
+	}
+
+	/**
+	 * Writes a sample.
+	 *
+	 * @param features the features of every candidate, candidate after candidate
+	 * @param numCandidates the number of candidates
+	 * @param chosen the index of the chosen candidate
+	 * @throws IOException if the sample cannot be written
+	 */
+	public void write(double[] features, int numCandidates, int chosen) throws IOException {
+		if (chosen < 0 || chosen >= numCandidates) {
+			throw new IllegalArgumentException("The chosen candidate " + chosen + " is not one of the "
+					+ numCandidates + " candidates");
+		}
+		out.writeInt(numCandidates);
+		out.writeInt(chosen);
+		int length = numCandidates * numFeatures;
+		for (int f = 0; f < length; f++) {
+			out.writeFloat((float) features[f]);
+		}
+		numSamples++;
+	}
+
+	/**
+	 * Gets the number of samples written.
+	 *
+	 * @return the number of samples
+	 */
+	public long getNumberOfSamples() {
+		return numSamples;
+	}
+
+	@Override
+	public void close() throws IOException {
+		out.close();
+	}
+
+}
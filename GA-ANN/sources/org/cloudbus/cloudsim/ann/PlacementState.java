@@ -0,0 +1,188 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.ann;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.Vm;
+
+/**
+ * PlacementState tracks, as seen by a broker, the cloudlets queued on each VM, and turns a cloudlet
+ * and a candidate VM into the input features of a placement network. The features of a candidate
+ * are, in order:
+ * <ol>
+ * <li>the logarithm of the cloudlet length;</li>
+ * <li>the logarithm of the cloudlet file size;</li>
+ * <li>the logarithm of the cloudlet output size;</li>
+ * <li>the number of PEs of the cloudlet;</li>
+ * <li>the logarithm of the VM capacity, in MIPS over all its PEs;</li>
+ * <li>the number of cloudlets queued or running on the VM;</li>
+ * <li>the time the VM needs to run the cloudlets it has been given;</li>
+ * <li>the time the VM would need to run them and the cloudlet.</li>
+ * </ol>
+ * The state is updated by the broker whenever it submits a cloudlet or receives one back. VMs are
+ * referred to by their index in the list the state was created from.
+ *
+ * @since CloudSim Toolkit 3.0
+ * @see PlacementPolicy
+ */
+public class PlacementState implements Serializable {
+
+	/** The Constant serialVersionUID. */
+	private static final long serialVersionUID = 1L;
+
+	/** The number of features of a candidate VM. */
+	public static final int NUMBER_OF_FEATURES = 8;
+
+	/** The VM ids. */
+	private final int[] vmIds;
+
+	/** The index of each VM id. */
+	private final Map<Integer, Integer> vmIndexes = new HashMap<Integer, Integer>();
+
+	/** The VM capacities, in MIPS over all their PEs. */
+	private final double[] vmCapacities;
+
+	/** The logarithm of the VM capacities. */
+	private final double[] vmLogCapacities;
+
+	/** The number of cloudlets queued on each VM. */
+	private final int[] queueLengths;
+
+	/** The total length of the cloudlets queued on each VM, in MI. */
+	private final double[] queuedLengths;
+
+	/**
+	 * Creates the state of a set of VMs with empty queues.
+	 *
+	 * @param vmList the VMs
+	 */
+	public PlacementState(List<? extends Vm> vmList) {
+		int numVms = vmList.size();
+		vmIds = new int[numVms];
+		vmCapacities = new double[numVms];
+		vmLogCapacities = new double[numVms];
+		queueLengths = new int[numVms];
+		queuedLengths = new double[numVms];
+		int i = 0;
+		for (Vm vm : vmList) {
+			vmIds[i] = vm.getId();
+			vmIndexes.put(vm.getId(), i);
+			vmCapacities[i] = vm.getMips() * vm.getNumberOfPes();
+			vmLogCapacities[i] = Math.log1p(vmCapacities[i]);
+			i++;
+		}
+	}
+
+	/**
+	 * Computes the features of a cloudlet for every VM.
+	 *
+	 * @param cloudlet the cloudlet
+	 * @param features the array the features are written to, VM after VM
+	 */
+	public void extract(Cloudlet cloudlet, double[] features) {
+		double length = cloudlet.getCloudletTotalLength();
+		double logLength = Math.log1p(cloudlet.getCloudletLength());
+		double logFileSize = Math.log1p(cloudlet.getCloudletFileSize());
+		double logOutputSize = Math.log1p(cloudlet.getCloudletOutputSize());
+		int pes = cloudlet.getNumberOfPes();
+		int f = 0;
+		for (int vm = 0; vm < vmIds.length; vm++) {
+			features[f++] = logLength;
+			features[f++] = logFileSize;
+			features[f++] = logOutputSize;
+			features[f++] = pes;
+			features[f++] = vmLogCapacities[vm];
+			features[f++] = queueLengths[vm];
+			features[f++] = queuedLengths[vm] / vmCapacities[vm];
+			features[f++] = (queuedLengths[vm] + length) / vmCapacities[vm];
+		}
+	}
+
+	/**
+	 * Records that a cloudlet has been submitted to a VM.
+	 *
+	 * @param vm the index of the VM
+	 * @param cloudlet the cloudlet
+	 */
+	public void cloudletSubmitted(int vm, Cloudlet cloudlet) {
+		queueLengths[vm]++;
+		queuedLengths[vm] += cloudlet.getCloudletTotalLength();
+	}
+
+	/**
+	 * Records that a cloudlet has returned from a VM.
+	 *
+	 * @param vm the index of the VM
+	 * @param cloudlet the cloudlet
+	 */
+	public void cloudletReturned(int vm, Cloudlet cloudlet) {
+		queueLengths[vm]--;
+		queuedLengths[vm] -= cloudlet.getCloudletTotalLength();
+		if (queueLengths[vm] == 0) {
+			// do not let rounding errors accumulate
+			queuedLengths[vm] = 0;
+		}
+	}
+
+	/**
+	 * Gets the number of VMs.
+	 *
+	 * @return the number of VMs
+	 */
+	public int getNumberOfVms() {
+		return vmIds.length;
+	}
+
+	/**
+	 * Gets the id of a VM.
+	 *
+	 * @param vm the index of the VM
+	 * @return the VM id
+	 */
+	public int getVmId(int vm) {
+		return vmIds[vm];
+	}
+
+	/**
+	 * Gets the index of a VM.
+	 *
+	 * @param vmId the VM id
+	 * @return the index of the VM, or -1 if the state does not track it
+	 */
+	public int indexOf(int vmId) {
+		Integer index = vmIndexes.get(vmId);
+		return index == null ? -1 : index;
+	}
+
+	/**
+	 * Gets the number of cloudlets queued on a VM.
+	 *
+	 * @param vm the index of the VM
+	 * @return the queue length
+	 */
+	public int getQueueLength(int vm) {
+		return queueLengths[vm];
+	}
+
+	/**
+	 * Gets the total length of the cloudlets queued on a VM.
+	 *
+	 * @param vm the index of the VM
+	 * @return the queued length, in MI
+	 */
+	public double getQueuedLength(int vm) {
+		return queuedLengths[vm];
+	}
+
+}
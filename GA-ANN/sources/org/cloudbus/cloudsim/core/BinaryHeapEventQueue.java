@@ -0,0 +1,301 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.cloudbus.cloudsim.core.predicates.Predicate;
+
+/**
+ * A future event queue implemented as an array-based binary min-heap. The (time, serial) keys are
+ * kept in primitive arrays parallel to the event array, so sifting never dereferences the events
+ * and insertions only allocate when the arrays have to grow.
+ *
+ * @since CloudSim Toolkit 3.0
+ * @see EventQueue
+ */
+public class BinaryHeapEventQueue implements EventQueue {
+
+	/** The Constant serialVersionUID. */
+	private static final long serialVersionUID = 1L;
+
+	/** The default initial capacity. */
+	private static final int DEFAULT_CAPACITY = 256;
+
+	/** The event times, in heap order. */
+	private double[] times;
+
+	/** The event serials, in heap order. */
+	private long[] serials;
+
+	/** The events, in heap order. */
+	private SimEvent[] events;
+
+	/** The number of events in the heap. */
+	private int size;
+
+	/** The serial. */
+	private long serial = 0;
+
+	/** The serial of events added to the head of the queue. */
+	private long firstSerial = Long.MIN_VALUE;
+
+	/**
+	 * Creates an empty queue.
+	 */
+	public BinaryHeapEventQueue() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Creates an empty queue with a given initial capacity.
+	 *
+	 * @param initialCapacity the initial capacity
+	 */
+	public BinaryHeapEventQueue(int initialCapacity) {
+		if (initialCapacity < 1) {
+			initialCapacity = 1;
+		}
+		times = new double[initialCapacity];
+		serials = new long[initialCapacity];
+		events = new SimEvent[initialCapacity];
+	}
+
+	@Override
+	public void addEvent(SimEvent newEvent) {
+		insert(newEvent, serial++);
+	}
+
+	@Override
+	public void addEventFirst(SimEvent newEvent) {
+		insert(newEvent, firstSerial++);
+	}
+
+	@Override
+	public SimEvent peek() {
+		return size == 0 ? null : events[0];
+	}
+
+	@Override
+	public SimEvent poll() {
+		if (size == 0) {
+			return null;
+		}
+		return removeAt(0);
+	}
+
+	@Override
+	public int pollAllAt(double time, List<SimEvent> batch) {
+		int count = 0;
+		while (size > 0 && times[0] == time) {
+			batch.add(removeAt(0));
+			count++;
+		}
+		return count;
+	}
+
+	@Override
+	public SimEvent cancel(int src, Predicate p) {
+		int found = -1;
+		for (int i = 0; i < size; i++) {
+			SimEvent ev = events[i];
+			if (ev.getSource() == src && p.match(ev) && (found == -1 || less(i, found))) {
+				found = i;
+			}
+		}
+		if (found == -1) {
+			return null;
+		}
+		return removeAt(found);
+	}
+
+	@Override
+	public int cancelAll(int src, Predicate p) {
+		return removeAll(src, true, p);
+	}
+
+	@Override
+	public int removeAll(Predicate p) {
+		return removeAll(-1, false, p);
+	}
+
+	/**
+	 * Removes all the events that match a predicate and, optionally, a source entity.
+	 *
+	 * @param src the id of the entity that scheduled the events
+	 * @param matchSource whether the source entity has to match
+	 * @param p the predicate
+	 * @return the number of events removed
+	 */
+	private int removeAll(int src, boolean matchSource, Predicate p) {
+		// compact the surviving events and rebuild the heap in linear time
+		int kept = 0;
+		for (int i = 0; i < size; i++) {
+			SimEvent ev = events[i];
+			if ((!matchSource || ev.getSource() == src) && p.match(ev)) {
+				continue;
+			}
+			times[kept] = times[i];
+			serials[kept] = serials[i];
+			events[kept] = ev;
+			kept++;
+		}
+		int removed = size - kept;
+		if (removed > 0) {
+			Arrays.fill(events, kept, size, null);
+			size = kept;
+			for (int i = (size >>> 1) - 1; i >= 0; i--) {
+				siftDown(i);
+			}
+		}
+		return removed;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public void clear() {
+		Arrays.fill(events, 0, size, null);
+		size = 0;
+		serial = 0;
+		firstSerial = Long.MIN_VALUE;
+	}
+
+	/**
+	 * Inserts an event with a given serial.
+	 *
+	 * @param event the event
+	 * @param eventSerial the serial
+	 */
+	private void insert(SimEvent event, long eventSerial) {
+		event.setSerial(eventSerial);
+		if (size == events.length) {
+			grow();
+		}
+		int i = size++;
+		times[i] = event.eventTime();
+		serials[i] = eventSerial;
+		events[i] = event;
+		siftUp(i);
+	}
+
+	/**
+	 * Removes the event at a given heap position.
+	 *
+	 * @param i the position
+	 * @return the removed event
+	 */
+	private SimEvent removeAt(int i) {
+		SimEvent removed = events[i];
+		int last = --size;
+		if (i != last) {
+			SimEvent moved = events[last];
+			move(last, i);
+			events[last] = null;
+			siftDown(i);
+			if (events[i] == moved) {
+				siftUp(i);
+			}
+		} else {
+			events[last] = null;
+		}
+		return removed;
+	}
+
+	/**
+	 * Checks whether the key at position a sorts before the key at position b.
+	 *
+	 * @param a the first position
+	 * @param b the second position
+	 * @return true if a sorts before b
+	 */
+	private boolean less(int a, int b) {
+		double ta = times[a];
+		double tb = times[b];
+		return ta < tb || (ta == tb && serials[a] < serials[b]);
+	}
+
+	/**
+	 * Moves the entry at a given position up until its parent sorts before it.
+	 *
+	 * @param i the position
+	 */
+	private void siftUp(int i) {
+		double t = times[i];
+		long s = serials[i];
+		SimEvent e = events[i];
+		while (i > 0) {
+			int parent = (i - 1) >>> 1;
+			double tp = times[parent];
+			if (tp < t || (tp == t && serials[parent] < s)) {
+				break;
+			}
+			move(parent, i);
+			i = parent;
+		}
+		times[i] = t;
+		serials[i] = s;
+		events[i] = e;
+	}
+
+	/**
+	 * Moves the entry at a given position down until it sorts before its children.
+	 *
+	 * @param i the position
+	 */
+	private void siftDown(int i) {
+		double t = times[i];
+		long s = serials[i];
+		SimEvent e = events[i];
+		int half = size >>> 1;
+		while (i < half) {
+			int child = 2 * i + 1;
+			int right = child + 1;
+			if (right < size && less(right, child)) {
+				child = right;
+			}
+			double tc = times[child];
+			if (t < tc || (t == tc && s < serials[child])) {
+				break;
+			}
+			move(child, i);
+			i = child;
+		}
+		times[i] = t;
+		serials[i] = s;
+		events[i] = e;
+	}
+
+	/**
+	 * Copies the entry at one position to another.
+	 *
+	 * @param from the source position
+	 * @param to the target position
+	 */
+	private void move(int from, int to) {
+		times[to] = times[from];
+		serials[to] = serials[from];
+		events[to] = events[from];
+	}
+
+	/**
+	 * Doubles the capacity of the heap arrays.
+	 */
+	private void grow() {
+		int capacity = events.length << 1;
+		times = Arrays.copyOf(times, capacity);
+		serials = Arrays.copyOf(serials, capacity);
+		events = Arrays.copyOf(events, capacity);
+	}
+
+}
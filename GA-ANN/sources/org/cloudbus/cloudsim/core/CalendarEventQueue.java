@@ -0,0 +1,553 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.cloudbus.cloudsim.core.predicates.Predicate;
+
+/**
+ * A future event queue implemented as a calendar queue (R. Brown, "Calendar queues: a fast O(1)
+ * priority queue implementation for the simulation event set problem", CACM 31(10), 1988). Events
+ * are hashed by time into an array of buckets ("days") of a fixed width, each one kept as a list
+ * sorted by (time, serial). When the events are spread evenly over time, insertion and removal of
+ * the first event take constant expected time. The number of buckets is adapted as the queue grows
+ * and shrinks; the width of the buckets is then estimated, as by Brown, from the separation of the
+ * events closest to the head of the queue, where the events are dequeued. An event that sorts
+ * after the last event of its bucket, such as an event scheduled at the same time as the ones
+ * before it, is appended at the tail of the bucket in constant time.
+ * <p>
+ * The list nodes are stored in primitive arrays and recycled through a free list, so the queue
+ * only allocates when it has to grow.
+ *
+ * @since CloudSim Toolkit 3.0
+ * @see EventQueue
+ */
+public class CalendarEventQueue implements EventQueue {
+
+	/** The Constant serialVersionUID. */
+	private static final long serialVersionUID = 1L;
+
+	/** The minimum number of buckets. */
+	private static final int MIN_BUCKETS = 16;
+
+	/** The maximum number of events sampled to estimate the bucket width. */
+	private static final int MAX_SAMPLES = 25;
+
+	/** Marks the end of a list. */
+	private static final int NIL = -1;
+
+	/** The node times. */
+	private double[] times;
+
+	/** The node serials. */
+	private long[] serials;
+
+	/** The node events. */
+	private SimEvent[] events;
+
+	/** The next node in the same bucket, or in the free list. */
+	private int[] next;
+
+	/** The head of the free node list. */
+	private int free;
+
+	/** The first node of each bucket. */
+	private int[] buckets;
+
+	/** The last node of each bucket. */
+	private int[] tails;
+
+	/** The width of a bucket. */
+	private double width;
+
+	/** The number of events in the queue. */
+	private int size;
+
+	/** The time from which the search for the first event starts. */
+	private double lastTime;
+
+	/** The node holding the first event, or NIL if unknown. */
+	private int firstNode = NIL;
+
+	/** The bucket holding the first event. */
+	private int firstBucket = NIL;
+
+	/** The serial. */
+	private long serial = 0;
+
+	/** The serial of events added to the head of the queue. */
+	private long firstSerial = Long.MIN_VALUE;
+
+	/**
+	 * Creates an empty queue.
+	 */
+	public CalendarEventQueue() {
+		this(1.0);
+	}
+
+	/**
+	 * Creates an empty queue with a given initial bucket width.
+	 *
+	 * @param initialWidth the initial width of a bucket, in simulation time units
+	 */
+	public CalendarEventQueue(double initialWidth) {
+		if (initialWidth <= 0) {
+			throw new IllegalArgumentException("The bucket width should be positive, but is:" + initialWidth);
+		}
+		width = initialWidth;
+		buckets = new int[MIN_BUCKETS];
+		tails = new int[MIN_BUCKETS];
+		Arrays.fill(buckets, NIL);
+		Arrays.fill(tails, NIL);
+		allocateNodes(MIN_BUCKETS * 2);
+	}
+
+	@Override
+	public void addEvent(SimEvent newEvent) {
+		insert(newEvent, serial++);
+	}
+
+	@Override
+	public void addEventFirst(SimEvent newEvent) {
+		insert(newEvent, firstSerial++);
+	}
+
+	@Override
+	public SimEvent peek() {
+		if (size == 0) {
+			return null;
+		}
+		return events[findFirst()];
+	}
+
+	@Override
+	public SimEvent poll() {
+		if (size == 0) {
+			return null;
+		}
+		findFirst();
+		return removeFirst();
+	}
+
+	@Override
+	public int pollAllAt(double time, List<SimEvent> batch) {
+		int count = 0;
+		while (size > 0 && times[findFirst()] == time) {
+			batch.add(removeFirst());
+			count++;
+		}
+		return count;
+	}
+
+	@Override
+	public SimEvent cancel(int src, Predicate p) {
+		int foundNode = NIL;
+		int foundBucket = NIL;
+		for (int b = 0; b < buckets.length; b++) {
+			for (int n = buckets[b]; n != NIL; n = next[n]) {
+				SimEvent ev = events[n];
+				if (ev.getSource() == src && p.match(ev) && (foundNode == NIL || less(n, foundNode))) {
+					foundNode = n;
+					foundBucket = b;
+					// later nodes of this bucket sort after this one
+					break;
+				}
+			}
+		}
+		if (foundNode == NIL) {
+			return null;
+		}
+		SimEvent ev = events[foundNode];
+		unlink(foundBucket, foundNode);
+		return ev;
+	}
+
+	@Override
+	public int cancelAll(int src, Predicate p) {
+		return removeAll(src, true, p);
+	}
+
+	@Override
+	public int removeAll(Predicate p) {
+		return removeAll(-1, false, p);
+	}
+
+	/**
+	 * Removes all the events that match a predicate and, optionally, a source entity.
+	 *
+	 * @param src the id of the entity that scheduled the events
+	 * @param matchSource whether the source entity has to match
+	 * @param p the predicate
+	 * @return the number of events removed
+	 */
+	private int removeAll(int src, boolean matchSource, Predicate p) {
+		int removed = 0;
+		for (int b = 0; b < buckets.length; b++) {
+			int prev = NIL;
+			int n = buckets[b];
+			while (n != NIL) {
+				int following = next[n];
+				SimEvent ev = events[n];
+				if ((!matchSource || ev.getSource() == src) && p.match(ev)) {
+					if (prev == NIL) {
+						buckets[b] = following;
+					} else {
+						next[prev] = following;
+					}
+					release(n);
+					removed++;
+				} else {
+					prev = n;
+				}
+				n = following;
+			}
+			tails[b] = prev;
+		}
+		if (removed > 0) {
+			size -= removed;
+			firstNode = NIL;
+			shrinkIfSparse();
+		}
+		return removed;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public void clear() {
+		Arrays.fill(buckets, NIL);
+		Arrays.fill(tails, NIL);
+		Arrays.fill(events, null);
+		for (int i = 0; i < next.length - 1; i++) {
+			next[i] = i + 1;
+		}
+		next[next.length - 1] = NIL;
+		free = 0;
+		size = 0;
+		lastTime = 0;
+		firstNode = NIL;
+		serial = 0;
+		firstSerial = Long.MIN_VALUE;
+	}
+
+	/**
+	 * Inserts an event with a given serial.
+	 *
+	 * @param event the event
+	 * @param eventSerial the serial
+	 */
+	private void insert(SimEvent event, long eventSerial) {
+		event.setSerial(eventSerial);
+		if (free == NIL) {
+			allocateNodes(next.length * 2);
+		}
+		int node = free;
+		free = next[node];
+		double time = event.eventTime();
+		times[node] = time;
+		serials[node] = eventSerial;
+		events[node] = event;
+		int bucket = bucketOf(time);
+		link(bucket, node);
+		size++;
+
+		if (time < lastTime) {
+			lastTime = time;
+		}
+		if (firstNode != NIL && less(node, firstNode)) {
+			firstNode = node;
+			firstBucket = bucket;
+		}
+
+		if (size > 2 * buckets.length) {
+			resize(buckets.length * 2);
+		}
+	}
+
+	/**
+	 * Locates the first event of the queue, which must not be empty.
+	 *
+	 * @return the node holding the first event
+	 */
+	private int findFirst() {
+		if (firstNode != NIL) {
+			return firstNode;
+		}
+		int nbuckets = buckets.length;
+		long day = (long) Math.floor(lastTime / width);
+		for (int i = 0; i < nbuckets; i++, day++) {
+			int bucket = bucketOfDay(day);
+			int head = buckets[bucket];
+			if (head != NIL && (long) Math.floor(times[head] / width) == day) {
+				firstNode = head;
+				firstBucket = bucket;
+				lastTime = times[head];
+				return head;
+			}
+		}
+
+		// no event within a whole year: fall back to a direct search of the bucket heads
+		int best = NIL;
+		int bestBucket = NIL;
+		for (int b = 0; b < nbuckets; b++) {
+			int head = buckets[b];
+			if (head != NIL && (best == NIL || less(head, best))) {
+				best = head;
+				bestBucket = b;
+			}
+		}
+		firstNode = best;
+		firstBucket = bestBucket;
+		lastTime = times[best];
+		return best;
+	}
+
+	/**
+	 * Removes the first event, which has been located by {@link #findFirst()}.
+	 *
+	 * @return the removed event
+	 */
+	private SimEvent removeFirst() {
+		int node = firstNode;
+		SimEvent ev = events[node];
+		buckets[firstBucket] = next[node];
+		if (tails[firstBucket] == node) {
+			tails[firstBucket] = NIL;
+		}
+		release(node);
+		size--;
+		firstNode = NIL;
+		shrinkIfSparse();
+		return ev;
+	}
+
+	/**
+	 * Removes a node from a bucket.
+	 *
+	 * @param bucket the bucket
+	 * @param node the node
+	 */
+	private void unlink(int bucket, int node) {
+		int n = buckets[bucket];
+		if (n == node) {
+			buckets[bucket] = next[node];
+			n = NIL;
+		} else {
+			while (next[n] != node) {
+				n = next[n];
+			}
+			next[n] = next[node];
+		}
+		if (tails[bucket] == node) {
+			tails[bucket] = n;
+		}
+		release(node);
+		size--;
+		firstNode = NIL;
+		shrinkIfSparse();
+	}
+
+	/**
+	 * Inserts a node into a bucket, keeping the bucket sorted. A node that sorts after the tail of
+	 * the bucket is appended without walking the bucket.
+	 *
+	 * @param bucket the bucket
+	 * @param node the node
+	 */
+	private void link(int bucket, int node) {
+		int tail = tails[bucket];
+		if (tail == NIL) {
+			next[node] = NIL;
+			buckets[bucket] = node;
+			tails[bucket] = node;
+			return;
+		}
+		if (!less(node, tail)) {
+			next[node] = NIL;
+			next[tail] = node;
+			tails[bucket] = node;
+			return;
+		}
+		int n = buckets[bucket];
+		if (less(node, n)) {
+			next[node] = n;
+			buckets[bucket] = node;
+			return;
+		}
+		while (next[n] != NIL && !less(node, next[n])) {
+			n = next[n];
+		}
+		next[node] = next[n];
+		next[n] = node;
+	}
+
+	/**
+	 * Returns a node to the free list.
+	 *
+	 * @param node the node
+	 */
+	private void release(int node) {
+		events[node] = null;
+		next[node] = free;
+		free = node;
+	}
+
+	/**
+	 * Halves the number of buckets if the queue became sparse.
+	 */
+	private void shrinkIfSparse() {
+		if (buckets.length > MIN_BUCKETS && size < buckets.length / 2) {
+			resize(buckets.length / 2);
+		}
+	}
+
+	/**
+	 * Changes the number of buckets, estimates the bucket width from the events closest to the
+	 * head of the queue and redistributes the events.
+	 *
+	 * @param nbuckets the new number of buckets
+	 */
+	private void resize(int nbuckets) {
+		double sampledWidth = sampleWidth();
+		if (sampledWidth > 0) {
+			width = sampledWidth;
+		}
+
+		int[] old = buckets;
+		buckets = new int[nbuckets];
+		tails = new int[nbuckets];
+		Arrays.fill(buckets, NIL);
+		Arrays.fill(tails, NIL);
+		for (int b = 0; b < old.length; b++) {
+			int n = old[b];
+			while (n != NIL) {
+				int following = next[n];
+				link(bucketOf(times[n]), n);
+				n = following;
+			}
+		}
+		firstNode = NIL;
+	}
+
+	/**
+	 * Estimates the bucket width as Brown does: the separations between the first events of the
+	 * queue (up to {@link #MAX_SAMPLES}) are averaged, the average is taken again over the
+	 * separations that are not larger than twice the first one, so that a few far events do not
+	 * widen the buckets, and the width is three times that average.
+	 *
+	 * @return the width, or 0 if the sampled events do not give one
+	 */
+	private double sampleWidth() {
+		int numSamples = size <= 5 ? size : Math.min(MAX_SAMPLES, 5 + size / 10);
+		if (numSamples < 2) {
+			return 0;
+		}
+
+		// the earliest times of the queue, in ascending order
+		double[] samples = new double[numSamples];
+		int count = 0;
+		for (int b = 0; b < buckets.length; b++) {
+			for (int n = buckets[b]; n != NIL; n = next[n]) {
+				double time = times[n];
+				if (count == numSamples) {
+					if (time >= samples[count - 1]) {
+						// the later nodes of this bucket are not earlier either
+						break;
+					}
+					count--;
+				}
+				int i = count;
+				while (i > 0 && samples[i - 1] > time) {
+					samples[i] = samples[i - 1];
+					i--;
+				}
+				samples[i] = time;
+				count++;
+			}
+		}
+
+		double average = (samples[count - 1] - samples[0]) / (count - 1);
+		double sum = 0;
+		int numSeparations = 0;
+		for (int i = 1; i < count; i++) {
+			double separation = samples[i] - samples[i - 1];
+			if (separation <= 2 * average) {
+				sum += separation;
+				numSeparations++;
+			}
+		}
+		return numSeparations == 0 ? 0 : 3 * sum / numSeparations;
+	}
+
+	/**
+	 * Grows the node arrays and chains the new nodes into the free list.
+	 *
+	 * @param capacity the new capacity
+	 */
+	private void allocateNodes(int capacity) {
+		int oldCapacity = times == null ? 0 : times.length;
+		if (times == null) {
+			times = new double[capacity];
+			serials = new long[capacity];
+			events = new SimEvent[capacity];
+			next = new int[capacity];
+		} else {
+			times = Arrays.copyOf(times, capacity);
+			serials = Arrays.copyOf(serials, capacity);
+			events = Arrays.copyOf(events, capacity);
+			next = Arrays.copyOf(next, capacity);
+		}
+		// only called when the free list is empty
+		for (int i = oldCapacity; i < capacity - 1; i++) {
+			next[i] = i + 1;
+		}
+		next[capacity - 1] = NIL;
+		free = oldCapacity;
+	}
+
+	/**
+	 * Gets the bucket an event time falls into.
+	 *
+	 * @param time the time
+	 * @return the bucket
+	 */
+	private int bucketOf(double time) {
+		return bucketOfDay((long) Math.floor(time / width));
+	}
+
+	/**
+	 * Gets the bucket a day falls into.
+	 *
+	 * @param day the day, i.e. the time divided by the bucket width
+	 * @return the bucket
+	 */
+	private int bucketOfDay(long day) {
+		int bucket = (int) (day % buckets.length);
+		return bucket < 0 ? bucket + buckets.length : bucket;
+	}
+
+	/**
+	 * Checks whether node a sorts before node b.
+	 *
+	 * @param a the first node
+	 * @param b the second node
+	 * @return true if a sorts before b
+	 */
+	private boolean less(int a, int b) {
+		double ta = times[a];
+		double tb = times[b];
+		return ta < tb || (ta == tb && serials[a] < serials[b]);
+	}
+
+}
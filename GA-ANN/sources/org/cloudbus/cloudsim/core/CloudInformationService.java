@@ -30,6 +30,9 @@ import org.cloudbus.cloudsim.Log;
  */
 public class CloudInformationService extends SimEntity {
 
+	/** The Constant serialVersionUID. */
+	private static final long serialVersionUID = 1L;
+
 	/** For all types of hostList. */
 	private final List<Integer> resList;
 
@@ -49,7 +52,20 @@ public class CloudInformationService extends SimEntity {
 	 * @post $none
 	 */
 	public CloudInformationService(String name) throws Exception {
-		super(name);
+		this(name, CloudSim.getContext());
+	}
+
+	/**
+	 * Allocates a new CloudInformationService object in a given simulation context.
+	 * 
+	 * @param name the name to be associated with this entity (as required by SimEntity class)
+	 * @param context the simulation context the entity belongs to
+	 * @throws Exception This happens when this entity name is <tt>null</tt> or empty
+	 * @pre name != null
+	 * @post $none
+	 */
+	public CloudInformationService(String name, SimulationContext context) throws Exception {
+		super(name, context);
 		resList = new LinkedList<Integer>();
 		arList = new LinkedList<Integer>();
 		gisList = new LinkedList<Integer>();
@@ -243,7 +259,7 @@ public class CloudInformationService extends SimEntity {
 		}
 
 		Log.printLine("CloudInformationSevice.processOtherEvent(): " + "Unable to handle a request from "
-				+ CloudSim.getEntityName(ev.getSource()) + " with event tag = " + ev.getTag());
+				+ getSimulationContext().getEntityName(ev.getSource()) + " with event tag = " + ev.getTag());
 	}
 
 	/**
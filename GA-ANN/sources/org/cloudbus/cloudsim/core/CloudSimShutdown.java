@@ -22,6 +22,9 @@ import java.util.Calendar;
  */
 public class CloudSimShutdown extends SimEntity {
 
+	/** The Constant serialVersionUID. */
+	private static final long serialVersionUID = 1L;
+
 	/** The num user. */
 	private int numUser;
 
@@ -43,9 +46,24 @@ public class CloudSimShutdown extends SimEntity {
 	 * @post $none
 	 */
 	public CloudSimShutdown(String name, int numUser) throws Exception {
+		this(name, numUser, CloudSim.getContext());
+	}
+
+	/**
+	 * Allocates a new CloudSimShutdown object in a given simulation context.
+	 * 
+	 * @param name the name to be associated with this entity (as required by SimEntity class)
+	 * @param numUser total number of grid user entity
+	 * @param context the simulation context the entity belongs to
+	 * @throws Exception This happens when this entity name is <tt>null</tt> or empty
+	 * @pre name != null
+	 * @pre numUser >= 0
+	 * @post $none
+	 */
+	public CloudSimShutdown(String name, int numUser, SimulationContext context) throws Exception {
 		// NOTE: This entity doesn't use any I/O port.
 		// super(name, CloudSimTags.DEFAULT_BAUD_RATE);
-		super(name);
+		super(name, context);
 		this.numUser = numUser;
 	}
 
@@ -66,7 +84,7 @@ public class CloudSimShutdown extends SimEntity {
 	public void processEvent(SimEvent ev) {
 		numUser--;
 		if (numUser == 0 || ev.getTag() == CloudSimTags.ABRUPT_END_OF_SIMULATION) {
-			CloudSim.abruptallyTerminate();
+			getSimulationContext().abruptallyTerminate();
 		}
 	}
 
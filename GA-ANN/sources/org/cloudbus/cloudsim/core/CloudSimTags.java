@@ -160,6 +160,20 @@ public class CloudSimTags {
 	 */
 	public static final int CLOUDLET_SUBMIT_ACK = BASE + 22;
 
+	/**
+	 * Denotes the submission of a list of Cloudlets to the same CloudResource entity, which
+	 * processes them together with the same outcome as separate submissions, in the order of the
+	 * list. No acknowledgement is sent. Brokers send it only to the datacenters for which
+	 * {@link org.cloudbus.cloudsim.Datacenter#isCloudletSubmitBatchSupported()} is true.
+	 */
+	public static final int CLOUDLET_SUBMIT_BATCH = BASE + 49;
+
+	/**
+	 * Denotes the arrival of the next jobs of a workload at a broker. This tag is sent by a broker
+	 * to itself, at the submit time of the jobs.
+	 */
+	public static final int CLOUDLET_ARRIVAL = BASE + 50;
+
 	/** Cancels a Cloudlet submitted in the CloudResource entity. */
 	public static final int CLOUDLET_CANCEL = BASE + 23;
 
@@ -8,81 +8,437 @@
 
 package org.cloudbus.cloudsim.core;
 
-import java.util.Iterator;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.ListIterator;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Arrays;
+
+import org.cloudbus.cloudsim.core.predicates.Predicate;
+import org.cloudbus.cloudsim.core.predicates.PredicateAny;
+import org.cloudbus.cloudsim.core.predicates.PredicateNone;
+import org.cloudbus.cloudsim.core.predicates.PredicateType;
 
 /**
- * This class implements the deferred event queue used by {@link Simulation}. The event queue uses a
- * linked list to store the events.
- * 
+ * This class implements the deferred event queue used by {@link Simulation}. The events are kept
+ * in one linked list per destination entity, and each list is additionally chained by event tag.
+ * Looking up the events of an entity therefore only touches the events pending for that entity,
+ * and queries with {@link PredicateAny} or {@link PredicateType} take constant time.
+ * <p>
+ * Within each list the events are kept in temporal order; events with the same time keep the order
+ * in which they were added. The lists are serialized as plain sequences of events, so that long
+ * lists do not exhaust the stack of the serializing thread.
+ *
  * @author Marcos Dias de Assuncao
  * @since CloudSim Toolkit 1.0
  * @see Simulation
  * @see SimEvent
  */
-public class DeferredQueue {
+public class DeferredQueue implements Serializable {
+
+	/** The Constant serialVersionUID. */
+	private static final long serialVersionUID = 1L;
+
+	/** The queues of the destination entities, indexed by entity id. */
+	private transient EntityQueue[] queues = new EntityQueue[16];
 
-	/** The list. */
-	private final List<SimEvent> list = new LinkedList<SimEvent>();
+	/** The number of events in the queue. */
+	private transient int size;
 
-	/** The max time. */
-	private double maxTime = -1;
+	/** The insertion counter, used to order events with the same time. */
+	private long serial;
 
 	/**
 	 * Adds a new event to the queue. Adding a new event to the queue preserves the temporal order
 	 * of the events.
-	 * 
+	 *
 	 * @param newEvent The event to be added to the queue.
 	 */
 	public void addEvent(SimEvent newEvent) {
-		// The event has to be inserted as the last of all events
-		// with the same event_time(). Yes, this matters.
-		double eventTime = newEvent.eventTime();
-		if (eventTime >= maxTime) {
-			list.add(newEvent);
-			maxTime = eventTime;
-			return;
+		int dest = newEvent.getDestination();
+		if (dest >= queues.length) {
+			queues = Arrays.copyOf(queues, Math.max(dest + 1, queues.length * 2));
 		}
+		EntityQueue queue = queues[dest];
+		if (queue == null) {
+			queue = new EntityQueue();
+			queues[dest] = queue;
+		}
+		queue.add(new Node(newEvent, serial++));
+		size++;
+	}
 
-		ListIterator<SimEvent> iterator = list.listIterator();
-		SimEvent event;
-		while (iterator.hasNext()) {
-			event = iterator.next();
-			if (event.eventTime() > eventTime) {
-				iterator.previous();
-				iterator.add(newEvent);
-				return;
+	/**
+	 * Counts the events for a given destination that match a predicate.
+	 *
+	 * @param dest the id of the destination entity
+	 * @param p the predicate
+	 * @return the number of matching events
+	 */
+	public int count(int dest, Predicate p) {
+		EntityQueue queue = getQueue(dest);
+		if (queue == null || p instanceof PredicateNone) {
+			return 0;
+		}
+		if (p instanceof PredicateAny) {
+			return queue.size;
+		}
+		if (p instanceof PredicateType) {
+			PredicateType type = (PredicateType) p;
+			int count = 0;
+			for (int i = 0; i < type.getNumberOfTags(); i++) {
+				if (!isRepeatedTag(type, i)) {
+					TagChain chain = queue.getChain(type.getTag(i));
+					if (chain != null) {
+						count += chain.size;
+					}
+				}
 			}
+			return count;
 		}
 
-		list.add(newEvent);
+		int count = 0;
+		for (Node node = queue.first; node != null; node = node.next) {
+			if (p.match(node.event)) {
+				count++;
+			}
+		}
+		return count;
 	}
 
 	/**
-	 * Returns an iterator to the events in the queue.
-	 * 
-	 * @return the iterator
+	 * Finds the first event for a given destination that matches a predicate.
+	 *
+	 * @param dest the id of the destination entity
+	 * @param p the predicate
+	 * @return the event, or <tt>null</tt> if no event matches
 	 */
-	public Iterator<SimEvent> iterator() {
-		return list.iterator();
+	public SimEvent findFirst(int dest, Predicate p) {
+		Node node = findFirstNode(dest, p);
+		return node == null ? null : node.event;
+	}
+
+	/**
+	 * Removes and returns the first event for a given destination that matches a predicate.
+	 *
+	 * @param dest the id of the destination entity
+	 * @param p the predicate
+	 * @return the event, or <tt>null</tt> if no event matches
+	 */
+	public SimEvent select(int dest, Predicate p) {
+		Node node = findFirstNode(dest, p);
+		if (node == null) {
+			return null;
+		}
+		queues[dest].remove(node);
+		size--;
+		return node.event;
 	}
 
 	/**
 	 * Returns the size of this event queue.
-	 * 
+	 *
 	 * @return the number of events in the queue.
 	 */
 	public int size() {
-		return list.size();
+		return size;
 	}
 
 	/**
 	 * Clears the queue.
 	 */
 	public void clear() {
-		list.clear();
+		Arrays.fill(queues, null);
+		size = 0;
+		serial = 0;
+	}
+
+	/**
+	 * Gets the queue of a destination entity.
+	 *
+	 * @param dest the id of the destination entity
+	 * @return the queue, or <tt>null</tt> if the entity never had deferred events
+	 */
+	private EntityQueue getQueue(int dest) {
+		if (dest < 0 || dest >= queues.length) {
+			return null;
+		}
+		return queues[dest];
+	}
+
+	/**
+	 * Finds the node of the first event for a given destination that matches a predicate.
+	 *
+	 * @param dest the id of the destination entity
+	 * @param p the predicate
+	 * @return the node, or <tt>null</tt> if no event matches
+	 */
+	private Node findFirstNode(int dest, Predicate p) {
+		EntityQueue queue = getQueue(dest);
+		if (queue == null || p instanceof PredicateNone) {
+			return null;
+		}
+		if (p instanceof PredicateAny) {
+			return queue.first;
+		}
+		if (p instanceof PredicateType) {
+			PredicateType type = (PredicateType) p;
+			Node first = null;
+			for (int i = 0; i < type.getNumberOfTags(); i++) {
+				TagChain chain = queue.getChain(type.getTag(i));
+				if (chain != null && chain.first != null
+						&& (first == null || chain.first.before(first))) {
+					first = chain.first;
+				}
+			}
+			return first;
+		}
+
+		for (Node node = queue.first; node != null; node = node.next) {
+			if (p.match(node.event)) {
+				return node;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Checks if the tag at a given index of a predicate also appears at a lower index.
+	 *
+	 * @param type the predicate
+	 * @param index the index
+	 * @return true if the tag is repeated
+	 */
+	private static boolean isRepeatedTag(PredicateType type, int index) {
+		int tag = type.getTag(index);
+		for (int i = 0; i < index; i++) {
+			if (type.getTag(i) == tag) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Writes the queue: for each destination entity, the number of its events, then each event
+	 * with its insertion serial, in order.
+	 */
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		out.defaultWriteObject();
+		out.writeInt(queues.length);
+		for (EntityQueue queue : queues) {
+			if (queue == null) {
+				out.writeInt(-1);
+				continue;
+			}
+			out.writeInt(queue.size);
+			for (Node node = queue.first; node != null; node = node.next) {
+				out.writeObject(node.event);
+				out.writeLong(node.serial);
+			}
+		}
+	}
+
+	/**
+	 * Reads a queue written by {@link #writeObject(ObjectOutputStream)}, relinking its events.
+	 */
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		queues = new EntityQueue[in.readInt()];
+		for (int dest = 0; dest < queues.length; dest++) {
+			int count = in.readInt();
+			if (count < 0) {
+				continue;
+			}
+			EntityQueue queue = new EntityQueue();
+			for (int i = 0; i < count; i++) {
+				SimEvent event = (SimEvent) in.readObject();
+				queue.add(new Node(event, in.readLong()));
+			}
+			queues[dest] = queue;
+			size += count;
+		}
+	}
+
+	/**
+	 * A deferred event, linked into the list of its destination and into the chain of its tag.
+	 */
+	private static final class Node {
+
+		/** The event. */
+		final SimEvent event;
+
+		/** The event time. */
+		final double time;
+
+		/** The insertion serial. */
+		final long serial;
+
+		/** The chain of the event tag. */
+		TagChain chain;
+
+		/** The neighbours in the destination list. */
+		Node prev, next;
+
+		/** The neighbours in the tag chain. */
+		Node prevSameTag, nextSameTag;
+
+		Node(SimEvent event, long serial) {
+			this.event = event;
+			time = event.eventTime();
+			this.serial = serial;
+		}
+
+		/**
+		 * Checks if this node sorts before another one.
+		 *
+		 * @param other the other node
+		 * @return true if this node comes first
+		 */
+		boolean before(Node other) {
+			return time < other.time || (time == other.time && serial < other.serial);
+		}
+
+	}
+
+	/**
+	 * The events of one destination entity with the same tag.
+	 */
+	private static final class TagChain {
+
+		/** The tag. */
+		final int tag;
+
+		/** The first and last events. */
+		Node first, last;
+
+		/** The number of events. */
+		int size;
+
+		TagChain(int tag) {
+			this.tag = tag;
+		}
+
+	}
+
+	/**
+	 * The events of one destination entity.
+	 */
+	private static final class EntityQueue {
+
+		/** The first and last events. */
+		Node first, last;
+
+		/** The number of events. */
+		int size;
+
+		/** The tag chains; entities only receive a handful of different tags. */
+		TagChain[] chains = new TagChain[4];
+
+		/** The number of tag chains. */
+		int numChains;
+
+		/**
+		 * Gets the chain of a tag.
+		 *
+		 * @param tag the tag
+		 * @return the chain, or <tt>null</tt> if no event with this tag was ever added
+		 */
+		TagChain getChain(int tag) {
+			for (int i = 0; i < numChains; i++) {
+				if (chains[i].tag == tag) {
+					return chains[i];
+				}
+			}
+			return null;
+		}
+
+		/**
+		 * Adds a node as the last of all nodes with the same or an earlier time. Events arrive in
+		 * temporal order, so this is normally an append.
+		 *
+		 * @param node the node
+		 */
+		void add(Node node) {
+			Node after = last;
+			while (after != null && after.time > node.time) {
+				after = after.prev;
+			}
+			node.prev = after;
+			node.next = after == null ? first : after.next;
+			if (node.prev == null) {
+				first = node;
+			} else {
+				node.prev.next = node;
+			}
+			if (node.next == null) {
+				last = node;
+			} else {
+				node.next.prev = node;
+			}
+			size++;
+
+			int tag = node.event.getTag();
+			TagChain chain = getChain(tag);
+			if (chain == null) {
+				if (numChains == chains.length) {
+					chains = Arrays.copyOf(chains, numChains * 2);
+				}
+				chain = new TagChain(tag);
+				chains[numChains++] = chain;
+			}
+			node.chain = chain;
+			Node afterSameTag = chain.last;
+			while (afterSameTag != null && afterSameTag.time > node.time) {
+				afterSameTag = afterSameTag.prevSameTag;
+			}
+			node.prevSameTag = afterSameTag;
+			node.nextSameTag = afterSameTag == null ? chain.first : afterSameTag.nextSameTag;
+			if (node.prevSameTag == null) {
+				chain.first = node;
+			} else {
+				node.prevSameTag.nextSameTag = node;
+			}
+			if (node.nextSameTag == null) {
+				chain.last = node;
+			} else {
+				node.nextSameTag.prevSameTag = node;
+			}
+			chain.size++;
+		}
+
+		/**
+		 * Removes a node.
+		 *
+		 * @param node the node
+		 */
+		void remove(Node node) {
+			if (node.prev == null) {
+				first = node.next;
+			} else {
+				node.prev.next = node.next;
+			}
+			if (node.next == null) {
+				last = node.prev;
+			} else {
+				node.next.prev = node.prev;
+			}
+			size--;
+
+			TagChain chain = node.chain;
+			if (node.prevSameTag == null) {
+				chain.first = node.nextSameTag;
+			} else {
+				node.prevSameTag.nextSameTag = node.nextSameTag;
+			}
+			if (node.nextSameTag == null) {
+				chain.last = node.prevSameTag;
+			} else {
+				node.nextSameTag.prevSameTag = node.prevSameTag;
+			}
+			chain.size--;
+		}
+
 	}
 
-}
\ No newline at end of file
+}
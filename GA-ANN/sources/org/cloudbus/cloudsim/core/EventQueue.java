@@ -0,0 +1,109 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import java.io.Serializable;
+import java.util.List;
+
+import org.cloudbus.cloudsim.core.predicates.Predicate;
+
+/**
+ * The future event queue used by a {@link SimulationContext}. Implementations must deliver events
+ * in ascending (time, serial) order, where the serial is assigned by the queue on insertion: events
+ * added with {@link #addEvent(SimEvent)} get increasing serials, and events added with
+ * {@link #addEventFirst(SimEvent)} get serials that sort before every regular event of the same
+ * time, in the order they were added.
+ *
+ * @since CloudSim Toolkit 3.0
+ * @see FutureQueue
+ * @see BinaryHeapEventQueue
+ * @see CalendarEventQueue
+ */
+public interface EventQueue extends Serializable {
+
+	/**
+	 * Add a new event to the queue. Adding a new event to the queue preserves the temporal order of
+	 * the events in the queue.
+	 *
+	 * @param newEvent The event to be put in the queue.
+	 */
+	void addEvent(SimEvent newEvent);
+
+	/**
+	 * Add a new event to the head of the queue, i.e. before all the other events with the same
+	 * time.
+	 *
+	 * @param newEvent The event to be put in the queue.
+	 */
+	void addEventFirst(SimEvent newEvent);
+
+	/**
+	 * Returns the first event of the queue without removing it.
+	 *
+	 * @return the first event, or <tt>null</tt> if the queue is empty
+	 */
+	SimEvent peek();
+
+	/**
+	 * Removes and returns the first event of the queue.
+	 *
+	 * @return the first event, or <tt>null</tt> if the queue is empty
+	 */
+	SimEvent poll();
+
+	/**
+	 * Removes every event scheduled at the given time from the head of the queue and appends them,
+	 * in order, to the given list. The list is not cleared, so a caller can reuse the same list on
+	 * every clock tick without allocating.
+	 *
+	 * @param time the time of the events to be removed; normally the time of the first event
+	 * @param batch the list the removed events are appended to
+	 * @return the number of events removed
+	 */
+	int pollAllAt(double time, List<SimEvent> batch);
+
+	/**
+	 * Removes the first event sent by a given entity that matches a predicate.
+	 *
+	 * @param src the id of the entity that scheduled the event
+	 * @param p the predicate the event has to match
+	 * @return the removed event, or <tt>null</tt> if no event matched
+	 */
+	SimEvent cancel(int src, Predicate p);
+
+	/**
+	 * Removes all the events sent by a given entity that match a predicate.
+	 *
+	 * @param src the id of the entity that scheduled the events
+	 * @param p the predicate the events have to match
+	 * @return the number of events removed
+	 */
+	int cancelAll(int src, Predicate p);
+
+	/**
+	 * Removes all the events that match a predicate, whatever entity scheduled them.
+	 *
+	 * @param p the predicate the events have to match
+	 * @return the number of events removed
+	 */
+	int removeAll(Predicate p);
+
+	/**
+	 * Returns the size of this event queue.
+	 *
+	 * @return the size
+	 */
+	int size();
+
+	/**
+	 * Clears the queue.
+	 */
+	void clear();
+
+}
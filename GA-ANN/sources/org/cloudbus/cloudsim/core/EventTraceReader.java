@@ -0,0 +1,277 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Reads a trace file written by an {@link EventTraceWriter}, one record at a time. The file is
+ * mapped read-only in large regions, so a trace is read at the speed of the page cache; the
+ * getters read the fields of the current record straight from the mapped memory.
+ * <p>
+ * A reader starts before the first record; {@link #next()} moves it to the next one.
+ *
+ * @since CloudSim Toolkit 3.0
+ * @see EventTraceWriter
+ */
+public class EventTraceReader {
+
+	/** The size of the regions the file is mapped in, in bytes; a multiple of the record size. */
+	private static final int REGION_SIZE = 1 << 26;
+
+	/** The file. */
+	private final RandomAccessFile file;
+
+	/** The channel of the file. */
+	private final FileChannel channel;
+
+	/** The number of records of the file. */
+	private final long numRecords;
+
+	/** The mapped region holding the current record. */
+	private MappedByteBuffer region;
+
+	/** The index of the first record of the mapped region. */
+	private long regionFirst;
+
+	/** The index of the record after the mapped region. */
+	private long regionEnd;
+
+	/** The index of the current record. */
+	private long index = -1;
+
+	/** The offset of the current record in the mapped region. */
+	private int offset;
+
+	/**
+	 * Opens a trace file.
+	 *
+	 * @param fileName the name of the file
+	 * @throws IOException if the file cannot be read or is not an event trace
+	 */
+	public EventTraceReader(String fileName) throws IOException {
+		file = new RandomAccessFile(fileName, "r");
+		channel = file.getChannel();
+		long length = channel.size();
+		if (length < EventTraceWriter.HEADER_SIZE) {
+			file.close();
+			throw new IOException(fileName + " is not an event trace");
+		}
+		MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, EventTraceWriter.HEADER_SIZE);
+		header.order(ByteOrder.LITTLE_ENDIAN);
+		if (header.getInt(0) != EventTraceWriter.MAGIC
+				|| header.getInt(4) != EventTraceWriter.VERSION
+				|| header.getInt(8) != EventTraceWriter.RECORD_SIZE) {
+			file.close();
+			throw new IOException(fileName + " is not an event trace");
+		}
+		numRecords = (length - EventTraceWriter.HEADER_SIZE) / EventTraceWriter.RECORD_SIZE;
+	}
+
+	/**
+	 * Gets the number of records of the trace.
+	 *
+	 * @return the number of records
+	 */
+	public long getNumberOfRecords() {
+		return numRecords;
+	}
+
+	/**
+	 * Gets the index of the current record.
+	 *
+	 * @return the index, or -1 before the first record
+	 */
+	public long getIndex() {
+		return index;
+	}
+
+	/**
+	 * Moves to the next record.
+	 *
+	 * @return true if there is one, false at the end of the trace
+	 * @throws IOException if the file cannot be mapped
+	 */
+	public boolean next() throws IOException {
+		if (index + 1 >= numRecords) {
+			index = numRecords;
+			return false;
+		}
+		index++;
+		if (index >= regionEnd || region == null) {
+			map(index);
+		} else {
+			offset += EventTraceWriter.RECORD_SIZE;
+		}
+		return true;
+	}
+
+	/**
+	 * Moves to a record.
+	 *
+	 * @param index the index of the record
+	 * @throws IOException if the file cannot be mapped
+	 */
+	public void seek(long index) throws IOException {
+		if (index < 0 || index >= numRecords) {
+			throw new IndexOutOfBoundsException("The trace has no record " + index);
+		}
+		this.index = index;
+		if (region == null || index < regionFirst || index >= regionEnd) {
+			map(index);
+		} else {
+			offset = (int) (index - regionFirst) * EventTraceWriter.RECORD_SIZE;
+		}
+	}
+
+	/**
+	 * Maps the region of the file that starts at a record.
+	 *
+	 * @param first the index of the record
+	 * @throws IOException if the region cannot be mapped
+	 */
+	private void map(long first) throws IOException {
+		long count = Math.min(numRecords - first, REGION_SIZE / EventTraceWriter.RECORD_SIZE);
+		region = channel.map(FileChannel.MapMode.READ_ONLY,
+				EventTraceWriter.HEADER_SIZE + first * EventTraceWriter.RECORD_SIZE,
+				count * EventTraceWriter.RECORD_SIZE);
+		region.order(ByteOrder.LITTLE_ENDIAN);
+		regionFirst = first;
+		regionEnd = first + count;
+		offset = 0;
+	}
+
+	/**
+	 * Gets the time of the current event.
+	 *
+	 * @return the time
+	 */
+	public double getTime() {
+		return region.getDouble(offset);
+	}
+
+	/**
+	 * Gets the id of the source entity of the current event.
+	 *
+	 * @return the id
+	 */
+	public int getSource() {
+		return region.getInt(offset + 8);
+	}
+
+	/**
+	 * Gets the id of the destination entity of the current event.
+	 *
+	 * @return the id
+	 */
+	public int getDestination() {
+		return region.getInt(offset + 12);
+	}
+
+	/**
+	 * Gets the tag of the current event.
+	 *
+	 * @return the tag
+	 */
+	public int getTag() {
+		return region.getInt(offset + 16);
+	}
+
+	/**
+	 * Gets the type of the current event.
+	 *
+	 * @return the type, e.g. {@link SimEvent#SEND}
+	 */
+	public int getType() {
+		return region.get(offset + 20);
+	}
+
+	/**
+	 * Gets the kind of payload of the current event.
+	 *
+	 * @return the kind, e.g. {@link EventTraceWriter#CLOUDLET_PAYLOAD}
+	 */
+	public int getPayloadKind() {
+		return region.get(offset + 21);
+	}
+
+	/**
+	 * Gets the payload of the current event.
+	 *
+	 * @return the payload
+	 * @see #getPayloadKind()
+	 */
+	public long getPayload() {
+		return region.getLong(offset + 24);
+	}
+
+	/**
+	 * Checks whether the current record of this reader is identical to the current record of
+	 * another one.
+	 *
+	 * @param other the other reader
+	 * @return true if both records hold the same bytes
+	 */
+	public boolean sameRecord(EventTraceReader other) {
+		for (int i = 0; i < EventTraceWriter.RECORD_SIZE; i += 8) {
+			if (region.getLong(offset + i) != other.region.getLong(other.offset + i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Closes the file.
+	 *
+	 * @throws IOException if the file cannot be closed
+	 */
+	public void close() throws IOException {
+		region = null;
+		file.close();
+	}
+
+	/**
+	 * Finds the first record that differs between two traces, e.g. to find where two runs of the
+	 * same scenario diverge.
+	 *
+	 * @param fileName the name of the first trace file
+	 * @param otherFileName the name of the second trace file
+	 * @return the index of the first record that differs, the number of records of the shorter
+	 *         trace if it is a prefix of the other one, or -1 if the traces are identical
+	 * @throws IOException if a file cannot be read or is not an event trace
+	 */
+	public static long diff(String fileName, String otherFileName) throws IOException {
+		EventTraceReader a = new EventTraceReader(fileName);
+		try {
+			EventTraceReader b = new EventTraceReader(otherFileName);
+			try {
+				while (true) {
+					boolean hasA = a.next();
+					boolean hasB = b.next();
+					if (!hasA && !hasB) {
+						return -1;
+					}
+					if (hasA != hasB || !a.sameRecord(b)) {
+						return Math.min(a.getIndex(), b.getIndex());
+					}
+				}
+			} finally {
+				b.close();
+			}
+		} finally {
+			a.close();
+		}
+	}
+
+}
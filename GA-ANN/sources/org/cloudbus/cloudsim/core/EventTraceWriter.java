@@ -0,0 +1,225 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.Vm;
+
+/**
+ * Records every event processed by a {@link SimulationContext} into a binary trace file. The file
+ * starts with a header of {@link #HEADER_SIZE} bytes, followed by one record of
+ * {@link #RECORD_SIZE} bytes per event, in the order the events were processed. A record holds,
+ * little-endian:
+ * <ul>
+ * <li>at 0, the time of the event, as a double;
+ * <li>at 8, the id of the source entity, as an int;
+ * <li>at 12, the id of the destination entity, as an int;
+ * <li>at 16, the tag, as an int;
+ * <li>at 20, the type of the event, as a byte;
+ * <li>at 21, the kind of payload, as a byte;
+ * <li>at 24, the payload, as a long.
+ * </ul>
+ * The payload is an id or a primitive value identifying the data of the event, not the data
+ * itself: two runs processing the same events give byte-identical traces.
+ * <p>
+ * The file is written through memory-mapped regions of {@link #REGION_SIZE} bytes, so recording an
+ * event is a few stores into memory and never a system call; the operating system writes the pages
+ * back. {@link #close()} truncates the file to the records written.
+ *
+ * @since CloudSim Toolkit 3.0
+ * @see SimulationContext#setEventTrace(EventTraceWriter)
+ * @see EventTraceReader
+ */
+public class EventTraceWriter {
+
+	/** The magic number of a trace file. */
+	static final int MAGIC = 0x43535452;
+
+	/** The version of the file format. */
+	static final int VERSION = 1;
+
+	/** The size of the header, in bytes. */
+	public static final int HEADER_SIZE = 32;
+
+	/** The size of a record, in bytes. */
+	public static final int RECORD_SIZE = 32;
+
+	/** The size of the regions the file is mapped in, in bytes; a multiple of the record size. */
+	static final int REGION_SIZE = 1 << 22;
+
+	// Kinds of payload
+
+	/** The event carries no data. */
+	public static final int NO_PAYLOAD = 0;
+
+	/** The payload is the id of the {@link Cloudlet} the event carries. */
+	public static final int CLOUDLET_PAYLOAD = 1;
+
+	/** The payload is the id of the {@link Vm} the event carries. */
+	public static final int VM_PAYLOAD = 2;
+
+	/**
+	 * The payload is the first int value of the event in its high 32 bits and the second one, if
+	 * any, in its low 32 bits. An {@link Integer} is recorded as its value.
+	 */
+	public static final int INT_PAYLOAD = 3;
+
+	/** The payload is the long value of the event. */
+	public static final int LONG_PAYLOAD = 4;
+
+	/** The payload is the raw bits of the double value of the event. */
+	public static final int DOUBLE_PAYLOAD = 5;
+
+	/** The event carries another kind of object; the payload is 0. */
+	public static final int OTHER_PAYLOAD = 6;
+
+	/** The file. */
+	private final RandomAccessFile file;
+
+	/** The channel of the file. */
+	private final FileChannel channel;
+
+	/** The mapped region being written. */
+	private MappedByteBuffer region;
+
+	/** The offset of the mapped region in the file. */
+	private long regionStart;
+
+	/** The number of records written. */
+	private long numRecords;
+
+	/**
+	 * Creates a trace file, replacing any existing one.
+	 *
+	 * @param fileName the name of the file
+	 * @throws IOException if the file cannot be created
+	 */
+	public EventTraceWriter(String fileName) throws IOException {
+		file = new RandomAccessFile(fileName, "rw");
+		file.setLength(0);
+		channel = file.getChannel();
+		map(0);
+		region.putInt(MAGIC);
+		region.putInt(VERSION);
+		region.putInt(RECORD_SIZE);
+		region.position(HEADER_SIZE);
+	}
+
+	/**
+	 * Maps the region of the file that starts at an offset.
+	 *
+	 * @param start the offset
+	 * @throws IOException if the region cannot be mapped
+	 */
+	private void map(long start) throws IOException {
+		region = channel.map(FileChannel.MapMode.READ_WRITE, start, REGION_SIZE);
+		region.order(ByteOrder.LITTLE_ENDIAN);
+		regionStart = start;
+	}
+
+	/**
+	 * Records an event.
+	 *
+	 * @param e the event
+	 * @throws IllegalStateException if the file cannot be extended or the writer is closed
+	 */
+	void record(SimEvent e) {
+		if (region == null) {
+			throw new IllegalStateException("The event trace is closed.");
+		}
+		if (!region.hasRemaining()) {
+			try {
+				map(regionStart + REGION_SIZE);
+			} catch (IOException ex) {
+				throw new IllegalStateException("The event trace can't be written.", ex);
+			}
+		}
+
+		int kind;
+		long payload = 0;
+		switch (e.getDataKind()) {
+			case SimEvent.INT_DATA:
+				kind = INT_PAYLOAD;
+				payload = (long) e.getIntData(0) << 32;
+				if (e.getNumberOfInts() > 1) {
+					payload |= e.getIntData(1) & 0xFFFFFFFFL;
+				}
+				break;
+			case SimEvent.LONG_DATA:
+				kind = LONG_PAYLOAD;
+				payload = e.getLongData();
+				break;
+			case SimEvent.DOUBLE_DATA:
+				kind = DOUBLE_PAYLOAD;
+				payload = Double.doubleToRawLongBits(e.getDoubleData());
+				break;
+			default:
+				Object data = e.getData();
+				if (data == null) {
+					kind = NO_PAYLOAD;
+				} else if (data instanceof Cloudlet) {
+					kind = CLOUDLET_PAYLOAD;
+					payload = ((Cloudlet) data).getCloudletId();
+				} else if (data instanceof Vm) {
+					kind = VM_PAYLOAD;
+					payload = ((Vm) data).getId();
+				} else if (data instanceof Integer) {
+					kind = INT_PAYLOAD;
+					payload = (long) ((Integer) data).intValue() << 32;
+				} else {
+					kind = OTHER_PAYLOAD;
+				}
+				break;
+		}
+
+		region.putDouble(e.eventTime());
+		region.putInt(e.getSource());
+		region.putInt(e.getDestination());
+		region.putInt(e.getTag());
+		region.put((byte) e.getType());
+		region.put((byte) kind);
+		region.putShort((short) 0);
+		region.putLong(payload);
+		numRecords++;
+	}
+
+	/**
+	 * Gets the number of records written.
+	 *
+	 * @return the number of records
+	 */
+	public long getNumberOfRecords() {
+		return numRecords;
+	}
+
+	/**
+	 * Truncates the file to the records written and closes it. Closing a closed writer has no
+	 * effect.
+	 *
+	 * @throws IOException if the file cannot be truncated or closed
+	 */
+	public void close() throws IOException {
+		if (region == null) {
+			return;
+		}
+		region = null;
+		try {
+			channel.truncate(HEADER_SIZE + numRecords * RECORD_SIZE);
+		} finally {
+			file.close();
+		}
+	}
+
+}
@@ -10,9 +10,12 @@ package org.cloudbus.cloudsim.core;
 
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 import java.util.SortedSet;
 import java.util.TreeSet;
 
+import org.cloudbus.cloudsim.core.predicates.Predicate;
+
 /**
  * This class implements the future event queue used by {@link Simulation}. The event queue uses a
  * {@link TreeSet} in order to store the events.
@@ -21,8 +24,12 @@ import java.util.TreeSet;
  * @since CloudSim Toolkit 1.0
  * @see Simulation
  * @see java.util.TreeSet
+ * @see EventQueue
  */
-public class FutureQueue {
+public class FutureQueue implements EventQueue {
+
+	/** The Constant serialVersionUID. */
+	private static final long serialVersionUID = 1L;
 
 	/** The sorted set. */
 	private final SortedSet<SimEvent> sortedSet = new TreeSet<SimEvent>();
@@ -30,12 +37,16 @@ public class FutureQueue {
 	/** The serial. */
 	private long serial = 0;
 
+	/** The serial of events added to the head of the queue. */
+	private long firstSerial = Long.MIN_VALUE;
+
 	/**
 	 * Add a new event to the queue. Adding a new event to the queue preserves the temporal order of
 	 * the events in the queue.
 	 * 
 	 * @param newEvent The event to be put in the queue.
 	 */
+	@Override
 	public void addEvent(SimEvent newEvent) {
 		newEvent.setSerial(serial++);
 		sortedSet.add(newEvent);
@@ -46,11 +57,73 @@ public class FutureQueue {
 	 * 
 	 * @param newEvent The event to be put in the queue.
 	 */
+	@Override
 	public void addEventFirst(SimEvent newEvent) {
-		newEvent.setSerial(0);
+		newEvent.setSerial(firstSerial++);
 		sortedSet.add(newEvent);
 	}
 
+	@Override
+	public SimEvent peek() {
+		if (sortedSet.isEmpty()) {
+			return null;
+		}
+		return sortedSet.first();
+	}
+
+	@Override
+	public SimEvent poll() {
+		if (sortedSet.isEmpty()) {
+			return null;
+		}
+		SimEvent first = sortedSet.first();
+		sortedSet.remove(first);
+		return first;
+	}
+
+	@Override
+	public int pollAllAt(double time, List<SimEvent> batch) {
+		int count = 0;
+		Iterator<SimEvent> it = sortedSet.iterator();
+		while (it.hasNext()) {
+			SimEvent next = it.next();
+			if (next.eventTime() != time) {
+				break;
+			}
+			it.remove();
+			batch.add(next);
+			count++;
+		}
+		return count;
+	}
+
+	@Override
+	public SimEvent cancel(int src, Predicate p) {
+		Iterator<SimEvent> it = sortedSet.iterator();
+		while (it.hasNext()) {
+			SimEvent ev = it.next();
+			if (ev.getSource() == src && p.match(ev)) {
+				it.remove();
+				return ev;
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public int cancelAll(int src, Predicate p) {
+		int count = 0;
+		Iterator<SimEvent> it = sortedSet.iterator();
+		while (it.hasNext()) {
+			SimEvent ev = it.next();
+			if (ev.getSource() == src && p.match(ev)) {
+				it.remove();
+				count++;
+			}
+		}
+		return count;
+	}
+
 	/**
 	 * Returns an iterator to the queue.
 	 * 
@@ -60,11 +133,32 @@ public class FutureQueue {
 		return sortedSet.iterator();
 	}
 
+	/**
+	 * Removes all the events that match a predicate, whatever entity scheduled them, in a single
+	 * pass over the queue.
+	 * 
+	 * @param p the predicate the events have to match
+	 * @return the number of events removed
+	 */
+	@Override
+	public int removeAll(Predicate p) {
+		int count = 0;
+		Iterator<SimEvent> it = sortedSet.iterator();
+		while (it.hasNext()) {
+			if (p.match(it.next())) {
+				it.remove();
+				count++;
+			}
+		}
+		return count;
+	}
+
 	/**
 	 * Returns the size of this event queue.
 	 * 
 	 * @return the size
 	 */
+	@Override
 	public int size() {
 		return sortedSet.size();
 	}
@@ -92,8 +186,11 @@ public class FutureQueue {
 	/**
 	 * Clears the queue.
 	 */
+	@Override
 	public void clear() {
 		sortedSet.clear();
+		serial = 0;
+		firstSerial = Long.MIN_VALUE;
 	}
 
 }
\ No newline at end of file
@@ -0,0 +1,472 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.List;
+
+import org.cloudbus.cloudsim.core.predicates.Predicate;
+import org.cloudbus.cloudsim.core.predicates.PredicateAny;
+import org.cloudbus.cloudsim.core.predicates.PredicateNone;
+import org.cloudbus.cloudsim.core.predicates.PredicateType;
+
+/**
+ * A future event queue that indexes the pending events by source entity and tag, so that they can
+ * be cancelled without searching the whole queue. Entities such as datacenters and switches
+ * repeatedly cancel their own internal events of a given tag before scheduling new ones; with this
+ * index a {@link PredicateType} cancellation only touches the events it removes.
+ * <p>
+ * Cancelled events are not removed from the underlying queue right away. They are marked as
+ * cancelled and dropped when they reach the head of the queue, which costs no more than polling
+ * them. When the cancelled events outnumber the live ones, they are purged in a single pass so
+ * that they do not accumulate.
+ *
+ * @since CloudSim Toolkit 3.0
+ * @see EventQueue
+ */
+public class IndexedEventQueue implements EventQueue {
+
+	/** The Constant serialVersionUID. */
+	private static final long serialVersionUID = 1L;
+
+	/** The number of cancelled events the queue keeps before it considers purging them. */
+	private static final int PURGE_THRESHOLD = 1024;
+
+	/** Matches the cancelled events. */
+	private static final Predicate CANCELLED = new Predicate() {
+
+		@Override
+		public boolean match(SimEvent ev) {
+			return ev.isCancelled();
+		}
+
+	};
+
+	/** The underlying queue. */
+	private final EventQueue queue;
+
+	/** The events of each source entity, indexed by entity id. */
+	private SourceIndex[] sources = new SourceIndex[16];
+
+	/** The number of cancelled events still held by the underlying queue. */
+	private int cancelled;
+
+	/**
+	 * Creates an indexed queue backed by a binary heap.
+	 */
+	public IndexedEventQueue() {
+		this(new BinaryHeapEventQueue());
+	}
+
+	/**
+	 * Creates an indexed queue backed by a given queue.
+	 *
+	 * @param queue the underlying queue
+	 * @throws IllegalArgumentException if the queue is <tt>null</tt>
+	 */
+	public IndexedEventQueue(EventQueue queue) {
+		if (queue == null) {
+			throw new IllegalArgumentException("The underlying event queue can not be null");
+		}
+		this.queue = queue;
+	}
+
+	/**
+	 * Gets the underlying queue.
+	 *
+	 * @return the underlying queue
+	 */
+	public EventQueue getQueue() {
+		return queue;
+	}
+
+	@Override
+	public void addEvent(SimEvent newEvent) {
+		queue.addEvent(newEvent);
+		index(newEvent);
+	}
+
+	@Override
+	public void addEventFirst(SimEvent newEvent) {
+		queue.addEventFirst(newEvent);
+		index(newEvent);
+	}
+
+	@Override
+	public SimEvent peek() {
+		skipCancelled();
+		return queue.peek();
+	}
+
+	@Override
+	public SimEvent poll() {
+		skipCancelled();
+		SimEvent ev = queue.poll();
+		if (ev != null) {
+			unindex(ev);
+		}
+		return ev;
+	}
+
+	@Override
+	public int pollAllAt(double time, List<SimEvent> batch) {
+		int start = batch.size();
+		queue.pollAllAt(time, batch);
+		int end = batch.size();
+		int kept = start;
+		for (int i = start; i < end; i++) {
+			SimEvent ev = batch.get(i);
+			if (ev.isCancelled()) {
+				cancelled--;
+				continue;
+			}
+			unindex(ev);
+			batch.set(kept++, ev);
+		}
+		for (int i = end - 1; i >= kept; i--) {
+			batch.remove(i);
+		}
+		return kept - start;
+	}
+
+	@Override
+	public SimEvent cancel(int src, Predicate p) {
+		SourceIndex source = getSource(src);
+		if (source == null) {
+			return src < 0 ? queue.cancel(src, p) : null;
+		}
+		if (p instanceof PredicateNone) {
+			return null;
+		}
+
+		SimEvent first = null;
+		for (int i = 0; i < source.numLists; i++) {
+			TagList list = source.lists[i];
+			if (p instanceof PredicateType && !hasTag((PredicateType) p, list.tag)) {
+				continue;
+			}
+			for (int j = 0; j < list.size; j++) {
+				SimEvent ev = list.events[j];
+				if (p.match(ev) && (first == null || before(ev, first))) {
+					first = ev;
+				}
+			}
+		}
+		if (first != null) {
+			remove(first);
+		}
+		return first;
+	}
+
+	@Override
+	public int cancelAll(int src, Predicate p) {
+		SourceIndex source = getSource(src);
+		if (source == null) {
+			return src < 0 ? queue.cancelAll(src, p) : 0;
+		}
+		if (p instanceof PredicateNone) {
+			return 0;
+		}
+
+		int count = 0;
+		boolean any = p instanceof PredicateAny;
+		boolean type = p instanceof PredicateType;
+		for (int i = 0; i < source.numLists; i++) {
+			TagList list = source.lists[i];
+			if (any || type && hasTag((PredicateType) p, list.tag)) {
+				// the whole list goes
+				for (int j = 0; j < list.size; j++) {
+					markCancelled(list.events[j]);
+				}
+				count += list.size;
+				Arrays.fill(list.events, 0, list.size, null);
+				list.size = 0;
+			} else if (!type) {
+				for (int j = list.size - 1; j >= 0; j--) {
+					SimEvent ev = list.events[j];
+					if (p.match(ev)) {
+						list.remove(j);
+						markCancelled(ev);
+						count++;
+					}
+				}
+			}
+		}
+		if (count > 0) {
+			purgeIfNeeded();
+		}
+		return count;
+	}
+
+	@Override
+	public int removeAll(Predicate p) {
+		int count = 0;
+		for (int s = 0; s < sources.length; s++) {
+			if (sources[s] != null) {
+				count += cancelAll(s, p);
+			}
+		}
+		return count + queue.removeAll(new Unindexed(p));
+	}
+
+	@Override
+	public int size() {
+		return queue.size() - cancelled;
+	}
+
+	@Override
+	public void clear() {
+		queue.clear();
+		Arrays.fill(sources, null);
+		cancelled = 0;
+	}
+
+	/**
+	 * Drops the cancelled events from the head of the underlying queue.
+	 */
+	private void skipCancelled() {
+		while (cancelled > 0) {
+			SimEvent head = queue.peek();
+			if (head == null || !head.isCancelled()) {
+				return;
+			}
+			queue.poll();
+			cancelled--;
+		}
+	}
+
+	/**
+	 * Purges the cancelled events from the underlying queue if they outnumber the live ones.
+	 */
+	private void purgeIfNeeded() {
+		if (cancelled > PURGE_THRESHOLD && cancelled > queue.size() - cancelled) {
+			cancelled -= queue.removeAll(CANCELLED);
+		}
+	}
+
+	/**
+	 * Cancels an indexed event.
+	 *
+	 * @param ev the event
+	 */
+	private void remove(SimEvent ev) {
+		unindex(ev);
+		markCancelled(ev);
+		purgeIfNeeded();
+	}
+
+	/**
+	 * Marks an event that has already been taken out of the index as cancelled.
+	 *
+	 * @param ev the event
+	 */
+	private void markCancelled(SimEvent ev) {
+		ev.setCancelled(true);
+		ev.setIndexSlot(-1);
+		cancelled++;
+	}
+
+	/**
+	 * Adds an event to the index.
+	 *
+	 * @param ev the event
+	 */
+	private void index(SimEvent ev) {
+		int src = ev.getSource();
+		if (src < 0) {
+			return;
+		}
+		if (src >= sources.length) {
+			sources = Arrays.copyOf(sources, Math.max(src + 1, sources.length * 2));
+		}
+		SourceIndex source = sources[src];
+		if (source == null) {
+			source = new SourceIndex();
+			sources[src] = source;
+		}
+		source.getOrAddList(ev.getTag()).add(ev);
+	}
+
+	/**
+	 * Removes an event from the index.
+	 *
+	 * @param ev the event
+	 */
+	private void unindex(SimEvent ev) {
+		int slot = ev.getIndexSlot();
+		if (slot < 0) {
+			return;
+		}
+		sources[ev.getSource()].getList(ev.getTag()).remove(slot);
+	}
+
+	/**
+	 * Gets the index of a source entity.
+	 *
+	 * @param src the id of the entity
+	 * @return the index, or <tt>null</tt> if the entity never scheduled an event
+	 */
+	private SourceIndex getSource(int src) {
+		if (src < 0 || src >= sources.length) {
+			return null;
+		}
+		return sources[src];
+	}
+
+	/**
+	 * Checks whether an event is delivered before another one.
+	 *
+	 * @param a the first event
+	 * @param b the second event
+	 * @return true if a is delivered first
+	 */
+	private static boolean before(SimEvent a, SimEvent b) {
+		double ta = a.eventTime();
+		double tb = b.eventTime();
+		return ta < tb || (ta == tb && a.getSerial() < b.getSerial());
+	}
+
+	/**
+	 * Checks whether a type predicate matches a tag.
+	 *
+	 * @param type the predicate
+	 * @param tag the tag
+	 * @return true if the tag is one of the predicate tags
+	 */
+	private static boolean hasTag(PredicateType type, int tag) {
+		for (int i = 0; i < type.getNumberOfTags(); i++) {
+			if (type.getTag(i) == tag) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Matches the events of a predicate that are not in the index.
+	 */
+	private static final class Unindexed extends Predicate {
+
+		private static final long serialVersionUID = 1L;
+
+		/** The predicate. */
+		private final Predicate p;
+
+		Unindexed(Predicate p) {
+			this.p = p;
+		}
+
+		@Override
+		public boolean match(SimEvent ev) {
+			return !ev.isCancelled() && ev.getSource() < 0 && p.match(ev);
+		}
+
+	}
+
+	/**
+	 * The pending events of one source entity with the same tag. Events are kept in no particular
+	 * order; each event records its slot so it can be removed in constant time.
+	 */
+	private static final class TagList implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		/** The tag. */
+		final int tag;
+
+		/** The events. */
+		SimEvent[] events = new SimEvent[4];
+
+		/** The number of events. */
+		int size;
+
+		TagList(int tag) {
+			this.tag = tag;
+		}
+
+		/**
+		 * Adds an event.
+		 *
+		 * @param ev the event
+		 */
+		void add(SimEvent ev) {
+			if (size == events.length) {
+				events = Arrays.copyOf(events, size * 2);
+			}
+			ev.setIndexSlot(size);
+			events[size++] = ev;
+		}
+
+		/**
+		 * Removes the event at a given slot, moving the last event into it.
+		 *
+		 * @param slot the slot
+		 */
+		void remove(int slot) {
+			events[slot].setIndexSlot(-1);
+			int last = --size;
+			if (slot != last) {
+				events[slot] = events[last];
+				events[slot].setIndexSlot(slot);
+			}
+			events[last] = null;
+		}
+
+	}
+
+	/**
+	 * The pending events of one source entity.
+	 */
+	private static final class SourceIndex implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		/** The tag lists; entities only schedule a handful of different tags. */
+		TagList[] lists = new TagList[4];
+
+		/** The number of tag lists. */
+		int numLists;
+
+		/**
+		 * Gets the list of a tag.
+		 *
+		 * @param tag the tag
+		 * @return the list, or <tt>null</tt> if no event with this tag was ever added
+		 */
+		TagList getList(int tag) {
+			for (int i = 0; i < numLists; i++) {
+				if (lists[i].tag == tag) {
+					return lists[i];
+				}
+			}
+			return null;
+		}
+
+		/**
+		 * Gets the list of a tag, creating it if needed.
+		 *
+		 * @param tag the tag
+		 * @return the list
+		 */
+		TagList getOrAddList(int tag) {
+			TagList list = getList(tag);
+			if (list == null) {
+				if (numLists == lists.length) {
+					lists = Arrays.copyOf(lists, numLists * 2);
+				}
+				list = new TagList(tag);
+				lists[numLists++] = list;
+			}
+			return list;
+		}
+
+	}
+
+}
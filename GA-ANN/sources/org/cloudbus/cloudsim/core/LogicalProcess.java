@@ -0,0 +1,450 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.concurrent.RecursiveAction;
+
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.core.predicates.Predicate;
+
+/**
+ * A logical process runs, during a parallel clock tick, the ready entities of one partition of a
+ * {@link SimulationContext}. Whatever its entities do that would touch the shared state of the
+ * context is buffered: the events they send, the events they release, the entities they mark
+ * ready and what they log. Once every process has run, the context commits the buffers in entity
+ * id order, so that the tick has the same outcome as if all entities had run one after the other.
+ *
+ * @since CloudSim Toolkit 3.0
+ * @see SimulationContext#setLogicalProcess(int, int)
+ */
+final class LogicalProcess extends RecursiveAction {
+
+	private static final long serialVersionUID = 1L;
+
+	/** The context the process belongs to. */
+	private final SimulationContext context;
+
+	/** The number identifying the process. */
+	private final int number;
+
+	/** The ids of the entities to run in this tick, in ascending order. */
+	private int[] entityIds = new int[8];
+
+	/** The number of entities to run. */
+	private int numEntities;
+
+	/** The id of the entity being run. */
+	private int current = -1;
+
+	/** The events sent in this tick, in order; cancelled ones are set to null. */
+	private SimEvent[] events = new SimEvent[16];
+
+	/** Whether each event has to be added at the head of the future queue. */
+	private boolean[] first = new boolean[16];
+
+	/** The id of the entity that was running when each event was sent. */
+	private int[] senders = new int[16];
+
+	/** The number of events sent. */
+	private int numEvents;
+
+	/** The events released in this tick. */
+	private SimEvent[] released = new SimEvent[16];
+
+	/** The number of events released. */
+	private int numReleased;
+
+	/** The ids of the entities marked ready in this tick. */
+	private int[] readyIds = new int[8];
+
+	/** The number of entities marked ready. */
+	private int numReady;
+
+	/** What the entities logged in this tick. */
+	private byte[] log = new byte[256];
+
+	/** The number of bytes logged. */
+	private int logSize;
+
+	/** The entity that logged each segment of the log. */
+	private int[] logOwners = new int[8];
+
+	/** The end offset of each segment of the log. */
+	private int[] logEnds = new int[8];
+
+	/** The number of segments of the log. */
+	private int numLogSegments;
+
+	/** The output of the thread running the process, which buffers what the entities log. */
+	private transient OutputStream logSink;
+
+	/** The failure that stopped the process, if any. */
+	private Throwable failure;
+
+	/** The entity that failed. */
+	private int failedEntity;
+
+	/**
+	 * Creates a logical process.
+	 *
+	 * @param context the context the process belongs to
+	 * @param number the number identifying the process
+	 */
+	LogicalProcess(SimulationContext context, int number) {
+		this.context = context;
+		this.number = number;
+	}
+
+	/**
+	 * Gets the number identifying the process.
+	 *
+	 * @return the number
+	 */
+	int getNumber() {
+		return number;
+	}
+
+	/**
+	 * Adds an entity to run in this tick. Entities must be added in ascending id order.
+	 *
+	 * @param id the id of the entity
+	 * @return true if it is the first entity of the tick
+	 */
+	boolean addEntity(int id) {
+		if (numEntities == entityIds.length) {
+			entityIds = Arrays.copyOf(entityIds, numEntities * 2);
+		}
+		entityIds[numEntities++] = id;
+		return numEntities == 1;
+	}
+
+	/**
+	 * Gets the number of entities to run in this tick.
+	 *
+	 * @return the number of entities
+	 */
+	int getNumberOfEntities() {
+		return numEntities;
+	}
+
+	/**
+	 * Gets an entity to run in this tick.
+	 *
+	 * @param index the index of the entity
+	 * @return the id of the entity
+	 */
+	int getEntityId(int index) {
+		return entityIds[index];
+	}
+
+	@Override
+	protected void compute() {
+		SimulationContext previous = CloudSim.bindContext(context);
+		OutputStream previousOutput = Log.getThreadOutput();
+		if (logSink == null) {
+			logSink = new LogSink();
+		}
+		Log.setThreadOutput(logSink);
+		context.enterProcess(this);
+		try {
+			for (int i = 0; i < numEntities; i++) {
+				current = entityIds[i];
+				SimEntity ent = context.getEntity(current);
+				if (ent.getState() == SimEntity.RUNNABLE) {
+					ent.run();
+				}
+			}
+		} catch (Throwable t) {
+			failure = t;
+			failedEntity = current;
+		} finally {
+			current = -1;
+			context.enterProcess(null);
+			Log.setThreadOutput(previousOutput);
+			CloudSim.bindContext(previous);
+		}
+	}
+
+	/**
+	 * Buffers an event sent by the running entity.
+	 *
+	 * @param e the event
+	 * @param head true to add it at the head of the future queue
+	 */
+	void send(SimEvent e, boolean head) {
+		if (numEvents == events.length) {
+			events = Arrays.copyOf(events, numEvents * 2);
+			first = Arrays.copyOf(first, numEvents * 2);
+			senders = Arrays.copyOf(senders, numEvents * 2);
+		}
+		events[numEvents] = e;
+		first[numEvents] = head;
+		senders[numEvents] = current;
+		numEvents++;
+	}
+
+	/**
+	 * Cancels the first buffered event matching a predicate, if it precedes every event of the
+	 * future queue matching it. The future queue orders events by time, then puts events added at
+	 * its head first, then keeps the order in which they were added; the buffered events will be
+	 * added after all the events it holds.
+	 *
+	 * @param src the id of the entity that sent the events
+	 * @param p the predicate
+	 * @param future the future queue, locked by the caller
+	 * @return the cancelled event, or null
+	 */
+	SimEvent cancel(int src, Predicate p, EventQueue future) {
+		int found = -1;
+		for (int i = 0; i < numEvents; i++) {
+			SimEvent e = events[i];
+			if (e != null && e.getSource() == src && p.match(e)
+					&& (found < 0 || precedes(i, found))) {
+				found = i;
+			}
+		}
+		if (found < 0) {
+			return future.cancel(src, p);
+		}
+
+		SimEvent queued = future.cancel(src, new BeforePredicate(p, events[found].eventTime(), first[found]));
+		if (queued != null) {
+			return queued;
+		}
+		SimEvent e = events[found];
+		events[found] = null;
+		return e;
+	}
+
+	/**
+	 * Cancels all the buffered events matching a predicate.
+	 *
+	 * @param src the id of the entity that sent the events
+	 * @param p the predicate
+	 * @return the number of cancelled events
+	 */
+	int cancelAll(int src, Predicate p) {
+		int count = 0;
+		for (int i = 0; i < numEvents; i++) {
+			SimEvent e = events[i];
+			if (e != null && e.getSource() == src && p.match(e)) {
+				events[i] = null;
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Checks whether a buffered event will be ahead of another one in the future queue.
+	 */
+	private boolean precedes(int a, int b) {
+		double ta = events[a].eventTime();
+		double tb = events[b].eventTime();
+		return ta < tb || (ta == tb && first[a] && !first[b]);
+	}
+
+	/**
+	 * Buffers an event released by the running entity.
+	 *
+	 * @param e the event
+	 */
+	void release(SimEvent e) {
+		if (numReleased == released.length) {
+			released = Arrays.copyOf(released, numReleased * 2);
+		}
+		released[numReleased++] = e;
+	}
+
+	/**
+	 * Buffers the mark of an entity as ready.
+	 *
+	 * @param id the id of the entity
+	 */
+	void setReady(int id) {
+		if (numReady == readyIds.length) {
+			readyIds = Arrays.copyOf(readyIds, numReady * 2);
+		}
+		readyIds[numReady++] = id;
+	}
+
+	/**
+	 * Buffers what the running entity logs.
+	 *
+	 * @param b the bytes
+	 * @param off the offset of the first byte
+	 * @param len the number of bytes
+	 */
+	void log(byte[] b, int off, int len) {
+		if (numLogSegments == 0 || logOwners[numLogSegments - 1] != current) {
+			if (numLogSegments == logOwners.length) {
+				logOwners = Arrays.copyOf(logOwners, numLogSegments * 2);
+				logEnds = Arrays.copyOf(logEnds, numLogSegments * 2);
+			}
+			logOwners[numLogSegments++] = current;
+		}
+		if (logSize + len > log.length) {
+			log = Arrays.copyOf(log, Math.max(logSize + len, log.length * 2));
+		}
+		System.arraycopy(b, off, log, logSize, len);
+		logSize += len;
+		logEnds[numLogSegments - 1] = logSize;
+	}
+
+	// --------------- COMMIT, IN ENTITY ID ORDER ------------------
+
+	/** The next buffered event to commit. */
+	private int nextEvent;
+
+	/** The next log segment to commit. */
+	private int nextLogSegment;
+
+	/**
+	 * Gets the id of the entity that sent the next buffered event to commit.
+	 *
+	 * @return the id, or {@link Integer#MAX_VALUE} if all events have been committed
+	 */
+	int getNextSender() {
+		return nextEvent < numEvents ? senders[nextEvent] : Integer.MAX_VALUE;
+	}
+
+	/**
+	 * Commits the buffered events sent by the entity that sent the next one.
+	 *
+	 * @param future the future queue
+	 */
+	void commitEvents(EventQueue future) {
+		int sender = senders[nextEvent];
+		while (nextEvent < numEvents && senders[nextEvent] == sender) {
+			SimEvent e = events[nextEvent];
+			if (e != null) {
+				if (first[nextEvent]) {
+					future.addEventFirst(e);
+				} else {
+					future.addEvent(e);
+				}
+			}
+			nextEvent++;
+		}
+	}
+
+	/**
+	 * Gets the id of the entity that logged the next segment to commit.
+	 *
+	 * @return the id, or {@link Integer#MAX_VALUE} if the whole log has been committed
+	 */
+	int getNextLogOwner() {
+		return nextLogSegment < numLogSegments ? logOwners[nextLogSegment] : Integer.MAX_VALUE;
+	}
+
+	/**
+	 * Writes the next log segment to the log.
+	 */
+	void commitLog() {
+		int start = nextLogSegment == 0 ? 0 : logEnds[nextLogSegment - 1];
+		Log.write(log, start, logEnds[nextLogSegment] - start);
+		nextLogSegment++;
+	}
+
+	/**
+	 * Commits the entities marked ready and the released events.
+	 */
+	void commitState() {
+		for (int i = 0; i < numReady; i++) {
+			context.setReady(readyIds[i]);
+		}
+		for (int i = 0; i < numReleased; i++) {
+			context.releaseEvent(released[i]);
+		}
+	}
+
+	/**
+	 * Gets the failure that stopped the process in this tick.
+	 *
+	 * @return the failure, or null
+	 */
+	Throwable getFailure() {
+		return failure;
+	}
+
+	/**
+	 * Gets the entity whose failure stopped the process.
+	 *
+	 * @return the id of the entity
+	 */
+	int getFailedEntity() {
+		return failedEntity;
+	}
+
+	/**
+	 * Clears the buffers, ready for the next tick.
+	 */
+	void clear() {
+		Arrays.fill(events, 0, numEvents, null);
+		Arrays.fill(released, 0, numReleased, null);
+		numEntities = 0;
+		numEvents = 0;
+		numReleased = 0;
+		numReady = 0;
+		numLogSegments = 0;
+		nextEvent = 0;
+		nextLogSegment = 0;
+		logSize = 0;
+		failure = null;
+		reinitialize();
+	}
+
+	/**
+	 * Matches the events of the future queue that match a predicate and are ahead of a given
+	 * buffered event.
+	 */
+	private static final class BeforePredicate extends Predicate {
+
+		private static final long serialVersionUID = 1L;
+
+		private final Predicate predicate;
+
+		private final double time;
+
+		private final boolean head;
+
+		BeforePredicate(Predicate predicate, double time, boolean head) {
+			this.predicate = predicate;
+			this.time = time;
+			this.head = head;
+		}
+
+		@Override
+		public boolean match(SimEvent ev) {
+			double t = ev.eventTime();
+			return (t < time || (t == time && (!head || ev.isFirst()))) && predicate.match(ev);
+		}
+
+	}
+
+	/**
+	 * Buffers what the thread running the process logs.
+	 */
+	private final class LogSink extends OutputStream {
+
+		@Override
+		public void write(int b) {
+			write(new byte[] { (byte) b }, 0, 1);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			log(b, off, len);
+		}
+
+	}
+
+}
@@ -8,6 +8,8 @@
 
 package org.cloudbus.cloudsim.core;
 
+import java.io.Serializable;
+
 import org.cloudbus.cloudsim.Log;
 import org.cloudbus.cloudsim.NetworkTopology;
 import org.cloudbus.cloudsim.core.predicates.Predicate;
@@ -28,7 +30,10 @@ import org.cloudbus.cloudsim.core.predicates.Predicate;
  * @author Marcos Dias de Assuncao
  * @since CloudSim Toolkit 1.0
  */
-public abstract class SimEntity implements Cloneable {
+public abstract class SimEntity implements Cloneable, Serializable {
+
+	/** The Constant serialVersionUID. */
+	private static final long serialVersionUID = 1L;
 
 	/** The name. */
 	private String name;
@@ -42,19 +47,37 @@ public abstract class SimEntity implements Cloneable {
 	/** The entity's current state. */
 	private int state;
 
+	/** The simulation context this entity belongs to. */
+	private final SimulationContext context;
+
 	/**
-	 * Creates a new entity.
+	 * Creates a new entity in the current simulation context.
 	 * 
 	 * @param name the name to be associated with this entity
+	 * @see CloudSim#getContext()
 	 */
 	public SimEntity(String name) {
+		this(name, CloudSim.getContext());
+	}
+
+	/**
+	 * Creates a new entity in a given simulation context.
+	 * 
+	 * @param name the name to be associated with this entity
+	 * @param context the simulation context the entity belongs to
+	 */
+	public SimEntity(String name, SimulationContext context) {
 		if (name.indexOf(" ") != -1) {
 			throw new IllegalArgumentException("Entity names can't contain spaces.");
 		}
+		if (context == null) {
+			throw new IllegalArgumentException("Entities need a simulation context.");
+		}
 		this.name = name;
+		this.context = context;
 		id = -1;
 		state = RUNNABLE;
-		CloudSim.addEntity(this);
+		context.addEntity(this);
 	}
 
 	/**
@@ -75,6 +98,15 @@ public abstract class SimEntity implements Cloneable {
 		return id;
 	}
 
+	/**
+	 * Gets the simulation context this entity belongs to.
+	 * 
+	 * @return the simulation context
+	 */
+	public SimulationContext getSimulationContext() {
+		return context;
+	}
+
 	// The schedule functions
 
 	/**
@@ -87,10 +119,10 @@ public abstract class SimEntity implements Cloneable {
 	 * @param data The data to be sent with the event.
 	 */
 	public void schedule(int dest, double delay, int tag, Object data) {
-		if (!CloudSim.running()) {
+		if (!context.running()) {
 			return;
 		}
-		CloudSim.send(id, dest, delay, tag, data);
+		context.send(id, dest, delay, tag, data);
 	}
 
 	/**
@@ -115,7 +147,7 @@ public abstract class SimEntity implements Cloneable {
 	 * @param data The data to be sent with the event.
 	 */
 	public void schedule(String dest, double delay, int tag, Object data) {
-		schedule(CloudSim.getEntityId(dest), delay, tag, data);
+		schedule(context.getEntityId(dest), delay, tag, data);
 	}
 
 	/**
@@ -162,7 +194,7 @@ public abstract class SimEntity implements Cloneable {
 	 * @param data The data to be sent with the event.
 	 */
 	public void scheduleNow(String dest, int tag, Object data) {
-		schedule(CloudSim.getEntityId(dest), 0, tag, data);
+		schedule(context.getEntityId(dest), 0, tag, data);
 	}
 
 	/**
@@ -186,10 +218,10 @@ public abstract class SimEntity implements Cloneable {
 	 * @param data The data to be sent with the event.
 	 */
 	public void scheduleFirst(int dest, double delay, int tag, Object data) {
-		if (!CloudSim.running()) {
+		if (!context.running()) {
 			return;
 		}
-		CloudSim.sendFirst(id, dest, delay, tag, data);
+		context.sendFirst(id, dest, delay, tag, data);
 	}
 
 	/**
@@ -214,7 +246,7 @@ public abstract class SimEntity implements Cloneable {
 	 * @param data The data to be sent with the event.
 	 */
 	public void scheduleFirst(String dest, double delay, int tag, Object data) {
-		scheduleFirst(CloudSim.getEntityId(dest), delay, tag, data);
+		scheduleFirst(context.getEntityId(dest), delay, tag, data);
 	}
 
 	/**
@@ -261,7 +293,7 @@ public abstract class SimEntity implements Cloneable {
 	 * @param data The data to be sent with the event.
 	 */
 	public void scheduleFirstNow(String dest, int tag, Object data) {
-		scheduleFirst(CloudSim.getEntityId(dest), 0, tag, data);
+		scheduleFirst(context.getEntityId(dest), 0, tag, data);
 	}
 
 	/**
@@ -284,10 +316,10 @@ public abstract class SimEntity implements Cloneable {
 		if (delay < 0) {
 			throw new IllegalArgumentException("Negative delay supplied.");
 		}
-		if (!CloudSim.running()) {
+		if (!context.running()) {
 			return;
 		}
-		CloudSim.pause(id, delay);
+		context.pause(id, delay);
 	}
 
 	/**
@@ -297,7 +329,7 @@ public abstract class SimEntity implements Cloneable {
 	 * @return The count of matching events
 	 */
 	public int numEventsWaiting(Predicate p) {
-		return CloudSim.waiting(id, p);
+		return context.waiting(id, p);
 	}
 
 	/**
@@ -306,7 +338,7 @@ public abstract class SimEntity implements Cloneable {
 	 * @return The count of events
 	 */
 	public int numEventsWaiting() {
-		return CloudSim.waiting(id, CloudSim.SIM_ANY);
+		return context.waiting(id, CloudSim.SIM_ANY);
 	}
 
 	/**
@@ -316,11 +348,11 @@ public abstract class SimEntity implements Cloneable {
 	 * @return the simulation event
 	 */
 	public SimEvent selectEvent(Predicate p) {
-		if (!CloudSim.running()) {
+		if (!context.running()) {
 			return null;
 		}
 
-		return CloudSim.select(id, p);
+		return context.select(id, p);
 	}
 
 	/**
@@ -330,11 +362,11 @@ public abstract class SimEntity implements Cloneable {
 	 * @return The number of events cancelled (0 or 1)
 	 */
 	public SimEvent cancelEvent(Predicate p) {
-		if (!CloudSim.running()) {
+		if (!context.running()) {
 			return null;
 		}
 
-		return CloudSim.cancel(id, p);
+		return context.cancel(id, p);
 	}
 
 	/**
@@ -345,7 +377,7 @@ public abstract class SimEntity implements Cloneable {
 	 * @return the simulation event
 	 */
 	public SimEvent getNextEvent(Predicate p) {
-		if (!CloudSim.running()) {
+		if (!context.running()) {
 			return null;
 		}
 		if (numEventsWaiting(p) > 0) {
@@ -361,11 +393,11 @@ public abstract class SimEntity implements Cloneable {
 	 * @param p The predicate to match
 	 */
 	public void waitForEvent(Predicate p) {
-		if (!CloudSim.running()) {
+		if (!context.running()) {
 			return;
 		}
 
-		CloudSim.wait(id, p);
+		context.wait(id, p);
 		state = WAITING;
 	}
 
@@ -404,6 +436,7 @@ public abstract class SimEntity implements Cloneable {
 
 		while (ev != null) {
 			processEvent(ev);
+			context.releaseEvent(ev);
 			if (state != RUNNABLE) {
 				break;
 			}
@@ -481,6 +514,9 @@ public abstract class SimEntity implements Cloneable {
 	 */
 	protected void setState(int state) {
 		this.state = state;
+		if (state == RUNNABLE && id >= 0) {
+			context.setReady(id);
+		}
 	}
 
 	/**
@@ -575,7 +611,7 @@ public abstract class SimEntity implements Cloneable {
 	 * @post $none
 	 */
 	protected void send(String entityName, double delay, int cloudSimTag, Object data) {
-		send(CloudSim.getEntityId(entityName), delay, cloudSimTag, data);
+		send(context.getEntityId(entityName), delay, cloudSimTag, data);
 	}
 
 	/**
@@ -643,7 +679,7 @@ public abstract class SimEntity implements Cloneable {
 	 * @post $none
 	 */
 	protected void sendNow(String entityName, int cloudSimTag, Object data) {
-		send(CloudSim.getEntityId(entityName), 0, cloudSimTag, data);
+		send(context.getEntityId(entityName), 0, cloudSimTag, data);
 	}
 
 	/**
@@ -662,6 +698,59 @@ public abstract class SimEntity implements Cloneable {
 		send(entityName, 0, cloudSimTag, null);
 	}
 
+	/**
+	 * Sends an event/message carrying up to three int values, such as an acknowledgement, to
+	 * another entity by <tt>delaying</tt> the simulation time from the current time. The values
+	 * are not boxed; the destination reads them with {@link SimEvent#getIntData(int)}, or as an
+	 * <tt>int[]</tt> with {@link SimEvent#getData()}.
+	 * 
+	 * @param entityId the id number of the destination entity
+	 * @param delay how long from the current simulation time the event should be sent. If delay is
+	 *            a negative number, then it will be changed to 0
+	 * @param cloudSimTag an user-defined number representing the type of an event/message
+	 * @param value0 the first value
+	 * @param value1 the second value
+	 * @param value2 the third value
+	 * @pre entityID > 0
+	 * @pre delay >= 0.0
+	 * @post $none
+	 */
+	protected void send(int entityId, double delay, int cloudSimTag, int value0, int value1, int value2) {
+		if (entityId < 0 || !context.running()) {
+			return;
+		}
+		if (delay < 0) {
+			delay = 0;
+		}
+		if (Double.isInfinite(delay)) {
+			throw new IllegalArgumentException("The specified delay is infinite value");
+		}
+
+		int srcId = getId();
+		if (entityId != srcId) {// does not delay self messages
+			delay += getNetworkDelay(srcId, entityId);
+		}
+
+		context.send(srcId, entityId, delay, cloudSimTag, 3, value0, value1, value2);
+	}
+
+	/**
+	 * Sends an event/message carrying up to three int values, such as an acknowledgement, to
+	 * another entity without delay.
+	 * 
+	 * @param entityId the id number of the destination entity
+	 * @param cloudSimTag an user-defined number representing the type of an event/message
+	 * @param value0 the first value
+	 * @param value1 the second value
+	 * @param value2 the third value
+	 * @pre entityID > 0
+	 * @post $none
+	 * @see #send(int, double, int, int, int, int)
+	 */
+	protected void sendNow(int entityId, int cloudSimTag, int value0, int value1, int value2) {
+		send(entityId, 0, cloudSimTag, value0, value1, value2);
+	}
+
 	/**
 	 * Gets the network delay associated to the sent of a message from a given source to a given
 	 * destination.
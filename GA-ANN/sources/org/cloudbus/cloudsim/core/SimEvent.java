@@ -8,6 +8,8 @@
 
 package org.cloudbus.cloudsim.core;
 
+import java.io.Serializable;
+
 /**
  * This class represents a simulation event which is passed between the entities in the simulation.
  * 
@@ -15,13 +17,16 @@ package org.cloudbus.cloudsim.core;
  * @see Simulation
  * @see SimEntity
  */
-public class SimEvent implements Cloneable, Comparable<SimEvent> {
+public class SimEvent implements Cloneable, Comparable<SimEvent>, Serializable {
+
+	/** The Constant serialVersionUID. */
+	private static final long serialVersionUID = 1L;
 
 	/** internal event type **/
-	private final int etype;
+	private int etype;
 
 	/** time at which event should occur **/
-	private final double time;
+	private double time;
 
 	/** time that the event was removed from the queue for service **/
 	private double endWaitingTime;
@@ -33,13 +38,37 @@ public class SimEvent implements Cloneable, Comparable<SimEvent> {
 	private int entDst;
 
 	/** the user defined type of the event **/
-	private final int tag;
+	private int tag;
 
 	/** any data the event is carrying **/
-	private final Object data;
+	private Object data;
+
+	/** the kind of primitive data the event is carrying instead of an object **/
+	private int dataKind = OBJECT_DATA;
+
+	/** the number of int values the event is carrying **/
+	private int numInts;
+
+	/** the int values the event is carrying **/
+	private int int0, int1, int2;
+
+	/** the long or double value the event is carrying, as raw bits for a double **/
+	private long longData;
+
+	/** whether the event is in the event pool of its simulation context **/
+	private boolean pooled;
+
+	/** whether the event was added at the head of the future queue **/
+	private boolean first;
 
 	private long serial = -1;
 
+	/** whether the event was cancelled while waiting in the future queue **/
+	private boolean cancelled;
+
+	/** position of the event in the cancellation index of the future queue **/
+	private int indexSlot = -1;
+
 	// Internal event types
 
 	public static final int ENULL = 0;
@@ -50,6 +79,16 @@ public class SimEvent implements Cloneable, Comparable<SimEvent> {
 
 	public static final int CREATE = 3;
 
+	// Kinds of data
+
+	static final int OBJECT_DATA = 0;
+
+	static final int INT_DATA = 1;
+
+	static final int LONG_DATA = 2;
+
+	static final int DOUBLE_DATA = 3;
+
 	/**
 	 * Create a blank event.
 	 */
@@ -82,10 +121,101 @@ public class SimEvent implements Cloneable, Comparable<SimEvent> {
 		data = null;
 	}
 
+	/**
+	 * Reinitialises a pooled event, as the constructor does.
+	 */
+	void reset(int evtype, double time, int src, int dest, int tag, Object edata) {
+		etype = evtype;
+		this.time = time;
+		entSrc = src;
+		entDst = dest;
+		this.tag = tag;
+		data = edata;
+		dataKind = OBJECT_DATA;
+		numInts = 0;
+		endWaitingTime = -1.0;
+		serial = -1;
+		cancelled = false;
+		indexSlot = -1;
+		pooled = false;
+		first = false;
+	}
+
+	/**
+	 * Makes the event carry up to three int values instead of an object.
+	 */
+	void setIntData(int count, int value0, int value1, int value2) {
+		data = null;
+		dataKind = INT_DATA;
+		numInts = count;
+		int0 = value0;
+		int1 = value1;
+		int2 = value2;
+	}
+
+	/**
+	 * Makes the event carry a long value instead of an object.
+	 */
+	void setLongData(long value) {
+		data = null;
+		dataKind = LONG_DATA;
+		longData = value;
+	}
+
+	/**
+	 * Makes the event carry a double value instead of an object.
+	 */
+	void setDoubleData(double value) {
+		data = null;
+		dataKind = DOUBLE_DATA;
+		longData = Double.doubleToRawLongBits(value);
+	}
+
+	boolean isFirst() {
+		return first;
+	}
+
+	void setFirst(boolean first) {
+		this.first = first;
+	}
+
+	boolean isPooled() {
+		return pooled;
+	}
+
+	/**
+	 * Marks the event as released to the event pool and drops its data, so that the data can be
+	 * garbage collected while the event waits to be reused.
+	 */
+	void setPooled() {
+		pooled = true;
+		data = null;
+	}
+
 	protected void setSerial(long serial) {
 		this.serial = serial;
 	}
 
+	long getSerial() {
+		return serial;
+	}
+
+	boolean isCancelled() {
+		return cancelled;
+	}
+
+	void setCancelled(boolean cancelled) {
+		this.cancelled = cancelled;
+	}
+
+	int getIndexSlot() {
+		return indexSlot;
+	}
+
+	void setIndexSlot(int indexSlot) {
+		this.indexSlot = indexSlot;
+	}
+
 	/**
 	 * Used to set the time at which this event finished waiting in the event
 	 * 
@@ -196,14 +326,93 @@ public class SimEvent implements Cloneable, Comparable<SimEvent> {
 	}
 
 	/**
-	 * Get the data passed in this event.
+	 * Get the data passed in this event. If the event carries primitive data, it is boxed on the
+	 * first call: int values into an <tt>int[]</tt>, a long into a {@link Long} and a double into a
+	 * {@link Double}.
 	 * 
 	 * @return A reference to the data
 	 */
 	public Object getData() {
+		if (data == null) {
+			switch (dataKind) {
+				case INT_DATA:
+					int[] ints = new int[numInts];
+					for (int i = 0; i < numInts; i++) {
+						ints[i] = getIntData(i);
+					}
+					data = ints;
+					break;
+				case LONG_DATA:
+					data = Long.valueOf(longData);
+					break;
+				case DOUBLE_DATA:
+					data = Double.valueOf(getDoubleData());
+					break;
+				default:
+					break;
+			}
+		}
 		return data;
 	}
 
+	/**
+	 * Get the kind of data passed in this event.
+	 * 
+	 * @return {@link #OBJECT_DATA}, {@link #INT_DATA}, {@link #LONG_DATA} or {@link #DOUBLE_DATA}
+	 */
+	int getDataKind() {
+		return dataKind;
+	}
+
+	/**
+	 * Get the number of int values passed in this event without boxing.
+	 * 
+	 * @return The number of int values, between 0 and 3
+	 */
+	public int getNumberOfInts() {
+		return dataKind == INT_DATA ? numInts : 0;
+	}
+
+	/**
+	 * Get an int value passed in this event.
+	 * 
+	 * @param index The index of the value
+	 * @return The value
+	 * @throws IndexOutOfBoundsException if the event carries no such value
+	 */
+	public int getIntData(int index) {
+		if (index < 0 || index >= getNumberOfInts()) {
+			throw new IndexOutOfBoundsException("The event carries no int value " + index);
+		}
+		return index == 0 ? int0 : index == 1 ? int1 : int2;
+	}
+
+	/**
+	 * Get the long value passed in this event.
+	 * 
+	 * @return The value
+	 * @throws IllegalStateException if the event carries no long value
+	 */
+	public long getLongData() {
+		if (dataKind != LONG_DATA) {
+			throw new IllegalStateException("The event carries no long value");
+		}
+		return longData;
+	}
+
+	/**
+	 * Get the double value passed in this event.
+	 * 
+	 * @return The value
+	 * @throws IllegalStateException if the event carries no double value
+	 */
+	public double getDoubleData() {
+		if (dataKind != DOUBLE_DATA) {
+			throw new IllegalStateException("The event carries no double value");
+		}
+		return Double.longBitsToDouble(longData);
+	}
+
 	/**
 	 * Create an exact copy of this event.
 	 * 
@@ -211,7 +420,14 @@ public class SimEvent implements Cloneable, Comparable<SimEvent> {
 	 */
 	@Override
 	public Object clone() {
-		return new SimEvent(etype, time, entSrc, entDst, tag, data);
+		SimEvent copy = new SimEvent(etype, time, entSrc, entDst, tag, data);
+		copy.dataKind = dataKind;
+		copy.numInts = numInts;
+		copy.int0 = int0;
+		copy.int1 = int1;
+		copy.int2 = int2;
+		copy.longData = longData;
+		return copy;
 	}
 
 	/**
@@ -0,0 +1,1633 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.core.predicates.Predicate;
+
+/**
+ * A SimulationContext owns the complete state of one simulation run: the entities, the future and
+ * deferred event queues, the clock, the wait predicates and the Cloud Information Service. Several
+ * contexts can run at the same time on different threads, as long as every entity of a simulation
+ * is created with (or while the thread is bound to) the same context.
+ * <p>
+ * The static methods of {@link CloudSim} delegate to the context returned by
+ * {@link CloudSim#getContext()}. While {@link #run()} executes, the context is bound to the
+ * calling thread, so code that has no access to an entity (e.g. cloudlet schedulers calling
+ * {@link CloudSim#clock()}) still sees the clock of the simulation it belongs to.
+ *
+ * @since CloudSim Toolkit 3.0
+ * @see CloudSim
+ */
+public class SimulationContext implements Serializable {
+
+	/** The Constant serialVersionUID. */
+	private static final long serialVersionUID = 1L;
+
+	/** The Constant CLOUDSIM_VERSION_STRING. */
+	private static final String CLOUDSIM_VERSION_STRING = "3.0";
+
+	/** The Constant NOT_FOUND. */
+	private static final int NOT_FOUND = -1;
+
+	/** The id of CIS entity. */
+	private int cisId = -1;
+
+	/** The id of CloudSimShutdown entity. */
+	@SuppressWarnings("unused")
+	private int shutdownId = -1;
+
+	/** The CIS object. */
+	private CloudInformationService cis = null;
+
+	/** The trace flag. */
+	@SuppressWarnings("unused")
+	private boolean traceFlag = false;
+
+	/** The calendar. */
+	private Calendar calendar = null;
+
+	/** The number of events processed since the context was initialised. */
+	private long numProcessedEvents;
+
+	/** The termination time. */
+	private double terminateAt = -1;
+
+	/** The minimal time between events. Events within shorter periods after the last event are discarded. */
+	private double minTimeBetweenEvents = 0.1;
+
+	/** The entities. */
+	private List<SimEntity> entities;
+
+	/** The future event queue. */
+	protected final EventQueue future;
+
+	/**
+	 * The ids of the entities that may have work to do: runnable entities that have been started,
+	 * resumed or sent an event since they last ran.
+	 */
+	private final BitSet ready = new BitSet();
+
+	/** The pool the logical processes run on, or null; it is not part of a snapshot. */
+	private transient ForkJoinPool pool;
+
+	/** The logical process of each entity; null for the main process. */
+	private LogicalProcess[] processes = new LogicalProcess[16];
+
+	/** The main logical process, which runs on the calling thread after the others. */
+	private final LogicalProcess mainProcess = new LogicalProcess(this, 0);
+
+	/** The logical processes that have entities to run in the current tick. */
+	private final List<LogicalProcess> activeProcesses = new ArrayList<LogicalProcess>();
+
+	/** Whether the entities are running in parallel. */
+	private boolean parallel;
+
+	/** The logical process run by each thread during a parallel tick. */
+	private transient ThreadLocal<LogicalProcess> currentProcess = new ThreadLocal<LogicalProcess>();
+
+	/** The maximum number of released events kept for reuse. */
+	private static final int MAX_POOLED_EVENTS = 4096;
+
+	/** The released events, reused by the next sends. */
+	private transient SimEvent[] eventPool = new SimEvent[64];
+
+	/** The number of events in the pool. */
+	private transient int numPooledEvents;
+
+	/** Whether processed events are released to the pool. */
+	private boolean eventPooling = true;
+
+	/** Records the processed events, if set; a snapshot does not carry it. */
+	private transient EventTraceWriter eventTrace;
+
+	/** The events processed in the current clock tick, reused on every tick. */
+	private final List<SimEvent> batch = new ArrayList<SimEvent>();
+
+	/** The next event of the batch to process; a tick stopped by {@link #step(int)} resumes there. */
+	private int batchIndex;
+
+	/** The deferred event queue. */
+	protected DeferredQueue deferred;
+
+	/** The simulation clock. */
+	private double clock;
+
+	/** Flag for checking if the simulation is running. */
+	private boolean running;
+
+	/** The entities by name. */
+	private Map<String, SimEntity> entitiesByName;
+
+	// The predicates used in entity wait methods
+	/** The wait predicates. */
+	private Map<Integer, Predicate> waitPredicates;
+
+	/** The paused; read by the threads that wait for the run to pause, e.g. to take a snapshot. */
+	private volatile boolean paused = false;
+
+	/** The pause at. */
+	private long pauseAt = -1;
+
+	/** The abrupt terminate. */
+	private boolean abruptTerminate = false;
+
+	/** Whether a clock tick is under way; a tick that failed leaves it set. */
+	private boolean ticking;
+
+	/**
+	 * Creates a new simulation context using a {@link BinaryHeapEventQueue} as future event queue.
+	 */
+	public SimulationContext() {
+		this(new BinaryHeapEventQueue());
+	}
+
+	/**
+	 * Creates a new simulation context using a given future event queue. The queue is cleared
+	 * whenever the context is initialised. Unless it already is an {@link IndexedEventQueue}, the
+	 * queue is wrapped in one so that entities can cancel their pending events cheaply.
+	 *
+	 * @param futureQueue the future event queue
+	 */
+	public SimulationContext(EventQueue futureQueue) {
+		if (futureQueue == null) {
+			throw new IllegalArgumentException("The future event queue can't be null.");
+		}
+		if (futureQueue instanceof IndexedEventQueue) {
+			future = futureQueue;
+		} else {
+			future = new IndexedEventQueue(futureQueue);
+		}
+	}
+
+	/**
+	 * Initialises CloudSim parameters. This method should be called before creating any entities
+	 * of this context. It creates the CloudInformationService and CloudSimShutdown entities.
+	 *
+	 * @param numUser the number of User Entities created
+	 * @param cal starting time for this simulation. If it is <tt>null</tt>, then the time will be
+	 *            taken from <tt>Calendar.getInstance()</tt>
+	 * @param traceFlag <tt>true</tt> if CloudSim trace need to be written
+	 * @see CloudSim#init(int, Calendar, boolean)
+	 * @pre numUser >= 0
+	 * @post $none
+	 */
+	public void init(int numUser, Calendar cal, boolean traceFlag) {
+		try {
+			initCommonVariable(cal, traceFlag, numUser);
+
+			// create a GIS object
+			cis = new CloudInformationService("CloudInformationService", this);
+
+			// set all the above entity IDs
+			cisId = cis.getId();
+		} catch (IllegalArgumentException s) {
+			Log.printLine("CloudSim.init(): The simulation has been terminated due to an unexpected error");
+			Log.printLine(s.getMessage());
+		} catch (Exception e) {
+			Log.printLine("CloudSim.init(): The simulation has been terminated due to an unexpected error");
+			Log.printLine(e.getMessage());
+		}
+	}
+
+	/**
+	 * Initialises CloudSim parameters with a given minimal period between events.
+	 *
+	 * @param numUser the number of User Entities created
+	 * @param cal starting time for this simulation
+	 * @param traceFlag <tt>true</tt> if CloudSim trace need to be written
+	 * @param periodBetweenEvents - the minimal period between events. Events within shorter periods
+	 * after the last event are discarded.
+	 * @see CloudSim#init(int, Calendar, boolean, double)
+	 * @pre numUser >= 0
+	 * @post $none
+	 */
+	public void init(int numUser, Calendar cal, boolean traceFlag, double periodBetweenEvents) {
+		if (periodBetweenEvents <= 0) {
+			throw new IllegalArgumentException("The minimal time between events should be positive, but is:" + periodBetweenEvents);
+		}
+
+		init(numUser, cal, traceFlag);
+		minTimeBetweenEvents = periodBetweenEvents;
+	}
+
+	/**
+	 * Initialises all the common attributes.
+	 *
+	 * @param _calendar the _calendar
+	 * @param _traceFlag the _trace flag
+	 * @param numUser number of users
+	 * @throws Exception This happens when creating this entity before initialising CloudSim package
+	 *             or this entity name is <tt>null</tt> or empty
+	 */
+	private void initCommonVariable(Calendar _calendar, boolean _traceFlag, int numUser)
+			throws Exception {
+		initialize();
+		// NOTE: the order for the below 3 lines are important
+		traceFlag = _traceFlag;
+
+		// Set the current Wall clock time as the starting time of
+		// simulation
+		if (_calendar == null) {
+			calendar = Calendar.getInstance();
+		} else {
+			calendar = _calendar;
+		}
+
+		// creates a CloudSimShutdown object
+		CloudSimShutdown shutdown = new CloudSimShutdown("CloudSimShutdown", numUser, this);
+		shutdownId = shutdown.getId();
+	}
+
+	/**
+	 * Initialise the simulation for stand alone simulations. This function should be called at the
+	 * start of the simulation.
+	 */
+	protected void initialize() {
+		Log.printLine("Initialising...");
+		entities = new ArrayList<SimEntity>();
+		entitiesByName = new LinkedHashMap<String, SimEntity>();
+		future.clear();
+		deferred = new DeferredQueue();
+		ready.clear();
+		Arrays.fill(processes, null);
+		waitPredicates = new HashMap<Integer, Predicate>();
+		clock = 0;
+		numProcessedEvents = 0;
+		running = false;
+	}
+
+	/**
+	 * Starts the execution of the simulation held by this context and resets it afterwards.
+	 *
+	 * @return the last clock value
+	 * @throws NullPointerException This happens when the context has not been initialised
+	 * @see CloudSim#startSimulation()
+	 */
+	public double startSimulation() throws NullPointerException {
+		Log.printLine("Starting CloudSim version " + CLOUDSIM_VERSION_STRING);
+		try {
+			double clock = run();
+
+			// reset all context variables
+			cisId = -1;
+			shutdownId = -1;
+			cis = null;
+			calendar = null;
+			traceFlag = false;
+
+			return clock;
+		} catch (IllegalArgumentException e) {
+			e.printStackTrace();
+			throw new NullPointerException("CloudSim.startCloudSimulation() :"
+					+ " Error - you haven't initialized CloudSim.");
+		}
+	}
+
+	/**
+	 * Stops the simulation held by this context.
+	 *
+	 * @throws NullPointerException if the simulation can't be stopped
+	 * @see CloudSim#stopSimulation()
+	 */
+	public void stopSimulation() throws NullPointerException {
+		try {
+			runStop();
+		} catch (IllegalArgumentException e) {
+			throw new NullPointerException("CloudSim.stopCloudSimulation() : "
+					+ "Error - can't stop Cloud Simulation.");
+		}
+	}
+
+	/**
+	 * This method is called if one wants to terminate the simulation.
+	 *
+	 * @return true, if successful; false otherwise.
+	 */
+	public boolean terminateSimulation() {
+		running = false;
+		printMessage("Simulation: Reached termination time.");
+		return true;
+	}
+
+	/**
+	 * This method is called if one wants to terminate the simulation at a given time.
+	 *
+	 * @param time the time at which the simulation has to be terminated
+	 * @return true, if successful otherwise.
+	 */
+	public boolean terminateSimulation(double time) {
+		if (time <= clock) {
+			return false;
+		} else {
+			terminateAt = time;
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the minimum time between events. Events within shorter periods after the last event are discarded.
+	 *
+	 * @return the minimum time between events.
+	 */
+	public double getMinTimeBetweenEvents() {
+		return minTimeBetweenEvents;
+	}
+
+	/**
+	 * Gets a new copy of initial simulation Calendar.
+	 *
+	 * @return a new copy of Calendar object or if the context hasn't been initialized
+	 */
+	public Calendar getSimulationCalendar() {
+		// make a new copy
+		Calendar clone = calendar;
+		if (calendar != null) {
+			clone = (Calendar) calendar.clone();
+		}
+
+		return clone;
+	}
+
+	/**
+	 * Gets the entity ID of <tt>CloudInformationService</tt>.
+	 *
+	 * @return the Entity ID or if it is not found
+	 * @pre $none
+	 * @post $result >= -1
+	 */
+	public int getCloudInfoServiceEntityId() {
+		return cisId;
+	}
+
+	/**
+	 * Gets the list of all Cloud resources registered with the CIS of this context.
+	 *
+	 * @return A List containing CloudResource ID or if a CIS entity hasn't been created before
+	 */
+	public List<Integer> getCloudResourceList() {
+		if (cis == null) {
+			return null;
+		}
+
+		return cis.getList();
+	}
+
+	// Public access methods
+
+	/**
+	 * Get the current simulation time.
+	 *
+	 * @return the simulation time
+	 */
+	public double clock() {
+		return clock;
+	}
+
+	/**
+	 * Get the number of events processed since the context was initialised.
+	 *
+	 * @return The number of events
+	 */
+	public long getNumberOfProcessedEvents() {
+		return numProcessedEvents;
+	}
+
+	/**
+	 * Get the current number of entities in the simulation.
+	 *
+	 * @return The number of entities
+	 */
+	public int getNumEntities() {
+		return entities.size();
+	}
+
+	/**
+	 * Get the entity with a given id.
+	 *
+	 * @param id the entity's unique id number
+	 * @return The entity, or if it could not be found
+	 */
+	public SimEntity getEntity(int id) {
+		return entities.get(id);
+	}
+
+	/**
+	 * Get the entity with a given name.
+	 *
+	 * @param name The entity's name
+	 * @return The entity
+	 */
+	public SimEntity getEntity(String name) {
+		return entitiesByName.get(name);
+	}
+
+	/**
+	 * Get the id of an entity with a given name.
+	 *
+	 * @param name The entity's name
+	 * @return The entity's unique id number
+	 */
+	public int getEntityId(String name) {
+		SimEntity obj = entitiesByName.get(name);
+		if (obj == null) {
+			return NOT_FOUND;
+		} else {
+			return obj.getId();
+		}
+	}
+
+	/**
+	 * Gets name of the entity given its entity ID.
+	 *
+	 * @param entityID the entity ID
+	 * @return the Entity name or if this object does not have one
+	 * @pre entityID > 0
+	 * @post $none
+	 */
+	public String getEntityName(int entityID) {
+		try {
+			return getEntity(entityID).getName();
+		} catch (IllegalArgumentException e) {
+			return null;
+		} catch (Exception e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Returns a list of entities created for the simulation.
+	 *
+	 * @return the entity iterator
+	 */
+	public List<SimEntity> getEntityList() {
+		// create a new list to prevent the user from changing
+		// the list of entities used by Simulation
+		List<SimEntity> list = new LinkedList<SimEntity>();
+		list.addAll(entities);
+		return list;
+	}
+
+	// Public update methods
+
+	/**
+	 * Add a new entity to the simulation. This is present for compatibility with existing
+	 * simulations since entities are automatically added to the simulation upon instantiation.
+	 *
+	 * @param e The new entity
+	 */
+	public void addEntity(SimEntity e) {
+		SimEvent evt;
+		if (parallel && currentProcess.get() != mainProcess) {
+			throw new IllegalStateException("Only entities of the main logical process can add entities.");
+		}
+		if (running) {
+			// Post an event to make this entity
+			evt = newEvent(SimEvent.CREATE, clock, 1, 0, 0, e);
+			enqueue(evt, false);
+		}
+		if (e.getId() == -1) { // Only add once!
+			int id = entities.size();
+			e.setId(id);
+			entities.add(e);
+			entitiesByName.put(e.getName(), e);
+			if (e.getState() == SimEntity.RUNNABLE) {
+				ready.set(id);
+			}
+		}
+	}
+
+	/**
+	 * Internal method used to add a new entity to the simulation when the simulation is running. It
+	 * should <b>not</b> be called from user simulations.
+	 *
+	 * @param e The new entity
+	 */
+	protected void addEntityDynamically(SimEntity e) {
+		if (e == null) {
+			throw new IllegalArgumentException("Adding null entity.");
+		} else {
+			printMessage("Adding: " + e.getName());
+		}
+		e.startEntity();
+	}
+
+	/**
+	 * Internal method used to run one tick of the simulation. This method should <b>not</b> be
+	 * called in simulations.
+	 *
+	 * @return true, if successful otherwise
+	 */
+	public boolean runClockTick() {
+		boolean queue_empty;
+
+		ticking = true;
+
+		// Finish the tick that step(int) stopped in the middle of its events
+		if (!batch.isEmpty()) {
+			processEvents(Integer.MAX_VALUE);
+			ticking = false;
+			return false;
+		}
+
+		runReadyEntities();
+
+		// If there are more future events then deal with them
+		if (future.size() > 0) {
+			queue_empty = false;
+
+			// Process the first event and all the next events at the same time
+			future.pollAllAt(future.peek().eventTime(), batch);
+			processEvents(Integer.MAX_VALUE);
+
+		} else {
+			queue_empty = true;
+			running = false;
+			printMessage("Simulation: No more future events");
+		}
+
+		ticking = false;
+		return queue_empty;
+	}
+
+	/**
+	 * Runs the entities marked ready, which is the first phase of a clock tick.
+	 */
+	private void runReadyEntities() {
+		int entities_size = entities.size();
+
+		if (pool != null) {
+			runEntitiesInParallel(entities_size);
+		} else {
+			// Only the entities marked ready can have work: the others are blocked or have no events
+			for (int i = ready.nextSetBit(0); i >= 0 && i < entities_size; i = ready.nextSetBit(i + 1)) {
+				ready.clear(i);
+				SimEntity ent = entities.get(i);
+				if (ent.getState() == SimEntity.RUNNABLE) {
+					ent.run();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Processes the next events of the batch polled from the future queue, which is the second
+	 * phase of a clock tick.
+	 *
+	 * @param max the maximum number of events to process
+	 * @return the number of events processed
+	 */
+	private int processEvents(int max) {
+		int batch_size = batch.size();
+		int end = max >= batch_size - batchIndex ? batch_size : batchIndex + max;
+		int count = end - batchIndex;
+		for (int i = batchIndex; i < end; i++) {
+			processEvent(batch.get(i));
+		}
+		if (end == batch_size) {
+			batch.clear();
+			batchIndex = 0;
+		} else {
+			batchIndex = end;
+		}
+		return count;
+	}
+
+	/**
+	 * Runs the simulation until the next future event is later than a given time, at most a given
+	 * number of events have been processed, or the simulation ends. The clock ticks are the same as
+	 * those of {@link #run()}; only the last one may be left unfinished, when the maximum number of
+	 * events is reached in the middle of its events. If the simulation ends, it is finished as
+	 * {@link #run()} would.
+	 *
+	 * @param time the time not to go beyond
+	 * @param maxEvents the maximum number of events to process
+	 * @return the number of events processed
+	 */
+	private int advance(double time, int maxEvents) {
+		int processed = 0;
+		boolean finished = false;
+
+		ticking = true;
+		while (true) {
+			if (!batch.isEmpty()) {
+				processed += processEvents(maxEvents - processed);
+				if (!batch.isEmpty()) {
+					break;
+				}
+				if (abruptTerminate) {
+					finished = true;
+					break;
+				}
+				if (terminateAt > 0.0 && clock >= terminateAt) {
+					terminateSimulation();
+					clock = terminateAt;
+					finished = true;
+					break;
+				}
+			}
+
+			// Let the entities handle the events delivered so far, without advancing the clock
+			runReadyEntities();
+			if (processed >= maxEvents) {
+				break;
+			}
+			if (future.size() == 0) {
+				running = false;
+				printMessage("Simulation: No more future events");
+				finished = true;
+				break;
+			}
+			if (future.peek().eventTime() > time) {
+				break;
+			}
+			future.pollAllAt(future.peek().eventTime(), batch);
+		}
+		ticking = false;
+
+		if (finished) {
+			finishSimulation();
+			runStop();
+		}
+		return processed;
+	}
+
+	/**
+	 * Runs the simulation up to a given time and returns, so that the caller can inspect or change
+	 * the entities before going on: every event up to that time is processed and handled, and the
+	 * clock is then set to the time. The simulation is started by the first call; it can be
+	 * continued by later calls, by {@link #step(int)} or by {@link #run()}. The context is bound to
+	 * the calling thread during the call.
+	 *
+	 * @param time the time to run to
+	 * @return true if the simulation can go on, false if it has ended and been finished
+	 */
+	public boolean runUntil(double time) {
+		if (entities == null) {
+			return false;
+		}
+		SimulationContext previous = CloudSim.bindContext(this);
+		try {
+			if (!running) {
+				runStart();
+			}
+			advance(time, Integer.MAX_VALUE);
+			if (running && time > clock) {
+				clock = time;
+			}
+			return running;
+		} finally {
+			CloudSim.bindContext(previous);
+		}
+	}
+
+	/**
+	 * Runs the simulation until a given number of future events have been processed, or it ends.
+	 * The entities handle the processed events before the call returns, unless it stops in the
+	 * middle of the events of a clock tick; the next call then finishes the tick first. The
+	 * simulation is started by the first call. The context is bound to the calling thread during
+	 * the call.
+	 *
+	 * @param maxEvents the maximum number of events to process
+	 * @return the number of events processed; 0 once the simulation has ended
+	 * @throws IllegalArgumentException if the number of events is not positive
+	 */
+	public int step(int maxEvents) {
+		if (maxEvents <= 0) {
+			throw new IllegalArgumentException("The number of events must be positive.");
+		}
+		if (entities == null) {
+			return 0;
+		}
+		SimulationContext previous = CloudSim.bindContext(this);
+		try {
+			if (!running) {
+				runStart();
+			}
+			return advance(Double.MAX_VALUE, maxEvents);
+		} finally {
+			CloudSim.bindContext(previous);
+		}
+	}
+
+	/**
+	 * Gets the time of the next event to process.
+	 *
+	 * @return the time, or -1 if no event is pending
+	 */
+	public double getNextEventTime() {
+		if (!batch.isEmpty()) {
+			return clock;
+		}
+		if (future.size() > 0) {
+			return future.peek().eventTime();
+		}
+		return -1;
+	}
+
+	/**
+	 * Internal method used to stop the simulation. This method should <b>not</b> be used directly.
+	 */
+	public void runStop() {
+		printMessage("Simulation completed.");
+	}
+
+	/**
+	 * Used to hold an entity for some time.
+	 *
+	 * @param src the src
+	 * @param delay the delay
+	 */
+	public void hold(int src, long delay) {
+		SimEvent e = newEvent(SimEvent.HOLD_DONE, clock + delay, src, -1, -1, null);
+		enqueue(e, false);
+		entities.get(src).setState(SimEntity.HOLDING);
+	}
+
+	/**
+	 * Used to pause an entity for some time.
+	 *
+	 * @param src the src
+	 * @param delay the delay
+	 */
+	public void pause(int src, double delay) {
+		SimEvent e = newEvent(SimEvent.HOLD_DONE, clock + delay, src, -1, -1, null);
+		enqueue(e, false);
+		entities.get(src).setState(SimEntity.HOLDING);
+	}
+
+	/**
+	 * Used to send an event from one entity to another.
+	 *
+	 * @param src the src
+	 * @param dest the dest
+	 * @param delay the delay
+	 * @param tag the tag
+	 * @param data the data
+	 */
+	public void send(int src, int dest, double delay, int tag, Object data) {
+		if (delay < 0) {
+			throw new IllegalArgumentException("Send delay can't be negative.");
+		}
+
+		SimEvent e = newEvent(SimEvent.SEND, clock + delay, src, dest, tag, data);
+		enqueue(e, false);
+	}
+
+	/**
+	 * Used to send an event carrying up to three int values from one entity to another. The values
+	 * are not boxed; the destination reads them with {@link SimEvent#getIntData(int)}.
+	 *
+	 * @param src the src
+	 * @param dest the dest
+	 * @param delay the delay
+	 * @param tag the tag
+	 * @param count the number of values, between 0 and 3
+	 * @param value0 the first value
+	 * @param value1 the second value
+	 * @param value2 the third value
+	 */
+	public void send(int src, int dest, double delay, int tag, int count, int value0, int value1, int value2) {
+		if (delay < 0) {
+			throw new IllegalArgumentException("Send delay can't be negative.");
+		}
+		if (count < 0 || count > 3) {
+			throw new IllegalArgumentException("An event carries at most three int values.");
+		}
+
+		SimEvent e = newEvent(SimEvent.SEND, clock + delay, src, dest, tag, null);
+		e.setIntData(count, value0, value1, value2);
+		enqueue(e, false);
+	}
+
+	/**
+	 * Used to send an event carrying a long value from one entity to another. The value is not
+	 * boxed; the destination reads it with {@link SimEvent#getLongData()}.
+	 *
+	 * @param src the src
+	 * @param dest the dest
+	 * @param delay the delay
+	 * @param tag the tag
+	 * @param value the value
+	 */
+	public void sendLong(int src, int dest, double delay, int tag, long value) {
+		if (delay < 0) {
+			throw new IllegalArgumentException("Send delay can't be negative.");
+		}
+
+		SimEvent e = newEvent(SimEvent.SEND, clock + delay, src, dest, tag, null);
+		e.setLongData(value);
+		enqueue(e, false);
+	}
+
+	/**
+	 * Used to send an event carrying a double value from one entity to another. The value is not
+	 * boxed; the destination reads it with {@link SimEvent#getDoubleData()}.
+	 *
+	 * @param src the src
+	 * @param dest the dest
+	 * @param delay the delay
+	 * @param tag the tag
+	 * @param value the value
+	 */
+	public void sendDouble(int src, int dest, double delay, int tag, double value) {
+		if (delay < 0) {
+			throw new IllegalArgumentException("Send delay can't be negative.");
+		}
+
+		SimEvent e = newEvent(SimEvent.SEND, clock + delay, src, dest, tag, null);
+		e.setDoubleData(value);
+		enqueue(e, false);
+	}
+
+	/**
+	 * Used to send an event from one entity to another, with priority in the queue.
+	 *
+	 * @param src the src
+	 * @param dest the dest
+	 * @param delay the delay
+	 * @param tag the tag
+	 * @param data the data
+	 */
+	public void sendFirst(int src, int dest, double delay, int tag, Object data) {
+		if (delay < 0) {
+			throw new IllegalArgumentException("Send delay can't be negative.");
+		}
+
+		SimEvent e = newEvent(SimEvent.SEND, clock + delay, src, dest, tag, data);
+		enqueue(e, true);
+	}
+
+	/**
+	 * Sets an entity's state to be waiting. The predicate used to wait for an event is now passed
+	 * to Sim_system. Only events that satisfy the predicate will be passed to the entity. This is
+	 * done to avoid unnecessary context switches.
+	 *
+	 * @param src the src
+	 * @param p the p
+	 */
+	public void wait(int src, Predicate p) {
+		entities.get(src).setState(SimEntity.WAITING);
+		if (p != CloudSim.SIM_ANY) {
+			// If a predicate has been used store it in order to check it
+			if (parallel) {
+				synchronized (waitPredicates) {
+					waitPredicates.put(src, p);
+				}
+			} else {
+				waitPredicates.put(src, p);
+			}
+		}
+	}
+
+	/**
+	 * Checks if events for a specific entity are present in the deferred event queue.
+	 *
+	 * @param d the d
+	 * @param p the p
+	 * @return the int
+	 */
+	public int waiting(int d, Predicate p) {
+		return deferred.count(d, p);
+	}
+
+	/**
+	 * Selects an event matching a predicate.
+	 *
+	 * @param src the src
+	 * @param p the p
+	 * @return the sim event
+	 */
+	public SimEvent select(int src, Predicate p) {
+		if (parallel) {
+			synchronized (deferred) {
+				return deferred.select(src, p);
+			}
+		}
+		return deferred.select(src, p);
+	}
+
+	/**
+	 * Find first deferred event matching a predicate.
+	 *
+	 * @param src the src
+	 * @param p the p
+	 * @return the sim event
+	 */
+	public SimEvent findFirstDeferred(int src, Predicate p) {
+		return deferred.findFirst(src, p);
+	}
+
+	/**
+	 * Removes an event from the event queue.
+	 *
+	 * @param src the src
+	 * @param p the p
+	 * @return the sim event
+	 */
+	public SimEvent cancel(int src, Predicate p) {
+		if (parallel) {
+			LogicalProcess process = currentProcess.get();
+			synchronized (future) {
+				return process == null ? future.cancel(src, p) : process.cancel(src, p, future);
+			}
+		}
+		return future.cancel(src, p);
+	}
+
+	/**
+	 * Removes all events that match a given predicate from the future event queue returns true if
+	 * at least one event has been cancelled; false otherwise.
+	 *
+	 * @param src the src
+	 * @param p the p
+	 * @return true, if successful
+	 */
+	public boolean cancelAll(int src, Predicate p) {
+		if (parallel) {
+			LogicalProcess process = currentProcess.get();
+			int count = process == null ? 0 : process.cancelAll(src, p);
+			synchronized (future) {
+				count += future.cancelAll(src, p);
+			}
+			return count > 0;
+		}
+		return future.cancelAll(src, p) > 0;
+	}
+
+	//
+	// Private internal methods
+	//
+
+	/**
+	 * Processes an event.
+	 *
+	 * @param e the e
+	 */
+	private void processEvent(SimEvent e) {
+		int dest, src;
+		SimEntity dest_ent;
+		// Update the system's clock
+		if (e.eventTime() < clock) {
+			throw new IllegalArgumentException("Past event detected.");
+		}
+		clock = e.eventTime();
+		numProcessedEvents++;
+		if (eventTrace != null) {
+			eventTrace.record(e);
+		}
+
+		// Ok now process it
+		switch (e.getType()) {
+			case SimEvent.ENULL:
+				throw new IllegalArgumentException("Event has a null type.");
+
+			case SimEvent.CREATE:
+				SimEntity newe = (SimEntity) e.getData();
+				addEntityDynamically(newe);
+				releaseEvent(e);
+				break;
+
+			case SimEvent.SEND:
+				// Check for matching wait
+				dest = e.getDestination();
+				if (dest < 0) {
+					throw new IllegalArgumentException("Attempt to send to a null entity detected.");
+				} else {
+					int tag = e.getTag();
+					dest_ent = entities.get(dest);
+					if (dest_ent.getState() == SimEntity.WAITING) {
+						Integer destObj = Integer.valueOf(dest);
+						Predicate p = waitPredicates.get(destObj);
+						if ((p == null) || (tag == 9999) || (p.match(e))) {
+							dest_ent.setEventBuffer(e);
+							dest_ent.setState(SimEntity.RUNNABLE);
+							waitPredicates.remove(destObj);
+						} else {
+							deferred.addEvent(e);
+						}
+					} else {
+						deferred.addEvent(e);
+						if (dest_ent.getState() == SimEntity.RUNNABLE) {
+							ready.set(dest);
+						}
+					}
+				}
+				break;
+
+			case SimEvent.HOLD_DONE:
+				src = e.getSource();
+				if (src < 0) {
+					throw new IllegalArgumentException("Null entity holding.");
+				} else {
+					entities.get(src).setState(SimEntity.RUNNABLE);
+				}
+				releaseEvent(e);
+				break;
+
+			default:
+				break;
+		}
+	}
+
+	/**
+	 * Creates an event, reusing a released one if the pool has any.
+	 *
+	 * @param type the internal type
+	 * @param time the event time
+	 * @param src the src
+	 * @param dest the dest
+	 * @param tag the tag
+	 * @param data the data
+	 * @return the event
+	 */
+	private SimEvent newEvent(int type, double time, int src, int dest, int tag, Object data) {
+		if (numPooledEvents == 0 || parallel) {
+			return new SimEvent(type, time, src, dest, tag, data);
+		}
+		SimEvent e = eventPool[--numPooledEvents];
+		eventPool[numPooledEvents] = null;
+		e.reset(type, time, src, dest, tag, data);
+		return e;
+	}
+
+	/**
+	 * Releases an event that has been processed, so that a later send can reuse it. Entities must
+	 * not keep a reference to an event once their {@link SimEntity#processEvent(SimEvent)} method
+	 * has returned, unless event pooling has been disabled.
+	 *
+	 * @param e the event
+	 * @see #setEventPooling(boolean)
+	 */
+	void releaseEvent(SimEvent e) {
+		if (!eventPooling || e.isPooled()) {
+			return;
+		}
+		if (parallel) {
+			LogicalProcess process = currentProcess.get();
+			if (process != null) {
+				process.release(e);
+				return;
+			}
+		}
+		e.setPooled();
+		if (numPooledEvents == eventPool.length) {
+			if (numPooledEvents == MAX_POOLED_EVENTS) {
+				return;
+			}
+			eventPool = Arrays.copyOf(eventPool, numPooledEvents * 2);
+		}
+		eventPool[numPooledEvents++] = e;
+	}
+
+	/**
+	 * Enables or disables event pooling. With pooling, which is the default, the events an entity
+	 * has processed are reused by later sends, so entities must copy whatever they need from an
+	 * event before their {@link SimEntity#processEvent(SimEvent)} method returns. Disable it for
+	 * entities that keep references to past events.
+	 *
+	 * @param eventPooling true to reuse processed events
+	 */
+	public void setEventPooling(boolean eventPooling) {
+		this.eventPooling = eventPooling;
+		if (!eventPooling) {
+			Arrays.fill(eventPool, 0, numPooledEvents, null);
+			numPooledEvents = 0;
+		}
+	}
+
+	/**
+	 * Checks whether event pooling is enabled.
+	 *
+	 * @return true if processed events are reused
+	 */
+	public boolean isEventPooling() {
+		return eventPooling;
+	}
+
+	/**
+	 * Sets the trace every processed event is recorded into, in the order the events are
+	 * processed. The trace is kept when the context is initialised again and is closed by the
+	 * caller.
+	 *
+	 * @param eventTrace the trace, or <tt>null</tt> to stop recording
+	 * @see EventTraceReader
+	 */
+	public void setEventTrace(EventTraceWriter eventTrace) {
+		this.eventTrace = eventTrace;
+	}
+
+	/**
+	 * Gets the trace the processed events are recorded into.
+	 *
+	 * @return the trace, or <tt>null</tt>
+	 */
+	public EventTraceWriter getEventTrace() {
+		return eventTrace;
+	}
+
+	/**
+	 * Marks an entity as ready to run in the next clock tick. This is called whenever the entity
+	 * becomes runnable.
+	 *
+	 * @param id the id of the entity
+	 */
+	void setReady(int id) {
+		if (parallel) {
+			LogicalProcess process = currentProcess.get();
+			if (process != null) {
+				process.setReady(id);
+				return;
+			}
+		}
+		ready.set(id);
+	}
+
+	/**
+	 * Adds an event to the future queue, or buffers it in the logical process of the calling
+	 * thread during a parallel tick.
+	 *
+	 * @param e the event
+	 * @param first true to add the event at the head of the queue
+	 */
+	private void enqueue(SimEvent e, boolean first) {
+		if (parallel) {
+			LogicalProcess process = currentProcess.get();
+			if (process != null) {
+				e.setFirst(first);
+				process.send(e, first);
+				return;
+			}
+		}
+		e.setFirst(first);
+		if (first) {
+			future.addEventFirst(e);
+		} else {
+			future.addEvent(e);
+		}
+	}
+
+	// --------------- PARALLEL EXECUTION ------------------
+
+	/**
+	 * Sets the pool on which the entities of different logical processes run in parallel. With a
+	 * pool, in each clock tick the ready entities are grouped by logical process; the processes run
+	 * concurrently, each running its entities in id order, and the main process runs last on the
+	 * calling thread. The events they send, the lines they log and the other effects on the
+	 * simulation are committed in entity id order afterwards, so that the simulation unfolds
+	 * exactly as with the sequential kernel.
+	 * <p>
+	 * No lookahead is needed: events sent in a tick, even without delay, are only delivered in the
+	 * next one, so the entities ready in a tick cannot affect each other through events. Entities
+	 * of different processes must however not share any mutable state, except through events and
+	 * the objects they carry.
+	 *
+	 * @param pool the pool, or <tt>null</tt> to run every entity on the calling thread
+	 * @see #setLogicalProcess(int, int)
+	 */
+	public void setPool(ForkJoinPool pool) {
+		this.pool = pool;
+	}
+
+	/**
+	 * Gets the pool on which logical processes run in parallel.
+	 *
+	 * @return the pool, or <tt>null</tt>
+	 */
+	public ForkJoinPool getPool() {
+		return pool;
+	}
+
+	/**
+	 * Assigns an entity to a logical process. Entities are in the main process, numbered 0, until
+	 * they are assigned to another one. Only entities of the main process may add entities while
+	 * the simulation is running. The assignments are cleared when the context is initialised.
+	 *
+	 * @param entityId the id of the entity
+	 * @param process the number of the process
+	 * @see #setPool(ForkJoinPool)
+	 */
+	public void setLogicalProcess(int entityId, int process) {
+		if (entityId < 0 || entityId >= entities.size()) {
+			throw new IllegalArgumentException("Unknown entity " + entityId + ".");
+		}
+		if (process < 0) {
+			throw new IllegalArgumentException("Logical processes are numbered from 0.");
+		}
+		if (entityId >= processes.length) {
+			processes = Arrays.copyOf(processes, Math.max(entityId + 1, processes.length * 2));
+		}
+		LogicalProcess lp = null;
+		if (process > 0) {
+			for (LogicalProcess other : processes) {
+				if (other != null && other.getNumber() == process) {
+					lp = other;
+					break;
+				}
+			}
+			if (lp == null) {
+				lp = new LogicalProcess(this, process);
+			}
+		}
+		processes[entityId] = lp;
+	}
+
+	/**
+	 * Gets the logical process of an entity.
+	 *
+	 * @param entityId the id of the entity
+	 * @return the number of the process
+	 */
+	public int getLogicalProcess(int entityId) {
+		LogicalProcess lp = entityId < processes.length ? processes[entityId] : null;
+		return lp == null ? 0 : lp.getNumber();
+	}
+
+	/**
+	 * Sets the logical process run by the calling thread.
+	 *
+	 * @param process the process, or null
+	 */
+	void enterProcess(LogicalProcess process) {
+		if (process == null) {
+			currentProcess.remove();
+		} else {
+			currentProcess.set(process);
+		}
+	}
+
+	/**
+	 * Runs the ready entities of a clock tick, grouped by logical process.
+	 *
+	 * @param entities_size the number of entities at the start of the tick
+	 */
+	private void runEntitiesInParallel(int entities_size) {
+		for (int i = ready.nextSetBit(0); i >= 0 && i < entities_size; i = ready.nextSetBit(i + 1)) {
+			ready.clear(i);
+			LogicalProcess lp = i < processes.length ? processes[i] : null;
+			if (lp == null) {
+				lp = mainProcess;
+			}
+			if (lp.addEntity(i)) {
+				activeProcesses.add(lp);
+			}
+		}
+
+		if (activeProcesses.isEmpty()) {
+			return;
+		} else if (activeProcesses.size() == 1) {
+			// Nothing to run in parallel
+			LogicalProcess lp = activeProcesses.get(0);
+			for (int i = 0; i < lp.getNumberOfEntities(); i++) {
+				SimEntity ent = entities.get(lp.getEntityId(i));
+				if (ent.getState() == SimEntity.RUNNABLE) {
+					ent.run();
+				}
+			}
+			lp.clear();
+			activeProcesses.clear();
+			return;
+		}
+
+		parallel = true;
+		try {
+			List<LogicalProcess> forked = new ArrayList<LogicalProcess>(activeProcesses.size());
+			LogicalProcess local = null;
+			for (LogicalProcess lp : activeProcesses) {
+				if (lp == mainProcess) {
+					continue;
+				}
+				if (local == null) {
+					local = lp;
+				} else {
+					pool.execute(lp);
+					forked.add(lp);
+				}
+			}
+			if (local != null) {
+				local.invoke();
+			}
+			for (LogicalProcess lp : forked) {
+				lp.join();
+			}
+			if (mainProcess.getNumberOfEntities() > 0) {
+				mainProcess.invoke();
+			}
+		} finally {
+			parallel = false;
+		}
+		commitProcesses();
+	}
+
+	/**
+	 * Commits the buffers of the logical processes of a parallel tick in entity id order, and
+	 * rethrows the failure of the entity with the smallest id, if any.
+	 */
+	private void commitProcesses() {
+		int numProcesses = activeProcesses.size();
+		Throwable failure = null;
+		int failedEntity = Integer.MAX_VALUE;
+		try {
+			while (true) {
+				LogicalProcess next = null;
+				for (int i = 0; i < numProcesses; i++) {
+					LogicalProcess lp = activeProcesses.get(i);
+					if (next == null || lp.getNextSender() < next.getNextSender()) {
+						next = lp;
+					}
+				}
+				if (next.getNextSender() == Integer.MAX_VALUE) {
+					break;
+				}
+				next.commitEvents(future);
+			}
+
+			while (true) {
+				LogicalProcess next = null;
+				for (int i = 0; i < numProcesses; i++) {
+					LogicalProcess lp = activeProcesses.get(i);
+					if (next == null || lp.getNextLogOwner() < next.getNextLogOwner()) {
+						next = lp;
+					}
+				}
+				if (next.getNextLogOwner() == Integer.MAX_VALUE) {
+					break;
+				}
+				next.commitLog();
+			}
+
+			for (int i = 0; i < numProcesses; i++) {
+				LogicalProcess lp = activeProcesses.get(i);
+				lp.commitState();
+				if (lp.getFailure() != null && lp.getFailedEntity() < failedEntity) {
+					failure = lp.getFailure();
+					failedEntity = lp.getFailedEntity();
+				}
+			}
+		} finally {
+			for (int i = 0; i < numProcesses; i++) {
+				activeProcesses.get(i).clear();
+			}
+			activeProcesses.clear();
+		}
+
+		if (failure instanceof RuntimeException) {
+			throw (RuntimeException) failure;
+		} else if (failure instanceof Error) {
+			throw (Error) failure;
+		} else if (failure != null) {
+			throw new IllegalStateException("Entity " + failedEntity + " failed.", failure);
+		}
+	}
+
+	/**
+	 * Internal method used to start the simulation. This method should <b>not</b> be used by user
+	 * simulations.
+	 */
+	public void runStart() {
+		running = true;
+		// Start all the entities
+		for (SimEntity ent : entities) {
+			ent.startEntity();
+		}
+
+		printMessage("Entities started.");
+	}
+
+	/**
+	 * Check if the simulation is still running. This method should be used by entities to check if
+	 * they should continue executing.
+	 *
+	 * @return if the simulation is still running, otherwise
+	 */
+	public boolean running() {
+		return running;
+	}
+
+	/**
+	 * This method is called if one wants to pause the simulation.
+	 *
+	 * @return true, if successful otherwise.
+	 */
+	public boolean pauseSimulation() {
+		paused = true;
+		return paused;
+	}
+
+	/**
+	 * This method is called if one wants to pause the simulation at a given time.
+	 *
+	 * @param time the time at which the simulation has to be paused
+	 * @return true, if successful otherwise.
+	 */
+	public boolean pauseSimulation(long time) {
+		if (time <= clock) {
+			return false;
+		} else {
+			pauseAt = time;
+		}
+		return true;
+	}
+
+	/**
+	 * This method is called if one wants to resume the simulation that has previously been paused.
+	 *
+	 * @return if the simulation has been restarted or or otherwise.
+	 */
+	public synchronized boolean resumeSimulation() {
+		paused = false;
+
+		if (pauseAt <= clock) {
+			pauseAt = -1;
+		}
+
+		notifyAll();
+		return !paused;
+	}
+
+	/**
+	 * Blocks the thread running the simulation while it is paused, until
+	 * {@link #resumeSimulation()} is called.
+	 */
+	private synchronized void waitWhilePaused() {
+		while (paused) {
+			try {
+				wait();
+			} catch (InterruptedException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+	/**
+	 * Start the simulation running. This should be called after all the entities have been setup
+	 * and added, and their ports linked. The context is bound to the calling thread until the run
+	 * finishes.
+	 *
+	 * @return the double last clock value
+	 */
+	public double run() {
+		SimulationContext previous = CloudSim.bindContext(this);
+		try {
+			if (!running) {
+				runStart();
+			}
+			while (true) {
+				if (runClockTick() || abruptTerminate) {
+					break;
+				}
+
+				// this block allows termination of simulation at a specific time
+				if (terminateAt > 0.0 && clock >= terminateAt) {
+					terminateSimulation();
+					clock = terminateAt;
+					break;
+				}
+
+				if (pauseAt != -1
+						&& ((future.size() > 0 && clock <= pauseAt && pauseAt <= future.peek()
+								.eventTime()) || future.size() == 0 && pauseAt <= clock)) {
+					pauseSimulation();
+					clock = pauseAt;
+				}
+
+				if (paused) {
+					waitWhilePaused();
+				}
+			}
+
+			double clock = clock();
+
+			finishSimulation();
+			runStop();
+
+			return clock;
+		} finally {
+			CloudSim.bindContext(previous);
+		}
+	}
+
+	/**
+	 * Internal method that allows the entities to terminate. This method should <b>not</b> be used
+	 * in user simulations.
+	 */
+	public void finishSimulation() {
+		// Allow all entities to exit their body method
+		if (!abruptTerminate) {
+			for (SimEntity ent : entities) {
+				if (ent.getState() != SimEntity.FINISHED) {
+					ent.run();
+				}
+			}
+		}
+
+		for (SimEntity ent : entities) {
+			ent.shutdownEntity();
+		}
+
+		// reset all context variables
+		// Private data members
+		entities = null;
+		entitiesByName = null;
+		future.clear();
+		deferred = null;
+		clock = 0L;
+		running = false;
+
+		waitPredicates = null;
+		paused = false;
+		pauseAt = -1;
+		abruptTerminate = false;
+	}
+
+	/**
+	 * Abruptally terminate.
+	 */
+	public void abruptallyTerminate() {
+		abruptTerminate = true;
+	}
+
+	/**
+	 * Prints a message about the progress of the simulation.
+	 *
+	 * @param message the message
+	 */
+	private void printMessage(String message) {
+		Log.printLine(Log.KERNEL, Log.INFO, message);
+	}
+
+	/**
+	 * Checks if is paused.
+	 *
+	 * @return true, if is paused
+	 */
+	public boolean isPaused() {
+		return paused;
+	}
+
+	/**
+	 * Takes a snapshot of the simulation: the clock, the future and deferred queues, the entities
+	 * and everything they reference, such as hosts, VMs, cloudlets and the energy counters of the
+	 * datacenters. The snapshot can then be forked any number of times, each fork continuing the
+	 * simulation independently from this point.
+	 * <p>
+	 * A snapshot can only be taken between two clock ticks: before the simulation starts, while it
+	 * is paused (from another thread), or once {@link #runUntil(double)} or {@link #step(int)} has
+	 * returned. It cannot be taken once the simulation has finished, as the entities have been
+	 * released then. The pool of the logical processes and the state kept in static fields, such
+	 * as the {@link Log} output, are not part of it.
+	 *
+	 * @return the snapshot
+	 * @throws IOException if an object of the simulation cannot be serialized
+	 * @throws IllegalStateException if a clock tick is under way or the simulation has finished
+	 * @see SimulationSnapshot#fork()
+	 */
+	public SimulationSnapshot snapshot() throws IOException {
+		if (ticking) {
+			throw new IllegalStateException("A snapshot can only be taken between two clock ticks.");
+		}
+		if (entities == null) {
+			throw new IllegalStateException("A snapshot can't be taken once the simulation has finished.");
+		}
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(bytes);
+		out.writeObject(this);
+		out.close();
+		return new SimulationSnapshot(bytes.toByteArray(), clock);
+	}
+
+	/**
+	 * Restores the transient state of a fork. The fork is not paused, even if the snapshot was
+	 * taken while the simulation was.
+	 */
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		currentProcess = new ThreadLocal<LogicalProcess>();
+		eventPool = new SimEvent[64];
+		paused = false;
+		pauseAt = -1;
+	}
+
+}
@@ -0,0 +1,135 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+
+/**
+ * A snapshot of a simulation, taken with {@link SimulationContext#snapshot()}. The snapshot holds
+ * the serialized image of the context and of everything its entities reference; the image is never
+ * modified, so it can be forked any number of times, from several threads at once. Each fork is an
+ * independent context that continues the simulation from the time of the snapshot when it is run,
+ * which lets many candidate schedules start from the same warmed-up state without replaying it.
+ * <p>
+ * A snapshot can also be saved to a file and loaded back, e.g. by another JVM running the same
+ * version of the classes.
+ *
+ * @since CloudSim Toolkit 3.0
+ * @see SimulationContext#snapshot()
+ */
+public class SimulationSnapshot {
+
+	/** The magic number of a snapshot file. */
+	private static final int MAGIC = 0x43534E50;
+
+	/** The serialized context. */
+	private final byte[] image;
+
+	/** The clock of the simulation when the snapshot was taken. */
+	private final double clock;
+
+	/**
+	 * Creates a snapshot.
+	 *
+	 * @param image the serialized context
+	 * @param clock the clock of the simulation
+	 */
+	SimulationSnapshot(byte[] image, double clock) {
+		this.image = image;
+		this.clock = clock;
+	}
+
+	/**
+	 * Creates a new context from the snapshot. The fork shares nothing with the simulation the
+	 * snapshot was taken from, nor with the other forks. Calling {@link SimulationContext#run()} on
+	 * it continues the simulation; entities that have to be changed first, e.g. a broker given a
+	 * different schedule, can be looked up by name with {@link SimulationContext#getEntity(String)}.
+	 *
+	 * @return the fork
+	 */
+	public SimulationContext fork() {
+		try {
+			ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(image));
+			try {
+				return (SimulationContext) in.readObject();
+			} finally {
+				in.close();
+			}
+		} catch (IOException e) {
+			throw new IllegalStateException("The snapshot can't be forked.", e);
+		} catch (ClassNotFoundException e) {
+			throw new IllegalStateException("The snapshot can't be forked.", e);
+		}
+	}
+
+	/**
+	 * Gets the clock of the simulation when the snapshot was taken.
+	 *
+	 * @return the clock
+	 */
+	public double getClock() {
+		return clock;
+	}
+
+	/**
+	 * Gets the size of the image of the snapshot.
+	 *
+	 * @return the size, in bytes
+	 */
+	public int getSize() {
+		return image.length;
+	}
+
+	/**
+	 * Saves the snapshot to a file.
+	 *
+	 * @param fileName the name of the file
+	 * @throws IOException if the file cannot be written
+	 */
+	public void save(String fileName) throws IOException {
+		DataOutputStream out = new DataOutputStream(new FileOutputStream(fileName));
+		try {
+			out.writeInt(MAGIC);
+			out.writeDouble(clock);
+			out.writeInt(image.length);
+			out.write(image);
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Loads a snapshot saved with {@link #save(String)}.
+	 *
+	 * @param fileName the name of the file
+	 * @return the snapshot
+	 * @throws IOException if the file cannot be read or is not a snapshot
+	 */
+	public static SimulationSnapshot load(String fileName) throws IOException {
+		DataInputStream in = new DataInputStream(new FileInputStream(fileName));
+		try {
+			if (in.readInt() != MAGIC) {
+				throw new IOException(fileName + " is not a simulation snapshot");
+			}
+			double clock = in.readDouble();
+			byte[] image = new byte[in.readInt()];
+			in.readFully(image);
+			return new SimulationSnapshot(image, clock);
+		} finally {
+			in.close();
+		}
+	}
+
+}
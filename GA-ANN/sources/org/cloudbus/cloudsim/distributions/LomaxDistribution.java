@@ -18,6 +18,9 @@ import java.util.Random;
  */
 public class LomaxDistribution extends ParetoDistr implements ContinuousDistribution {
 
+	/** The Constant serialVersionUID. */
+	private static final long serialVersionUID = 1L;
+
 	/** The shift. */
 	private final double shift;
 
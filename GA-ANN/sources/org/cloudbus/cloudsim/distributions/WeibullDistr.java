@@ -19,6 +19,9 @@ import java.util.Random;
  */
 public class WeibullDistr implements ContinuousDistribution {
 
+	/** The Constant serialVersionUID. */
+	private static final long serialVersionUID = 1L;
+
 	/** The num gen. */
 	private final Random numGen;
 
@@ -0,0 +1,90 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.ga;
+
+import java.util.Arrays;
+
+/**
+ * AnalyticFitnessFunction scores a schedule from the VM capacities and the cloudlet lengths alone.
+ * The busy time of a VM is the total length of its cloudlets divided by its MIPS; the makespan is
+ * the longest busy time, the imbalance degree is (max - min) / mean of the busy times, and the
+ * energy is estimated from the idle and full-load power of the VMs.
+ *
+ * @since CloudSim Toolkit 3.0
+ * @see SchedulingProblem
+ * @see ScheduleEvaluator
+ */
+public class AnalyticFitnessFunction extends WeightedFitnessFunction {
+
+	/** The Constant serialVersionUID. */
+	private static final long serialVersionUID = 1L;
+
+	/** The per-thread VM busy times. */
+	private final ThreadLocal<double[]> busyTimes = new ThreadLocal<double[]>() {
+
+		@Override
+		protected double[] initialValue() {
+			return new double[getProblem().getNumberOfVms()];
+		}
+
+	};
+
+	/**
+	 * Creates a fitness function that weights the three objectives equally.
+	 *
+	 * @param problem the problem
+	 */
+	public AnalyticFitnessFunction(SchedulingProblem problem) {
+		this(problem, 1, 1, 1);
+	}
+
+	/**
+	 * Creates a fitness function.
+	 *
+	 * @param problem the problem
+	 * @param makespanWeight the makespan weight
+	 * @param energyWeight the energy weight
+	 * @param imbalanceWeight the imbalance weight
+	 * @throws IllegalArgumentException if a weight is negative or the makespan weight is zero
+	 */
+	public AnalyticFitnessFunction(SchedulingProblem problem, double makespanWeight, double energyWeight,
+			double imbalanceWeight) {
+		super(problem, makespanWeight, energyWeight, imbalanceWeight);
+	}
+
+	@Override
+	public void evaluate(Chromosome chromosome) {
+		SchedulingProblem problem = getProblem();
+		double[] busy = busyTimes.get();
+		Arrays.fill(busy, 0);
+		int[] genes = chromosome.getGenes();
+		for (int i = 0; i < genes.length; i++) {
+			busy[genes[i]] += problem.getCloudletLength(i);
+		}
+
+		double makespan = 0;
+		for (int vm = 0; vm < busy.length; vm++) {
+			busy[vm] /= problem.getVmMips(vm);
+			makespan = Math.max(makespan, busy[vm]);
+		}
+
+		double energy = 0;
+		double idealEnergy = 0;
+		for (int vm = 0; vm < busy.length; vm++) {
+			double idle = problem.getVmIdlePower(vm);
+			double max = problem.getVmMaxPower(vm);
+			energy += idle * makespan + (max - idle) * busy[vm];
+			idealEnergy += max * problem.getIdealMakespan();
+		}
+
+		double imbalance = imbalance(busy);
+		chromosome.setObjectives(fitness(makespan, energy, imbalance, idealEnergy), makespan, energy, imbalance);
+	}
+
+}
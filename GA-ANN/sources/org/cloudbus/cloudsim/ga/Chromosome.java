@@ -0,0 +1,199 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.ga;
+
+import java.util.Arrays;
+
+/**
+ * A Chromosome encodes a schedule: gene <tt>i</tt> holds the index, in the VM list of the
+ * {@link SchedulingProblem}, of the VM the cloudlet with index <tt>i</tt> is bound to. Besides the
+ * genes, a chromosome caches the objectives computed by the last evaluation.
+ *
+ * @since CloudSim Toolkit 3.0
+ * @see SchedulingProblem
+ * @see GeneticAlgorithm
+ */
+public class Chromosome {
+
+	/** The genes. */
+	private final int[] genes;
+
+	/** The fitness; higher is better. */
+	private double fitness;
+
+	/** The makespan. */
+	private double makespan;
+
+	/** The energy. */
+	private double energy;
+
+	/** The imbalance degree. */
+	private double imbalance;
+
+	/** Whether the objectives are up to date with the genes. */
+	private boolean evaluated;
+
+	/**
+	 * Creates a chromosome with all cloudlets bound to the first VM.
+	 *
+	 * @param length the number of cloudlets
+	 */
+	public Chromosome(int length) {
+		genes = new int[length];
+	}
+
+	/**
+	 * Creates a chromosome from a set of genes.
+	 *
+	 * @param genes the genes; the array is copied
+	 */
+	public Chromosome(int[] genes) {
+		this.genes = genes.clone();
+	}
+
+	/**
+	 * Gets the number of genes.
+	 *
+	 * @return the number of genes
+	 */
+	public int length() {
+		return genes.length;
+	}
+
+	/**
+	 * Gets a gene.
+	 *
+	 * @param cloudlet the index of the cloudlet
+	 * @return the index of the VM the cloudlet is bound to
+	 */
+	public int getGene(int cloudlet) {
+		return genes[cloudlet];
+	}
+
+	/**
+	 * Sets a gene.
+	 *
+	 * @param cloudlet the index of the cloudlet
+	 * @param vm the index of the VM
+	 */
+	public void setGene(int cloudlet, int vm) {
+		genes[cloudlet] = vm;
+		evaluated = false;
+	}
+
+	/**
+	 * Gets the genes. The array is the internal representation of the chromosome; callers that
+	 * modify it have to call {@link #invalidate()}.
+	 *
+	 * @return the genes
+	 */
+	public int[] getGenes() {
+		return genes;
+	}
+
+	/**
+	 * Copies the genes and the objectives of another chromosome of the same length into this one.
+	 *
+	 * @param other the other chromosome
+	 */
+	public void copyFrom(Chromosome other) {
+		System.arraycopy(other.genes, 0, genes, 0, genes.length);
+		fitness = other.fitness;
+		makespan = other.makespan;
+		energy = other.energy;
+		imbalance = other.imbalance;
+		evaluated = other.evaluated;
+	}
+
+	/**
+	 * Creates a copy of this chromosome.
+	 *
+	 * @return the copy
+	 */
+	public Chromosome copy() {
+		Chromosome copy = new Chromosome(genes.length);
+		copy.copyFrom(this);
+		return copy;
+	}
+
+	/**
+	 * Marks the objectives as out of date.
+	 */
+	public void invalidate() {
+		evaluated = false;
+	}
+
+	/**
+	 * Checks whether the objectives are up to date with the genes.
+	 *
+	 * @return true if the chromosome has been evaluated since its genes last changed
+	 */
+	public boolean isEvaluated() {
+		return evaluated;
+	}
+
+	/**
+	 * Sets the objectives computed by a fitness function.
+	 *
+	 * @param fitness the fitness
+	 * @param makespan the makespan
+	 * @param energy the energy
+	 * @param imbalance the imbalance degree
+	 */
+	public void setObjectives(double fitness, double makespan, double energy, double imbalance) {
+		this.fitness = fitness;
+		this.makespan = makespan;
+		this.energy = energy;
+		this.imbalance = imbalance;
+		evaluated = true;
+	}
+
+	/**
+	 * Gets the fitness; higher is better.
+	 *
+	 * @return the fitness
+	 */
+	public double getFitness() {
+		return fitness;
+	}
+
+	/**
+	 * Gets the makespan.
+	 *
+	 * @return the makespan, in seconds
+	 */
+	public double getMakespan() {
+		return makespan;
+	}
+
+	/**
+	 * Gets the energy.
+	 *
+	 * @return the energy, in joules
+	 */
+	public double getEnergy() {
+		return energy;
+	}
+
+	/**
+	 * Gets the imbalance degree.
+	 *
+	 * @return the imbalance degree
+	 */
+	public double getImbalance() {
+		return imbalance;
+	}
+
+	@Override
+	public String toString() {
+		return "Chromosome [fitness=" + fitness + ", makespan=" + makespan + ", energy=" + energy
+				+ ", imbalance=" + imbalance + ", genes=" + Arrays.toString(genes) + "]";
+	}
+
+}
@@ -0,0 +1,36 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.ga;
+
+import java.util.Random;
+
+/**
+ * A CrossoverOperator recombines two parents into two children. Children are bred concurrently,
+ * so implementations must not keep mutable state.
+ *
+ * @since CloudSim Toolkit 3.0
+ * @see SinglePointCrossover
+ * @see UniformCrossover
+ */
+public interface CrossoverOperator {
+
+	/**
+	 * Recombines two parents. The children are existing chromosomes whose genes are overwritten;
+	 * they are never the same objects as the parents.
+	 *
+	 * @param first the first parent
+	 * @param second the second parent
+	 * @param firstChild the first child
+	 * @param secondChild the second child
+	 * @param random the random number generator of the calling thread
+	 */
+	void crossover(Chromosome first, Chromosome second, Chromosome firstChild, Chromosome secondChild,
+			Random random);
+
+}
@@ -0,0 +1,29 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.ga;
+
+/**
+ * A FitnessFunction scores the schedule encoded by a chromosome. The {@link GeneticAlgorithm}
+ * evaluates a whole population concurrently, so implementations must be safe to call from several
+ * threads at once.
+ *
+ * @since CloudSim Toolkit 3.0
+ * @see Chromosome
+ */
+public interface FitnessFunction {
+
+	/**
+	 * Evaluates a chromosome and stores its objectives with
+	 * {@link Chromosome#setObjectives(double, double, double, double)}.
+	 *
+	 * @param chromosome the chromosome
+	 */
+	void evaluate(Chromosome chromosome);
+
+}
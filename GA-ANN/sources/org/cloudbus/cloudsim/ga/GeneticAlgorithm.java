@@ -0,0 +1,531 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.ga;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * GeneticAlgorithm searches for a schedule of cloudlets on VMs. Each generation keeps the best
+ * members of the previous one (elitism) and breeds the rest by selection, crossover and mutation.
+ * <p>
+ * Breeding and evaluation of a generation run in parallel on a {@link ForkJoinPool}. Every pair of
+ * children is bred with its own random number generator, seeded from the algorithm seed, the
+ * generation and the pair index, so a run gives the same result whatever the number of threads.
+ * The two generations are kept in preallocated arrays and swapped, so the search does not
+ * allocate chromosomes once it has started.
+ * <p>
+ * A typical use, once the VMs and cloudlets have been submitted to a broker:
+ *
+ * <pre>
+ * SchedulingProblem problem = new SchedulingProblem(cloudletList, vmList, powerModel);
+ * GeneticAlgorithm ga = new GeneticAlgorithm(problem, new AnalyticFitnessFunction(problem));
+ * problem.bind(ga.run(), broker);
+ * </pre>
+ *
+ * @since CloudSim Toolkit 3.0
+ * @see SchedulingProblem
+ * @see FitnessFunction
+ */
+public class GeneticAlgorithm {
+
+	/** The problem. */
+	private final SchedulingProblem problem;
+
+	/** The fitness function. */
+	private final FitnessFunction fitnessFunction;
+
+	/** The selection operator. */
+	private SelectionOperator selection = new TournamentSelection(3);
+
+	/** The crossover operator. */
+	private CrossoverOperator crossover = new SinglePointCrossover();
+
+	/** The mutation operator. */
+	private MutationOperator mutation;
+
+	/** The population size. */
+	private int populationSize = 100;
+
+	/** The number of generations. */
+	private int generations = 100;
+
+	/** The probability of recombining a pair of parents. */
+	private double crossoverRate = 0.9;
+
+	/** The number of best members copied unchanged into the next generation. */
+	private int elitism = 2;
+
+	/** The seed. */
+	private long seed = 0;
+
+	/** The pool; if null, a pool is created for each run. */
+	private ForkJoinPool pool;
+
+	/** The chromosomes the initial population starts with. */
+	private final List<Chromosome> seedChromosomes = new ArrayList<Chromosome>();
+
+	/** The best fitness of each generation of the last run. */
+	private double[] fitnessHistory = new double[0];
+
+	/** The current population. */
+	private Population population;
+
+	/** The next population. */
+	private Population offspring;
+
+	/** The generation being bred. */
+	private int generation;
+
+	/**
+	 * Creates a genetic algorithm with tournament selection, single-point crossover and a random
+	 * reset mutation that changes one gene per chromosome on average.
+	 *
+	 * @param problem the problem
+	 * @param fitnessFunction the fitness function
+	 */
+	public GeneticAlgorithm(SchedulingProblem problem, FitnessFunction fitnessFunction) {
+		this.problem = problem;
+		this.fitnessFunction = fitnessFunction;
+		mutation = new RandomResetMutation(1.0 / problem.getNumberOfCloudlets());
+	}
+
+	/**
+	 * Runs the algorithm.
+	 *
+	 * @return a copy of the best chromosome found
+	 */
+	public Chromosome run() {
+		ForkJoinPool runPool = pool == null ? new ForkJoinPool() : pool;
+		try {
+			population = new Population(newChromosomes());
+			offspring = new Population(newChromosomes());
+			fitnessHistory = new double[generations + 1];
+
+			generation = 0;
+			runPool.invoke(new InitTask(0, populationSize));
+			population.update();
+			fitnessHistory[0] = population.getBest().getFitness();
+
+			int[] elite = new int[Math.min(elitism, populationSize)];
+			for (generation = 1; generation <= generations; generation++) {
+				selectElite(elite);
+				for (int i = 0; i < elite.length; i++) {
+					offspring.get(i).copyFrom(population.get(elite[i]));
+				}
+				int pairs = (populationSize - elite.length + 1) / 2;
+				runPool.invoke(new BreedTask(0, pairs, elite.length));
+				offspring.update();
+
+				Population previous = population;
+				population = offspring;
+				offspring = previous;
+				fitnessHistory[generation] = population.getBest().getFitness();
+			}
+			return population.getBest().copy();
+		} finally {
+			if (pool == null) {
+				runPool.shutdown();
+			}
+		}
+	}
+
+	/**
+	 * Gets the population of the last generation of the last run.
+	 *
+	 * @return the population, or <tt>null</tt> if the algorithm has not run
+	 */
+	public Population getPopulation() {
+		return population;
+	}
+
+	/**
+	 * Gets the best fitness of each generation of the last run; element 0 is the initial
+	 * population.
+	 *
+	 * @return the fitness history
+	 */
+	public double[] getFitnessHistory() {
+		return fitnessHistory;
+	}
+
+	/**
+	 * Adds a chromosome to the initial population, e.g. a schedule found by a heuristic. The other
+	 * members of the initial population are random.
+	 *
+	 * @param chromosome the chromosome
+	 */
+	public void addSeedChromosome(Chromosome chromosome) {
+		if (chromosome.length() != problem.getNumberOfCloudlets()) {
+			throw new IllegalArgumentException("The chromosome does not have one gene per cloudlet");
+		}
+		seedChromosomes.add(chromosome.copy());
+	}
+
+	/**
+	 * Gets the problem.
+	 *
+	 * @return the problem
+	 */
+	public SchedulingProblem getProblem() {
+		return problem;
+	}
+
+	/**
+	 * Gets the fitness function.
+	 *
+	 * @return the fitness function
+	 */
+	public FitnessFunction getFitnessFunction() {
+		return fitnessFunction;
+	}
+
+	/**
+	 * Sets the selection operator.
+	 *
+	 * @param selection the selection operator
+	 */
+	public void setSelection(SelectionOperator selection) {
+		this.selection = selection;
+	}
+
+	/**
+	 * Sets the crossover operator.
+	 *
+	 * @param crossover the crossover operator
+	 */
+	public void setCrossover(CrossoverOperator crossover) {
+		this.crossover = crossover;
+	}
+
+	/**
+	 * Sets the mutation operator.
+	 *
+	 * @param mutation the mutation operator
+	 */
+	public void setMutation(MutationOperator mutation) {
+		this.mutation = mutation;
+	}
+
+	/**
+	 * Sets the population size.
+	 *
+	 * @param populationSize the population size
+	 */
+	public void setPopulationSize(int populationSize) {
+		if (populationSize < 2) {
+			throw new IllegalArgumentException("The population needs at least two members");
+		}
+		this.populationSize = populationSize;
+	}
+
+	/**
+	 * Gets the population size.
+	 *
+	 * @return the population size
+	 */
+	public int getPopulationSize() {
+		return populationSize;
+	}
+
+	/**
+	 * Sets the number of generations.
+	 *
+	 * @param generations the number of generations
+	 */
+	public void setGenerations(int generations) {
+		if (generations < 0) {
+			throw new IllegalArgumentException("The number of generations can not be negative");
+		}
+		this.generations = generations;
+	}
+
+	/**
+	 * Gets the number of generations.
+	 *
+	 * @return the number of generations
+	 */
+	public int getGenerations() {
+		return generations;
+	}
+
+	/**
+	 * Sets the probability of recombining a pair of parents; pairs that are not recombined are
+	 * copied before mutation.
+	 *
+	 * @param crossoverRate the crossover rate
+	 */
+	public void setCrossoverRate(double crossoverRate) {
+		if (crossoverRate < 0 || crossoverRate > 1) {
+			throw new IllegalArgumentException("The crossover rate must be between 0 and 1");
+		}
+		this.crossoverRate = crossoverRate;
+	}
+
+	/**
+	 * Gets the crossover rate.
+	 *
+	 * @return the crossover rate
+	 */
+	public double getCrossoverRate() {
+		return crossoverRate;
+	}
+
+	/**
+	 * Sets the number of best members copied unchanged into the next generation.
+	 *
+	 * @param elitism the number of elite members
+	 */
+	public void setElitism(int elitism) {
+		if (elitism < 0) {
+			throw new IllegalArgumentException("The number of elite members can not be negative");
+		}
+		this.elitism = elitism;
+	}
+
+	/**
+	 * Gets the number of elite members.
+	 *
+	 * @return the number of elite members
+	 */
+	public int getElitism() {
+		return elitism;
+	}
+
+	/**
+	 * Sets the seed.
+	 *
+	 * @param seed the seed
+	 */
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+
+	/**
+	 * Gets the seed.
+	 *
+	 * @return the seed
+	 */
+	public long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * Sets the pool the generations are bred and evaluated on. If no pool is set, each run creates
+	 * a pool with one thread per processor and shuts it down at the end.
+	 *
+	 * @param pool the pool, or <tt>null</tt>
+	 */
+	public void setPool(ForkJoinPool pool) {
+		this.pool = pool;
+	}
+
+	/**
+	 * Creates the chromosomes of a population.
+	 *
+	 * @return the chromosomes
+	 */
+	private Chromosome[] newChromosomes() {
+		Chromosome[] chromosomes = new Chromosome[populationSize];
+		for (int i = 0; i < populationSize; i++) {
+			chromosomes[i] = new Chromosome(problem.getNumberOfCloudlets());
+		}
+		return chromosomes;
+	}
+
+	/**
+	 * Finds the best members of the current population, best first.
+	 *
+	 * @param elite the array receiving the indexes of the best members
+	 */
+	private void selectElite(int[] elite) {
+		for (int k = 0; k < elite.length; k++) {
+			int best = -1;
+			for (int i = 0; i < populationSize; i++) {
+				if (!contains(elite, k, i)
+						&& (best == -1 || population.get(i).getFitness() > population.get(best).getFitness())) {
+					best = i;
+				}
+			}
+			elite[k] = best;
+		}
+	}
+
+	/**
+	 * Checks whether a value is among the first elements of an array.
+	 *
+	 * @param array the array
+	 * @param length the number of elements to search
+	 * @param value the value
+	 * @return true if the value was found
+	 */
+	private static boolean contains(int[] array, int length, int value) {
+		for (int i = 0; i < length; i++) {
+			if (array[i] == value) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Creates the random number generator for a task of a generation.
+	 *
+	 * @param index the index of the task within the generation
+	 * @return the random number generator
+	 */
+	private Random random(int index) {
+		long z = seed + 0x9E3779B97F4A7C15L * (((long) generation << 32) + index + 1);
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return new Random(z ^ (z >>> 31));
+	}
+
+	/**
+	 * A task over a range of indexes, split in halves until the ranges are small.
+	 */
+	private abstract class RangeTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		/** The first index. */
+		protected final int from;
+
+		/** The index after the last one. */
+		protected final int to;
+
+		RangeTask(int from, int to) {
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= 1) {
+				for (int i = from; i < to; i++) {
+					process(i);
+				}
+				return;
+			}
+			int middle = (from + to) >>> 1;
+			invokeAll(split(from, middle), split(middle, to));
+		}
+
+		/**
+		 * Creates a task of the same kind over a sub-range.
+		 *
+		 * @param subFrom the first index
+		 * @param subTo the index after the last one
+		 * @return the task
+		 */
+		protected abstract RangeTask split(int subFrom, int subTo);
+
+		/**
+		 * Processes one index.
+		 *
+		 * @param i the index
+		 */
+		protected abstract void process(int i);
+
+	}
+
+	/**
+	 * Creates and evaluates the members of the initial population.
+	 */
+	private final class InitTask extends RangeTask {
+
+		private static final long serialVersionUID = 1L;
+
+		InitTask(int from, int to) {
+			super(from, to);
+		}
+
+		@Override
+		protected RangeTask split(int subFrom, int subTo) {
+			return new InitTask(subFrom, subTo);
+		}
+
+		@Override
+		protected void process(int i) {
+			Chromosome chromosome = population.get(i);
+			if (i < seedChromosomes.size()) {
+				chromosome.copyFrom(seedChromosomes.get(i));
+			} else {
+				Random random = random(i);
+				int[] genes = chromosome.getGenes();
+				int numVms = problem.getNumberOfVms();
+				for (int g = 0; g < genes.length; g++) {
+					genes[g] = random.nextInt(numVms);
+				}
+				chromosome.invalidate();
+			}
+			if (!chromosome.isEvaluated()) {
+				fitnessFunction.evaluate(chromosome);
+			}
+		}
+
+	}
+
+	/**
+	 * Breeds and evaluates pairs of children of the next generation.
+	 */
+	private final class BreedTask extends RangeTask {
+
+		private static final long serialVersionUID = 1L;
+
+		/** The index of the first child of the first pair. */
+		private final int offset;
+
+		BreedTask(int from, int to, int offset) {
+			super(from, to);
+			this.offset = offset;
+		}
+
+		@Override
+		protected RangeTask split(int subFrom, int subTo) {
+			return new BreedTask(subFrom, subTo, offset);
+		}
+
+		@Override
+		protected void process(int pair) {
+			Random random = random(pair);
+			Chromosome first = selection.select(population, random);
+			Chromosome second = selection.select(population, random);
+			int index = offset + 2 * pair;
+			Chromosome firstChild = offspring.get(index);
+			Chromosome secondChild = index + 1 < populationSize ? offspring.get(index + 1) : null;
+
+			if (secondChild != null && random.nextDouble() < crossoverRate) {
+				crossover.crossover(first, second, firstChild, secondChild, random);
+			} else {
+				firstChild.copyFrom(first);
+				if (secondChild != null) {
+					secondChild.copyFrom(second);
+				}
+			}
+
+			int numVms = problem.getNumberOfVms();
+			mutation.mutate(firstChild, numVms, random);
+			if (!firstChild.isEvaluated()) {
+				fitnessFunction.evaluate(firstChild);
+			}
+			if (secondChild != null) {
+				mutation.mutate(secondChild, numVms, random);
+				if (!secondChild.isEvaluated()) {
+					fitnessFunction.evaluate(secondChild);
+				}
+			}
+		}
+
+	}
+
+}
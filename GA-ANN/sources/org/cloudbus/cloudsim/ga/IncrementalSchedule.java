@@ -0,0 +1,372 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.ga;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * An IncrementalSchedule holds a schedule together with the per-VM state a
+ * {@link ScheduleEvaluator} computes for it, so that moving a cloudlet to another VM, or swapping
+ * the VMs of two cloudlets, is re-scored by replaying the queues of the two VMs involved only. The
+ * whole datacenter is replayed in the rare case the move changes its first update, i.e. when it
+ * involves the last cloudlet submitted to the datacenter.
+ * <p>
+ * Moves are recorded until {@link #commit()} is called, and {@link #rollback()} restores the
+ * schedule, and its objectives, as they were at the last commit. This makes local searches such
+ * as the one of {@link LocalSearchBroker} cheap:
+ *
+ * <pre>
+ * schedule.move(cloudlet, vm);
+ * if (schedule.getFitness() &gt; best) {
+ * 	schedule.commit();
+ * } else {
+ * 	schedule.rollback();
+ * }
+ * </pre>
+ * <p>
+ * An incremental schedule is not thread-safe; each thread needs its own.
+ *
+ * @since CloudSim Toolkit 3.0
+ * @see ScheduleEvaluator
+ */
+public class IncrementalSchedule implements Serializable {
+
+	/** The Constant serialVersionUID. */
+	private static final long serialVersionUID = 1L;
+
+	/** The evaluator. */
+	private final ScheduleEvaluator evaluator;
+
+	/** The state of the VM queues and datacenter timelines. */
+	private final ScheduleEvaluator.Workspace ws;
+
+	/** The VM index of each cloudlet. */
+	private final int[] genes;
+
+	/** The outcome of the schedule. */
+	private final ScheduleResult result;
+
+	/** The energy consumed by each datacenter. */
+	private final double[] datacenterEnergies;
+
+	/** Whether each VM has to be replayed. */
+	private final boolean[] dirtyVm;
+
+	/** The VMs to replay. */
+	private final int[] dirtyVms;
+
+	/** The number of VMs to replay. */
+	private int numDirtyVms;
+
+	/** Whether each datacenter has a VM to replay. */
+	private final boolean[] dirtyDatacenter;
+
+	/** The datacenters with a VM to replay. */
+	private final int[] dirtyDatacenters;
+
+	/** The number of datacenters with a VM to replay. */
+	private int numDirtyDatacenters;
+
+	/** The cloudlets moved since the last commit. */
+	private int[] movedCloudlets = new int[16];
+
+	/** The VMs the moved cloudlets were on. */
+	private int[] previousVms = new int[16];
+
+	/** The number of moves since the last commit. */
+	private int numMoves;
+
+	/** The fitness. */
+	private double fitness;
+
+	/** The makespan. */
+	private double makespan;
+
+	/** The imbalance degree. */
+	private double imbalance;
+
+	/**
+	 * Creates an incremental schedule and evaluates it.
+	 *
+	 * @param evaluator the evaluator
+	 * @param genes the VM index of each cloudlet; the array is copied
+	 */
+	public IncrementalSchedule(ScheduleEvaluator evaluator, int[] genes) {
+		this.evaluator = evaluator;
+		this.genes = genes.clone();
+		ws = evaluator.newWorkspace();
+		result = new ScheduleResult(evaluator.getProblem());
+		int numVms = evaluator.getProblem().getNumberOfVms();
+		int numDatacenters = evaluator.getNumberOfDatacenters();
+		datacenterEnergies = new double[numDatacenters];
+		dirtyVm = new boolean[numVms];
+		dirtyVms = new int[numVms];
+		dirtyDatacenter = new boolean[numDatacenters];
+		dirtyDatacenters = new int[numDatacenters];
+
+		evaluator.evaluate(this.genes, result, ws);
+		for (int dc = 0; dc < numDatacenters; dc++) {
+			datacenterEnergies[dc] = evaluator.datacenterEnergy(dc, ws);
+		}
+		updateObjectives();
+	}
+
+	/**
+	 * Moves a cloudlet to another VM.
+	 *
+	 * @param cloudlet the index of the cloudlet
+	 * @param vm the index of the VM
+	 * @return the new fitness
+	 */
+	public double move(int cloudlet, int vm) {
+		if (genes[cloudlet] != vm) {
+			record(cloudlet);
+			relocate(cloudlet, vm);
+			refresh();
+		}
+		return fitness;
+	}
+
+	/**
+	 * Swaps the VMs of two cloudlets.
+	 *
+	 * @param first the index of the first cloudlet
+	 * @param second the index of the second cloudlet
+	 * @return the new fitness
+	 */
+	public double swap(int first, int second) {
+		int firstVm = genes[first];
+		int secondVm = genes[second];
+		if (firstVm != secondVm) {
+			record(first);
+			record(second);
+			relocate(first, secondVm);
+			relocate(second, firstVm);
+			refresh();
+		}
+		return fitness;
+	}
+
+	/**
+	 * Accepts the moves made since the last commit.
+	 */
+	public void commit() {
+		numMoves = 0;
+	}
+
+	/**
+	 * Undoes the moves made since the last commit.
+	 */
+	public void rollback() {
+		if (numMoves == 0) {
+			return;
+		}
+		for (int m = numMoves - 1; m >= 0; m--) {
+			relocate(movedCloudlets[m], previousVms[m]);
+		}
+		numMoves = 0;
+		refresh();
+	}
+
+	/**
+	 * Gets the number of moves made since the last commit.
+	 *
+	 * @return the number of moves
+	 */
+	public int getNumberOfMoves() {
+		return numMoves;
+	}
+
+	/**
+	 * Gets the VM of a cloudlet.
+	 *
+	 * @param cloudlet the index of the cloudlet
+	 * @return the index of the VM
+	 */
+	public int getGene(int cloudlet) {
+		return genes[cloudlet];
+	}
+
+	/**
+	 * Creates a chromosome holding the schedule and its objectives.
+	 *
+	 * @return the chromosome
+	 */
+	public Chromosome toChromosome() {
+		Chromosome chromosome = new Chromosome(genes);
+		chromosome.setObjectives(fitness, makespan, result.energy, imbalance);
+		return chromosome;
+	}
+
+	/**
+	 * Gets the outcome of the schedule. The result is updated by every move.
+	 *
+	 * @return the result
+	 */
+	public ScheduleResult getResult() {
+		return result;
+	}
+
+	/**
+	 * Gets the fitness; higher is better.
+	 *
+	 * @return the fitness
+	 */
+	public double getFitness() {
+		return fitness;
+	}
+
+	/**
+	 * Gets the makespan.
+	 *
+	 * @return the makespan, in seconds
+	 */
+	public double getMakespan() {
+		return makespan;
+	}
+
+	/**
+	 * Gets the energy.
+	 *
+	 * @return the energy, in W*sec
+	 */
+	public double getEnergy() {
+		return result.energy;
+	}
+
+	/**
+	 * Gets the imbalance degree.
+	 *
+	 * @return the imbalance degree
+	 */
+	public double getImbalance() {
+		return imbalance;
+	}
+
+	/**
+	 * Records the VM of a cloudlet before a move, for {@link #rollback()}.
+	 *
+	 * @param cloudlet the cloudlet
+	 */
+	private void record(int cloudlet) {
+		if (numMoves == movedCloudlets.length) {
+			movedCloudlets = Arrays.copyOf(movedCloudlets, numMoves * 2);
+			previousVms = Arrays.copyOf(previousVms, numMoves * 2);
+		}
+		movedCloudlets[numMoves] = cloudlet;
+		previousVms[numMoves++] = genes[cloudlet];
+	}
+
+	/**
+	 * Moves a cloudlet from the queue of its VM to the queue of another one, keeping the queues in
+	 * cloudlet order, and marks both VMs to be replayed.
+	 *
+	 * @param cloudlet the cloudlet
+	 * @param vm the new VM
+	 */
+	private void relocate(int cloudlet, int vm) {
+		int oldVm = genes[cloudlet];
+		int[] next = ws.next;
+
+		int previous = -1;
+		for (int i = ws.head[oldVm]; i != cloudlet; i = next[i]) {
+			previous = i;
+		}
+		if (previous == -1) {
+			ws.head[oldVm] = next[cloudlet];
+		} else {
+			next[previous] = next[cloudlet];
+		}
+		if (ws.tail[oldVm] == cloudlet) {
+			ws.tail[oldVm] = previous;
+		}
+
+		previous = -1;
+		for (int i = ws.head[vm]; i != -1 && i < cloudlet; i = next[i]) {
+			previous = i;
+		}
+		if (previous == -1) {
+			next[cloudlet] = ws.head[vm];
+			ws.head[vm] = cloudlet;
+		} else {
+			next[cloudlet] = next[previous];
+			next[previous] = cloudlet;
+		}
+		if (next[cloudlet] == -1) {
+			ws.tail[vm] = cloudlet;
+		}
+
+		genes[cloudlet] = vm;
+		markDirty(oldVm);
+		markDirty(vm);
+	}
+
+	/**
+	 * Marks a VM to be replayed.
+	 *
+	 * @param vm the VM
+	 */
+	private void markDirty(int vm) {
+		if (!dirtyVm[vm]) {
+			dirtyVm[vm] = true;
+			dirtyVms[numDirtyVms++] = vm;
+			int dc = evaluator.getDatacenter(vm);
+			if (!dirtyDatacenter[dc]) {
+				dirtyDatacenter[dc] = true;
+				dirtyDatacenters[numDirtyDatacenters++] = dc;
+			}
+		}
+	}
+
+	/**
+	 * Replays the VMs marked dirty and updates the objectives.
+	 */
+	private void refresh() {
+		for (int v = 0; v < numDirtyVms; v++) {
+			evaluator.admit(dirtyVms[v], ws);
+		}
+		for (int d = 0; d < numDirtyDatacenters; d++) {
+			int dc = dirtyDatacenters[d];
+			if (evaluator.startTimeline(dc, genes, ws)) {
+				// the whole datacenter runs on a new timeline
+				for (int vm : evaluator.getDatacenterVms(dc)) {
+					markDirty(vm);
+				}
+			}
+		}
+		for (int v = 0; v < numDirtyVms; v++) {
+			evaluator.simulateVm(dirtyVms[v], ws, result);
+			dirtyVm[dirtyVms[v]] = false;
+		}
+		numDirtyVms = 0;
+		for (int d = 0; d < numDirtyDatacenters; d++) {
+			int dc = dirtyDatacenters[d];
+			datacenterEnergies[dc] = evaluator.datacenterEnergy(dc, ws);
+			dirtyDatacenter[dc] = false;
+		}
+		numDirtyDatacenters = 0;
+		updateObjectives();
+	}
+
+	/**
+	 * Updates the objectives from the result.
+	 */
+	private void updateObjectives() {
+		double energy = 0;
+		for (double datacenterEnergy : datacenterEnergies) {
+			energy += datacenterEnergy;
+		}
+		result.energy = energy;
+		makespan = result.getMakespan();
+		imbalance = WeightedFitnessFunction.imbalance(result.vmCompletionTimes);
+		fitness = evaluator.fitness(makespan, energy, imbalance);
+	}
+
+}
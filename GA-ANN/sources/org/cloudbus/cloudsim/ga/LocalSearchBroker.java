@@ -0,0 +1,151 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.ga;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.DatacenterBroker;
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.SimulationContext;
+import org.cloudbus.cloudsim.power.models.PowerModel;
+
+/**
+ * A broker that binds its cloudlets to VMs with a local search before submitting them. Starting
+ * from the round-robin schedule of {@link DatacenterBroker}, it tries random moves and swaps on an
+ * {@link IncrementalSchedule}, keeping those that improve the fitness computed by a
+ * {@link ScheduleEvaluator} and rolling back the others. Cloudlets already bound to a VM are left
+ * as they are.
+ * <p>
+ * The VMs must use a space-shared cloudlet scheduler on time-shared power hosts, as required by
+ * {@link ScheduleEvaluator}; otherwise the broker falls back to the round-robin schedule.
+ *
+ * @since CloudSim Toolkit 3.0
+ * @see IncrementalSchedule
+ */
+public class LocalSearchBroker extends DatacenterBroker {
+
+	/** The Constant serialVersionUID. */
+	private static final long serialVersionUID = 1L;
+
+	/** The power model given to the scheduling problem. */
+	private final PowerModel powerModel;
+
+	/** The number of moves to try. */
+	private final int iterations;
+
+	/** The random number generator. */
+	private final Random random;
+
+	/** The schedule found by the last search. */
+	private IncrementalSchedule schedule;
+
+	/**
+	 * Creates a new local search broker.
+	 *
+	 * @param name the name
+	 * @param powerModel the power model given to the scheduling problem
+	 * @param iterations the number of moves to try
+	 * @param seed the seed of the moves
+	 * @throws Exception the exception
+	 */
+	public LocalSearchBroker(String name, PowerModel powerModel, int iterations, long seed) throws Exception {
+		this(name, CloudSim.getContext(), powerModel, iterations, seed);
+	}
+
+	/**
+	 * Creates a new local search broker in a given simulation context.
+	 *
+	 * @param name the name
+	 * @param context the simulation context the broker belongs to
+	 * @param powerModel the power model given to the scheduling problem
+	 * @param iterations the number of moves to try
+	 * @param seed the seed of the moves
+	 * @throws Exception the exception
+	 */
+	public LocalSearchBroker(String name, SimulationContext context, PowerModel powerModel, int iterations,
+			long seed) throws Exception {
+		super(name, context);
+		if (iterations < 0) {
+			throw new IllegalArgumentException("The number of iterations must not be negative");
+		}
+		this.powerModel = powerModel;
+		this.iterations = iterations;
+		random = new Random(seed);
+	}
+
+	@Override
+	protected void submitCloudlets() {
+		List<Cloudlet> unbound = new ArrayList<Cloudlet>();
+		for (Cloudlet cloudlet : getCloudletList()) {
+			if (cloudlet.getVmId() == -1) {
+				unbound.add(cloudlet);
+			}
+		}
+		if (!unbound.isEmpty() && !getVmsCreatedList().isEmpty()) {
+			SchedulingProblem problem = new SchedulingProblem(unbound, getVmsCreatedList(), powerModel);
+			try {
+				ScheduleEvaluator evaluator = new ScheduleEvaluator(problem, CloudSim.clock());
+				schedule = search(evaluator);
+				problem.bind(schedule.toChromosome(), this);
+				Log.printLine(CloudSim.clock() + ": " + getName() + ": Local search found a schedule with makespan "
+						+ schedule.getMakespan() + " and energy " + schedule.getEnergy());
+			} catch (IllegalArgumentException e) {
+				Log.printLine(CloudSim.clock() + ": " + getName() + ": " + e.getMessage()
+						+ ", using round-robin scheduling");
+			}
+		}
+		super.submitCloudlets();
+	}
+
+	/**
+	 * Searches a schedule.
+	 *
+	 * @param evaluator the evaluator
+	 * @return the schedule
+	 */
+	protected IncrementalSchedule search(ScheduleEvaluator evaluator) {
+		int numCloudlets = evaluator.getProblem().getNumberOfCloudlets();
+		int numVms = evaluator.getProblem().getNumberOfVms();
+		int[] genes = new int[numCloudlets];
+		for (int i = 0; i < numCloudlets; i++) {
+			genes[i] = i % numVms;
+		}
+
+		IncrementalSchedule schedule = new IncrementalSchedule(evaluator, genes);
+		double best = schedule.getFitness();
+		for (int iteration = 0; iteration < iterations; iteration++) {
+			if (random.nextBoolean()) {
+				schedule.move(random.nextInt(numCloudlets), random.nextInt(numVms));
+			} else {
+				schedule.swap(random.nextInt(numCloudlets), random.nextInt(numCloudlets));
+			}
+			if (schedule.getFitness() > best) {
+				best = schedule.getFitness();
+				schedule.commit();
+			} else {
+				schedule.rollback();
+			}
+		}
+		return schedule;
+	}
+
+	/**
+	 * Gets the schedule found by the last search.
+	 *
+	 * @return the schedule, or <tt>null</tt> if no search has been done
+	 */
+	public IncrementalSchedule getSchedule() {
+		return schedule;
+	}
+
+}
@@ -0,0 +1,32 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.ga;
+
+import java.util.Random;
+
+/**
+ * A MutationOperator randomly changes the genes of a chromosome. Chromosomes are mutated
+ * concurrently, so implementations must not keep mutable state.
+ *
+ * @since CloudSim Toolkit 3.0
+ * @see RandomResetMutation
+ * @see SwapMutation
+ */
+public interface MutationOperator {
+
+	/**
+	 * Mutates a chromosome.
+	 *
+	 * @param chromosome the chromosome
+	 * @param numberOfVms the number of VMs a gene can refer to
+	 * @param random the random number generator of the calling thread
+	 */
+	void mutate(Chromosome chromosome, int numberOfVms, Random random);
+
+}
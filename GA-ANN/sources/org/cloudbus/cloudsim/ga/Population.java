@@ -0,0 +1,114 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.ga;
+
+/**
+ * A Population is a generation of chromosomes. Once its members have been evaluated,
+ * {@link #update()} records the best member and the cumulative fitness used by
+ * {@link RouletteWheelSelection}; the population must not change while parents are being selected
+ * from it.
+ *
+ * @since CloudSim Toolkit 3.0
+ * @see GeneticAlgorithm
+ */
+public class Population {
+
+	/** The members. */
+	private final Chromosome[] members;
+
+	/** The cumulative fitness of the members. */
+	private final double[] cumulativeFitness;
+
+	/** The index of the best member. */
+	private int best;
+
+	/**
+	 * Creates a population.
+	 *
+	 * @param members the members; the array is used, not copied
+	 */
+	public Population(Chromosome[] members) {
+		this.members = members;
+		cumulativeFitness = new double[members.length];
+	}
+
+	/**
+	 * Records the best member and the cumulative fitness. Must be called after the members have
+	 * been evaluated.
+	 */
+	public void update() {
+		double sum = 0;
+		best = 0;
+		for (int i = 0; i < members.length; i++) {
+			double fitness = members[i].getFitness();
+			sum += fitness;
+			cumulativeFitness[i] = sum;
+			if (fitness > members[best].getFitness()) {
+				best = i;
+			}
+		}
+	}
+
+	/**
+	 * Gets the number of members.
+	 *
+	 * @return the size
+	 */
+	public int size() {
+		return members.length;
+	}
+
+	/**
+	 * Gets a member.
+	 *
+	 * @param index the index
+	 * @return the member
+	 */
+	public Chromosome get(int index) {
+		return members[index];
+	}
+
+	/**
+	 * Gets the members. The array is the internal representation of the population.
+	 *
+	 * @return the members
+	 */
+	public Chromosome[] getMembers() {
+		return members;
+	}
+
+	/**
+	 * Gets the best member, as of the last {@link #update()}.
+	 *
+	 * @return the best member
+	 */
+	public Chromosome getBest() {
+		return members[best];
+	}
+
+	/**
+	 * Gets the sum of the fitness of the members, as of the last {@link #update()}.
+	 *
+	 * @return the total fitness
+	 */
+	public double getTotalFitness() {
+		return cumulativeFitness[members.length - 1];
+	}
+
+	/**
+	 * Gets the cumulative fitness of the members, as of the last {@link #update()}: element
+	 * <tt>i</tt> is the sum of the fitness of members 0 to <tt>i</tt>.
+	 *
+	 * @return the cumulative fitness
+	 */
+	public double[] getCumulativeFitness() {
+		return cumulativeFitness;
+	}
+
+}
@@ -0,0 +1,75 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.ga;
+
+import java.util.Random;
+
+/**
+ * RandomResetMutation binds each cloudlet, with a given probability, to a VM chosen at random.
+ * Rather than drawing a number for every gene, the operator draws the gap to the next mutated gene
+ * from the geometric distribution, so its cost is proportional to the number of genes it changes.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class RandomResetMutation implements MutationOperator {
+
+	/** The probability of mutating a gene. */
+	private final double rate;
+
+	/**
+	 * Creates a random reset mutation.
+	 *
+	 * @param rate the probability of mutating a gene
+	 * @throws IllegalArgumentException if the rate is not between 0 and 1
+	 */
+	public RandomResetMutation(double rate) {
+		if (rate < 0 || rate > 1) {
+			throw new IllegalArgumentException("The mutation rate must be between 0 and 1");
+		}
+		this.rate = rate;
+	}
+
+	@Override
+	public void mutate(Chromosome chromosome, int numberOfVms, Random random) {
+		int[] genes = chromosome.getGenes();
+		for (int i = nextGene(-1, rate, random); i < genes.length; i = nextGene(i, rate, random)) {
+			genes[i] = random.nextInt(numberOfVms);
+			chromosome.invalidate();
+		}
+	}
+
+	/**
+	 * Gets the mutation rate.
+	 *
+	 * @return the probability of mutating a gene
+	 */
+	public double getRate() {
+		return rate;
+	}
+
+	/**
+	 * Draws the next gene to mutate.
+	 *
+	 * @param current the last mutated gene, or -1
+	 * @param rate the probability of mutating a gene
+	 * @param random the random number generator
+	 * @return the next gene to mutate; may be beyond the end of the chromosome
+	 */
+	static int nextGene(int current, double rate, Random random) {
+		if (rate >= 1) {
+			return current + 1;
+		}
+		if (rate <= 0) {
+			return Integer.MAX_VALUE;
+		}
+		double gap = Math.floor(Math.log(1 - random.nextDouble()) / Math.log(1 - rate));
+		return gap >= Integer.MAX_VALUE - current - 1 ? Integer.MAX_VALUE : current + 1 + (int) gap;
+	}
+
+}
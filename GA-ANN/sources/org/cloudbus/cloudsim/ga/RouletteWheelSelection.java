@@ -0,0 +1,33 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.ga;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * RouletteWheelSelection selects members with a probability proportional to their fitness. A
+ * selection is a binary search in the cumulative fitness of the population.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class RouletteWheelSelection implements SelectionOperator {
+
+	@Override
+	public Chromosome select(Population population, Random random) {
+		double[] cumulative = population.getCumulativeFitness();
+		double point = random.nextDouble() * population.getTotalFitness();
+		int index = Arrays.binarySearch(cumulative, point);
+		if (index < 0) {
+			index = -index - 1;
+		}
+		return population.get(Math.min(index, population.size() - 1));
+	}
+
+}
@@ -0,0 +1,755 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.ga;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.CloudletSchedulerSpaceShared;
+import org.cloudbus.cloudsim.Consts;
+import org.cloudbus.cloudsim.Datacenter;
+import org.cloudbus.cloudsim.Host;
+import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.VmSchedulerTimeShared;
+import org.cloudbus.cloudsim.power.PowerDatacenter;
+import org.cloudbus.cloudsim.power.PowerHost;
+
+/**
+ * ScheduleEvaluator computes, without running the simulation, the outcome of submitting the
+ * cloudlets of a {@link SchedulingProblem} to VMs with a {@link CloudletSchedulerSpaceShared},
+ * placed on {@link PowerHost}s with a {@link VmSchedulerTimeShared} in {@link PowerDatacenter}s. It
+ * gives the same execution start times, finish times, waiting times and energy as the simulator.
+ * <p>
+ * A power datacenter processes its cloudlets at a fixed scheduling interval, so the evaluator first
+ * builds the update times of each datacenter. Each VM queue is then played on that timeline: at
+ * every update the running cloudlets progress by the whole number of instructions the simulator
+ * would credit them, those with less than one MI left finish, and waiting cloudlets take the freed
+ * PEs. The energy follows from the utilisation and power model of the hosts between the first and
+ * the last update. All the state is kept in primitive arrays, one set per thread.
+ * <p>
+ * The evaluator reads the VM placement, capacities and host utilisation when it is created, so it
+ * must be created once the VMs have been created, e.g. by a broker right before it submits its
+ * cloudlets. It assumes that the cloudlets are submitted in the order of the problem, all at the
+ * same time, that they require no files, and that the datacenters have not processed cloudlets
+ * before. {@link #validate(ScheduleResult, List, double)} compares a result with what the simulator
+ * actually produced.
+ *
+ * @since CloudSim Toolkit 3.0
+ * @see ScheduleResult
+ * @see AnalyticFitnessFunction
+ */
+public class ScheduleEvaluator extends WeightedFitnessFunction {
+
+	/** The Constant serialVersionUID. */
+	private static final long serialVersionUID = 1L;
+
+	/** Marks a cloudlet that never finishes. */
+	private static final int NEVER = Integer.MAX_VALUE;
+
+	/** The time the cloudlets are submitted. */
+	private final double submissionTime;
+
+	/** The cloudlet lengths, in MI per PE. */
+	private final long[] lengths;
+
+	/** The cloudlet PEs. */
+	private final int[] pes;
+
+	/** The datacenter of each VM. */
+	private final int[] vmDatacenter;
+
+	/** The capacity of each VM PE, in MIPS. */
+	private final double[] vmCapacity;
+
+	/** The number of PEs of each VM. */
+	private final int[] vmCpus;
+
+	/** The last time each VM was processed. */
+	private final double[] vmPreviousTime;
+
+	/** The VMs of each datacenter. */
+	private final int[][] datacenterVms;
+
+	/** The datacenters. */
+	private final List<PowerDatacenter> datacenters = new ArrayList<PowerDatacenter>();
+
+	/** The scheduling interval of each datacenter. */
+	private final double[] intervals;
+
+	/** The power of each host of each datacenter, in host order; 0 for idle hosts. */
+	private final double[][] hostPower;
+
+	/** The energy of a perfectly balanced schedule. */
+	private final double idealEnergy;
+
+	/** The per-thread workspaces; recreated on deserialization. */
+	private transient ThreadLocal<Workspace> workspaces = newWorkspaces();
+
+	/**
+	 * Creates an evaluator that weights the three objectives equally.
+	 *
+	 * @param problem the problem
+	 * @param submissionTime the time the cloudlets are submitted
+	 */
+	public ScheduleEvaluator(SchedulingProblem problem, double submissionTime) {
+		this(problem, submissionTime, 1, 1, 1);
+	}
+
+	/**
+	 * Creates an evaluator.
+	 *
+	 * @param problem the problem
+	 * @param submissionTime the time the cloudlets are submitted
+	 * @param makespanWeight the makespan weight
+	 * @param energyWeight the energy weight
+	 * @param imbalanceWeight the imbalance weight
+	 * @throws IllegalArgumentException if a VM has not been created in a power datacenter, or the
+	 *             schedulers are not the ones the evaluator models
+	 */
+	public ScheduleEvaluator(SchedulingProblem problem, double submissionTime, double makespanWeight,
+			double energyWeight, double imbalanceWeight) {
+		super(problem, makespanWeight, energyWeight, imbalanceWeight);
+		this.submissionTime = submissionTime;
+
+		int numCloudlets = problem.getNumberOfCloudlets();
+		lengths = new long[numCloudlets];
+		pes = new int[numCloudlets];
+		int i = 0;
+		for (Cloudlet cloudlet : problem.getCloudletList()) {
+			lengths[i] = cloudlet.getCloudletLength();
+			pes[i] = cloudlet.getNumberOfPes();
+			i++;
+		}
+
+		int numVms = problem.getNumberOfVms();
+		vmDatacenter = new int[numVms];
+		vmCapacity = new double[numVms];
+		vmCpus = new int[numVms];
+		vmPreviousTime = new double[numVms];
+		i = 0;
+		for (Vm vm : problem.getVmList()) {
+			Host host = vm.getHost();
+			if (host == null || !(host.getDatacenter() instanceof PowerDatacenter)) {
+				throw new IllegalArgumentException("VM #" + vm.getId() + " has not been created in a power datacenter");
+			}
+			if (!(vm.getCloudletScheduler() instanceof CloudletSchedulerSpaceShared)
+					|| !(host.getVmScheduler() instanceof VmSchedulerTimeShared) || !(host instanceof PowerHost)) {
+				throw new IllegalArgumentException("VM #" + vm.getId()
+						+ " does not use a space-shared cloudlet scheduler on a time-shared power host");
+			}
+			PowerDatacenter datacenter = (PowerDatacenter) host.getDatacenter();
+			int index = datacenters.indexOf(datacenter);
+			if (index == -1) {
+				index = datacenters.size();
+				datacenters.add(datacenter);
+			}
+			vmDatacenter[i] = index;
+
+			double capacity = 0;
+			int cpus = 0;
+			for (Double mips : host.getVmScheduler().getAllocatedMipsForVm(vm)) {
+				capacity += mips;
+				if (mips > 0) {
+					cpus++;
+				}
+			}
+			if (cpus == 0) {
+				throw new IllegalArgumentException("VM #" + vm.getId() + " has no MIPS allocated");
+			}
+			vmCapacity[i] = capacity / cpus;
+			vmCpus[i] = cpus;
+			vmPreviousTime[i] = vm.getCloudletScheduler().getPreviousTime();
+			i++;
+		}
+
+		int numDatacenters = datacenters.size();
+		datacenterVms = new int[numDatacenters][];
+		int[] count = new int[numDatacenters];
+		for (int vm = 0; vm < numVms; vm++) {
+			count[vmDatacenter[vm]]++;
+		}
+		for (int dc = 0; dc < numDatacenters; dc++) {
+			datacenterVms[dc] = new int[count[dc]];
+			count[dc] = 0;
+		}
+		for (int vm = 0; vm < numVms; vm++) {
+			datacenterVms[vmDatacenter[vm]][count[vmDatacenter[vm]]++] = vm;
+		}
+		intervals = new double[numDatacenters];
+		hostPower = new double[numDatacenters][];
+		double totalPower = 0;
+		for (int dc = 0; dc < numDatacenters; dc++) {
+			PowerDatacenter datacenter = datacenters.get(dc);
+			intervals[dc] = datacenter.getSchedulingInterval();
+			if (intervals[dc] <= 0) {
+				throw new IllegalArgumentException(datacenter.getName() + " has no scheduling interval");
+			}
+			List<PowerHost> hosts = datacenter.getHostList();
+			hostPower[dc] = new double[hosts.size()];
+			for (int h = 0; h < hosts.size(); h++) {
+				PowerHost host = hosts.get(h);
+				double utilizationMips = 0;
+				for (Vm vm : host.getVmList()) {
+					utilizationMips += host.getVmScheduler().getTotalAllocatedMipsForVm(vm);
+				}
+				double utilization = utilizationMips / host.getTotalMips();
+				if (utilization > 1 && utilization < 1.01) {
+					utilization = 1;
+				}
+				// hosts without VMs do not account for any energy
+				hostPower[dc][h] = utilization == 0 ? 0 : host.getPowerModel().getPower(utilization);
+				totalPower += hostPower[dc][h];
+			}
+		}
+		idealEnergy = totalPower * problem.getIdealMakespan();
+	}
+
+	@Override
+	public void evaluate(Chromosome chromosome) {
+		Workspace workspace = workspaces.get();
+		ScheduleResult result = workspace.getResult(getProblem());
+		evaluate(chromosome.getGenes(), result);
+		double makespan = result.getMakespan();
+		double imbalance = imbalance(result.vmCompletionTimes);
+		chromosome.setObjectives(fitness(makespan, result.energy, imbalance), makespan, result.energy, imbalance);
+	}
+
+	/**
+	 * Computes the outcome of a schedule.
+	 *
+	 * @param genes the VM index of each cloudlet
+	 * @param result the result to fill, or <tt>null</tt> to create a new one
+	 * @return the result
+	 */
+	public ScheduleResult evaluate(int[] genes, ScheduleResult result) {
+		if (result == null) {
+			result = new ScheduleResult(getProblem());
+		}
+		evaluate(genes, result, workspaces.get());
+		return result;
+	}
+
+	/**
+	 * Computes the outcome of a schedule in a workspace.
+	 *
+	 * @param genes the VM index of each cloudlet
+	 * @param result the result to fill
+	 * @param ws the workspace
+	 */
+	void evaluate(int[] genes, ScheduleResult result, Workspace ws) {
+		result.reset(submissionTime);
+		ws.prepare(genes);
+		for (int vm = 0; vm < vmCpus.length; vm++) {
+			admit(vm, ws);
+		}
+		for (int dc = 0; dc < intervals.length; dc++) {
+			startTimeline(dc, genes, ws);
+		}
+		for (int vm = 0; vm < vmCpus.length; vm++) {
+			simulateVm(vm, ws, result);
+		}
+		for (int dc = 0; dc < intervals.length; dc++) {
+			result.energy += datacenterEnergy(dc, ws);
+		}
+	}
+
+	/**
+	 * Compares a computed schedule with the outcome of the simulation of the same schedule. The
+	 * execution start, finish and waiting times of each cloudlet of the problem, the number of
+	 * cloudlets that finished and the energy are compared, allowing for rounding errors; the
+	 * cloudlets that are not part of the problem are ignored.
+	 *
+	 * @param expected the result computed by {@link #evaluate(int[], ScheduleResult)}
+	 * @param cloudlets the cloudlets returned by the simulation, e.g. the received list of the
+	 *            broker
+	 * @param energy the energy consumed by the datacenters of the problem in the simulation
+	 * @return a description of each difference, empty if the simulation matches the result
+	 */
+	public List<String> validate(ScheduleResult expected, List<? extends Cloudlet> cloudlets, double energy) {
+		List<String> differences = new ArrayList<String>();
+		SchedulingProblem problem = getProblem();
+		Map<Integer, Integer> indexes = new HashMap<Integer, Integer>();
+		for (int i = 0; i < problem.getNumberOfCloudlets(); i++) {
+			indexes.put(problem.getCloudletId(i), i);
+		}
+
+		int finished = 0;
+		for (Cloudlet cloudlet : cloudlets) {
+			Integer index = indexes.get(cloudlet.getCloudletId());
+			if (index == null) {
+				continue;
+			}
+			finished++;
+			compare(differences, "Cloudlet #" + cloudlet.getCloudletId() + " start time",
+					expected.getExecStartTime(index), cloudlet.getExecStartTime());
+			compare(differences, "Cloudlet #" + cloudlet.getCloudletId() + " finish time",
+					expected.getFinishTime(index), cloudlet.getFinishTime());
+			compare(differences, "Cloudlet #" + cloudlet.getCloudletId() + " waiting time",
+					expected.getWaitingTime(index), cloudlet.getWaitingTime());
+		}
+		int expectedFinished = 0;
+		for (int i = 0; i < problem.getNumberOfCloudlets(); i++) {
+			if (!Double.isInfinite(expected.getFinishTime(i))) {
+				expectedFinished++;
+			}
+		}
+		if (finished != expectedFinished) {
+			differences.add(expectedFinished + " cloudlets should have finished, but " + finished + " did");
+		}
+		compare(differences, "Energy", expected.getEnergy(), energy);
+		return differences;
+	}
+
+	/**
+	 * Gets the time the cloudlets are submitted.
+	 *
+	 * @return the submission time
+	 */
+	public double getSubmissionTime() {
+		return submissionTime;
+	}
+
+	/**
+	 * Computes the fitness of a schedule from its objectives.
+	 *
+	 * @param makespan the makespan
+	 * @param energy the energy
+	 * @param imbalance the imbalance degree
+	 * @return the fitness
+	 */
+	double fitness(double makespan, double energy, double imbalance) {
+		return fitness(makespan, energy, imbalance, idealEnergy);
+	}
+
+	/**
+	 * Gets the datacenter of a VM.
+	 *
+	 * @param vm the VM
+	 * @return the index of the datacenter
+	 */
+	int getDatacenter(int vm) {
+		return vmDatacenter[vm];
+	}
+
+	/**
+	 * Gets the VMs of a datacenter.
+	 *
+	 * @param dc the datacenter
+	 * @return the VM indexes
+	 */
+	int[] getDatacenterVms(int dc) {
+		return datacenterVms[dc];
+	}
+
+	/**
+	 * Gets the number of datacenters the VMs are placed in.
+	 *
+	 * @return the number of datacenters
+	 */
+	int getNumberOfDatacenters() {
+		return intervals.length;
+	}
+
+	/**
+	 * Creates a workspace for a single thread.
+	 *
+	 * @return the workspace
+	 */
+	Workspace newWorkspace() {
+		return new Workspace();
+	}
+
+	/**
+	 * Records a difference between two values, allowing for rounding errors.
+	 *
+	 * @param differences the differences
+	 * @param what the name of the value
+	 * @param expected the expected value
+	 * @param actual the actual value
+	 */
+	private static void compare(List<String> differences, String what, double expected, double actual) {
+		if (Math.abs(expected - actual) > 1e-9 * Math.max(1, Math.abs(expected))) {
+			differences.add(what + " should be " + expected + ", but is " + actual);
+		}
+	}
+
+	/**
+	 * Decides which cloudlets of a VM start on submission: those for which enough PEs are free.
+	 *
+	 * @param vm the VM
+	 * @param ws the workspace
+	 */
+	void admit(int vm, Workspace ws) {
+		int usedPes = 0;
+		for (int i = ws.head[vm]; i != -1; i = ws.next[i]) {
+			ws.admitted[i] = vmCpus[vm] - usedPes >= pes[i];
+			if (ws.admitted[i]) {
+				usedPes += pes[i];
+			}
+		}
+	}
+
+	/**
+	 * Computes the first update of a datacenter: its next scheduling interval, or earlier if the
+	 * last cloudlet submitted to it started at once and is expected to finish before that. The
+	 * admission of the cloudlets must be up to date.
+	 *
+	 * @param dc the datacenter
+	 * @param genes the VM index of each cloudlet
+	 * @param ws the workspace
+	 * @return true if the first update has changed
+	 */
+	boolean startTimeline(int dc, int[] genes, Workspace ws) {
+		int last = -1;
+		for (int vm : datacenterVms[dc]) {
+			last = Math.max(last, ws.tail[vm]);
+		}
+		double tick = submissionTime + intervals[dc];
+		double first = tick;
+		boolean early = false;
+		if (last != -1 && ws.admitted[last]) {
+			double estimate = lengths[last] / vmCapacity[genes[last]];
+			if (estimate > 0.0 && !Double.isInfinite(estimate) && submissionTime + estimate < tick) {
+				first = submissionTime + estimate;
+				early = true;
+			}
+		}
+		if (ws.numTimes[dc] > 0 && ws.times[dc][0] == first && ws.early[dc] == early) {
+			return false;
+		}
+		ws.early[dc] = early;
+		ws.times[dc][0] = first;
+		ws.numTimes[dc] = 1;
+		ws.numEnergies[dc] = 0;
+		return true;
+	}
+
+	/**
+	 * Plays the queue of a VM on the timeline of its datacenter.
+	 *
+	 * @param vm the VM
+	 * @param ws the workspace
+	 * @param result the result
+	 */
+	void simulateVm(int vm, Workspace ws, ScheduleResult result) {
+		int dc = vmDatacenter[vm];
+		int cpus = vmCpus[vm];
+		int usedPes = 0;
+		int running = 0;
+		int waiting = 0;
+		int firstWaiting = 0;
+		int lastFinish = -1;
+
+		// submission: cloudlets start at once if enough PEs are free, otherwise they wait
+		for (int i = ws.head[vm]; i != -1; i = ws.next[i]) {
+			result.finishTimes[i] = Double.POSITIVE_INFINITY;
+			if (ws.admitted[i]) {
+				result.startTimes[i] = submissionTime;
+				ws.runningCloudlet[running] = i;
+				ws.runningFinish[running++] = finishUpdate(vm, i, -1, ws);
+				usedPes += pes[i];
+			} else {
+				result.startTimes[i] = Double.POSITIVE_INFINITY;
+				ws.waiting[waiting++] = i;
+			}
+		}
+
+		while (running > 0) {
+			int update = NEVER;
+			for (int r = 0; r < running; r++) {
+				update = Math.min(update, ws.runningFinish[r]);
+			}
+			if (update == NEVER) {
+				break;
+			}
+			double time = ws.time(dc, update);
+
+			int finished = 0;
+			for (int r = 0; r < running;) {
+				if (ws.runningFinish[r] == update) {
+					int i = ws.runningCloudlet[r];
+					result.finishTimes[i] = time;
+					usedPes -= pes[i];
+					finished++;
+					running--;
+					ws.runningCloudlet[r] = ws.runningCloudlet[running];
+					ws.runningFinish[r] = ws.runningFinish[running];
+				} else {
+					r++;
+				}
+			}
+			lastFinish = update;
+
+			// for each finished cloudlet, the first waiting one that fits starts
+			for (int f = 0; f < finished && firstWaiting < waiting; f++) {
+				for (int w = firstWaiting; w < waiting; w++) {
+					int i = ws.waiting[w];
+					if (i != -1 && cpus - usedPes >= pes[i]) {
+						result.startTimes[i] = time;
+						ws.runningCloudlet[running] = i;
+						ws.runningFinish[running++] = finishUpdate(vm, i, update, ws);
+						usedPes += pes[i];
+						ws.waiting[w] = -1;
+						break;
+					}
+				}
+				while (firstWaiting < waiting && ws.waiting[firstWaiting] == -1) {
+					firstWaiting++;
+				}
+			}
+		}
+
+		ws.lastFinish[vm] = lastFinish;
+		result.vmCompletionTimes[vm] = lastFinish == -1 ? 0 : ws.time(dc, lastFinish) - submissionTime;
+	}
+
+	/**
+	 * Finds the update at which a cloudlet finishes: the first one after which less than one MI of
+	 * the cloudlet is left.
+	 *
+	 * @param vm the VM
+	 * @param cloudlet the cloudlet
+	 * @param start the update at which the cloudlet started, or -1 if it started on submission
+	 * @param ws the workspace
+	 * @return the update
+	 */
+	private int finishUpdate(int vm, int cloudlet, int start, Workspace ws) {
+		int dc = vmDatacenter[vm];
+		double capacity = vmCapacity[vm];
+		int cloudletPes = pes[cloudlet];
+		long threshold = (lengths[cloudlet] * cloudletPes - 1) * Consts.MILLION + 1;
+		if (capacity <= 0) {
+			return NEVER;
+		}
+		long done = 0;
+		for (int update = start + 1;; update++) {
+			double previous = update == 0 ? vmPreviousTime[vm] : ws.time(dc, update - 1);
+			double timeSpan = ws.time(dc, update) - previous;
+			done += (long) (capacity * timeSpan * cloudletPes * Consts.MILLION);
+			if (done >= threshold) {
+				return update;
+			}
+		}
+	}
+
+	/**
+	 * Computes the energy a datacenter consumes until the last of its cloudlets finishes. The first
+	 * update accounts for no energy, as the hosts had no utilisation before it.
+	 *
+	 * @param dc the datacenter
+	 * @param ws the workspace
+	 * @return the energy, in W*sec
+	 */
+	double datacenterEnergy(int dc, Workspace ws) {
+		int last = -1;
+		for (int vm : datacenterVms[dc]) {
+			last = Math.max(last, ws.lastFinish[vm]);
+		}
+		if (last == -1) {
+			return 0;
+		}
+		double energy = ws.energy(dc, last);
+		if (last == 0 && ws.early[dc]) {
+			// all cloudlets finished at the early update, so the regular one was not cancelled
+			energy += frameEnergy(hostPower[dc], submissionTime + intervals[dc] - ws.time(dc, 0));
+		}
+		return energy;
+	}
+
+	/**
+	 * Computes the energy of a datacenter over the time between two updates.
+	 *
+	 * @param power the power of each host
+	 * @param timeSpan the time between the updates
+	 * @return the energy, in W*sec
+	 */
+	private static double frameEnergy(double[] power, double timeSpan) {
+		double energy = 0.0;
+		for (double hostPower : power) {
+			energy += hostPower * timeSpan;
+		}
+		return energy;
+	}
+
+	/**
+	 * Creates the per-thread workspaces.
+	 *
+	 * @return the thread-local workspaces
+	 */
+	private ThreadLocal<Workspace> newWorkspaces() {
+		return new ThreadLocal<Workspace>() {
+
+			@Override
+			protected Workspace initialValue() {
+				return new Workspace();
+			}
+
+		};
+	}
+
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		workspaces = newWorkspaces();
+	}
+
+	/**
+	 * The state of the evaluations of a single thread: the queue of each VM, as a list linked in
+	 * cloudlet order, and the update times of each datacenter.
+	 */
+	final class Workspace implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		/** The first cloudlet of each VM. */
+		final int[] head = new int[vmCpus.length];
+
+		/** The last cloudlet of each VM. */
+		final int[] tail = new int[vmCpus.length];
+
+		/** The next cloudlet of the same VM. */
+		final int[] next = new int[lengths.length];
+
+		/** Whether each cloudlet starts on submission. */
+		final boolean[] admitted = new boolean[lengths.length];
+
+		/** The update at which the last cloudlet of each VM finishes, or -1. */
+		final int[] lastFinish = new int[vmCpus.length];
+
+		/** The cloudlets waiting on the VM being played. */
+		final int[] waiting = new int[lengths.length];
+
+		/** The cloudlets running on the VM being played. */
+		final int[] runningCloudlet;
+
+		/** The update at which each running cloudlet finishes. */
+		final int[] runningFinish;
+
+		/** Whether the first update of each datacenter came before its scheduling interval. */
+		final boolean[] early = new boolean[intervals.length];
+
+		/** The update times of each datacenter. */
+		final double[][] times = new double[intervals.length][64];
+
+		/** The energy consumed by each datacenter up to each update. */
+		final double[][] energies = new double[intervals.length][64];
+
+		/** The number of update times computed for each datacenter. */
+		final int[] numTimes = new int[intervals.length];
+
+		/** The number of energies computed for each datacenter. */
+		final int[] numEnergies = new int[intervals.length];
+
+		/** The result used by {@link ScheduleEvaluator#evaluate(Chromosome)}. */
+		private ScheduleResult result;
+
+		/**
+		 * Creates a workspace.
+		 */
+		Workspace() {
+			int maxCpus = 0;
+			for (int cpus : vmCpus) {
+				maxCpus = Math.max(maxCpus, cpus);
+			}
+			runningCloudlet = new int[maxCpus];
+			runningFinish = new int[maxCpus];
+		}
+
+		/**
+		 * Groups the cloudlets by VM.
+		 *
+		 * @param genes the VM index of each cloudlet
+		 */
+		void prepare(int[] genes) {
+			Arrays.fill(head, -1);
+			Arrays.fill(tail, -1);
+			Arrays.fill(numTimes, 0);
+			Arrays.fill(numEnergies, 0);
+			for (int i = genes.length - 1; i >= 0; i--) {
+				int vm = genes[i];
+				next[i] = head[vm];
+				head[vm] = i;
+				if (tail[vm] == -1) {
+					tail[vm] = i;
+				}
+			}
+		}
+
+		/**
+		 * Gets the time of an update of a datacenter; each update is scheduled one interval after
+		 * the previous one.
+		 *
+		 * @param dc the datacenter
+		 * @param update the update
+		 * @return the time
+		 */
+		double time(int dc, int update) {
+			double[] dcTimes = times[dc];
+			int count = numTimes[dc];
+			if (update >= count) {
+				if (update >= dcTimes.length) {
+					dcTimes = Arrays.copyOf(dcTimes, Math.max(update + 1, dcTimes.length * 2));
+					times[dc] = dcTimes;
+				}
+				for (int u = count; u <= update; u++) {
+					dcTimes[u] = dcTimes[u - 1] + intervals[dc];
+				}
+				numTimes[dc] = update + 1;
+			}
+			return dcTimes[update];
+		}
+
+		/**
+		 * Gets the energy a datacenter consumes from its first update to a later one, summed one
+		 * interval at a time as the datacenter does.
+		 *
+		 * @param dc the datacenter
+		 * @param update the update
+		 * @return the energy, in W*sec
+		 */
+		double energy(int dc, int update) {
+			double[] dcEnergies = energies[dc];
+			int count = numEnergies[dc];
+			if (update >= count) {
+				time(dc, update);
+				if (update >= dcEnergies.length) {
+					dcEnergies = Arrays.copyOf(dcEnergies, Math.max(update + 1, dcEnergies.length * 2));
+					energies[dc] = dcEnergies;
+				}
+				for (int u = count; u <= update; u++) {
+					dcEnergies[u] = u == 0 ? 0 : dcEnergies[u - 1]
+							+ frameEnergy(hostPower[dc], times[dc][u] - times[dc][u - 1]);
+				}
+				numEnergies[dc] = update + 1;
+			}
+			return dcEnergies[update];
+		}
+
+		/**
+		 * Gets the result used to evaluate chromosomes.
+		 *
+		 * @param problem the problem
+		 * @return the result
+		 */
+		ScheduleResult getResult(SchedulingProblem problem) {
+			if (result == null) {
+				result = new ScheduleResult(problem);
+			}
+			return result;
+		}
+
+	}
+
+}
@@ -0,0 +1,151 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.ga;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * A ScheduleResult holds the outcome of a schedule computed by a {@link ScheduleEvaluator}: the
+ * execution start and finish time of every cloudlet, the completion time of every VM and the
+ * energy consumed by the datacenters. Cloudlets and VMs are referred to by their index in the
+ * {@link SchedulingProblem}. A cloudlet that never completes has an infinite finish time.
+ * <p>
+ * A result can be passed to {@link ScheduleEvaluator#evaluate(int[], ScheduleResult)} again to
+ * avoid allocating new arrays.
+ *
+ * @since CloudSim Toolkit 3.0
+ * @see ScheduleEvaluator
+ */
+public class ScheduleResult implements Serializable {
+
+	/** The Constant serialVersionUID. */
+	private static final long serialVersionUID = 1L;
+
+	/** The time the cloudlets were submitted. */
+	double submissionTime;
+
+	/** The execution start times. */
+	final double[] startTimes;
+
+	/** The finish times. */
+	final double[] finishTimes;
+
+	/** The VM completion times, relative to the submission. */
+	final double[] vmCompletionTimes;
+
+	/** The energy. */
+	double energy;
+
+	/**
+	 * Creates a result for a problem.
+	 *
+	 * @param problem the problem
+	 */
+	public ScheduleResult(SchedulingProblem problem) {
+		startTimes = new double[problem.getNumberOfCloudlets()];
+		finishTimes = new double[problem.getNumberOfCloudlets()];
+		vmCompletionTimes = new double[problem.getNumberOfVms()];
+	}
+
+	/**
+	 * Resets the result before an evaluation.
+	 *
+	 * @param submission the time the cloudlets are submitted
+	 */
+	void reset(double submission) {
+		submissionTime = submission;
+		Arrays.fill(startTimes, Double.POSITIVE_INFINITY);
+		Arrays.fill(finishTimes, Double.POSITIVE_INFINITY);
+		Arrays.fill(vmCompletionTimes, 0);
+		energy = 0;
+	}
+
+	/**
+	 * Gets the time the cloudlets were submitted.
+	 *
+	 * @return the submission time
+	 */
+	public double getSubmissionTime() {
+		return submissionTime;
+	}
+
+	/**
+	 * Gets the execution start time of a cloudlet.
+	 *
+	 * @param cloudlet the index of the cloudlet
+	 * @return the start time
+	 */
+	public double getExecStartTime(int cloudlet) {
+		return startTimes[cloudlet];
+	}
+
+	/**
+	 * Gets the finish time of a cloudlet.
+	 *
+	 * @param cloudlet the index of the cloudlet
+	 * @return the finish time
+	 */
+	public double getFinishTime(int cloudlet) {
+		return finishTimes[cloudlet];
+	}
+
+	/**
+	 * Gets the time a cloudlet waited between its submission and the start of its execution.
+	 *
+	 * @param cloudlet the index of the cloudlet
+	 * @return the waiting time
+	 */
+	public double getWaitingTime(int cloudlet) {
+		return startTimes[cloudlet] - submissionTime;
+	}
+
+	/**
+	 * Gets the time a cloudlet was executing.
+	 *
+	 * @param cloudlet the index of the cloudlet
+	 * @return the actual CPU time
+	 */
+	public double getActualCPUTime(int cloudlet) {
+		return finishTimes[cloudlet] - startTimes[cloudlet];
+	}
+
+	/**
+	 * Gets the time between the submission and the completion of the last cloudlet of a VM.
+	 *
+	 * @param vm the index of the VM
+	 * @return the completion time, or 0 if the VM has no cloudlets
+	 */
+	public double getVmCompletionTime(int vm) {
+		return vmCompletionTimes[vm];
+	}
+
+	/**
+	 * Gets the time between the submission and the completion of the last cloudlet.
+	 *
+	 * @return the makespan
+	 */
+	public double getMakespan() {
+		double makespan = 0;
+		for (double time : vmCompletionTimes) {
+			makespan = Math.max(makespan, time);
+		}
+		return makespan;
+	}
+
+	/**
+	 * Gets the energy consumed by the datacenters while running the cloudlets.
+	 *
+	 * @return the energy, in W*sec
+	 */
+	public double getEnergy() {
+		return energy;
+	}
+
+}
@@ -0,0 +1,245 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.ga;
+
+import java.io.Serializable;
+import java.util.List;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.DatacenterBroker;
+import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.power.models.PowerModel;
+
+/**
+ * A SchedulingProblem holds the cloudlets and VMs a schedule is searched for, copied into primitive
+ * arrays so that fitness functions can evaluate schedules without touching the simulation objects.
+ * Cloudlets and VMs are referred to by their index in the lists the problem was created from.
+ * <p>
+ * Each VM is given an idle and a full-load power, by default taken from a {@link PowerModel}. They
+ * are used by the analytic energy estimate: a VM draws its idle power until the makespan and its
+ * full-load power while it is busy.
+ *
+ * @since CloudSim Toolkit 3.0
+ * @see Chromosome
+ * @see FitnessFunction
+ */
+public class SchedulingProblem implements Serializable {
+
+	/** The Constant serialVersionUID. */
+	private static final long serialVersionUID = 1L;
+
+	/** The cloudlets. */
+	private final List<? extends Cloudlet> cloudletList;
+
+	/** The VMs. */
+	private final List<? extends Vm> vmList;
+
+	/** The cloudlet ids. */
+	private final int[] cloudletIds;
+
+	/** The cloudlet lengths, in MI, over all their PEs. */
+	private final double[] cloudletLengths;
+
+	/** The VM ids. */
+	private final int[] vmIds;
+
+	/** The VM capacities, in MIPS, over all their PEs. */
+	private final double[] vmMips;
+
+	/** The VM idle power, in W. */
+	private final double[] vmIdlePower;
+
+	/** The VM full-load power, in W. */
+	private final double[] vmMaxPower;
+
+	/** The makespan of a perfectly balanced schedule. */
+	private final double idealMakespan;
+
+	/**
+	 * Creates a new scheduling problem.
+	 *
+	 * @param cloudletList the cloudlets to schedule
+	 * @param vmList the VMs to schedule the cloudlets on
+	 * @param powerModel the power model used for every VM
+	 * @throws IllegalArgumentException if there are no cloudlets or no VMs
+	 */
+	public SchedulingProblem(List<? extends Cloudlet> cloudletList, List<? extends Vm> vmList,
+			PowerModel powerModel) {
+		if (cloudletList.isEmpty() || vmList.isEmpty()) {
+			throw new IllegalArgumentException("A scheduling problem needs at least one cloudlet and one VM");
+		}
+		this.cloudletList = cloudletList;
+		this.vmList = vmList;
+
+		int numCloudlets = cloudletList.size();
+		cloudletIds = new int[numCloudlets];
+		cloudletLengths = new double[numCloudlets];
+		double totalLength = 0;
+		int i = 0;
+		for (Cloudlet cloudlet : cloudletList) {
+			cloudletIds[i] = cloudlet.getCloudletId();
+			cloudletLengths[i] = cloudlet.getCloudletTotalLength();
+			totalLength += cloudletLengths[i];
+			i++;
+		}
+
+		int numVms = vmList.size();
+		vmIds = new int[numVms];
+		vmMips = new double[numVms];
+		vmIdlePower = new double[numVms];
+		vmMaxPower = new double[numVms];
+		double totalMips = 0;
+		double idlePower = powerModel.getPower(0);
+		double maxPower = powerModel.getPower(1);
+		i = 0;
+		for (Vm vm : vmList) {
+			vmIds[i] = vm.getId();
+			vmMips[i] = vm.getMips() * vm.getNumberOfPes();
+			vmIdlePower[i] = idlePower;
+			vmMaxPower[i] = maxPower;
+			totalMips += vmMips[i];
+			i++;
+		}
+		idealMakespan = totalLength / totalMips;
+	}
+
+	/**
+	 * Gets the number of cloudlets.
+	 *
+	 * @return the number of cloudlets
+	 */
+	public int getNumberOfCloudlets() {
+		return cloudletIds.length;
+	}
+
+	/**
+	 * Gets the number of VMs.
+	 *
+	 * @return the number of VMs
+	 */
+	public int getNumberOfVms() {
+		return vmIds.length;
+	}
+
+	/**
+	 * Gets the cloudlets.
+	 *
+	 * @return the cloudlets
+	 */
+	public List<? extends Cloudlet> getCloudletList() {
+		return cloudletList;
+	}
+
+	/**
+	 * Gets the VMs.
+	 *
+	 * @return the VMs
+	 */
+	public List<? extends Vm> getVmList() {
+		return vmList;
+	}
+
+	/**
+	 * Gets the id of a cloudlet.
+	 *
+	 * @param cloudlet the index of the cloudlet
+	 * @return the cloudlet id
+	 */
+	public int getCloudletId(int cloudlet) {
+		return cloudletIds[cloudlet];
+	}
+
+	/**
+	 * Gets the length of a cloudlet over all its PEs.
+	 *
+	 * @param cloudlet the index of the cloudlet
+	 * @return the length, in MI
+	 */
+	public double getCloudletLength(int cloudlet) {
+		return cloudletLengths[cloudlet];
+	}
+
+	/**
+	 * Gets the id of a VM.
+	 *
+	 * @param vm the index of the VM
+	 * @return the VM id
+	 */
+	public int getVmId(int vm) {
+		return vmIds[vm];
+	}
+
+	/**
+	 * Gets the capacity of a VM over all its PEs.
+	 *
+	 * @param vm the index of the VM
+	 * @return the capacity, in MIPS
+	 */
+	public double getVmMips(int vm) {
+		return vmMips[vm];
+	}
+
+	/**
+	 * Gets the idle power of a VM.
+	 *
+	 * @param vm the index of the VM
+	 * @return the idle power, in W
+	 */
+	public double getVmIdlePower(int vm) {
+		return vmIdlePower[vm];
+	}
+
+	/**
+	 * Gets the full-load power of a VM.
+	 *
+	 * @param vm the index of the VM
+	 * @return the full-load power, in W
+	 */
+	public double getVmMaxPower(int vm) {
+		return vmMaxPower[vm];
+	}
+
+	/**
+	 * Sets the power of a VM, e.g. to account for VMs placed on hosts with different power
+	 * models.
+	 *
+	 * @param vm the index of the VM
+	 * @param idlePower the idle power, in W
+	 * @param maxPower the full-load power, in W
+	 */
+	public void setVmPower(int vm, double idlePower, double maxPower) {
+		vmIdlePower[vm] = idlePower;
+		vmMaxPower[vm] = maxPower;
+	}
+
+	/**
+	 * Gets the makespan of a perfectly balanced schedule, which no schedule can beat. It is used to
+	 * normalise the objectives.
+	 *
+	 * @return the ideal makespan, in seconds
+	 */
+	public double getIdealMakespan() {
+		return idealMakespan;
+	}
+
+	/**
+	 * Binds the cloudlets to the VMs chosen by a chromosome, through
+	 * {@link DatacenterBroker#bindCloudletToVm(int, int)}. The cloudlets must have been submitted
+	 * to the broker.
+	 *
+	 * @param chromosome the chromosome
+	 * @param broker the broker
+	 */
+	public void bind(Chromosome chromosome, DatacenterBroker broker) {
+		for (int i = 0; i < cloudletIds.length; i++) {
+			broker.bindCloudletToVm(cloudletIds[i], vmIds[chromosome.getGene(i)]);
+		}
+	}
+
+}
@@ -0,0 +1,32 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.ga;
+
+import java.util.Random;
+
+/**
+ * A SelectionOperator picks the parents of the next generation. Parents are selected concurrently
+ * from the same population, so implementations must not keep mutable state.
+ *
+ * @since CloudSim Toolkit 3.0
+ * @see TournamentSelection
+ * @see RouletteWheelSelection
+ */
+public interface SelectionOperator {
+
+	/**
+	 * Selects a parent.
+	 *
+	 * @param population the evaluated population
+	 * @param random the random number generator of the calling thread
+	 * @return the selected chromosome
+	 */
+	Chromosome select(Population population, Random random);
+
+}
@@ -0,0 +1,35 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.ga;
+
+import java.util.Random;
+
+/**
+ * SinglePointCrossover cuts both parents at the same random point and swaps their tails.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class SinglePointCrossover implements CrossoverOperator {
+
+	@Override
+	public void crossover(Chromosome first, Chromosome second, Chromosome firstChild, Chromosome secondChild,
+			Random random) {
+		int length = first.length();
+		int point = random.nextInt(length + 1);
+		int[] a = first.getGenes();
+		int[] b = second.getGenes();
+		System.arraycopy(a, 0, firstChild.getGenes(), 0, point);
+		System.arraycopy(b, point, firstChild.getGenes(), point, length - point);
+		System.arraycopy(b, 0, secondChild.getGenes(), 0, point);
+		System.arraycopy(a, point, secondChild.getGenes(), point, length - point);
+		firstChild.invalidate();
+		secondChild.invalidate();
+	}
+
+}
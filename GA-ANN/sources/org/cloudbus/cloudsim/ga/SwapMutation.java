@@ -0,0 +1,59 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.ga;
+
+import java.util.Random;
+
+/**
+ * SwapMutation exchanges, with a given probability per gene, the VMs of two cloudlets. It keeps
+ * the number of cloudlets of each VM unchanged.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class SwapMutation implements MutationOperator {
+
+	/** The probability of mutating a gene. */
+	private final double rate;
+
+	/**
+	 * Creates a swap mutation.
+	 *
+	 * @param rate the probability of swapping a gene with another one
+	 * @throws IllegalArgumentException if the rate is not between 0 and 1
+	 */
+	public SwapMutation(double rate) {
+		if (rate < 0 || rate > 1) {
+			throw new IllegalArgumentException("The mutation rate must be between 0 and 1");
+		}
+		this.rate = rate;
+	}
+
+	@Override
+	public void mutate(Chromosome chromosome, int numberOfVms, Random random) {
+		int[] genes = chromosome.getGenes();
+		for (int i = RandomResetMutation.nextGene(-1, rate, random); i < genes.length; i = RandomResetMutation
+				.nextGene(i, rate, random)) {
+			int j = random.nextInt(genes.length);
+			int vm = genes[i];
+			genes[i] = genes[j];
+			genes[j] = vm;
+			chromosome.invalidate();
+		}
+	}
+
+	/**
+	 * Gets the mutation rate.
+	 *
+	 * @return the probability of swapping a gene
+	 */
+	public double getRate() {
+		return rate;
+	}
+
+}
@@ -0,0 +1,57 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.ga;
+
+import java.util.Random;
+
+/**
+ * TournamentSelection draws a number of members at random and selects the fittest of them.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class TournamentSelection implements SelectionOperator {
+
+	/** The tournament size. */
+	private final int size;
+
+	/**
+	 * Creates a tournament selection.
+	 *
+	 * @param size the number of members drawn for each tournament
+	 * @throws IllegalArgumentException if the size is not positive
+	 */
+	public TournamentSelection(int size) {
+		if (size < 1) {
+			throw new IllegalArgumentException("The tournament size must be positive");
+		}
+		this.size = size;
+	}
+
+	@Override
+	public Chromosome select(Population population, Random random) {
+		Chromosome best = population.get(random.nextInt(population.size()));
+		for (int i = 1; i < size; i++) {
+			Chromosome candidate = population.get(random.nextInt(population.size()));
+			if (candidate.getFitness() > best.getFitness()) {
+				best = candidate;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Gets the tournament size.
+	 *
+	 * @return the tournament size
+	 */
+	public int getSize() {
+		return size;
+	}
+
+}
@@ -0,0 +1,46 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.ga;
+
+import java.util.Random;
+
+/**
+ * UniformCrossover takes each gene of a child from either parent with equal probability.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class UniformCrossover implements CrossoverOperator {
+
+	@Override
+	public void crossover(Chromosome first, Chromosome second, Chromosome firstChild, Chromosome secondChild,
+			Random random) {
+		int[] a = first.getGenes();
+		int[] b = second.getGenes();
+		int[] c = firstChild.getGenes();
+		int[] d = secondChild.getGenes();
+		int bits = 0;
+		for (int i = 0; i < a.length; i++) {
+			// one random int decides 32 genes
+			if ((i & 31) == 0) {
+				bits = random.nextInt();
+			}
+			if ((bits & 1) == 0) {
+				c[i] = a[i];
+				d[i] = b[i];
+			} else {
+				c[i] = b[i];
+				d[i] = a[i];
+			}
+			bits >>>= 1;
+		}
+		firstChild.invalidate();
+		secondChild.invalidate();
+	}
+
+}
@@ -0,0 +1,132 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.ga;
+
+import java.io.Serializable;
+
+/**
+ * WeightedFitnessFunction is the base class of the fitness functions that combine the makespan,
+ * the energy and the imbalance degree of a schedule. The makespan and the energy are normalised by
+ * those of a perfectly balanced schedule, the three objectives are weighted into a cost, and the
+ * fitness is the inverse of the cost.
+ *
+ * @since CloudSim Toolkit 3.0
+ * @see AnalyticFitnessFunction
+ * @see ScheduleEvaluator
+ */
+public abstract class WeightedFitnessFunction implements FitnessFunction, Serializable {
+
+	/** The Constant serialVersionUID. */
+	private static final long serialVersionUID = 1L;
+
+	/** The problem. */
+	private final SchedulingProblem problem;
+
+	/** The makespan weight. */
+	private final double makespanWeight;
+
+	/** The energy weight. */
+	private final double energyWeight;
+
+	/** The imbalance weight. */
+	private final double imbalanceWeight;
+
+	/**
+	 * Creates a fitness function.
+	 *
+	 * @param problem the problem
+	 * @param makespanWeight the makespan weight
+	 * @param energyWeight the energy weight
+	 * @param imbalanceWeight the imbalance weight
+	 * @throws IllegalArgumentException if a weight is negative or the makespan weight is zero
+	 */
+	public WeightedFitnessFunction(SchedulingProblem problem, double makespanWeight, double energyWeight,
+			double imbalanceWeight) {
+		if (makespanWeight <= 0 || energyWeight < 0 || imbalanceWeight < 0) {
+			throw new IllegalArgumentException("The makespan weight must be positive and the other weights not negative");
+		}
+		this.problem = problem;
+		this.makespanWeight = makespanWeight;
+		this.energyWeight = energyWeight;
+		this.imbalanceWeight = imbalanceWeight;
+	}
+
+	/**
+	 * Computes the fitness of a schedule.
+	 *
+	 * @param makespan the makespan
+	 * @param energy the energy
+	 * @param imbalance the imbalance degree
+	 * @param idealEnergy the energy of a perfectly balanced schedule
+	 * @return the fitness; 0 if the schedule never completes
+	 */
+	protected double fitness(double makespan, double energy, double imbalance, double idealEnergy) {
+		double cost = makespanWeight * makespan / problem.getIdealMakespan() + imbalanceWeight * imbalance;
+		if (idealEnergy > 0) {
+			cost += energyWeight * energy / idealEnergy;
+		}
+		return Double.isInfinite(cost) || Double.isNaN(cost) ? 0 : 1 / cost;
+	}
+
+	/**
+	 * Computes the imbalance degree, (max - min) / mean, of the VM completion times.
+	 *
+	 * @param completion the completion time of each VM
+	 * @return the imbalance degree
+	 */
+	protected static double imbalance(double[] completion) {
+		double max = 0;
+		double min = Double.MAX_VALUE;
+		double total = 0;
+		for (double time : completion) {
+			max = Math.max(max, time);
+			min = Math.min(min, time);
+			total += time;
+		}
+		double mean = total / completion.length;
+		return mean > 0 ? (max - min) / mean : 0;
+	}
+
+	/**
+	 * Gets the problem.
+	 *
+	 * @return the problem
+	 */
+	public SchedulingProblem getProblem() {
+		return problem;
+	}
+
+	/**
+	 * Gets the makespan weight.
+	 *
+	 * @return the makespan weight
+	 */
+	public double getMakespanWeight() {
+		return makespanWeight;
+	}
+
+	/**
+	 * Gets the energy weight.
+	 *
+	 * @return the energy weight
+	 */
+	public double getEnergyWeight() {
+		return energyWeight;
+	}
+
+	/**
+	 * Gets the imbalance weight.
+	 *
+	 * @return the imbalance weight
+	 */
+	public double getImbalanceWeight() {
+		return imbalanceWeight;
+	}
+
+}
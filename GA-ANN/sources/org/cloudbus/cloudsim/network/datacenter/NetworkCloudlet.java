@@ -29,6 +29,9 @@ import org.cloudbus.cloudsim.UtilizationModel;
  */
 public class NetworkCloudlet extends Cloudlet implements Comparable<Object> {
 
+	/** The Constant serialVersionUID. */
+	private static final long serialVersionUID = 1L;
+
 	long memory;
 
 	public NetworkCloudlet(
@@ -11,6 +11,7 @@ package org.cloudbus.cloudsim.power;
 import java.util.List;
 import java.util.Map;
 
+import org.cloudbus.cloudsim.Cloudlet;
 import org.cloudbus.cloudsim.Datacenter;
 import org.cloudbus.cloudsim.DatacenterCharacteristics;
 import org.cloudbus.cloudsim.Log;
@@ -20,6 +21,7 @@ import org.cloudbus.cloudsim.VmAllocationPolicy;
 import org.cloudbus.cloudsim.core.CloudSim;
 import org.cloudbus.cloudsim.core.CloudSimTags;
 import org.cloudbus.cloudsim.core.SimEvent;
+import org.cloudbus.cloudsim.core.SimulationContext;
 import org.cloudbus.cloudsim.core.predicates.PredicateType;
 
 /**
@@ -38,6 +40,9 @@ import org.cloudbus.cloudsim.core.predicates.PredicateType;
  */
 public class PowerDatacenter extends Datacenter {
 
+	/** The Constant serialVersionUID. */
+	private static final long serialVersionUID = 1L;
+
 	/** The power. */
 	private double power;
 
@@ -67,7 +72,28 @@ public class PowerDatacenter extends Datacenter {
 			VmAllocationPolicy vmAllocationPolicy,
 			List<Storage> storageList,
 			double schedulingInterval) throws Exception {
-		super(name, characteristics, vmAllocationPolicy, storageList, schedulingInterval);
+		this(name, characteristics, vmAllocationPolicy, storageList, schedulingInterval, CloudSim.getContext());
+	}
+
+	/**
+	 * Instantiates a new datacenter in a given simulation context.
+	 * 
+	 * @param name the name
+	 * @param characteristics the res config
+	 * @param vmAllocationPolicy the vm provisioner
+	 * @param storageList the storage list
+	 * @param schedulingInterval the scheduling interval
+	 * @param context the simulation context
+	 * @throws Exception the exception
+	 */
+	public PowerDatacenter(
+			String name,
+			DatacenterCharacteristics characteristics,
+			VmAllocationPolicy vmAllocationPolicy,
+			List<Storage> storageList,
+			double schedulingInterval,
+			SimulationContext context) throws Exception {
+		super(name, characteristics, vmAllocationPolicy, storageList, schedulingInterval, context);
 
 		setPower(0.0);
 		setDisableMigrations(false);
@@ -86,7 +112,7 @@ public class PowerDatacenter extends Datacenter {
 	@Override
 	protected void updateCloudletProcessing() {
 		if (getCloudletSubmitted() == -1 || getCloudletSubmitted() == CloudSim.clock()) {
-			CloudSim.cancelAll(getId(), new PredicateType(CloudSimTags.VM_DATACENTER_EVENT));
+			getSimulationContext().cancelAll(getId(), new PredicateType(CloudSimTags.VM_DATACENTER_EVENT));
 			schedule(getId(), getSchedulingInterval(), CloudSimTags.VM_DATACENTER_EVENT);
 			return;
 		}
@@ -110,12 +136,16 @@ public class PowerDatacenter extends Datacenter {
 
 						if (oldHost == null) {
 							Log.formatLine(
+									Log.DATACENTER,
+									Log.INFO,
 									"%.2f: Migration of VM #%d to Host #%d is started",
 									currentTime,
 									vm.getId(),
 									targetHost.getId());
 						} else {
 							Log.formatLine(
+									Log.DATACENTER,
+									Log.INFO,
 									"%.2f: Migration of VM #%d from Host #%d to Host #%d is started",
 									currentTime,
 									vm.getId(),
@@ -141,7 +171,7 @@ public class PowerDatacenter extends Datacenter {
 
 			// schedules an event to the next time
 			if (minTime != Double.MAX_VALUE) {
-				CloudSim.cancelAll(getId(), new PredicateType(CloudSimTags.VM_DATACENTER_EVENT));
+				getSimulationContext().cancelAll(getId(), new PredicateType(CloudSimTags.VM_DATACENTER_EVENT));
 				send(getId(), getSchedulingInterval(), CloudSimTags.VM_DATACENTER_EVENT);
 			}
 
@@ -171,30 +201,45 @@ public class PowerDatacenter extends Datacenter {
 		double minTime = Double.MAX_VALUE;
 		double timeDiff = currentTime - getLastProcessTime();
 		double timeFrameDatacenterEnergy = 0.0;
+		boolean log = Log.isLoggable(Log.DATACENTER, Log.INFO);
 
-		Log.printLine("\n\n--------------------------------------------------------------\n\n");
-		Log.formatLine("New resource usage for the time frame starting at %.2f:", currentTime);
+		if (log) {
+			Log.printLine(Log.DATACENTER, Log.INFO,
+					"\n\n--------------------------------------------------------------\n\n");
+			Log.formatLine(Log.DATACENTER, Log.INFO, "New resource usage for the time frame starting at %.2f:",
+					currentTime);
+		}
 
 		for (PowerHost host : this.<PowerHost> getHostList()) {
-			Log.printLine();
+			if (log) {
+				Log.printLine(Log.DATACENTER, Log.INFO, "");
+			}
 
 			double time = host.updateVmsProcessing(currentTime); // inform VMs to update processing
 			if (time < minTime) {
 				minTime = time;
 			}
 
-			Log.formatLine(
-					"%.2f: [Host #%d] utilization is %.2f%%",
-					currentTime,
-					host.getId(),
-					host.getUtilizationOfCpu() * 100);
+			if (log) {
+				Log.formatLine(
+						Log.DATACENTER,
+						Log.INFO,
+						"%.2f: [Host #%d] utilization is %.2f%%",
+						currentTime,
+						host.getId(),
+						host.getUtilizationOfCpu() * 100);
+			}
 		}
 
 		if (timeDiff > 0) {
-			Log.formatLine(
-					"\nEnergy consumption for the last time frame from %.2f to %.2f:",
-					getLastProcessTime(),
-					currentTime);
+			if (log) {
+				Log.formatLine(
+						Log.DATACENTER,
+						Log.INFO,
+						"\nEnergy consumption for the last time frame from %.2f to %.2f:",
+						getLastProcessTime(),
+						currentTime);
+			}
 
 			for (PowerHost host : this.<PowerHost> getHostList()) {
 				double previousUtilizationOfCpu = host.getPreviousUtilizationOfCpu();
@@ -205,25 +250,35 @@ public class PowerDatacenter extends Datacenter {
 						timeDiff);
 				timeFrameDatacenterEnergy += timeFrameHostEnergy;
 
-				Log.printLine();
-				Log.formatLine(
-						"%.2f: [Host #%d] utilization at %.2f was %.2f%%, now is %.2f%%",
-						currentTime,
-						host.getId(),
-						getLastProcessTime(),
-						previousUtilizationOfCpu * 100,
-						utilizationOfCpu * 100);
+				if (log) {
+					Log.printLine(Log.DATACENTER, Log.INFO, "");
+					Log.formatLine(
+							Log.DATACENTER,
+							Log.INFO,
+							"%.2f: [Host #%d] utilization at %.2f was %.2f%%, now is %.2f%%",
+							currentTime,
+							host.getId(),
+							getLastProcessTime(),
+							previousUtilizationOfCpu * 100,
+							utilizationOfCpu * 100);
+					Log.formatLine(
+							Log.DATACENTER,
+							Log.INFO,
+							"%.2f: [Host #%d] energy is %.2f W*sec",
+							currentTime,
+							host.getId(),
+							timeFrameHostEnergy);
+				}
+			}
+
+			if (log) {
 				Log.formatLine(
-						"%.2f: [Host #%d] energy is %.2f W*sec",
+						Log.DATACENTER,
+						Log.INFO,
+						"\n%.2f: Data center's energy is %.2f W*sec\n",
 						currentTime,
-						host.getId(),
-						timeFrameHostEnergy);
+						timeFrameDatacenterEnergy);
 			}
-
-			Log.formatLine(
-					"\n%.2f: Data center's energy is %.2f W*sec\n",
-					currentTime,
-					timeFrameDatacenterEnergy);
 		}
 
 		setPower(getPower() + timeFrameDatacenterEnergy);
@@ -235,11 +290,16 @@ public class PowerDatacenter extends Datacenter {
 			for (Vm vm : host.getCompletedVms()) {
 				getVmAllocationPolicy().deallocateHostForVm(vm);
 				getVmList().remove(vm);
-				Log.printLine("VM #" + vm.getId() + " has been deallocated from host #" + host.getId());
+				if (Log.isLoggable(Log.DATACENTER, Log.INFO)) {
+					Log.formatLine(Log.DATACENTER, Log.INFO, "VM #%d has been deallocated from host #%d", vm.getId(),
+							host.getId());
+				}
 			}
 		}
 
-		Log.printLine();
+		if (log) {
+			Log.printLine(Log.DATACENTER, Log.INFO, "");
+		}
 
 		setLastProcessTime(currentTime);
 		return minTime;
@@ -254,7 +314,7 @@ public class PowerDatacenter extends Datacenter {
 	protected void processVmMigrate(SimEvent ev, boolean ack) {
 		updateCloudetProcessingWithoutSchedulingFutureEvents();
 		super.processVmMigrate(ev, ack);
-		SimEvent event = CloudSim.findFirstDeferred(getId(), new PredicateType(CloudSimTags.VM_MIGRATE));
+		SimEvent event = getSimulationContext().findFirstDeferred(getId(), new PredicateType(CloudSimTags.VM_MIGRATE));
 		if (event == null || event.eventTime() > CloudSim.clock()) {
 			updateCloudetProcessingWithoutSchedulingFutureEventsForce();
 		}
@@ -262,14 +322,71 @@ public class PowerDatacenter extends Datacenter {
 
 	/*
 	 * (non-Javadoc)
-	 * @see cloudsim.Datacenter#processCloudletSubmit(cloudsim.core.SimEvent, boolean)
+	 * @see cloudsim.Datacenter#processCloudletSubmit(cloudsim.Cloudlet, boolean)
 	 */
 	@Override
-	protected void processCloudletSubmit(SimEvent ev, boolean ack) {
-		super.processCloudletSubmit(ev, ack);
+	protected void processCloudletSubmit(Cloudlet cl, boolean ack) {
+		super.processCloudletSubmit(cl, ack);
 		setCloudletSubmitted(CloudSim.clock());
 	}
 
+	/**
+	 * Processes the submission of a list of Cloudlets with the events of their submission one by
+	 * one. Once a Cloudlet has been submitted, each further Cloudlet submitted at the same time
+	 * cancels the pending events of the datacenter and schedules its next update after the
+	 * scheduling interval (see {@link #updateCloudletProcessing()}), so that only the estimated
+	 * finish time of the last Cloudlet is kept. The batch cancels these events once, after the
+	 * Cloudlets have been submitted, and updates the processing of the hosts once. A subclass that
+	 * overrides {@link #processCloudletSubmit(Cloudlet, boolean)} should override this method as
+	 * well, or {@link #isCloudletSubmitBatchSupported()} to get its Cloudlets one by one.
+	 * 
+	 * @param ev a SimEvent object whose data is a list of Cloudlets
+	 * @pre ev != null
+	 * @post $none
+	 */
+	@Override
+	protected void processCloudletSubmitBatch(SimEvent ev) {
+		List<?> list = (List<?>) ev.getData();
+		if (list.isEmpty()) {
+			return;
+		}
+		updateCloudletProcessing();
+
+		double estimatedFinishTime = 0.0;
+		for (int i = 0; i < list.size(); i++) {
+			estimatedFinishTime = 0.0;
+			try {
+				estimatedFinishTime = submitCloudlet((Cloudlet) list.get(i), false);
+			} catch (ClassCastException c) {
+				Log.printLine(getName() + ".processCloudletSubmitBatch(): " + "ClassCastException error.");
+				c.printStackTrace();
+			} catch (Exception e) {
+				Log.printLine(getName() + ".processCloudletSubmitBatch(): " + "Exception error.");
+				e.printStackTrace();
+			}
+		}
+
+		if (list.size() > 1) {
+			getSimulationContext().cancelAll(getId(), new PredicateType(CloudSimTags.VM_DATACENTER_EVENT));
+			schedule(getId(), getSchedulingInterval(), CloudSimTags.VM_DATACENTER_EVENT);
+		}
+		if (estimatedFinishTime > 0.0) {
+			send(getId(), estimatedFinishTime, CloudSimTags.VM_DATACENTER_EVENT);
+		}
+
+		checkCloudletCompletion();
+		setCloudletSubmitted(CloudSim.clock());
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.cloudbus.cloudsim.Datacenter#isCloudletSubmitBatchSupported()
+	 */
+	@Override
+	public boolean isCloudletSubmitBatchSupported() {
+		return true;
+	}
+
 	/**
 	 * Gets the power.
 	 * 
@@ -26,6 +26,9 @@ package org.cloudbus.cloudsim.power.models;
  */
 public class PowerModelCubic implements PowerModel {
 
+	/** The Constant serialVersionUID. */
+	private static final long serialVersionUID = 1L;
+
 	/** The max power. */
 	private double maxPower;
 
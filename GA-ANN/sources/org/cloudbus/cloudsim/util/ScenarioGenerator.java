@@ -0,0 +1,298 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.CloudletSchedulerSpaceShared;
+import org.cloudbus.cloudsim.DatacenterBroker;
+import org.cloudbus.cloudsim.DatacenterCharacteristics;
+import org.cloudbus.cloudsim.Pe;
+import org.cloudbus.cloudsim.Storage;
+import org.cloudbus.cloudsim.UtilizationModel;
+import org.cloudbus.cloudsim.UtilizationModelFull;
+import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.VmSchedulerTimeShared;
+import org.cloudbus.cloudsim.core.SimulationContext;
+import org.cloudbus.cloudsim.power.PowerDatacenter;
+import org.cloudbus.cloudsim.power.PowerHost;
+import org.cloudbus.cloudsim.power.PowerHostUtilizationHistory;
+import org.cloudbus.cloudsim.power.PowerVmAllocationPolicySimple;
+import org.cloudbus.cloudsim.power.models.PowerModel;
+import org.cloudbus.cloudsim.power.models.PowerModelLinear;
+import org.cloudbus.cloudsim.provisioners.BwProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.PeProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.RamProvisionerSimple;
+
+/**
+ * ScenarioGenerator builds simulation scenarios of any size with the hardware of the examples:
+ * power datacenters of {@link PowerHostUtilizationHistory} hosts with three PEs of 400, 500 or 600
+ * MIPS and a slower one, VMs of 400, 500 or 600 MIPS with a space-shared cloudlet scheduler, and
+ * single-PE cloudlets whose lengths are drawn like the ones of the random dataset. The defaults are
+ * the scenario of the CloudSimulationExample: 6 datacenters of 3 hosts, 54 VMs and 1000 cloudlets.
+ * <p>
+ * The generator is meant for scenarios of up to hundreds of thousands of hosts and millions of
+ * cloudlets: the objects that can be shared, i.e. the power model and the utilization model, are,
+ * and the lists are allocated to their final size.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class ScenarioGenerator {
+
+	/** The MIPS of the fast PEs of the hosts and of the VMs. */
+	private static final int[] MIPS = { 400, 500, 600 };
+
+	/** The MIPS of the slow PE of the hosts. */
+	private static final int SLOW_PE_MIPS = 300;
+
+	/** The RAM of the VMs, in MB. */
+	private static final int[] VM_RAM = { 512, 1024, 2048 };
+
+	/** The number of datacenters. */
+	private int numDatacenters = 6;
+
+	/** The number of hosts of each datacenter. */
+	private int hostsPerDatacenter = 3;
+
+	/** The number of VMs. */
+	private int numVms = 54;
+
+	/** The number of cloudlets. */
+	private int numCloudlets = 1000;
+
+	/** The scheduling interval of the datacenters. */
+	private double schedulingInterval = 9;
+
+	/** The seed of the cloudlet lengths. */
+	private long seed = 1;
+
+	/** The datacenters of the last scenario. */
+	private List<PowerDatacenter> datacenters;
+
+	/**
+	 * Creates a generator of the scenario of the CloudSimulationExample.
+	 */
+	public ScenarioGenerator() {
+	}
+
+	/**
+	 * Creates a generator of the scenario of the CloudSimulationExample with the number of hosts,
+	 * VMs and cloudlets multiplied by a factor.
+	 *
+	 * @param scale the factor
+	 * @return the generator
+	 */
+	public static ScenarioGenerator scaled(int scale) {
+		ScenarioGenerator generator = new ScenarioGenerator();
+		generator.setHostsPerDatacenter(generator.getHostsPerDatacenter() * scale);
+		generator.setNumberOfVms(generator.getNumberOfVms() * scale);
+		generator.setNumberOfCloudlets(generator.getNumberOfCloudlets() * scale);
+		return generator;
+	}
+
+	/**
+	 * Builds the scenario in a context that has been initialised: the datacenters, then a broker
+	 * that has been given the VMs and the cloudlets.
+	 *
+	 * @param context the context
+	 * @return the broker
+	 * @throws Exception if an entity cannot be created
+	 */
+	public DatacenterBroker generate(SimulationContext context) throws Exception {
+		PowerModel powerModel = new PowerModelLinear(117, 50);
+		datacenters = new ArrayList<PowerDatacenter>(numDatacenters);
+		for (int i = 0; i < numDatacenters; i++) {
+			datacenters.add(createDatacenter("DataCenter_" + (i + 1), i * hostsPerDatacenter, powerModel,
+					context));
+		}
+
+		DatacenterBroker broker = new DatacenterBroker("Broker", context);
+		broker.submitVmList(createVms(broker.getId()));
+		broker.submitCloudletList(createCloudlets(broker.getId()));
+		return broker;
+	}
+
+	/**
+	 * Creates a datacenter.
+	 *
+	 * @param name the name
+	 * @param firstHostId the id of the first host
+	 * @param powerModel the power model of the hosts
+	 * @param context the context
+	 * @return the datacenter
+	 * @throws Exception if the datacenter cannot be created
+	 */
+	private PowerDatacenter createDatacenter(String name, int firstHostId, PowerModel powerModel,
+			SimulationContext context) throws Exception {
+		List<PowerHost> hostList = new ArrayList<PowerHost>(hostsPerDatacenter);
+		for (int i = 0; i < hostsPerDatacenter; i++) {
+			int mips = MIPS[i % MIPS.length];
+			List<Pe> peList = new ArrayList<Pe>(4);
+			for (int j = 0; j < 3; j++) {
+				peList.add(new Pe(j, new PeProvisionerSimple(mips)));
+			}
+			peList.add(new Pe(3, new PeProvisionerSimple(SLOW_PE_MIPS)));
+			hostList.add(new PowerHostUtilizationHistory(firstHostId + i, new RamProvisionerSimple(128000),
+					new BwProvisionerSimple(10000), 1000000, peList, new VmSchedulerTimeShared(peList),
+					powerModel));
+		}
+
+		DatacenterCharacteristics characteristics = new DatacenterCharacteristics("x86", "Linux", "Xen",
+				hostList, 10.0, 3.0, 0.05, 0.1, 0.1);
+		return new PowerDatacenter(name, characteristics, new PowerVmAllocationPolicySimple(hostList),
+				new LinkedList<Storage>(), schedulingInterval, context);
+	}
+
+	/**
+	 * Creates the VMs.
+	 *
+	 * @param userId the id of the broker
+	 * @return the VMs
+	 */
+	private List<Vm> createVms(int userId) {
+		List<Vm> list = new ArrayList<Vm>(numVms);
+		for (int i = 0; i < numVms; i++) {
+			list.add(new Vm(i, userId, MIPS[i % MIPS.length], 1, VM_RAM[i % VM_RAM.length], 1000, 10000, "Xen",
+					new CloudletSchedulerSpaceShared()));
+		}
+		return list;
+	}
+
+	/**
+	 * Creates the cloudlets.
+	 *
+	 * @param userId the id of the broker
+	 * @return the cloudlets
+	 */
+	private List<Cloudlet> createCloudlets(int userId) {
+		Random random = new Random(seed);
+		UtilizationModel utilizationModel = new UtilizationModelFull();
+		List<Cloudlet> list = new ArrayList<Cloudlet>(numCloudlets);
+		for (int i = 0; i < numCloudlets; i++) {
+			Cloudlet cloudlet = new Cloudlet(i, 11000 + random.nextInt(40000), 1, 300, 300, utilizationModel,
+					utilizationModel, utilizationModel);
+			cloudlet.setUserId(userId);
+			list.add(cloudlet);
+		}
+		return list;
+	}
+
+	/**
+	 * Gets the datacenters of the last scenario built.
+	 *
+	 * @return the datacenters, or null
+	 */
+	public List<PowerDatacenter> getDatacenters() {
+		return datacenters;
+	}
+
+	/**
+	 * Gets the number of datacenters.
+	 *
+	 * @return the number of datacenters
+	 */
+	public int getNumberOfDatacenters() {
+		return numDatacenters;
+	}
+
+	/**
+	 * Sets the number of datacenters.
+	 *
+	 * @param numDatacenters the number of datacenters
+	 */
+	public void setNumberOfDatacenters(int numDatacenters) {
+		this.numDatacenters = numDatacenters;
+	}
+
+	/**
+	 * Gets the number of hosts of each datacenter.
+	 *
+	 * @return the number of hosts
+	 */
+	public int getHostsPerDatacenter() {
+		return hostsPerDatacenter;
+	}
+
+	/**
+	 * Sets the number of hosts of each datacenter.
+	 *
+	 * @param hostsPerDatacenter the number of hosts
+	 */
+	public void setHostsPerDatacenter(int hostsPerDatacenter) {
+		this.hostsPerDatacenter = hostsPerDatacenter;
+	}
+
+	/**
+	 * Gets the number of VMs.
+	 *
+	 * @return the number of VMs
+	 */
+	public int getNumberOfVms() {
+		return numVms;
+	}
+
+	/**
+	 * Sets the number of VMs.
+	 *
+	 * @param numVms the number of VMs
+	 */
+	public void setNumberOfVms(int numVms) {
+		this.numVms = numVms;
+	}
+
+	/**
+	 * Gets the number of cloudlets.
+	 *
+	 * @return the number of cloudlets
+	 */
+	public int getNumberOfCloudlets() {
+		return numCloudlets;
+	}
+
+	/**
+	 * Sets the number of cloudlets.
+	 *
+	 * @param numCloudlets the number of cloudlets
+	 */
+	public void setNumberOfCloudlets(int numCloudlets) {
+		this.numCloudlets = numCloudlets;
+	}
+
+	/**
+	 * Gets the scheduling interval of the datacenters.
+	 *
+	 * @return the scheduling interval
+	 */
+	public double getSchedulingInterval() {
+		return schedulingInterval;
+	}
+
+	/**
+	 * Sets the scheduling interval of the datacenters.
+	 *
+	 * @param schedulingInterval the scheduling interval
+	 */
+	public void setSchedulingInterval(double schedulingInterval) {
+		this.schedulingInterval = schedulingInterval;
+	}
+
+	/**
+	 * Sets the seed of the cloudlet lengths.
+	 *
+	 * @param seed the seed
+	 */
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+
+}
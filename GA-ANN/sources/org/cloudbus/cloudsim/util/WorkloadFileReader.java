@@ -8,19 +8,23 @@
 
 package org.cloudbus.cloudsim.util;
 
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.ArrayList;
-import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import java.util.zip.GZIPInputStream;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
 
 import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.Log;
 import org.cloudbus.cloudsim.UtilizationModel;
 import org.cloudbus.cloudsim.UtilizationModelFull;
 
@@ -35,7 +39,11 @@ import org.cloudbus.cloudsim.UtilizationModelFull;
  * class <tt>each with a unique 
  *      	 entity name</tt>.
  * <li>If size of the trace file is huge or contains lots of traces please increase the JVM heap
- * size accordingly by using <tt>java -Xmx</tt> option when running the simulation.
+ * size accordingly by using <tt>java -Xmx</tt> option when running the simulation, or read the
+ * jobs one at a time with {@link #openStream()}.
+ * <li>The fields are parsed from the bytes of the file, which must be in an ASCII compatible
+ * encoding. A plain text file is memory-mapped in chunks of whole lines that are parsed in
+ * parallel; zip and gz files are read as streams.
  * <li>The default job file size for sending to and receiving from a resource is
  * {@link gridsim.net.Link#DEFAULT_MTU}. However, you can specify the file size by using
  * {@link #setGridletFileSize(int)}.
@@ -96,7 +104,14 @@ public class WorkloadFileReader implements WorkloadModel {
 	// comment
 	private static final int IRRELEVANT = -1; // irrelevant number
 
-	private String[] fieldArray = null; // a temp array storing all the fields
+	/** The size of the chunks a plain trace file is split into, to be parsed in parallel. */
+	private static final int CHUNK_SIZE = 1 << 24;
+
+	/** The size of the buffer of a stream of jobs. */
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	/** The pool the chunks are parsed on, or null. */
+	private ForkJoinPool pool;
 
 	/**
 	 * Create a new {@link WorkloadFileReader} object.
@@ -132,32 +147,69 @@ public class WorkloadFileReader implements WorkloadModel {
 	/**
 	 * Reads job information from a given file.
 	 * 
-	 * @return the list of gridlets read from the file; <code>null</code> in case of failure.
+	 * @return the list of gridlets read from the file; <code>null</code> in case of failure, e.g.
+	 *         if a part of the file cannot be read.
 	 */
 	@Override
 	public ArrayList<Cloudlet> generateWorkload() {
 		if (jobs == null) {
 			jobs = new ArrayList<Cloudlet>();
 
-			// create a temp array
-			fieldArray = new String[MAX_FIELD];
+			if (!file.getName().endsWith(".gz") && !file.getName().endsWith(".zip")) {
+				try {
+					readMappedFile(file);
+				} catch (final IOException e) {
+					Log.printLine("Workload trace " + file + " can't be read: " + e.getMessage());
+					jobs = null;
+				}
+				return jobs;
+			}
 
+			WorkloadStream stream = null;
 			try {
-				if (file.getName().endsWith(".gz")) {
-					readGZIPFile(file);
-				} else if (file.getName().endsWith(".zip")) {
-					readZipFile(file);
-				} else {
-					readFile(file);
+				stream = openStream();
+				Cloudlet job;
+				while ((job = stream.next()) != null) {
+					jobs.add(job);
 				}
-			} catch (final FileNotFoundException e) {
 			} catch (final IOException e) {
+				Log.printLine("Workload trace " + file + " can't be read: " + e.getMessage());
+				jobs = null;
+			} finally {
+				if (stream != null) {
+					try {
+						stream.close();
+					} catch (final IOException e) {
+					}
+				}
 			}
 		}
 
 		return jobs;
 	}
 
+	/**
+	 * Opens the trace file for reading its jobs one at a time, in the order of the file, without
+	 * keeping them. Every call opens a new stream, which must be closed.
+	 * 
+	 * @return the stream of jobs
+	 * @throws IOException if the file cannot be opened
+	 */
+	public WorkloadStream openStream() throws IOException {
+		return new JobStream(file);
+	}
+
+	/**
+	 * Sets the pool the chunks of a plain trace file are parsed on. If no pool is set, each call
+	 * of {@link #generateWorkload()} on a large file creates a pool with one thread per processor
+	 * and shuts it down at the end.
+	 * 
+	 * @param pool the pool, or <tt>null</tt>
+	 */
+	public void setPool(final ForkJoinPool pool) {
+		this.pool = pool;
+	}
+
 	/**
 	 * Identifies the start of a comment line.
 	 * 
@@ -249,7 +301,7 @@ public class WorkloadFileReader implements WorkloadModel {
 	// ------------------- PRIVATE METHODS -------------------
 
 	/**
-	 * Creates a Gridlet with the given information and adds to the list
+	 * Creates a Gridlet with the given information
 	 * 
 	 * @param id a Gridlet ID
 	 * @param submitTime Gridlet's submit time
@@ -258,13 +310,14 @@ public class WorkloadFileReader implements WorkloadModel {
 	 * @param reqRunTime user estimated run time
 	 * @param userID user id
 	 * @param groupID user's group id
+	 * @return the Gridlet
 	 * @pre id >= 0
 	 * @pre submitTime >= 0
 	 * @pre runTime >= 0
 	 * @pre numProc > 0
 	 * @post $none
 	 */
-	private void createJob(
+	private Cloudlet createJob(
 			final int id,
 			final long submitTime,
 			final int runTime,
@@ -284,212 +337,548 @@ public class WorkloadFileReader implements WorkloadModel {
 				utilizationModel,
 				utilizationModel,
 				utilizationModel);
-		jobs.add(wgl);
+		return wgl;
 	}
 
 	/**
-	 * Extracts relevant information from a given array
+	 * Reads a plain text file: the file is split into chunks of whole lines, which are mapped and
+	 * parsed in parallel, then the jobs are created in the order of the file.
 	 * 
-	 * @param array an array of String
-	 * @param line a line number
-	 * @pre array != null
-	 * @pre line > 0
+	 * @param fl a file name
+	 * @throws IOException if the there was any error reading the file
 	 */
-	private void extractField(final String[] array, final int line) {
+	private void readMappedFile(final File fl) throws IOException {
+		final RandomAccessFile raf = new RandomAccessFile(fl, "r");
 		try {
-			Integer obj = null;
+			final FileChannel channel = raf.getChannel();
+			final long length = channel.size();
+
+			// split the file after the line break that follows every CHUNK_SIZE bytes
+			final List<Chunk> chunks = new ArrayList<Chunk>();
+			final ByteBuffer probe = ByteBuffer.allocate(4096);
+			long start = 0;
+			while (start < length) {
+				long end = start + CHUNK_SIZE;
+				if (end >= length) {
+					end = length;
+				} else {
+					end = nextLine(channel, end, probe);
+				}
+				chunks.add(new Chunk(channel, start, end));
+				start = end;
+			}
 
-			// get the job number
-			int id = 0;
-			if (JOB_NUM == IRRELEVANT) {
-				id = jobs.size() + 1;
-			} else {
-				obj = new Integer(array[JOB_NUM].trim());
-				id = obj.intValue();
+			if (chunks.size() == 1) {
+				chunks.get(0).parse();
+			} else if (chunks.size() > 1) {
+				final ForkJoinPool parsePool = pool == null ? new ForkJoinPool() : pool;
+				try {
+					parsePool.invoke(new ChunkTask(chunks, 0, chunks.size()));
+				} finally {
+					if (pool == null) {
+						parsePool.shutdown();
+					}
+				}
+				for (final Chunk chunk : chunks) {
+					if (chunk.error != null) {
+						throw chunk.error;
+					}
+				}
+			}
+
+			int numJobs = 0;
+			for (final Chunk chunk : chunks) {
+				numJobs += chunk.numJobs;
+			}
+			jobs.ensureCapacity(numJobs);
+			for (final Chunk chunk : chunks) {
+				final int[] columns = chunk.columns;
+				for (int i = 0; i < chunk.numJobs * Chunk.STRIDE; i += Chunk.STRIDE) {
+					final int id = JOB_NUM == IRRELEVANT ? jobs.size() + 1 : columns[i];
+					jobs.add(createJob(id, columns[i + 1], columns[i + 2], columns[i + 3], columns[i + 4],
+							columns[i + 5], columns[i + 6]));
+				}
+			}
+		} finally {
+			raf.close();
+		}
+	}
+
+	/**
+	 * Finds the start of the line that follows a position of a file.
+	 * 
+	 * @param channel the file
+	 * @param position the position
+	 * @param probe a buffer to read the file with
+	 * @return the position after the first line break at or after the position, or the length of
+	 *         the file
+	 * @throws IOException if the there was any error reading the file
+	 */
+	private static long nextLine(final FileChannel channel, long position, final ByteBuffer probe)
+			throws IOException {
+		while (true) {
+			probe.clear();
+			final int read = channel.read(probe, position);
+			if (read <= 0) {
+				return channel.size();
+			}
+			for (int i = 0; i < read; i++) {
+				final byte b = probe.get(i);
+				if (b == '\n' || b == '\r') {
+					return position + i + 1;
+				}
 			}
+			position += read;
+		}
+	}
 
-			// get the submit time
-			final Long l = new Long(array[SUBMIT_TIME].trim());
-			final long submitTime = l.intValue();
+	/**
+	 * Parses the lines of a trace into the fields of a job. The values are parsed from the bytes of
+	 * the lines without creating strings. A parser is not thread-safe.
+	 */
+	private final class LineParser {
+
+		/** The column of the job number. */
+		static final int JOB = 0;
+
+		/** The column of the submit time. */
+		static final int SUBMIT = 1;
+
+		/** The column of the run time. */
+		static final int RUN = 2;
+
+		/** The column of the number of processors. */
+		static final int PROC = 3;
+
+		/** The column of the user estimated run time. */
+		static final int REQ_RUN = 4;
+
+		/** The column of the user id. */
+		static final int USER = 5;
+
+		/** The column of the group id. */
+		static final int GROUP = 6;
+
+		/** The column of the required number of processors. */
+		static final int REQ_PROC = 7;
+
+		/** The field of each column, or IRRELEVANT. */
+		private final int[] fields = { JOB_NUM, SUBMIT_TIME, RUN_TIME, NUM_PROC, REQ_RUN_TIME, USER_ID,
+				GROUP_ID, REQ_NUM_PROC };
 
-			// get the user estimated run time
-			obj = new Integer(array[REQ_RUN_TIME].trim());
-			final int reqRunTime = obj.intValue();
+		/** The bytes of the comment string. */
+		private final byte[] comment = COMMENT.getBytes();
 
-			// if the required run time field is ignored, then use
-			// the actual run time
-			obj = new Integer(array[RUN_TIME].trim());
-			int runTime = obj.intValue();
+		/** The max. number of fields of a line. */
+		private final int maxField = MAX_FIELD;
 
-			final int userID = new Integer(array[USER_ID].trim()).intValue();
-			final int groupID = new Integer(array[GROUP_ID].trim()).intValue();
+		/** The values of the columns of the last line parsed. */
+		final long[] values = new long[fields.length];
+
+		/** The columns of the last line parsed that hold a valid number, as bits. */
+		private int valid;
+
+		/**
+		 * Parses a line, then fills the values of the columns a job is made of: a run time of 0 is
+		 * taken as 1 second, and the number of processors falls back to the allocated one, then
+		 * to 1.
+		 * 
+		 * @param buf the bytes
+		 * @param start the index of the first byte of the line
+		 * @param end the index after the last byte of the line
+		 * @return <code>true</code> if the line is a job, <code>false</code> if it is a comment or
+		 *         is invalid
+		 */
+		boolean parse(final ByteBuffer buf, final int start, final int end) {
+			// skip a comment line
+			if (end - start >= comment.length) {
+				int i = 0;
+				while (i < comment.length && buf.get(start + i) == comment[i]) {
+					i++;
+				}
+				if (i == comment.length) {
+					return false;
+				}
+			}
+
+			valid = 0;
+			int field = 0;
+			int i = start;
+			while (true) {
+				while (i < end && isSpace(buf.get(i))) {
+					i++;
+				}
+				if (i == end) {
+					break;
+				}
+				if (field == maxField) {
+					return false;
+				}
+				int tokenEnd = i;
+				while (tokenEnd < end && !isSpace(buf.get(tokenEnd))) {
+					tokenEnd++;
+				}
+				for (int column = 0; column < fields.length; column++) {
+					if (fields[column] == field) {
+						parseNumber(buf, i, tokenEnd, column);
+					}
+				}
+				field++;
+				i = tokenEnd;
+			}
+			if (field != maxField) {
+				return false;
+			}
+
+			// the columns that must hold a valid number
+			int required = 1 << SUBMIT | 1 << RUN | 1 << REQ_RUN | 1 << USER | 1 << GROUP | 1 << REQ_PROC;
+			if (fields[JOB] != IRRELEVANT) {
+				required |= 1 << JOB;
+			}
+			if ((valid & required) != required) {
+				return false;
+			}
+
+			// the submit time is read as a long, but kept as an int
+			values[SUBMIT] = (int) values[SUBMIT];
 
 			// according to the SWF manual, runtime of 0 is possible due
 			// to rounding down. E.g. runtime is 0.4 seconds -> runtime = 0
-			if (runTime <= 0) {
-				runTime = 1; // change to 1 second
+			if (values[RUN] <= 0) {
+				values[RUN] = 1; // change to 1 second
 			}
 
-			// get the number of allocated processors
-			obj = new Integer(array[REQ_NUM_PROC].trim());
-			int numProc = obj.intValue();
-
 			// if the required num of allocated processors field is ignored
 			// or zero, then use the actual field
+			long numProc = values[REQ_PROC];
 			if (numProc == IRRELEVANT || numProc == 0) {
-				obj = new Integer(array[NUM_PROC].trim());
-				numProc = obj.intValue();
+				if ((valid & 1 << PROC) == 0) {
+					return false;
+				}
+				numProc = values[PROC];
 			}
 
 			// finally, check if the num of PEs required is valid or not
-			if (numProc <= 0) {
-				numProc = 1;
-			}
-			createJob(id, submitTime, runTime, numProc, reqRunTime, userID, groupID);
-		} catch (final Exception e) {
+			values[PROC] = numProc <= 0 ? 1 : numProc;
+			return true;
+		}
 
+		/**
+		 * Parses a token as a number, as {@link Integer#valueOf(String)} does, or as
+		 * {@link Long#valueOf(String)} does for the submit time.
+		 * 
+		 * @param buf the bytes
+		 * @param start the index of the first byte of the token
+		 * @param end the index after the last byte of the token
+		 * @param column the column of the token
+		 */
+		private void parseNumber(final ByteBuffer buf, int start, final int end, final int column) {
+			boolean negative = false;
+			final byte sign = buf.get(start);
+			if (sign == '-' || sign == '+') {
+				negative = sign == '-';
+				start++;
+			}
+			if (start == end || end - start > 18) {
+				return;
+			}
+			long value = 0;
+			for (int i = start; i < end; i++) {
+				final int digit = buf.get(i) - '0';
+				if (digit < 0 || digit > 9) {
+					return;
+				}
+				value = value * 10 + digit;
+			}
+			if (negative) {
+				value = -value;
+			}
+			if (column != SUBMIT && (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE)) {
+				return;
+			}
+			values[column] = value;
+			valid |= 1 << column;
 		}
+
 	}
 
 	/**
-	 * Breaks a line of string into many fields.
+	 * Checks whether a byte separates the fields of a line.
 	 * 
-	 * @param line a line of string
-	 * @param lineNum a line number
-	 * @pre line != null
-	 * @pre lineNum > 0
-	 * @post $none
+	 * @param b the byte
+	 * @return <code>true</code> if it is a white space
 	 */
-	private void parseValue(final String line, final int lineNum) {
-		// skip a comment line
-		if (line.startsWith(COMMENT)) {
-			return;
-		}
+	private static boolean isSpace(final byte b) {
+		return b == ' ' || b == '\t' || b == '\r' || b == '\f' || b == 0x0B;
+	}
 
-		final String[] sp = line.split("\\s+"); // split the fields based on a
-		// space
-		int len = 0; // length of a string
-		int index = 0; // the index of an array
+	/**
+	 * Checks whether a byte ends a line.
+	 * 
+	 * @param b the byte
+	 * @return <code>true</code> if it is a line break
+	 */
+	private static boolean isLineBreak(final byte b) {
+		return b == '\n' || b == '\r';
+	}
 
-		// check for each field in the array
-		for (final String elem : sp) {
-			len = elem.length(); // get the length of a string
+	/**
+	 * A chunk of whole lines of a plain text file. Its jobs are parsed into an array of columns,
+	 * so that they can be created in the order of the file once every chunk has been parsed.
+	 */
+	private final class Chunk {
 
-			// if it is empty then ignore
-			if (len == 0) {
-				continue;
-			}
-			fieldArray[index] = elem;
-			index++;
+		/** The number of columns of a job. */
+		static final int STRIDE = 7;
+
+		/** The file. */
+		private final FileChannel channel;
+
+		/** The position of the first byte of the chunk. */
+		private final long position;
+
+		/** The number of bytes of the chunk. */
+		private final int size;
+
+		/** The columns of the jobs, STRIDE per job. */
+		int[] columns = new int[0];
+
+		/** The number of jobs. */
+		int numJobs;
+
+		/** The error that stopped the parsing of the chunk in a task, or null. */
+		IOException error;
+
+		Chunk(final FileChannel channel, final long start, final long end) {
+			this.channel = channel;
+			position = start;
+			size = (int) (end - start);
 		}
 
-		if (index == MAX_FIELD) {
-			extractField(fieldArray, lineNum);
+		/**
+		 * Parses the lines of the chunk.
+		 * 
+		 * @throws IOException if the chunk cannot be mapped
+		 */
+		void parse() throws IOException {
+			final ByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+			// about 80 bytes per line in SWF traces
+			columns = new int[Math.max(16, size / 80) * STRIDE];
+			final LineParser parser = new LineParser();
+			final long[] values = parser.values;
+			int start = 0;
+			while (start < size) {
+				int end = start;
+				while (end < size && !isLineBreak(buf.get(end))) {
+					end++;
+				}
+				if (parser.parse(buf, start, end)) {
+					if ((numJobs + 1) * STRIDE > columns.length) {
+						final int[] larger = new int[columns.length * 2];
+						System.arraycopy(columns, 0, larger, 0, columns.length);
+						columns = larger;
+					}
+					final int i = numJobs * STRIDE;
+					columns[i] = (int) values[LineParser.JOB];
+					columns[i + 1] = (int) values[LineParser.SUBMIT];
+					columns[i + 2] = (int) values[LineParser.RUN];
+					columns[i + 3] = (int) values[LineParser.PROC];
+					columns[i + 4] = (int) values[LineParser.REQ_RUN];
+					columns[i + 5] = (int) values[LineParser.USER];
+					columns[i + 6] = (int) values[LineParser.GROUP];
+					numJobs++;
+				}
+				start = end + 1;
+			}
 		}
+
 	}
 
 	/**
-	 * Reads a text file one line at the time
-	 * 
-	 * @param fl a file name
-	 * @return <code>true</code> if successful, <code>false</code> otherwise.
-	 * @throws IOException if the there was any error reading the file
-	 * @throws FileNotFoundException if the file was not found
+	 * Parses a range of chunks, split in halves until a single chunk is left.
 	 */
-	private boolean readFile(final File fl) throws IOException, FileNotFoundException {
-		boolean success = false;
-		BufferedReader reader = null;
-		try {
-			reader = new BufferedReader(new InputStreamReader(new FileInputStream(fl)));
+	private final class ChunkTask extends RecursiveAction {
 
-			// read one line at the time
-			int line = 1;
-			while (reader.ready()) {
-				parseValue(reader.readLine(), line);
-				line++;
-			}
+		private static final long serialVersionUID = 1L;
 
-			reader.close();
-			success = true;
-		} finally {
-			if (reader != null) {
-				reader.close();
+		/** The chunks. */
+		private final List<Chunk> chunks;
+
+		/** The index of the first chunk. */
+		private final int from;
+
+		/** The index after the last chunk. */
+		private final int to;
+
+		ChunkTask(final List<Chunk> chunks, final int from, final int to) {
+			this.chunks = chunks;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > 1) {
+				final int middle = (from + to) >>> 1;
+				invokeAll(new ChunkTask(chunks, from, middle), new ChunkTask(chunks, middle, to));
+				return;
+			}
+			final Chunk chunk = chunks.get(from);
+			try {
+				chunk.parse();
+			} catch (final IOException e) {
+				// rethrown by readMappedFile once every chunk has been parsed
+				chunk.error = e;
 			}
 		}
 
-		return success;
 	}
 
 	/**
-	 * Reads a gzip file one line at the time
-	 * 
-	 * @param fl a gzip file name
-	 * @return <code>true</code> if successful; <code>false</code> otherwise.
-	 * @throws IOException if the there was any error reading the file
-	 * @throws FileNotFoundException if the file was not found
+	 * Reads the jobs of a trace file one line at the time, through a buffer that lines are parsed
+	 * from without creating strings. Zip files are read one entry after the other.
 	 */
-	private boolean readGZIPFile(final File fl) throws IOException, FileNotFoundException {
-		boolean success = false;
-		BufferedReader reader = null;
-		try {
-			reader = new BufferedReader(new InputStreamReader(new GZIPInputStream(new FileInputStream(fl))));
+	private class JobStream implements WorkloadStream {
 
-			// read one line at the time
-			int line = 1;
-			while (reader.ready()) {
-				parseValue(reader.readLine(), line);
-				line++;
-			}
+		/** The input of the current file or zip entry, or null at the end. */
+		private InputStream in;
 
-			reader.close();
-			success = true;
-		} finally {
-			if (reader != null) {
-				reader.close();
+		/** The zip file, or null if the file is not a zip file. */
+		private ZipInputStream zip;
+
+		/** Whether the end of the current file or zip entry has been reached. */
+		private boolean endOfInput;
+
+		/** The bytes read and not parsed yet. */
+		private byte[] buffer = new byte[BUFFER_SIZE];
+
+		/** The buffer, as a byte buffer. */
+		private ByteBuffer view = ByteBuffer.wrap(buffer);
+
+		/** The index of the first byte not parsed yet. */
+		private int position;
+
+		/** The index after the last byte read. */
+		private int limit;
+
+		/** The parser of the lines. */
+		private final LineParser parser = new LineParser();
+
+		/** The number of jobs read. */
+		private int numJobs = 0;
+
+		/** The submit time of the job last read. */
+		private long submitTime = 0;
+
+		/**
+		 * Opens a trace file.
+		 * 
+		 * @param fl the trace file in one of the following format: <i>ASCII text, zip, gz.</i>
+		 * @throws IOException if the file cannot be opened
+		 */
+		public JobStream(final File fl) throws IOException {
+			InputStream input = new FileInputStream(fl);
+			try {
+				if (fl.getName().endsWith(".gz")) {
+					input = new GZIPInputStream(input, BUFFER_SIZE);
+				} else if (fl.getName().endsWith(".zip")) {
+					zip = new ZipInputStream(input);
+					input = zip;
+					if (zip.getNextEntry() == null) {
+						zip.close();
+						return;
+					}
+				}
+			} catch (final IOException e) {
+				input.close();
+				throw e;
 			}
+			in = input;
 		}
 
-		return success;
-	}
+		@Override
+		public Cloudlet next() throws IOException {
+			while (in != null) {
+				int end = position;
+				while (end < limit && !isLineBreak(buffer[end])) {
+					end++;
+				}
+				if (end == limit && !endOfInput) {
+					fill();
+					continue;
+				}
+				if (end == limit && position == limit) {
+					nextEntry();
+					continue;
+				}
 
-	/**
-	 * Reads a Zip file.
-	 * 
-	 * @param fl a zip file name
-	 * @return <code>true</code> if reading a file is successful; <code>false</code> otherwise.
-	 * @throws IOException if the there was any error reading the file
-	 */
-	private boolean readZipFile(final File fl) throws IOException {
-		boolean success = false;
-		ZipFile zipFile = null;
-		try {
-			BufferedReader reader = null;
-
-			// ZipFile offers an Enumeration of all the files in the file
-			zipFile = new ZipFile(fl);
-			final Enumeration<? extends ZipEntry> e = zipFile.entries();
-			while (e.hasMoreElements()) {
-				success = false; // reset the value again
-				final ZipEntry zipEntry = e.nextElement();
-
-				reader = new BufferedReader(new InputStreamReader(zipFile.getInputStream(zipEntry)));
-
-				// read one line at the time
-				int line = 1;
-				while (reader.ready()) {
-					parseValue(reader.readLine(), line);
-					line++;
+				final int start = position;
+				position = Math.min(end + 1, limit);
+				if (parser.parse(view, start, end)) {
+					final long[] values = parser.values;
+					final int id = JOB_NUM == IRRELEVANT ? numJobs + 1 : (int) values[LineParser.JOB];
+					submitTime = values[LineParser.SUBMIT];
+					numJobs++;
+					return createJob(id, submitTime, (int) values[LineParser.RUN], (int) values[LineParser.PROC],
+							(int) values[LineParser.REQ_RUN], (int) values[LineParser.USER],
+							(int) values[LineParser.GROUP]);
 				}
+			}
+			return null;
+		}
+
+		@Override
+		public double getSubmitTime() {
+			return submitTime;
+		}
 
-				reader.close();
-				success = true;
+		@Override
+		public void close() throws IOException {
+			if (in != null) {
+				in.close();
+				in = null;
 			}
-		} finally {
-			if (zipFile != null) {
-				zipFile.close();
+		}
+
+		/**
+		 * Reads more bytes after the ones not parsed yet, growing the buffer if a line does not
+		 * fit in it.
+		 * 
+		 * @throws IOException if the file cannot be read
+		 */
+		private void fill() throws IOException {
+			if (position > 0) {
+				System.arraycopy(buffer, position, buffer, 0, limit - position);
+				limit -= position;
+				position = 0;
+			}
+			if (limit == buffer.length) {
+				final byte[] larger = new byte[buffer.length * 2];
+				System.arraycopy(buffer, 0, larger, 0, limit);
+				buffer = larger;
+				view = ByteBuffer.wrap(buffer);
+			}
+			final int read = in.read(buffer, limit, buffer.length - limit);
+			if (read < 0) {
+				endOfInput = true;
+			} else {
+				limit += read;
+			}
+		}
+
+		/**
+		 * Moves to the next entry of a zip file, or to the end of the stream.
+		 * 
+		 * @throws IOException if the file cannot be read
+		 */
+		private void nextEntry() throws IOException {
+			if (zip != null && zip.getNextEntry() != null) {
+				endOfInput = false;
+			} else {
+				close();
 			}
 		}
 
-		return success;
 	}
+
 }
@@ -0,0 +1,47 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+import java.io.IOException;
+
+import org.cloudbus.cloudsim.Cloudlet;
+
+/**
+ * A workload stream gives the jobs of a workload one at a time, with the time at which each one
+ * was submitted, without keeping the jobs it has given. It lets a broker replay traces that are
+ * too large to be held in memory.
+ *
+ * @since CloudSim Toolkit 3.0
+ * @see WorkloadFileReader#openStream()
+ */
+public interface WorkloadStream {
+
+	/**
+	 * Reads the next job of the workload.
+	 *
+	 * @return the job, or null if there are no more jobs
+	 * @throws IOException if the workload cannot be read
+	 */
+	Cloudlet next() throws IOException;
+
+	/**
+	 * Gets the time at which the job last read was submitted.
+	 *
+	 * @return the submit time, in seconds from the start of the workload
+	 */
+	double getSubmitTime();
+
+	/**
+	 * Releases the resources held by the stream.
+	 *
+	 * @throws IOException if the stream cannot be closed
+	 */
+	void close() throws IOException;
+
+}